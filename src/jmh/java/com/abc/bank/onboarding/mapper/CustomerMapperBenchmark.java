@@ -0,0 +1,47 @@
+package com.abc.bank.onboarding.mapper;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+//request to entity mapping, the documents are references to the store
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMapperBenchmark {
+
+    private final CustomerOnboardRequest request = new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE,
+            LocalDate.of(1985, 5, 15), "+31612345678", "seif.jemli@domain.com", "NL",
+            "Gustav Mahlerlaan 10, 1082 PP Amsterdam, Netherlands", "123456782");
+    private final DocumentReference idProof = new DocumentReference("a".repeat(64), 1024, "application/pdf");
+    private final DocumentReference photo = new DocumentReference("b".repeat(64), 2048, "image/png");
+
+    @Benchmark
+    @Threads(1)
+    public Customer singleThread() {
+        return CustomerMapper.toCustomer(request, idProof, photo);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Customer contended() {
+        return CustomerMapper.toCustomer(request, idProof, photo);
+    }
+}
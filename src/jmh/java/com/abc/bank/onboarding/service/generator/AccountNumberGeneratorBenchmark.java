@@ -0,0 +1,73 @@
+package com.abc.bank.onboarding.service.generator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Account number generation from reserved blocks. One generator is shared by all the benchmark threads, as in the
+ * application, so the contended case measures the counter of the current block and the refills under contention.
+ * Blocks come from memory: the database reservation is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountNumberGeneratorBenchmark {
+
+    private static final long BLOCK_SIZE = 1000;
+
+    private AccountNumberGenerator generator;
+
+    @Setup
+    public void setUp() {
+        // the next block is reserved inline instead of in the background
+        generator = new AccountNumberGenerator(new InMemoryAllocator(), Runnable::run);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String singleThread() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String contended() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String iban() {
+        return AccountNumberGenerator.toIban(1234567L);
+    }
+
+    private static final class InMemoryAllocator extends AccountNumberBlockAllocator {
+
+        private final AtomicLong nextBlock = new AtomicLong(1);
+
+        private InMemoryAllocator() {
+            super(null);
+        }
+
+        @Override
+        public AccountNumberRange reserve() {
+            long start = nextBlock.getAndIncrement() * BLOCK_SIZE;
+            return new AccountNumberRange(start, start + BLOCK_SIZE);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.abc.bank.onboarding.service.validation;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.exception.ValidationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+//Validation of a whole onboarding request, valid or with every field invalid (violations and their messages), by the
+//specialized validator the service uses or by the generic Bean Validation it replaces
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestValidationServiceBenchmark {
+
+    private static final CustomerOnboardRequest VALID = new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE,
+            LocalDate.of(1985, 5, 15), "+31612345678", "seif.jemli@domain.com", "NL",
+            "Gustav Mahlerlaan 10, 1082 PP Amsterdam, Netherlands", "123456782");
+    private static final CustomerOnboardRequest INVALID = new CustomerOnboardRequest("Seif1", "", null,
+            LocalDate.now().minusYears(10), "12345", "not-an-email", "nl", "", "123456789");
+
+    @Param({"valid", "invalid"})
+    private String payload;
+
+    @Param({"specialized", "bean-validation"})
+    private String validator;
+
+    private ValidatorFactory validatorFactory;
+    private Validator beanValidator;
+    private RequestValidationService service;
+    private CustomerOnboardRequest request;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+        service = new RequestValidationService(beanValidator,
+                new CustomerOnboardRequestValidator(beanValidator));
+        request = "valid".equals(payload) ? VALID : INVALID;
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String singleThread() {
+        return validate();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String contended() {
+        return validate();
+    }
+
+    private String validate() {
+        if ("bean-validation".equals(validator)) {
+            Set<ConstraintViolation<CustomerOnboardRequest>> violations = beanValidator.validate(request);
+            return violations.isEmpty() ? null : violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            service.validate(request);
+            return null;
+        } catch (ValidationException ex) {
+            return ex.getMessage();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.abc.bank.onboarding.validator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+//age check of an adult and of a minor, each call reads the clock (LocalDate.now)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdultValidatorBenchmark {
+
+    private final AdultValidator validator = new AdultValidator();
+
+    @Param({"adult", "minor"})
+    private String age;
+
+    private LocalDate dateOfBirth;
+
+    @Setup
+    public void setUp() {
+        dateOfBirth = "adult".equals(age) ? LocalDate.of(1985, 5, 15) : LocalDate.now().minusYears(10);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean singleThread() {
+        return validator.isValid(dateOfBirth, null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contended() {
+        return validator.isValid(dateOfBirth, null);
+    }
+}
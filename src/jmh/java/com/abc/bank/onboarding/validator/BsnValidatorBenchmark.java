@@ -0,0 +1,42 @@
+package com.abc.bank.onboarding.validator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//11-proef of a BSN that passes and of one that fails the checksum
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BsnValidatorBenchmark {
+
+    private final BsnValidator validator = new BsnValidator();
+
+    @Param({"123456782", "123456789"})
+    private String bsn;
+
+    @Benchmark
+    @Threads(1)
+    public boolean singleThread() {
+        return validator.isValid(bsn, null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contended() {
+        return validator.isValid(bsn, null);
+    }
+}
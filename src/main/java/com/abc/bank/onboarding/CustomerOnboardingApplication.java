@@ -3,10 +3,12 @@ package com.abc.bank.onboarding;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableAsync
+@ConfigurationPropertiesScan
+@EnableScheduling
 @Slf4j
 public class CustomerOnboardingApplication {
 
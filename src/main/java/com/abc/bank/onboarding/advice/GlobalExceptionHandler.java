@@ -1,7 +1,12 @@
 package com.abc.bank.onboarding.advice;
 
+import com.abc.bank.onboarding.exception.ApplicationNotFoundException;
+import com.abc.bank.onboarding.exception.BulkRequestTooLargeException;
+import com.abc.bank.onboarding.exception.CustomerNotFoundException;
 import com.abc.bank.onboarding.exception.DuplicateCustomerException;
+import com.abc.bank.onboarding.exception.OnboardingCapacityException;
 import com.abc.bank.onboarding.exception.ValidationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -9,16 +14,20 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.support.MissingServletRequestPartException;
 
 import java.net.URI;
 import java.time.Instant;
 import java.util.Arrays;
 
+import static com.abc.bank.onboarding.service.validation.FileValidationService.MAX_FILE_SIZE_BYTES;
+
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final String TIMESTAMP = "timestamp";
+    private static final String RETRY_AFTER_SECONDS = "5";
 
 
     @ExceptionHandler(MissingServletRequestPartException.class)
@@ -42,6 +51,43 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(pd, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(ApplicationNotFoundException.class)
+    public ResponseEntity<ProblemDetail> handleApplicationNotFound(ApplicationNotFoundException ex, WebRequest request) {
+        ProblemDetail pd = getProblemDetail(HttpStatus.NOT_FOUND, ex.getMessage(), "Application not found", request);
+        return new ResponseEntity<>(pd, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(CustomerNotFoundException.class)
+    public ResponseEntity<ProblemDetail> handleCustomerNotFound(CustomerNotFoundException ex, WebRequest request) {
+        ProblemDetail pd = getProblemDetail(HttpStatus.NOT_FOUND, ex.getMessage(), "Customer not found", request);
+        return new ResponseEntity<>(pd, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(OnboardingCapacityException.class)
+    public ResponseEntity<ProblemDetail> handleCapacity(OnboardingCapacityException ex, WebRequest request) {
+        ProblemDetail pd = getProblemDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), "Service busy", request);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(pd);
+    }
+
+    //raised by the container while it reads the multipart body, before any controller runs
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ProblemDetail> handleMaxUploadSize(MaxUploadSizeExceededException ex, WebRequest request) {
+        ProblemDetail pd = getProblemDetail(HttpStatus.CONTENT_TOO_LARGE,
+                String.format("Upload too large: documents are limited to %d bytes", MAX_FILE_SIZE_BYTES),
+                "Upload Too Large", request);
+        return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).body(pd);
+    }
+
+    //raised while the bulk body is spooled, the rest of it is not read
+    @ExceptionHandler(BulkRequestTooLargeException.class)
+    public ResponseEntity<ProblemDetail> handleBulkRequestTooLarge(BulkRequestTooLargeException ex,
+                                                                   WebRequest request) {
+        ProblemDetail pd = getProblemDetail(HttpStatus.CONTENT_TOO_LARGE, ex.getMessage(), "Upload Too Large", request);
+        return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE).body(pd);
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ProblemDetail> handleHttpMessageNotReadable(HttpMessageNotReadableException ex) {
         ProblemDetail pd = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
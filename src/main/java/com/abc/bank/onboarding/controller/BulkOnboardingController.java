@@ -0,0 +1,83 @@
+package com.abc.bank.onboarding.controller;
+
+import com.abc.bank.onboarding.dto.BulkItemResult;
+import com.abc.bank.onboarding.service.bulk.BulkArchive;
+import com.abc.bank.onboarding.service.bulk.BulkFormat;
+import com.abc.bank.onboarding.service.bulk.BulkOnboardingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/api/customers/bulk")
+@RequiredArgsConstructor
+public class BulkOnboardingController {
+
+    static final String APPLICATION_ZIP_VALUE = "application/zip";
+
+    private final BulkOnboardingService bulkOnboardingService;
+    private final ObjectMapper objectMapper;
+
+
+    @PostMapping(consumes = {APPLICATION_ZIP_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            method = "POST",
+            summary = "Onboard a batch of customers",
+            description = "Takes a zip archive (manifest.ndjson plus the documents it points to) or an NDJSON manifest "
+                    + "with inline base64 documents, one application per line. Streams back one result per application"
+    )
+    @ApiResponse(responseCode = "200", description = "One result per application, in manifest order",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BulkItemResult.class))))
+    @ApiResponse(responseCode = "400", description = "Unreadable archive")
+    @ApiResponse(responseCode = "413", description = "Body larger than onboarding.bulk.max-body-size")
+    @RequestBody(content = {
+            @Content(mediaType = APPLICATION_ZIP_VALUE, schema = @Schema(type = "string", format = "binary")),
+            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(type = "string"))
+    })
+    public void onboard(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                        HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+
+        BulkFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? BulkFormat.NDJSON
+                : BulkFormat.ZIP;
+        // an unreadable archive is refused before the response is committed
+        try (BulkArchive archive = bulkOnboardingService.spool(request.getInputStream(), format)) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream body = response.getOutputStream();
+            bulkOnboardingService.process(archive, results -> write(body, results));
+        }
+    }
+
+    private void write(OutputStream body, Iterable<BulkItemResult> results) {
+        try {
+            for (BulkItemResult result : results) {
+                body.write(objectMapper.writeValueAsBytes(result));
+                body.write('\n');
+            }
+            body.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Client went away during bulk onboarding", ex);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.abc.bank.onboarding.controller;
+
+import com.abc.bank.onboarding.dto.CustomerDetails;
+import com.abc.bank.onboarding.dto.CustomerPage;
+import com.abc.bank.onboarding.service.customer.CustomerQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/customers")
+@RequiredArgsConstructor
+public class CustomerController {
+
+    private final CustomerQueryService customerQueryService;
+
+
+    @GetMapping
+    @Operation(
+            method = "GET",
+            summary = "List customers",
+            description = "Customers ordered by id, a page at a time: pass the 'next' value of a page as 'after'"
+    )
+    @ApiResponse(responseCode = "200", description = "Page of customers")
+    public CustomerPage list(
+            @RequestParam(defaultValue = "0")
+            @Parameter(description = "Id of the last customer of the previous page, 0 for the first page")
+            long after,
+
+            @RequestParam(defaultValue = "50")
+            @Parameter(description = "Customers per page, capped at 500")
+            int size) {
+
+        return customerQueryService.list(after, size);
+    }
+
+    @GetMapping("/{accountNumber}")
+    @Operation(
+            method = "GET",
+            summary = "Customer details",
+            description = "Details of the customer holding the account, without documents"
+    )
+    @ApiResponse(responseCode = "200", description = "Customer details")
+    @ApiResponse(responseCode = "404", description = "Unknown account number")
+    public CustomerDetails find(@PathVariable String accountNumber) {
+        return customerQueryService.find(accountNumber);
+    }
+}
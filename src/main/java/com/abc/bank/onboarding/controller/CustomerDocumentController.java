@@ -0,0 +1,163 @@
+package com.abc.bank.onboarding.controller;
+
+import com.abc.bank.onboarding.dto.DocumentType;
+import com.abc.bank.onboarding.exception.DocumentStorageException;
+import com.abc.bank.onboarding.exception.ValidationException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.model.Rendition;
+import com.abc.bank.onboarding.service.customer.CustomerQueryService;
+import com.abc.bank.onboarding.service.photo.PhotoRenditionService;
+import com.abc.bank.onboarding.service.storage.DocumentLocation;
+import com.abc.bank.onboarding.service.storage.DocumentStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.List;
+
+/**
+ * Downloads of the customer documents, streamed from the document store segment to the socket.
+ * <p>
+ * The strong ETag is the SHA-256 of the content, so a revalidation ({@code If-None-Match}) is answered with
+ * {@code 304} from the document reference alone. A single {@code Range} is served as {@code 206}; several ranges
+ * are answered with the whole document. On Tomcat the body is sent with {@code sendfile} from the segment file,
+ * elsewhere it goes through {@link DocumentStore#transferTo}.
+ * <p>
+ * The photo can be asked for as one of its {@linkplain PhotoRenditionService renditions} (a few KB thumbnail for list
+ * views): until it is rendered, the original is served instead and the photo is queued for rendering.
+ */
+@RestController
+@RequestMapping("/api/customers/{accountNumber}/documents")
+@RequiredArgsConstructor
+public class CustomerDocumentController {
+
+    //Tomcat sends [start, end) of the file itself once the servlet returns
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String BYTES = "bytes";
+
+    private final CustomerQueryService customerQueryService;
+    private final DocumentStore documentStore;
+    private final PhotoRenditionService photoRenditionService;
+
+
+    @GetMapping("/{type}")
+    @Operation(
+            method = "GET",
+            summary = "Download a customer document",
+            description = "Supports Range requests and revalidation with the ETag (If-None-Match). The photo can be "
+                    + "downloaded as a rendition, the original is served until the rendition is ready"
+    )
+    @ApiResponse(responseCode = "200", description = "The whole document")
+    @ApiResponse(responseCode = "206", description = "The requested range of the document")
+    @ApiResponse(responseCode = "304", description = "The document matches the ETag sent")
+    @ApiResponse(responseCode = "400", description = "Unknown document type or rendition")
+    @ApiResponse(responseCode = "404", description = "Unknown account number")
+    @ApiResponse(responseCode = "416", description = "Range outside of the document")
+    public void download(@PathVariable String accountNumber,
+
+                         @PathVariable
+                         @Parameter(description = "idProof or photo")
+                         String type,
+
+                         @RequestParam(required = false)
+                         @Parameter(description = "normalized, medium or small, photo only")
+                         String rendition,
+
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+
+        DocumentType documentType = DocumentType.fromPathValue(type);
+        DocumentReference original = customerQueryService.findDocument(accountNumber, documentType);
+        DocumentReference document = rendition == null
+                ? original
+                : rendered(original, documentType, Rendition.fromParameter(rendition));
+        String etag = '"' + document.getDigest() + '"';
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+        // sets the ETag header, and 304 when it matches If-None-Match
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+        DocumentLocation location = documentStore.locate(document.getDigest())
+                .orElseThrow(() -> new DocumentStorageException("Document " + document.getDigest() + " is missing"));
+        long length = location.length();
+
+        long start = 0;
+        long count = length;
+        HttpRange range = requestedRange(request, etag);
+        if (range != null) {
+            if (length == 0 || range.getRangeStart(length) >= length) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+                return;
+            }
+            start = range.getRangeStart(length);
+            count = range.getRangeEnd(length) - start + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    BYTES + " " + start + "-" + (start + count - 1) + "/" + length);
+        }
+        response.setContentType(document.getContentType() != null
+                ? document.getContentType()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(accountNumber + "-" + type)
+                .build()
+                .toString());
+        response.setContentLengthLong(count);
+
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, location.segment().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, location.offset() + start);
+            request.setAttribute(SENDFILE_END, location.offset() + start + count);
+            return;
+        }
+        documentStore.transferTo(location, start, count, Channels.newChannel(response.getOutputStream()));
+    }
+
+    private DocumentReference rendered(DocumentReference original, DocumentType type, Rendition rendition) {
+        if (type != DocumentType.PHOTO) {
+            throw new ValidationException("Renditions are only available for the photo");
+        }
+        return photoRenditionService.find(original, rendition).orElse(original);
+    }
+
+    //null for the whole document: no Range, an If-Range for another version, several ranges or an unparsable header
+    private static HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (header == null || (ifRange != null && !ifRange.equals(etag))) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.getFirst() : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class CustomerOnboardingController {
     )
     @ApiResponse(responseCode = "201", description = "Onboarding successful")
     @ApiResponse(responseCode = "400", description = "Invalid input data")
-    @ApiResponse(responseCode = "409", description = "Customer already exists")
+    @ApiResponse(responseCode = "409", description = "Customer already exists or is being onboarded")
     @ApiResponse(responseCode = "500", description = "Internal Server Problem")
     @RequestBody(content = @Content(mediaType = MediaType.MULTIPART_FORM_DATA_VALUE,
             encoding = {@Encoding(name = "CustomerOnboardRequest", contentType = "application/json"),
@@ -0,0 +1,112 @@
+package com.abc.bank.onboarding.controller;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.OnboardingApplicationResponse;
+import com.abc.bank.onboarding.exception.ApplicationNotFoundException;
+import com.abc.bank.onboarding.service.application.OnboardingApplication;
+import com.abc.bank.onboarding.service.application.OnboardingApplicationRegistry;
+import com.abc.bank.onboarding.service.application.OnboardingPipeline;
+import com.abc.bank.onboarding.service.application.OnboardingPipelineProperties;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Encoding;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/customers/applications")
+@RequiredArgsConstructor
+public class OnboardingApplicationController {
+
+    private final OnboardingPipeline onboardingPipeline;
+    private final OnboardingApplicationRegistry applicationRegistry;
+    private final OnboardingPipelineProperties pipelineProperties;
+
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            method = "POST",
+            summary = "Submit an onboarding application",
+            description = "Validates the customer details and files, then onboards the customer asynchronously"
+    )
+    @ApiResponse(responseCode = "202", description = "Application accepted, its status resource is in the Location header")
+    @ApiResponse(responseCode = "400", description = "Invalid input data")
+    @ApiResponse(responseCode = "409", description = "An application of the same customer is in progress")
+    @ApiResponse(responseCode = "503", description = "Too many applications in progress")
+    @RequestBody(content = @Content(mediaType = MediaType.MULTIPART_FORM_DATA_VALUE,
+            encoding = {@Encoding(name = "CustomerOnboardRequest", contentType = "application/json"),
+                    @Encoding(name = "idProof", contentType = "application/octet-stream"),
+                    @Encoding(name = "photo", contentType = "application/octet-stream")}
+    ))
+    public ResponseEntity<OnboardingApplicationResponse> submit(
+            @RequestPart("CustomerOnboardRequest")
+            @Schema(implementation = CustomerOnboardRequest.class)
+            CustomerOnboardRequest request,
+
+            @RequestPart("idProof")
+            @Parameter(description = "ID file (max size 2MB) - PDF or Image")
+            @Schema(type = "string", format = "binary")
+            MultipartFile idProof,
+
+            @RequestPart("photo")
+            @Parameter(description = "Photo (max size 2MB) - PDF or Image")
+            @Schema(type = "string", format = "binary")
+            MultipartFile photo) {
+
+        OnboardingApplication application = onboardingPipeline.submit(request, idProof, photo);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(application.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(OnboardingApplicationResponse.from(application));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(
+            method = "GET",
+            summary = "Status of an onboarding application",
+            description = "With waitSeconds, the response is held until the application is final or the wait expires"
+    )
+    @ApiResponse(responseCode = "200", description = "Current status of the application")
+    @ApiResponse(responseCode = "404", description = "Unknown or expired application")
+    public DeferredResult<OnboardingApplicationResponse> status(
+            @PathVariable UUID id,
+
+            @RequestParam(defaultValue = "0")
+            @Parameter(description = "Seconds to wait for the final status (long polling), capped by the server")
+            long waitSeconds) {
+
+        OnboardingApplication application = applicationRegistry.find(id)
+                .orElseThrow(() -> new ApplicationNotFoundException("Unknown onboarding application " + id));
+        long waitMillis = Math.min(Math.max(waitSeconds, 0), pipelineProperties.maxWait().toSeconds()) * 1000;
+
+        if (waitMillis == 0 || application.getStatus().isFinal()) {
+            DeferredResult<OnboardingApplicationResponse> result = new DeferredResult<>();
+            result.setResult(OnboardingApplicationResponse.from(application));
+            return result;
+        }
+        // the request thread is released while waiting, the response is written by the completing stage
+        DeferredResult<OnboardingApplicationResponse> result = new DeferredResult<>(waitMillis);
+        result.onTimeout(() -> result.setResult(OnboardingApplicationResponse.from(application)));
+        application.completion().thenAccept(completed -> result.setResult(OnboardingApplicationResponse.from(completed)));
+        return result;
+    }
+}
@@ -0,0 +1,20 @@
+package com.abc.bank.onboarding.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "One line of a bulk onboarding manifest")
+public record BulkApplication(
+
+        @Schema(description = "Reference of the application at the partner, echoed in the result", example = "partner-0001")
+        String reference,
+
+        @Schema(description = "Customer details")
+        CustomerOnboardRequest customer,
+
+        @Schema(description = "ID file (max size 2MB) - PDF or Image")
+        BulkDocument idProof,
+
+        @Schema(description = "Photo (max size 2MB) - PDF or Image")
+        BulkDocument photo
+) {
+}
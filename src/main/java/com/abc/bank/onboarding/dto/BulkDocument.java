@@ -0,0 +1,17 @@
+package com.abc.bank.onboarding.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Document of a bulk application, either a file of the zip archive or inline content")
+public record BulkDocument(
+
+        @Schema(description = "Path of the document in the zip archive", example = "documents/0001-id.pdf")
+        String file,
+
+        @Schema(description = "Declared content type", example = "application/pdf")
+        String contentType,
+
+        @Schema(description = "Base64 encoded content, for NDJSON uploads without archive")
+        byte[] content
+) {
+}
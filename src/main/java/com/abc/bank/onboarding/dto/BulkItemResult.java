@@ -0,0 +1,44 @@
+package com.abc.bank.onboarding.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of one application of a bulk onboarding request")
+public record BulkItemResult(
+
+        @Schema(description = "Line of the application in the manifest, starting at 1", example = "1")
+        long line,
+
+        @Schema(description = "Reference of the application at the partner", example = "partner-0001")
+        String reference,
+
+        @Schema(description = "Outcome of the application", example = "CREATED")
+        Status status,
+
+        @Schema(description = "New account number for the customer once created", example = "NL12YYYY0123456789")
+        String accountNumber,
+
+        @Schema(description = "Reason of the outcome", example = "Customer onboarded successfully")
+        String message
+) {
+
+    public enum Status {
+        CREATED, REJECTED, DUPLICATE, FAILED
+    }
+
+    public static BulkItemResult created(long line, String reference, String accountNumber) {
+        return new BulkItemResult(line, reference, Status.CREATED, accountNumber, "Customer onboarded successfully");
+    }
+
+    public static BulkItemResult rejected(long line, String reference, String message) {
+        return new BulkItemResult(line, reference, Status.REJECTED, null, message);
+    }
+
+    public static BulkItemResult duplicate(long line, String reference) {
+        return new BulkItemResult(line, reference, Status.DUPLICATE, null,
+                "Customer with same socialSecurityNumber or email already exists");
+    }
+
+    public static BulkItemResult failed(long line, String reference) {
+        return new BulkItemResult(line, reference, Status.FAILED, null, "Unexpected error occurred");
+    }
+}
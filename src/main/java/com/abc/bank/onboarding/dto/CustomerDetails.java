@@ -0,0 +1,38 @@
+package com.abc.bank.onboarding.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+//Projection of a customer without its documents nor its BSN, selected column by column
+@Schema(description = "Customer details")
+public record CustomerDetails(
+
+        @Schema(description = "Account number", example = "NL12YYYY0123456789")
+        String accountNumber,
+
+        @Schema(description = "First name", example = "Seif")
+        String firstName,
+
+        @Schema(description = "Last name", example = "Jemli")
+        String lastName,
+
+        @Schema(description = "Gender", example = "MALE")
+        Gender gender,
+
+        @Schema(description = "Date of birth", example = "1985-05-15")
+        LocalDate dateOfBirth,
+
+        @Schema(description = "Dutch phone number", example = "+31612345678")
+        String phoneNumber,
+
+        @Schema(description = "Email", example = "seif.jemli@domain.com")
+        String email,
+
+        @Schema(description = "Nationality ISO code", example = "NL")
+        String nationality,
+
+        @Schema(description = "Residential address", example = "Gustav Mahlerlaan 10, 1082 PP Amsterdam, Netherlands")
+        String residentialAddress
+) {
+}
@@ -0,0 +1,16 @@
+package com.abc.bank.onboarding.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Page of customers, ordered by id")
+public record CustomerPage(
+
+        @Schema(description = "Customers of the page")
+        List<CustomerSummary> customers,
+
+        @Schema(description = "Value of 'after' for the next page, absent on the last page", example = "1051")
+        Long next
+) {
+}
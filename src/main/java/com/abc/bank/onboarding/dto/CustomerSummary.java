@@ -0,0 +1,24 @@
+package com.abc.bank.onboarding.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+//Row of the customer listing, the id is the keyset of the pagination
+@Schema(description = "Customer in a listing")
+public record CustomerSummary(
+
+        @Schema(description = "Customer id, pass the last one of a page as 'after' to get the next page", example = "1051")
+        long id,
+
+        @Schema(description = "Account number", example = "NL12YYYY0123456789")
+        String accountNumber,
+
+        @Schema(description = "First name", example = "Seif")
+        String firstName,
+
+        @Schema(description = "Last name", example = "Jemli")
+        String lastName,
+
+        @Schema(description = "Email", example = "seif.jemli@domain.com")
+        String email
+) {
+}
@@ -0,0 +1,29 @@
+package com.abc.bank.onboarding.dto;
+
+import com.abc.bank.onboarding.exception.ValidationException;
+
+import java.util.Arrays;
+
+//Documents kept for a customer, named in URLs like the parts of the onboarding request
+public enum DocumentType {
+    ID_PROOF("idProof"),
+    PHOTO("photo");
+
+    private final String pathValue;
+
+    DocumentType(String pathValue) {
+        this.pathValue = pathValue;
+    }
+
+    public String pathValue() {
+        return pathValue;
+    }
+
+    public static DocumentType fromPathValue(String value) {
+        return Arrays.stream(values())
+                .filter(type -> type.pathValue.equals(value))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("Unknown document type '" + value
+                        + "'. Allowed values: idProof, photo"));
+    }
+}
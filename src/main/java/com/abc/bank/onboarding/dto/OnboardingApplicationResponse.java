@@ -0,0 +1,41 @@
+package com.abc.bank.onboarding.dto;
+
+import com.abc.bank.onboarding.service.application.ApplicationStatus;
+import com.abc.bank.onboarding.service.application.OnboardingApplication;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Schema(description = "Asynchronous onboarding application")
+public record OnboardingApplicationResponse(
+
+        @Schema(description = "Application id", example = "3f2b8c1e-4d5a-4b6c-8e9f-0a1b2c3d4e5f")
+        UUID applicationId,
+
+        @Schema(description = "Status of the application", example = "COMPLETED")
+        ApplicationStatus status,
+
+        @Schema(description = "Outcome of the application once final", example = "Customer onboarded successfully")
+        String message,
+
+        @Schema(description = "New account number for the customer once completed", example = "NL12YYYY0123456789")
+        String accountNumber,
+
+        @Schema(description = "When the application was accepted")
+        Instant submittedAt,
+
+        @Schema(description = "When the application reached its final status")
+        Instant completedAt
+) {
+
+    public static OnboardingApplicationResponse from(OnboardingApplication application) {
+        return new OnboardingApplicationResponse(
+                application.getId(),
+                application.getStatus(),
+                application.getMessage(),
+                application.getAccountNumber(),
+                application.getSubmittedAt(),
+                application.getCompletedAt());
+    }
+}
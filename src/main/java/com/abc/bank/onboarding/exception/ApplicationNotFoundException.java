@@ -0,0 +1,7 @@
+package com.abc.bank.onboarding.exception;
+
+public class ApplicationNotFoundException extends RuntimeException {
+    public ApplicationNotFoundException(String message) {
+        super(message);
+    }
+}
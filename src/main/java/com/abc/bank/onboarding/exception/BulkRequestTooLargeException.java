@@ -0,0 +1,7 @@
+package com.abc.bank.onboarding.exception;
+
+public class BulkRequestTooLargeException extends RuntimeException {
+    public BulkRequestTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.abc.bank.onboarding.exception;
+
+public class DocumentStorageException extends RuntimeException {
+    public DocumentStorageException(String message) {
+        super(message);
+    }
+
+    public DocumentStorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.abc.bank.onboarding.exception;
+
+public class OnboardingCapacityException extends RuntimeException {
+    public OnboardingCapacityException(String message) {
+        super(message);
+    }
+}
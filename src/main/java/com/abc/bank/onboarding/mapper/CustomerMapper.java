@@ -2,17 +2,15 @@ package com.abc.bank.onboarding.mapper;
 
 import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
 import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
 import lombok.experimental.UtilityClass;
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.IOException;
 
 @UtilityClass
 public class CustomerMapper {
 
     public static Customer toCustomer(CustomerOnboardRequest request,
-                                      MultipartFile idProof,
-                                      MultipartFile photo) throws IOException {
+                                      DocumentReference idProof,
+                                      DocumentReference photo) {
         Customer customer = new Customer();
         customer.setFirstName(request.firstName());
         customer.setLastName(request.lastName());
@@ -23,8 +21,8 @@ public class CustomerMapper {
         customer.setNationality(request.nationality());
         customer.setResidentialAddress(request.residentialAddress());
         customer.setSocialSecurityNumber(request.socialSecurityNumber());
-        customer.setIdProof(idProof.getBytes());
-        customer.setPhoto(photo.getBytes());
+        customer.setIdProof(idProof);
+        customer.setPhoto(photo);
         return customer;
     }
 }
@@ -0,0 +1,32 @@
+package com.abc.bank.onboarding.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+//High-water mark of the account number allocator: the first account number not reserved yet, whatever the block size
+@Entity
+@Table(name = "account_number_blocks")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class AccountNumberBlock {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private long nextValue;
+
+    public AccountNumberBlock(String name, long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+}
@@ -1,15 +1,21 @@
 package com.abc.bank.onboarding.model;
 
 import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.service.customer.CustomerCacheEntityListener;
+import com.abc.bank.onboarding.service.duplicate.DuplicateFilterEntityListener;
+import com.abc.bank.onboarding.service.photo.PhotoRenditionEntityListener;
+import jakarta.persistence.AttributeOverride;
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
-import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -19,18 +25,31 @@ import java.time.LocalDate;
 
 
 @Entity
+//the unique indexes are the duplicate check: their names identify the key of a violation (CustomerUniqueKey)
 @Table(name = "customers", indexes = {
-        @Index(name = "idx_customer_ssn", columnList = "socialSecurityNumber"),
-        @Index(name = "idx_customer_email", columnList = "email"),
-        @Index(name = "idx_customer_account_number", columnList = "accountNumber")
+        @Index(name = Customer.SSN_INDEX, columnList = "socialSecurityNumber", unique = true),
+        @Index(name = Customer.EMAIL_INDEX, columnList = "email", unique = true),
+        @Index(name = Customer.ACCOUNT_NUMBER_INDEX, columnList = "accountNumber", unique = true)
 })
+@EntityListeners({DuplicateFilterEntityListener.class, CustomerCacheEntityListener.class,
+        PhotoRenditionEntityListener.class})
 @Getter
 @Setter
 @ToString
 public class Customer {
 
+    public static final String ID_SEQUENCE = "customer_seq";
+    //ids reserved per sequence call, the sequence value is the first id of the block (pooled-lo optimizer)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    public static final String SSN_INDEX = "idx_customer_ssn";
+    public static final String EMAIL_INDEX = "idx_customer_email";
+    public static final String ACCOUNT_NUMBER_INDEX = "idx_customer_account_number";
+
+    //not IDENTITY: Hibernate has to insert immediately to learn an IDENTITY key, which rules out JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false, length = 50)
@@ -49,7 +68,7 @@ public class Customer {
     @Column(nullable = false, length = 15)
     private String phoneNumber;
 
-    @Column(nullable = false, unique = true, length = 100)
+    @Column(nullable = false, length = 100)
     private String email;
 
     @Column(nullable = false, length = 2)
@@ -58,17 +77,21 @@ public class Customer {
     @Column(nullable = false)
     private String residentialAddress;
 
-    @Column(nullable = false, unique = true, length = 9)
+    @Column(nullable = false, length = 9)
     private String socialSecurityNumber;
 
-    @Lob
-    @Column(nullable = false)
-    private byte[] idProof;
+    @Embedded
+    @AttributeOverride(name = "digest", column = @Column(name = "id_proof_digest", nullable = false, length = 64))
+    @AttributeOverride(name = "size", column = @Column(name = "id_proof_size", nullable = false))
+    @AttributeOverride(name = "contentType", column = @Column(name = "id_proof_content_type", length = 100))
+    private DocumentReference idProof;
 
-    @Lob
-    @Column(nullable = false)
-    private byte[] photo;
+    @Embedded
+    @AttributeOverride(name = "digest", column = @Column(name = "photo_digest", nullable = false, length = 64))
+    @AttributeOverride(name = "size", column = @Column(name = "photo_size", nullable = false))
+    @AttributeOverride(name = "contentType", column = @Column(name = "photo_content_type", length = 100))
+    private DocumentReference photo;
 
-    @Column(nullable = false, length = 17, unique = true)
+    @Column(nullable = false, length = 17)
     private String accountNumber;
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.abc.bank.onboarding.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+//Pointer to a document kept in the content-addressed document store (SHA-256 of the content, hex encoded)
+@Embeddable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class DocumentReference {
+
+    @Column(nullable = false, length = 64)
+    private String digest;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(length = 100)
+    private String contentType;
+}
@@ -0,0 +1,7 @@
+package com.abc.bank.onboarding.model;
+
+public enum NotificationStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
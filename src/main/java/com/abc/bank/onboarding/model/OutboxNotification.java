@@ -0,0 +1,75 @@
+package com.abc.bank.onboarding.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+//Email waiting to be sent, written in the same transaction as the change it notifies about
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, nextAttemptAt")
+})
+@Getter
+@Setter
+@ToString(exclude = "body")
+public class OutboxNotification {
+
+    public static final String ID_SEQUENCE = "notification_outbox_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    //pooled sequence like Customer, so the notification insert can be batched too
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String recipient;
+
+    @Column(nullable = false, length = 200)
+    private String subject;
+
+    @Column(nullable = false, length = 4000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private NotificationStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant sentAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public static OutboxNotification pending(String recipient, String subject, String body, Instant now) {
+        OutboxNotification notification = new OutboxNotification();
+        notification.setRecipient(recipient);
+        notification.setSubject(subject);
+        notification.setBody(body);
+        notification.setStatus(NotificationStatus.PENDING);
+        notification.setNextAttemptAt(now);
+        notification.setCreatedAt(now);
+        return notification;
+    }
+}
@@ -0,0 +1,74 @@
+package com.abc.bank.onboarding.model;
+
+import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+//Rendition of a photo kept in the document store, keyed by the digest of the original: customers sharing a photo
+//share its renditions
+@Entity
+@Table(name = "photo_renditions", indexes = {
+        @Index(name = PhotoRendition.SOURCE_INDEX, columnList = "sourceDigest, rendition", unique = true)
+})
+@Getter
+@Setter
+@ToString
+public class PhotoRendition {
+
+    public static final String ID_SEQUENCE = "photo_renditions_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final String SOURCE_INDEX = "idx_photo_rendition_source";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String sourceDigest;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Rendition rendition;
+
+    @Embedded
+    @AttributeOverride(name = "digest", column = @Column(name = "document_digest", nullable = false, length = 64))
+    @AttributeOverride(name = "size", column = @Column(name = "document_size", nullable = false))
+    @AttributeOverride(name = "contentType", column = @Column(name = "document_content_type", length = 100))
+    private DocumentReference document;
+
+    @Column(nullable = false)
+    private int width;
+
+    @Column(nullable = false)
+    private int height;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public static PhotoRendition of(String sourceDigest, Rendition rendition, DocumentReference document,
+                                    int width, int height, Instant now) {
+        PhotoRendition photoRendition = new PhotoRendition();
+        photoRendition.setSourceDigest(sourceDigest);
+        photoRendition.setRendition(rendition);
+        photoRendition.setDocument(document);
+        photoRendition.setWidth(width);
+        photoRendition.setHeight(height);
+        photoRendition.setCreatedAt(now);
+        return photoRendition;
+    }
+}
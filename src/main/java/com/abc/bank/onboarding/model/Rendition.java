@@ -0,0 +1,25 @@
+package com.abc.bank.onboarding.model;
+
+import com.abc.bank.onboarding.exception.ValidationException;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+//Derived JPEGs of a customer photo, from the largest to the smallest: each one is scaled down from the previous one
+public enum Rendition {
+    NORMALIZED,
+    MEDIUM,
+    SMALL;
+
+    public String parameterValue() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static Rendition fromParameter(String value) {
+        return Arrays.stream(values())
+                .filter(rendition -> rendition.parameterValue().equals(value))
+                .findFirst()
+                .orElseThrow(() -> new ValidationException("Unknown rendition '" + value
+                        + "'. Allowed values: normalized, medium, small"));
+    }
+}
@@ -0,0 +1,16 @@
+package com.abc.bank.onboarding.repository;
+
+import com.abc.bank.onboarding.model.AccountNumberBlock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface AccountNumberBlockRepository extends JpaRepository<AccountNumberBlock, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from AccountNumberBlock b where b.name = :name")
+    Optional<AccountNumberBlock> findForUpdate(String name);
+}
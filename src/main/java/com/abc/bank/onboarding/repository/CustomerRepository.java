@@ -1,12 +1,45 @@
 package com.abc.bank.onboarding.repository;
 
+import com.abc.bank.onboarding.dto.CustomerDetails;
+import com.abc.bank.onboarding.dto.CustomerSummary;
 import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByAccountNumber(String accountNumber);
 
-    boolean existsBySocialSecurityNumberOrEmail(String socialSecurityNumber, String email);
+    //must be consumed inside a transaction and closed
+    @Query("select c.socialSecurityNumber as socialSecurityNumber, c.email as email from Customer c")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<DuplicateKey> streamDuplicateKeys();
+
+    //the projections below never select the document columns
+    @Query("""
+            select new com.abc.bank.onboarding.dto.CustomerDetails(c.accountNumber, c.firstName, c.lastName, c.gender,
+                c.dateOfBirth, c.phoneNumber, c.email, c.nationality, c.residentialAddress)
+            from Customer c where c.accountNumber = :accountNumber""")
+    Optional<CustomerDetails> findDetailsByAccountNumber(String accountNumber);
+
+    //document references only, the content is served from the document store
+    @Query("select c.idProof from Customer c where c.accountNumber = :accountNumber")
+    Optional<DocumentReference> findIdProofByAccountNumber(String accountNumber);
+
+    @Query("select c.photo from Customer c where c.accountNumber = :accountNumber")
+    Optional<DocumentReference> findPhotoByAccountNumber(String accountNumber);
+
+    //keyset (seek) pagination: the primary key index is entered at the last id seen, whatever the depth of the page
+    @Query("""
+            select new com.abc.bank.onboarding.dto.CustomerSummary(c.id, c.accountNumber, c.firstName, c.lastName, c.email)
+            from Customer c where c.id > :after order by c.id""")
+    List<CustomerSummary> findSummariesAfter(long after, Limit limit);
 }
@@ -0,0 +1,66 @@
+package com.abc.bank.onboarding.repository;
+
+import com.abc.bank.onboarding.model.Customer;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The unique keys of a customer, identified in a constraint violation by the name of their unique index.
+ * <p>
+ * The name comes from Hibernate, which extracts it from the driver error (PostgreSQL, H2...). When the dialect cannot
+ * extract it, the messages of the driver errors are searched for the index names instead.
+ */
+public enum CustomerUniqueKey {
+
+    SOCIAL_SECURITY_NUMBER(Customer.SSN_INDEX),
+    EMAIL(Customer.EMAIL_INDEX),
+    ACCOUNT_NUMBER(Customer.ACCOUNT_NUMBER_INDEX);
+
+    private final String indexName;
+
+    CustomerUniqueKey(String indexName) {
+        this.indexName = indexName;
+    }
+
+    public String indexName() {
+        return indexName;
+    }
+
+    //an SSN or email conflict means the customer is already onboarded
+    public boolean identifiesCustomer() {
+        return this != ACCOUNT_NUMBER;
+    }
+
+    //empty for any other violation: not null, foreign key, primary key...
+    public static Optional<CustomerUniqueKey> violatedBy(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return named(violation.getConstraintName());
+            }
+        }
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            Optional<CustomerUniqueKey> key = named(cause.getMessage());
+            if (key.isPresent()) {
+                return key;
+            }
+        }
+        return Optional.empty();
+    }
+
+    //H2 reports e.g. PUBLIC.IDX_CUSTOMER_SSN ON PUBLIC.CUSTOMERS(...), PostgreSQL the bare index name
+    private static Optional<CustomerUniqueKey> named(String text) {
+        if (text == null) {
+            return Optional.empty();
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        for (CustomerUniqueKey key : values()) {
+            if (lowerCase.contains(key.indexName)) {
+                return Optional.of(key);
+            }
+        }
+        return Optional.empty();
+    }
+}
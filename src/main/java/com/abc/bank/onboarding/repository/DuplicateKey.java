@@ -0,0 +1,9 @@
+package com.abc.bank.onboarding.repository;
+
+//Projection used to warm up the duplicate filter without loading whole customers
+public interface DuplicateKey {
+
+    String getSocialSecurityNumber();
+
+    String getEmail();
+}
@@ -0,0 +1,48 @@
+package com.abc.bank.onboarding.repository;
+
+import com.abc.bank.onboarding.model.NotificationStatus;
+import com.abc.bank.onboarding.model.OutboxNotification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, Long> {
+
+    //lock timeout -2 = SKIP LOCKED, concurrent dispatchers (other instances) never claim the same rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select n from OutboxNotification n where n.status = :status and n.nextAttemptAt <= :now order by n.id")
+    List<OutboxNotification> findDue(NotificationStatus status, Instant now, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxNotification n set n.status = com.abc.bank.onboarding.model.NotificationStatus.SENT, "
+            + "n.attempts = n.attempts + 1, n.sentAt = :sentAt, n.lastError = null where n.id = :id")
+    int markSent(Long id, Instant sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxNotification n set n.attempts = :attempts, n.nextAttemptAt = :nextAttemptAt, "
+            + "n.lastError = :lastError where n.id = :id")
+    int reschedule(Long id, int attempts, Instant nextAttemptAt, String lastError);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxNotification n set n.status = com.abc.bank.onboarding.model.NotificationStatus.FAILED, "
+            + "n.attempts = :attempts, n.lastError = :lastError where n.id = :id")
+    int markFailed(Long id, int attempts, String lastError);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxNotification n set n.nextAttemptAt = :nextAttemptAt where n.id = :id")
+    int release(Long id, Instant nextAttemptAt);
+}
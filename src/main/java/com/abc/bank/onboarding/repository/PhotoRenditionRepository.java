@@ -0,0 +1,15 @@
+package com.abc.bank.onboarding.repository;
+
+import com.abc.bank.onboarding.model.PhotoRendition;
+import com.abc.bank.onboarding.model.Rendition;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PhotoRenditionRepository extends JpaRepository<PhotoRendition, Long> {
+
+    Optional<PhotoRendition> findBySourceDigestAndRendition(String sourceDigest, Rendition rendition);
+
+    List<PhotoRendition> findBySourceDigest(String sourceDigest);
+}
@@ -2,26 +2,50 @@ package com.abc.bank.onboarding.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.web.SecurityFilterChain;
 
+/**
+ * Only the onboarding itself is open: the submissions, and the status of an asynchronous application (its id is a
+ * random UUID). Of the actuator, only the health and Prometheus endpoints are open. The customer read API and the
+ * document downloads return personal data and require the {@value #BACK_OFFICE} role, with HTTP Basic against the
+ * {@code spring.security.user} account. Everything else requires authentication.
+ */
 @Configuration
 public class SecurityConfig {
 
+    public static final String BACK_OFFICE = "BACK_OFFICE";
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) {
         http
                 .csrf(AbstractHttpConfigurer::disable)
+                .httpBasic(Customizer.withDefaults())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
-                        .requestMatchers("/api/customers/**").permitAll()
+                        // probes and scraping; caches (with its DELETE), metrics and the custom endpoints are not
+                        .requestMatchers(
+                                "/actuator/health",
+                                "/actuator/health/**",
+                                "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").authenticated()
+                        .requestMatchers(HttpMethod.POST,
+                                "/api/customers/onboard",
+                                "/api/customers/applications").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/customers/applications/*").permitAll()
+                        .requestMatchers(HttpMethod.GET,
+                                "/api/customers",
+                                "/api/customers/*").hasRole(BACK_OFFICE)
+                        // GET and HEAD: the documents are the ID proofs and photos of the customers
+                        .requestMatchers("/api/customers/*/documents/**").hasRole(BACK_OFFICE)
                         .anyRequest().authenticated()
                 );
 
         return http.build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.abc.bank.onboarding.service.application;
+
+public enum ApplicationStatus {
+    //validated and queued, nothing is stored yet
+    ACCEPTED,
+    //picked up by the documents stage
+    PROCESSING,
+    COMPLETED,
+    //validation or duplicate check failed, the client has to fix the application
+    REJECTED,
+    //unexpected error, the application can be submitted again
+    FAILED;
+
+    public boolean isFinal() {
+        return this == COMPLETED || this == REJECTED || this == FAILED;
+    }
+}
@@ -0,0 +1,56 @@
+package com.abc.bank.onboarding.service.application;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-memory state of an asynchronous onboarding application, updated by the pipeline stages and read by the
+ * status resource. {@link #completion()} completes once the application reaches a final status.
+ */
+@Getter
+public class OnboardingApplication {
+
+    private final UUID id;
+    private final Instant submittedAt;
+    private volatile ApplicationStatus status = ApplicationStatus.ACCEPTED;
+    private volatile String message;
+    private volatile String accountNumber;
+    private volatile Instant completedAt;
+    private final CompletableFuture<OnboardingApplication> completion = new CompletableFuture<>();
+
+    public OnboardingApplication(UUID id, Instant submittedAt) {
+        this.id = id;
+        this.submittedAt = submittedAt;
+    }
+
+    public CompletableFuture<OnboardingApplication> completion() {
+        return completion;
+    }
+
+    void processing() {
+        status = ApplicationStatus.PROCESSING;
+    }
+
+    void complete(String accountNumber, String message) {
+        this.accountNumber = accountNumber;
+        finish(ApplicationStatus.COMPLETED, message);
+    }
+
+    void reject(String message) {
+        finish(ApplicationStatus.REJECTED, message);
+    }
+
+    void fail(String message) {
+        finish(ApplicationStatus.FAILED, message);
+    }
+
+    private void finish(ApplicationStatus finalStatus, String message) {
+        this.message = message;
+        this.completedAt = Instant.now();
+        this.status = finalStatus;
+        completion.complete(this);
+    }
+}
@@ -0,0 +1,49 @@
+package com.abc.bank.onboarding.service.application;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applications known to this instance. Applications in progress are bounded by the pipeline queues, final ones
+ * are kept for {@link OnboardingPipelineProperties#retention()} so that clients can read their outcome.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OnboardingApplicationRegistry {
+
+    private final OnboardingPipelineProperties properties;
+    private final Map<UUID, OnboardingApplication> applications = new ConcurrentHashMap<>();
+
+    public void add(OnboardingApplication application) {
+        applications.put(application.getId(), application);
+    }
+
+    public Optional<OnboardingApplication> find(UUID id) {
+        return Optional.ofNullable(applications.get(id));
+    }
+
+    public int size() {
+        return applications.size();
+    }
+
+    @Scheduled(fixedDelayString = "${onboarding.pipeline.eviction-interval:1m}")
+    public void evictExpired() {
+        Instant threshold = Instant.now().minus(properties.retention());
+        int before = applications.size();
+        applications.values().removeIf(application -> application.getStatus().isFinal()
+                && application.getCompletedAt().isBefore(threshold));
+        int evicted = before - applications.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} expired onboarding applications", evicted);
+        }
+    }
+}
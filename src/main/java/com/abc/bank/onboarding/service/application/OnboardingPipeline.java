@@ -0,0 +1,256 @@
+package com.abc.bank.onboarding.service.application;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.CustomerOnboardResponse;
+import com.abc.bank.onboarding.exception.DocumentStorageException;
+import com.abc.bank.onboarding.exception.DuplicateCustomerException;
+import com.abc.bank.onboarding.exception.OnboardingCapacityException;
+import com.abc.bank.onboarding.exception.ValidationException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.service.onboarding.CustomerOnboardingService;
+import com.abc.bank.onboarding.service.onboarding.InFlightOnboardings;
+import com.abc.bank.onboarding.service.storage.DocumentIngestionService;
+import com.abc.bank.onboarding.service.storage.DocumentStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous onboarding: an application is accepted once the cheap checks pass and its uploads are moved to
+ * staging files, then it goes through two stages, each with its own workers and bounded queue.
+ * <ol>
+ *     <li>{@code documents}: digests and sniffs the staged uploads and moves them into the document store;</li>
+ *     <li>{@code registration}: insert and notification, in one transaction.</li>
+ * </ol>
+ * A full documents queue refuses new applications ({@link OnboardingCapacityException}); a full registration
+ * queue makes the documents workers wait, so the backlog builds up in the first queue and then at the door.
+ * An application holds the {@linkplain InFlightOnboardings in-flight claim} of its customer from its acceptance to its
+ * final outcome: a second application for the same customer is refused at once, before its uploads are staged.
+ * <p>
+ * Published metrics, tagged with the stage: {@code onboarding.pipeline.queue.depth}, {@code .active} and
+ * {@code .stage.latency} (submission to completion), plus {@code onboarding.pipeline.rejections}.
+ */
+@Service
+@Slf4j
+public class OnboardingPipeline {
+
+    static final String METRIC_PREFIX = "onboarding.pipeline";
+    static final String DOCUMENTS_STAGE = "documents";
+    static final String REGISTRATION_STAGE = "registration";
+
+    //the documents stage waits for room in the registration queue rather than failing an accepted application
+    private static final RejectedExecutionHandler WAIT_FOR_ROOM = (task, executor) -> {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Registration stage is shut down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in the registration stage", ex);
+        }
+    };
+
+    private final CustomerOnboardingService customerOnboardingService;
+    private final DocumentIngestionService documentIngestionService;
+    private final DocumentStore documentStore;
+    private final InFlightOnboardings inFlightOnboardings;
+    private final OnboardingApplicationRegistry registry;
+    private final Counter rejections;
+    private final ThreadPoolTaskExecutor documentsStage;
+    private final ThreadPoolTaskExecutor registrationStage;
+
+    public OnboardingPipeline(CustomerOnboardingService customerOnboardingService,
+                              DocumentIngestionService documentIngestionService,
+                              DocumentStore documentStore,
+                              InFlightOnboardings inFlightOnboardings,
+                              OnboardingApplicationRegistry registry,
+                              OnboardingPipelineProperties properties,
+                              MeterRegistry meterRegistry,
+                              Environment environment) {
+        this.customerOnboardingService = customerOnboardingService;
+        this.documentIngestionService = documentIngestionService;
+        this.documentStore = documentStore;
+        this.inFlightOnboardings = inFlightOnboardings;
+        this.registry = registry;
+        this.rejections = Counter.builder(METRIC_PREFIX + ".rejections")
+                .description("Applications refused because the documents queue was full")
+                .register(meterRegistry);
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        this.documentsStage = stage(DOCUMENTS_STAGE, properties.documents(), new ThreadPoolExecutor.AbortPolicy(),
+                virtualThreads, meterRegistry);
+        this.registrationStage = stage(REGISTRATION_STAGE, properties.registration(), WAIT_FOR_ROOM,
+                virtualThreads, meterRegistry);
+    }
+
+    public OnboardingApplication submit(CustomerOnboardRequest request, MultipartFile idProof, MultipartFile photo) {
+        customerOnboardingService.validate(request, idProof, photo);
+        // released once the application is final, an accepted application may be queued for a while
+        InFlightOnboardings.Claim claim = inFlightOnboardings.tryClaim(request.socialSecurityNumber(), request.email());
+
+        OnboardingApplication application = new OnboardingApplication(UUID.randomUUID(), Instant.now());
+        StagedUpload stagedIdProof;
+        StagedUpload stagedPhoto;
+        try {
+            stagedIdProof = stage(idProof, "idProof");
+        } catch (RuntimeException ex) {
+            claim.close();
+            throw ex;
+        }
+        try {
+            stagedPhoto = stage(photo, "photo");
+        } catch (RuntimeException ex) {
+            deleteQuietly(stagedIdProof.file());
+            claim.close();
+            throw ex;
+        }
+        try {
+            documentsStage.execute(() -> storeDocuments(application, request, stagedIdProof, stagedPhoto, claim));
+        } catch (RejectedExecutionException ex) {
+            rejections.increment();
+            deleteQuietly(stagedIdProof.file());
+            deleteQuietly(stagedPhoto.file());
+            claim.close();
+            throw new OnboardingCapacityException("Too many onboarding applications in progress, retry later");
+        }
+        registry.add(application);
+        log.info("Onboarding application {} accepted", application.getId());
+        return application;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // documents first: its workers hand their applications over to the registration stage
+        documentsStage.shutdown();
+        registrationStage.shutdown();
+    }
+
+    private void storeDocuments(OnboardingApplication application, CustomerOnboardRequest request,
+                                StagedUpload idProof, StagedUpload photo, InFlightOnboardings.Claim claim) {
+        application.processing();
+        DocumentReference idProofReference;
+        DocumentReference photoReference;
+        try {
+            idProofReference = documentIngestionService.ingest(idProof.file(), idProof.contentType(), idProof.name());
+            photoReference = documentIngestionService.ingest(photo.file(), photo.contentType(), photo.name());
+        } catch (ValidationException ex) {
+            deleteQuietly(photo.file());
+            customerOnboardingService.reportFailure(request.email(), ex.getMessage(), ex);
+            claim.close();
+            application.reject(ex.getMessage());
+            return;
+        } catch (RuntimeException ex) {
+            deleteQuietly(idProof.file());
+            deleteQuietly(photo.file());
+            customerOnboardingService.reportFailure(request.email(), "Unexpected error occurred", ex);
+            claim.close();
+            application.fail("Unexpected error occurred");
+            return;
+        }
+        try {
+            registrationStage.execute(() -> register(application, request, idProofReference, photoReference, claim));
+        } catch (RejectedExecutionException ex) {
+            log.error("Onboarding application {} could not reach the registration stage", application.getId(), ex);
+            claim.close();
+            application.fail("Unexpected error occurred");
+        }
+    }
+
+    private void register(OnboardingApplication application, CustomerOnboardRequest request,
+                          DocumentReference idProof, DocumentReference photo, InFlightOnboardings.Claim claim) {
+        // the claim is released before the outcome is published, a client resubmitting after it is not refused
+        CustomerOnboardResponse response;
+        try (claim) {
+            response = customerOnboardingService.register(request, idProof, photo);
+            claim.onboarded();
+        } catch (ValidationException | DuplicateCustomerException ex) {
+            // the failure notification is already queued by the onboarding service
+            application.reject(ex.getMessage());
+            return;
+        } catch (RuntimeException ex) {
+            application.fail("Unexpected error occurred");
+            return;
+        }
+        application.complete(response.accountNumber(), response.message());
+    }
+
+    //moving the part is a rename when the container spooled it to disk
+    private StagedUpload stage(MultipartFile file, String name) {
+        Path stagingFile = documentStore.createStagingFile();
+        try {
+            file.transferTo(stagingFile.toFile());
+            return new StagedUpload(stagingFile, file.getContentType(), name);
+        } catch (IOException | RuntimeException ex) {
+            deleteQuietly(stagingFile);
+            throw new DocumentStorageException("Unable to stage " + name, ex);
+        }
+    }
+
+    private static ThreadPoolTaskExecutor stage(String name, OnboardingPipelineProperties.Stage properties,
+                                                RejectedExecutionHandler rejectionHandler, boolean virtualThreads,
+                                                MeterRegistry meterRegistry) {
+        Timer latency = Timer.builder(METRIC_PREFIX + ".stage.latency")
+                .description("Time from submission to completion of an application stage")
+                .tag("stage", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.threads());
+        executor.setMaxPoolSize(properties.threads());
+        executor.setQueueCapacity(properties.queueCapacity());
+        executor.setThreadNamePrefix("onboarding-" + name + "-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setRejectedExecutionHandler(rejectionHandler);
+        executor.setTaskDecorator(task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                try {
+                    task.run();
+                } finally {
+                    latency.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+        executor.initialize();
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("stage", name)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Unable to delete staging file {}", file, ex);
+        }
+    }
+
+    private record StagedUpload(Path file, String contentType, String name) {
+    }
+}
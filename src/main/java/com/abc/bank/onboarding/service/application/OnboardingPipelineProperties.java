@@ -0,0 +1,29 @@
+package com.abc.bank.onboarding.service.application;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param documents    stage that digests the staged uploads and moves them into the document store
+ * @param registration stage that inserts the customer and queues the notification
+ * @param retention    how long the outcome of an application stays readable once it is final
+ * @param maxWait      longest a status request may wait for the final outcome (long polling)
+ */
+@ConfigurationProperties(prefix = "onboarding.pipeline")
+public record OnboardingPipelineProperties(
+        @DefaultValue Stage documents,
+        @DefaultValue Stage registration,
+        @DefaultValue("1h") Duration retention,
+        @DefaultValue("30s") Duration maxWait) {
+
+    /**
+     * @param threads       workers of the stage
+     * @param queueCapacity applications waiting for a worker, the queue never grows beyond it
+     */
+    public record Stage(
+            @DefaultValue("4") int threads,
+            @DefaultValue("100") int queueCapacity) {
+    }
+}
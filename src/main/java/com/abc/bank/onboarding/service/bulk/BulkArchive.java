@@ -0,0 +1,106 @@
+package com.abc.bank.onboarding.service.bulk;
+
+import com.abc.bank.onboarding.dto.BulkDocument;
+import com.abc.bank.onboarding.exception.ValidationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Spooled body of a bulk onboarding request: the NDJSON manifest and, for a zip archive, the documents it points to.
+ * The archive is read in place, with random access to its entries; closing it deletes the spool file.
+ */
+public final class BulkArchive implements Closeable {
+
+    static final String MANIFEST_ENTRY = "manifest.ndjson";
+
+    private final Path file;
+    //null for a plain NDJSON manifest
+    private final ZipFile zip;
+
+    private BulkArchive(Path file, ZipFile zip) {
+        this.file = file;
+        this.zip = zip;
+    }
+
+    static BulkArchive open(Path file, BulkFormat format) {
+        if (format == BulkFormat.NDJSON) {
+            return new BulkArchive(file, null);
+        }
+        ZipFile zip;
+        try {
+            zip = new ZipFile(file.toFile());
+        } catch (IOException ex) {
+            throw new ValidationException("Bulk request body is not a valid zip archive");
+        }
+        if (zip.getEntry(MANIFEST_ENTRY) == null) {
+            closeQuietly(zip);
+            throw new ValidationException("Bulk archive has no " + MANIFEST_ENTRY + " entry");
+        }
+        return new BulkArchive(file, zip);
+    }
+
+    Reader manifest() throws IOException {
+        InputStream manifest = zip == null
+                ? Files.newInputStream(file)
+                : zip.getInputStream(zip.getEntry(MANIFEST_ENTRY));
+        return new InputStreamReader(manifest, StandardCharsets.UTF_8);
+    }
+
+    //size in bytes, -1 when the archive does not record it
+    long size(BulkDocument document, String name) {
+        if (document.content() != null) {
+            return document.content().length;
+        }
+        return entry(document, name).getSize();
+    }
+
+    InputStream open(BulkDocument document, String name) throws IOException {
+        if (document.content() != null) {
+            return new ByteArrayInputStream(document.content());
+        }
+        return zip.getInputStream(entry(document, name));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (zip != null) {
+                zip.close();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private ZipEntry entry(BulkDocument document, String name) {
+        if (document.file() == null) {
+            throw new ValidationException(name + " missing or empty");
+        }
+        if (zip == null) {
+            throw new ValidationException(name + " must be inline, an NDJSON request carries no files");
+        }
+        ZipEntry entry = zip.getEntry(document.file());
+        if (entry == null || entry.isDirectory()) {
+            throw new ValidationException(name + " file " + document.file() + " not found in the archive");
+        }
+        return entry;
+    }
+
+    private static void closeQuietly(ZipFile zip) {
+        try {
+            zip.close();
+        } catch (IOException ignored) {
+            // nothing was read from it
+        }
+    }
+}
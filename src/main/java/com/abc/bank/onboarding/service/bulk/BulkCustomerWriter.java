@@ -0,0 +1,256 @@
+package com.abc.bank.onboarding.service.bulk;
+
+import com.abc.bank.onboarding.dto.BulkItemResult;
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.model.OutboxNotification;
+import com.abc.bank.onboarding.repository.CustomerUniqueKey;
+import com.abc.bank.onboarding.service.duplicate.DuplicateCustomerFilter;
+import com.abc.bank.onboarding.service.generator.AccountNumberGenerator;
+import com.abc.bank.onboarding.service.notification.NotificationService;
+import com.abc.bank.onboarding.service.photo.PhotoRenditionService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Inserts the customers of a bulk chunk, and their success notifications, with JDBC batches in one transaction.
+ * <p>
+ * Duplicates are filtered up front, against the database and within the chunk, so the batch normally goes through
+ * in one round trip per table. Should a concurrent onboarding still hit a unique constraint, the chunk is written
+ * again row by row, and each violation is classified like in a single onboarding: an SSN or email conflict is a
+ * duplicate, a taken account number is retried with another number and any other violation fails the row.
+ * The rows bypass Hibernate, so the ids are reserved here from the entity sequences, in blocks like the pooled-lo
+ * optimizer does, and the duplicate filter is fed and the photos are queued for rendering here once the transaction
+ * is committed.
+ */
+@Component
+@Slf4j
+public class BulkCustomerWriter {
+
+    static final String INSERT_CUSTOMER = """
+            insert into customers (id, first_name, last_name, gender, date_of_birth, phone_number, email, nationality,
+                residential_address, social_security_number, id_proof_digest, id_proof_size, id_proof_content_type,
+                photo_digest, photo_size, photo_content_type, account_number)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    static final String INSERT_NOTIFICATION = """
+            insert into notification_outbox (id, recipient, subject, body, status, attempts, next_attempt_at, created_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private static final String FIND_EXISTING = """
+            select social_security_number, email from customers
+            where social_security_number in (:ssns) or email in (:emails)""";
+
+    private static final int MAX_ACCOUNT_NUMBER_ATTEMPTS = 3;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final DuplicateCustomerFilter duplicateCustomerFilter;
+    private final PhotoRenditionService photoRenditionService;
+    private final String nextCustomerIdBlock;
+    private final String nextNotificationIdBlock;
+
+    public BulkCustomerWriter(NamedParameterJdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory entityManagerFactory,
+                              AccountNumberGenerator accountNumberGenerator,
+                              DuplicateCustomerFilter duplicateCustomerFilter,
+                              PhotoRenditionService photoRenditionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.duplicateCustomerFilter = duplicateCustomerFilter;
+        this.photoRenditionService = photoRenditionService;
+        SequenceSupport sequences = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+        this.nextCustomerIdBlock = sequences.getSequenceNextValString(Customer.ID_SEQUENCE);
+        this.nextNotificationIdBlock = sequences.getSequenceNextValString(OutboxNotification.ID_SEQUENCE);
+    }
+
+    //one result per registration, in the same order
+    public List<BulkItemResult> write(List<BulkRegistration> registrations) {
+        BulkItemResult[] results = new BulkItemResult[registrations.size()];
+        Set<String> takenKeys = findExistingKeys(registrations);
+        List<Row> rows = new ArrayList<>(registrations.size());
+        for (int i = 0; i < registrations.size(); i++) {
+            BulkRegistration registration = registrations.get(i);
+            CustomerOnboardRequest customer = registration.customer();
+            String ssnKey = ssnKey(customer.socialSecurityNumber());
+            String emailKey = emailKey(customer.email());
+            // only an accepted application claims its keys, a rejected insert would not hold any either
+            if (!takenKeys.contains(ssnKey) && !takenKeys.contains(emailKey)) {
+                takenKeys.add(ssnKey);
+                takenKeys.add(emailKey);
+                rows.add(new Row(i, registration, accountNumberGenerator.generate()));
+            } else {
+                results[i] = BulkItemResult.duplicate(registration.line(), registration.reference());
+            }
+        }
+
+        if (rows.isEmpty()) {
+            return List.of(results);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(rows));
+            rows.forEach(row -> created(row, results));
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Bulk chunk of {} customers hit a unique constraint, writing it row by row", rows.size(), ex);
+            rows.forEach(row -> writeOne(row, results));
+        }
+        return List.of(results);
+    }
+
+    private void writeOne(Row row, BulkItemResult[] results) {
+        BulkRegistration registration = row.registration();
+        Row attempt = row;
+        for (int attempts = 1; ; attempts++) {
+            try {
+                Row inserted = attempt;
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(inserted)));
+                created(attempt, results);
+                return;
+            } catch (DataIntegrityViolationException ex) {
+                CustomerUniqueKey key = CustomerUniqueKey.violatedBy(ex).orElse(null);
+                if (key != null && key.identifiesCustomer()) {
+                    results[row.index()] = BulkItemResult.duplicate(registration.line(), registration.reference());
+                    return;
+                }
+                if (key == null || attempts >= MAX_ACCOUNT_NUMBER_ATTEMPTS) {
+                    log.error("Unable to insert the customer of line {}", registration.line(), ex);
+                    results[row.index()] = BulkItemResult.failed(registration.line(), registration.reference());
+                    return;
+                }
+                log.warn("Account number conflict on line {}, retrying... attempt {}", registration.line(), attempts);
+                attempt = new Row(row.index(), registration, accountNumberGenerator.generate());
+            }
+        }
+    }
+
+    private void created(Row row, BulkItemResult[] results) {
+        CustomerOnboardRequest customer = row.registration().customer();
+        duplicateCustomerFilter.register(customer.socialSecurityNumber(), customer.email());
+        photoRenditionService.submit(row.registration().photo());
+        results[row.index()] = BulkItemResult.created(row.registration().line(), row.registration().reference(),
+                row.accountNumber());
+    }
+
+    private Set<String> findExistingKeys(List<BulkRegistration> registrations) {
+        Set<String> ssns = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<CustomerOnboardRequest> lookedUp = new ArrayList<>();
+        for (BulkRegistration registration : registrations) {
+            CustomerOnboardRequest customer = registration.customer();
+            // a definite miss of the filter spares the key the lookup
+            if (duplicateCustomerFilter.mightExist(customer.socialSecurityNumber(), customer.email())) {
+                ssns.add(customer.socialSecurityNumber());
+                emails.add(customer.email());
+                lookedUp.add(customer);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        if (ssns.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.query(FIND_EXISTING, Map.of("ssns", ssns, "emails", emails), rs -> {
+            existing.add(ssnKey(rs.getString(1)));
+            existing.add(emailKey(rs.getString(2)));
+        });
+        // the observed false-positive rate of the filter
+        for (CustomerOnboardRequest customer : lookedUp) {
+            duplicateCustomerFilter.recordDatabaseLookup(existing.contains(ssnKey(customer.socialSecurityNumber()))
+                    || existing.contains(emailKey(customer.email())));
+        }
+        return existing;
+    }
+
+    private void insert(List<Row> rows) {
+        Instant now = Instant.now();
+        long[] customerIds = reserveIds(nextCustomerIdBlock, Customer.ID_ALLOCATION_SIZE, rows.size());
+        long[] notificationIds = reserveIds(nextNotificationIdBlock, OutboxNotification.ID_ALLOCATION_SIZE, rows.size());
+        List<Integer> indexes = IntStream.range(0, rows.size()).boxed().toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_CUSTOMER, indexes, rows.size(), (ps, i) ->
+                bindCustomer(ps, customerIds[i], rows.get(i)));
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_NOTIFICATION, indexes, rows.size(), (ps, i) ->
+                bindNotification(ps, notificationIds[i], NotificationService.successNotification(
+                        rows.get(i).registration().customer().email(), rows.get(i).accountNumber(), now)));
+    }
+
+    //pooled-lo, like Hibernate: each value drawn from the sequence is the first id of a block of allocationSize ids
+    private long[] reserveIds(String nextBlock, int allocationSize, int count) {
+        long[] ids = new long[count];
+        long block = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % allocationSize == 0) {
+                block = jdbcTemplate.getJdbcTemplate().queryForObject(nextBlock, Long.class);
+            }
+            ids[i] = block + i % allocationSize;
+        }
+        return ids;
+    }
+
+    private static void bindCustomer(PreparedStatement ps, long id, Row row) throws SQLException {
+        CustomerOnboardRequest customer = row.registration().customer();
+        ps.setLong(1, id);
+        ps.setString(2, customer.firstName());
+        ps.setString(3, customer.lastName());
+        ps.setString(4, customer.gender().name());
+        ps.setObject(5, customer.dateOfBirth());
+        ps.setString(6, customer.phoneNumber());
+        ps.setString(7, customer.email());
+        ps.setString(8, customer.nationality());
+        ps.setString(9, customer.residentialAddress());
+        ps.setString(10, customer.socialSecurityNumber());
+        bindDocument(ps, 11, row.registration().idProof());
+        bindDocument(ps, 14, row.registration().photo());
+        ps.setString(17, row.accountNumber());
+    }
+
+    private static void bindDocument(PreparedStatement ps, int index, DocumentReference document) throws SQLException {
+        ps.setString(index, document.getDigest());
+        ps.setLong(index + 1, document.getSize());
+        ps.setString(index + 2, document.getContentType());
+    }
+
+    private static void bindNotification(PreparedStatement ps, long id, OutboxNotification notification)
+            throws SQLException {
+        ps.setLong(1, id);
+        ps.setString(2, notification.getRecipient());
+        ps.setString(3, notification.getSubject());
+        ps.setString(4, notification.getBody());
+        ps.setString(5, notification.getStatus().name());
+        ps.setInt(6, notification.getAttempts());
+        ps.setObject(7, notification.getNextAttemptAt().atOffset(ZoneOffset.UTC));
+        ps.setObject(8, notification.getCreatedAt().atOffset(ZoneOffset.UTC));
+    }
+
+    private static String ssnKey(String ssn) {
+        return "ssn:" + ssn;
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + email;
+    }
+
+    private record Row(int index, BulkRegistration registration, String accountNumber) {
+    }
+}
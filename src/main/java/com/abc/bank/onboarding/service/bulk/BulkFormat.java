@@ -0,0 +1,11 @@
+package com.abc.bank.onboarding.service.bulk;
+
+//Body of a bulk onboarding request
+public enum BulkFormat {
+
+    //manifest.ndjson entry with the documents as files of the archive
+    ZIP,
+
+    //manifest only, the documents are inline (base64)
+    NDJSON
+}
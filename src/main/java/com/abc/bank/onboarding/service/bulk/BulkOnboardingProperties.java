@@ -0,0 +1,21 @@
+package com.abc.bank.onboarding.service.bulk;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * @param batchSize     applications prepared in parallel and inserted in one JDBC batch and transaction
+ * @param parallelism   workers validating the applications and storing their documents
+ * @param maxChunkSize  manifest lines held in memory at once, a chunk is cut early when it reaches this size
+ * @param maxLineLength longest manifest line accepted, NDJSON lines carry their documents inline
+ * @param maxBodySize   largest request body spooled to disk, a larger one is refused with 413 while it is copied
+ */
+@ConfigurationProperties(prefix = "onboarding.bulk")
+public record BulkOnboardingProperties(
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("4") int parallelism,
+        @DefaultValue("64MB") DataSize maxChunkSize,
+        @DefaultValue("8MB") DataSize maxLineLength,
+        @DefaultValue("1GB") DataSize maxBodySize) {
+}
@@ -0,0 +1,263 @@
+package com.abc.bank.onboarding.service.bulk;
+
+import com.abc.bank.onboarding.dto.BulkApplication;
+import com.abc.bank.onboarding.dto.BulkDocument;
+import com.abc.bank.onboarding.dto.BulkItemResult;
+import com.abc.bank.onboarding.exception.BulkRequestTooLargeException;
+import com.abc.bank.onboarding.exception.DocumentStorageException;
+import com.abc.bank.onboarding.exception.ValidationException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.service.storage.DocumentIngestionService;
+import com.abc.bank.onboarding.service.storage.DocumentStore;
+import com.abc.bank.onboarding.service.validation.FileValidationService;
+import com.abc.bank.onboarding.service.validation.RequestValidationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Onboards the applications of a bulk request (see {@link BulkFormat}) chunk by chunk, so a backlog of any size
+ * goes through in bounded memory.
+ * <p>
+ * The applications of a chunk are parsed, validated and have their documents stored in parallel, then the valid
+ * ones are inserted with JDBC batches by {@link BulkCustomerWriter}. Every application gets its own
+ * {@link BulkItemResult}, in manifest order: a bad line is reported and the rest of the request goes on.
+ * Unlike a single onboarding no failure email is sent, the partner gets the outcome in the results.
+ * <p>
+ * Published metric: {@code onboarding.bulk.items}, tagged with the status of the result.
+ */
+@Service
+@Slf4j
+public class BulkOnboardingService {
+
+    private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
+
+    private final RequestValidationService requestValidationService;
+    private final FileValidationService fileValidationService;
+    private final DocumentIngestionService documentIngestionService;
+    private final DocumentStore documentStore;
+    private final BulkCustomerWriter writer;
+    private final ObjectMapper objectMapper;
+    private final BulkOnboardingProperties properties;
+    private final Map<BulkItemResult.Status, Counter> items = new EnumMap<>(BulkItemResult.Status.class);
+    private final ThreadPoolTaskExecutor workers;
+
+    public BulkOnboardingService(RequestValidationService requestValidationService,
+                                 FileValidationService fileValidationService,
+                                 DocumentIngestionService documentIngestionService,
+                                 DocumentStore documentStore,
+                                 BulkCustomerWriter writer,
+                                 ObjectMapper objectMapper,
+                                 BulkOnboardingProperties properties,
+                                 MeterRegistry meterRegistry,
+                                 Environment environment) {
+        this.requestValidationService = requestValidationService;
+        this.fileValidationService = fileValidationService;
+        this.documentIngestionService = documentIngestionService;
+        this.documentStore = documentStore;
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        for (BulkItemResult.Status status : BulkItemResult.Status.values()) {
+            items.put(status, Counter.builder("onboarding.bulk.items")
+                    .description("Applications of bulk requests by outcome")
+                    .tag("status", status.name())
+                    .register(meterRegistry));
+        }
+        this.workers = new ThreadPoolTaskExecutor();
+        workers.setCorePoolSize(properties.parallelism());
+        workers.setMaxPoolSize(properties.parallelism());
+        workers.setThreadNamePrefix("onboarding-bulk-");
+        workers.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        workers.initialize();
+    }
+
+    //the body is copied to a staging file first, the zip entries are then read with random access
+    public BulkArchive spool(InputStream body, BulkFormat format) {
+        Path spoolFile = documentStore.createStagingFile();
+        try {
+            copy(body, spoolFile);
+            return BulkArchive.open(spoolFile, format);
+        } catch (IOException ex) {
+            deleteQuietly(spoolFile);
+            throw new DocumentStorageException("Unable to spool bulk request", ex);
+        } catch (RuntimeException ex) {
+            deleteQuietly(spoolFile);
+            throw ex;
+        }
+    }
+
+    //stops at max-body-size, the client is refused before the disk fills up
+    private void copy(InputStream body, Path spoolFile) throws IOException {
+        long maxBodySize = properties.maxBodySize().toBytes();
+        long copied = 0;
+        byte[] buffer = new byte[SPOOL_BUFFER_SIZE];
+        try (OutputStream out = Files.newOutputStream(spoolFile)) {
+            for (int read = body.read(buffer); read >= 0; read = body.read(buffer)) {
+                copied += read;
+                if (copied > maxBodySize) {
+                    throw new BulkRequestTooLargeException(
+                            String.format("Bulk request too large: the body is limited to %d bytes", maxBodySize));
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    //the results of each chunk are handed to the sink as soon as the chunk is written
+    public void process(BulkArchive archive, Consumer<List<BulkItemResult>> sink) {
+        long start = System.nanoTime();
+        long count = 0;
+        try (ManifestReader manifest = new ManifestReader(archive.manifest(),
+                (int) properties.maxLineLength().toBytes())) {
+            List<ManifestReader.Line> chunk = new ArrayList<>();
+            long chunkSize = 0;
+            for (ManifestReader.Line line = manifest.next(); line != null; line = manifest.next()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(line);
+                chunkSize += line.length();
+                if (chunk.size() >= properties.batchSize() || chunkSize >= properties.maxChunkSize().toBytes()) {
+                    sink.accept(onboard(chunk, archive));
+                    count += chunk.size();
+                    chunk = new ArrayList<>();
+                    chunkSize = 0;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                sink.accept(onboard(chunk, archive));
+                count += chunk.size();
+            }
+        } catch (IOException ex) {
+            throw new DocumentStorageException("Unable to read bulk manifest", ex);
+        }
+        log.info("Bulk request of {} applications processed in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private List<BulkItemResult> onboard(List<ManifestReader.Line> chunk, BulkArchive archive) {
+        List<CompletableFuture<Prepared>> preparing = chunk.stream()
+                .map(line -> CompletableFuture.supplyAsync(() -> prepare(line, archive), workers))
+                .toList();
+
+        BulkItemResult[] results = new BulkItemResult[chunk.size()];
+        List<BulkRegistration> registrations = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Prepared prepared = preparing.get(i).join();
+            if (prepared.registration() == null) {
+                results[i] = prepared.rejection();
+            } else {
+                registrations.add(prepared.registration());
+                positions.add(i);
+            }
+        }
+
+        List<BulkItemResult> written = write(registrations);
+        for (int i = 0; i < written.size(); i++) {
+            results[positions.get(i)] = written.get(i);
+        }
+        for (BulkItemResult result : results) {
+            items.get(result.status()).increment();
+        }
+        return List.of(results);
+    }
+
+    private List<BulkItemResult> write(List<BulkRegistration> registrations) {
+        try {
+            return writer.write(registrations);
+        } catch (RuntimeException ex) {
+            log.error("Unable to write bulk chunk of {} customers", registrations.size(), ex);
+            return registrations.stream()
+                    .map(registration -> BulkItemResult.failed(registration.line(), registration.reference()))
+                    .toList();
+        }
+    }
+
+    private Prepared prepare(ManifestReader.Line line, BulkArchive archive) {
+        if (line.content() == null) {
+            return Prepared.rejected(BulkItemResult.rejected(line.number(), null,
+                    "Application exceeds " + properties.maxLineLength().toBytes() + " characters"));
+        }
+        BulkApplication application;
+        try {
+            application = objectMapper.readValue(line.content(), BulkApplication.class);
+        } catch (JacksonException ex) {
+            return Prepared.rejected(BulkItemResult.rejected(line.number(), null,
+                    "Malformed application: " + ex.getOriginalMessage()));
+        }
+        try {
+            if (application.customer() == null) {
+                throw new ValidationException("customer missing");
+            }
+            requestValidationService.validate(application.customer());
+            validateDocument(archive, application.idProof(), "idProof");
+            validateDocument(archive, application.photo(), "photo");
+            return new Prepared(new BulkRegistration(line.number(), application.reference(), application.customer(),
+                    ingest(archive, application.idProof(), "idProof"),
+                    ingest(archive, application.photo(), "photo")), null);
+        } catch (ValidationException ex) {
+            return Prepared.rejected(BulkItemResult.rejected(line.number(), application.reference(), ex.getMessage()));
+        } catch (RuntimeException ex) {
+            log.error("Bulk application at line {} failed", line.number(), ex);
+            return Prepared.rejected(BulkItemResult.failed(line.number(), application.reference()));
+        }
+    }
+
+    private void validateDocument(BulkArchive archive, BulkDocument document, String name) {
+        if (document == null) {
+            throw new ValidationException(name + " missing or empty");
+        }
+        fileValidationService.validateDocument(archive.size(document, name), document.contentType(), name);
+    }
+
+    private DocumentReference ingest(BulkArchive archive, BulkDocument document, String name) {
+        InputStream content;
+        try {
+            content = archive.open(document, name);
+        } catch (IOException ex) {
+            throw new DocumentStorageException("Unable to read " + name, ex);
+        }
+        return documentIngestionService.ingest(content, document.contentType(), name);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Unable to delete spool file {}", file, ex);
+        }
+    }
+
+    //either the application is ready to be inserted or it already has its result
+    private record Prepared(BulkRegistration registration, BulkItemResult rejection) {
+
+        static Prepared rejected(BulkItemResult result) {
+            return new Prepared(null, result);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.abc.bank.onboarding.service.bulk;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.model.DocumentReference;
+
+/**
+ * Validated bulk application whose documents are stored, ready to be inserted.
+ *
+ * @param line      line of the application in the manifest
+ * @param reference reference of the application at the partner
+ */
+public record BulkRegistration(long line,
+                               String reference,
+                               CustomerOnboardRequest customer,
+                               DocumentReference idProof,
+                               DocumentReference photo) {
+}
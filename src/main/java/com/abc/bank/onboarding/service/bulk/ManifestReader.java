@@ -0,0 +1,86 @@
+package com.abc.bank.onboarding.service.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+//Reads the manifest line by line, a line longer than the limit is skipped rather than buffered whole
+final class ManifestReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final Reader reader;
+    private final int maxLineLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long lineNumber;
+
+    ManifestReader(Reader reader, int maxLineLength) {
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+    }
+
+    //null at the end of the manifest
+    Line next() throws IOException {
+        StringBuilder line = new StringBuilder();
+        boolean tooLong = false;
+        while (true) {
+            if (position == limit && !fill()) {
+                if (line.isEmpty() && !tooLong) {
+                    return null;
+                }
+                break;
+            }
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            int count = position - start;
+            int room = maxLineLength - line.length();
+            if (count > room) {
+                tooLong = true;
+                count = room;
+            }
+            line.append(buffer, start, count);
+            if (position < limit) {
+                position++; // the line feed
+                break;
+            }
+        }
+        lineNumber++;
+        if (tooLong) {
+            return new Line(lineNumber, null);
+        }
+        if (!line.isEmpty() && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        return new Line(lineNumber, line.toString());
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean fill() throws IOException {
+        position = 0;
+        limit = Math.max(reader.read(buffer), 0);
+        return limit > 0;
+    }
+
+    /**
+     * @param number  line number in the manifest, starting at 1
+     * @param content the line without its terminator, null when it exceeds the limit
+     */
+    record Line(long number, String content) {
+
+        boolean isBlank() {
+            return content != null && content.isBlank();
+        }
+
+        int length() {
+            return content == null ? 0 : content.length();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.abc.bank.onboarding.service.customer;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+//Kept off the application class so that test slices without a cache manager do not get the caching interceptor
+@Configuration
+@EnableCaching
+public class CustomerCacheConfig {
+}
@@ -0,0 +1,37 @@
+package com.abc.bank.onboarding.service.customer;
+
+import com.abc.bank.onboarding.dto.DocumentType;
+import com.abc.bank.onboarding.model.Customer;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+//Instantiated by Hibernate through the Spring bean container, evicts the cached views of an updated or removed customer
+public class CustomerCacheEntityListener {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public CustomerCacheEntityListener(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Customer customer) {
+        cacheManager.ifAvailable(manager -> {
+            evict(manager.getCache(CustomerQueryService.DETAILS_CACHE), customer.getAccountNumber());
+            for (DocumentType type : DocumentType.values()) {
+                evict(manager.getCache(CustomerQueryService.DOCUMENTS_CACHE),
+                        CustomerQueryService.documentKey(customer.getAccountNumber(), type));
+            }
+        });
+    }
+
+    private static void evict(Cache cache, String key) {
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
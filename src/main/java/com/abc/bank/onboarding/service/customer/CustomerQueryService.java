@@ -0,0 +1,69 @@
+package com.abc.bank.onboarding.service.customer;
+
+import com.abc.bank.onboarding.dto.CustomerDetails;
+import com.abc.bank.onboarding.dto.CustomerPage;
+import com.abc.bank.onboarding.dto.CustomerSummary;
+import com.abc.bank.onboarding.dto.DocumentType;
+import com.abc.bank.onboarding.exception.CustomerNotFoundException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.repository.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read side of the customers for the back office: projections of the columns shown, never the entity, and pages
+ * addressed by the last id seen rather than an offset, so a deep page costs the same as the first one.
+ * <p>
+ * Details and document references are cached per account number (immutable views only, see
+ * {@code spring.cache.caffeine.spec}); unknown accounts are not cached and {@link CustomerCacheEntityListener}
+ * evicts a customer when the entity is updated or removed.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CustomerQueryService {
+
+    public static final String DETAILS_CACHE = "customer-details";
+    public static final String DOCUMENTS_CACHE = "customer-documents";
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final CustomerRepository customerRepository;
+
+
+    @Cacheable(DETAILS_CACHE)
+    public CustomerDetails find(String accountNumber) {
+        return customerRepository.findDetailsByAccountNumber(accountNumber)
+                .orElseThrow(() -> new CustomerNotFoundException("Unknown account number " + accountNumber));
+    }
+
+    //same key as documentKey
+    @Cacheable(cacheNames = DOCUMENTS_CACHE, key = "#accountNumber + ':' + #type")
+    public DocumentReference findDocument(String accountNumber, DocumentType type) {
+        Optional<DocumentReference> document = switch (type) {
+            case ID_PROOF -> customerRepository.findIdProofByAccountNumber(accountNumber);
+            case PHOTO -> customerRepository.findPhotoByAccountNumber(accountNumber);
+        };
+        return document.orElseThrow(() -> new CustomerNotFoundException("Unknown account number " + accountNumber));
+    }
+
+    public CustomerPage list(long after, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // one row more than asked tells whether there is a next page without a count query
+        List<CustomerSummary> rows = customerRepository.findSummariesAfter(after, Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new CustomerPage(rows, null);
+        }
+        List<CustomerSummary> page = rows.subList(0, pageSize);
+        return new CustomerPage(List.copyOf(page), page.get(pageSize - 1).id());
+    }
+
+    static String documentKey(String accountNumber, DocumentType type) {
+        return accountNumber + ":" + type;
+    }
+}
@@ -0,0 +1,108 @@
+package com.abc.bank.onboarding.service.duplicate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over strings.
+ * <p>
+ * Sized from the expected number of insertions and the target false-positive probability; the k bit
+ * positions are derived from two 64-bit hashes (Kirsch-Mitzenmacher double hashing).
+ */
+public class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final AtomicLong setBits = new AtomicLong();
+    private final AtomicLong insertions = new AtomicLong();
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be > 0 and falsePositiveProbability in ]0, 1[");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact((bits + Long.SIZE - 1) / Long.SIZE));
+        this.bitSize = (long) words.length() * Long.SIZE;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(String key) {
+        long h1 = fmix64(fnv1a64(key));
+        long h2 = fmix64(h1 ^ GOLDEN_GAMMA) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            setBit(Math.floorMod(h1 + i * h2, bitSize));
+        }
+        insertions.incrementAndGet();
+    }
+
+    public boolean mightContain(String key) {
+        long h1 = fmix64(fnv1a64(key));
+        long h2 = fmix64(h1 ^ GOLDEN_GAMMA) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    public long insertions() {
+        return insertions.get();
+    }
+
+    public double fillRatio() {
+        return (double) setBits.get() / bitSize;
+    }
+
+    //probability that a key never inserted is reported as present, given the current fill ratio
+    public double expectedFalsePositiveRate() {
+        return Math.pow(fillRatio(), hashFunctions);
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+        setBits.incrementAndGet();
+    }
+
+    private static long fnv1a64(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    //MurmurHash3 finalizer, spreads the FNV output over all 64 bits
+    private static long fmix64(long value) {
+        long k = value;
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,118 @@
+package com.abc.bank.onboarding.service.duplicate;
+
+import com.abc.bank.onboarding.repository.CustomerRepository;
+import com.abc.bank.onboarding.repository.DuplicateKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter over the SSNs and normalized emails of the onboarded customers.
+ * <p>
+ * A negative answer is definite, so the duplicate check can skip the database round trip; a positive
+ * answer only means "possibly present" and must be confirmed by the database. The filter is warmed up
+ * by streaming the existing keys once the application is ready and fed by {@link DuplicateFilterEntityListener}
+ * on every insert. Until the warm-up completes every key is reported as possibly present.
+ * Writes made by other instances are not seen, the unique constraints stay the source of truth.
+ */
+@Component
+@Slf4j
+public class DuplicateCustomerFilter {
+
+    private final DuplicateFilterProperties properties;
+    private final CustomerRepository customerRepository;
+    private final BloomFilter bloomFilter;
+    private final Counter skippedLookups;
+    private final Counter databaseLookups;
+    private final Counter falsePositives;
+
+    private volatile boolean ready;
+
+    public DuplicateCustomerFilter(DuplicateFilterProperties properties,
+                                   CustomerRepository customerRepository,
+                                   MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.customerRepository = customerRepository;
+        // two keys (ssn + email) per customer
+        this.bloomFilter = new BloomFilter(properties.expectedInsertions() * 2, properties.falsePositiveProbability());
+        this.skippedLookups = Counter.builder("onboarding.duplicate.filter.lookups")
+                .tag("result", "skipped").register(meterRegistry);
+        this.databaseLookups = Counter.builder("onboarding.duplicate.filter.lookups")
+                .tag("result", "database").register(meterRegistry);
+        this.falsePositives = Counter.builder("onboarding.duplicate.filter.false.positives")
+                .register(meterRegistry);
+        Gauge.builder("onboarding.duplicate.filter.fill.ratio", bloomFilter, BloomFilter::fillRatio)
+                .register(meterRegistry);
+        Gauge.builder("onboarding.duplicate.filter.expected.fpp", bloomFilter, BloomFilter::expectedFalsePositiveRate)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (!properties.enabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (Stream<DuplicateKey> keys = customerRepository.streamDuplicateKeys()) {
+            keys.forEach(key -> register(key.getSocialSecurityNumber(), key.getEmail()));
+        }
+        ready = true;
+        log.info("Duplicate filter warmed up with {} keys in {} ms (fill ratio {})",
+                bloomFilter.insertions(), (System.nanoTime() - start) / 1_000_000, bloomFilter.fillRatio());
+    }
+
+    public void register(String ssn, String email) {
+        bloomFilter.put(ssnKey(ssn));
+        bloomFilter.put(emailKey(email));
+    }
+
+    public boolean mightExist(String ssn, String email) {
+        if (!properties.enabled() || !ready
+                || bloomFilter.mightContain(ssnKey(ssn)) || bloomFilter.mightContain(emailKey(email))) {
+            databaseLookups.increment();
+            return true;
+        }
+        skippedLookups.increment();
+        return false;
+    }
+
+    public void recordDatabaseLookup(boolean exists) {
+        if (!exists && ready && properties.enabled()) {
+            falsePositives.increment();
+        }
+    }
+
+    public DuplicateFilterStats stats() {
+        double skipped = skippedLookups.count();
+        double fp = falsePositives.count();
+        return new DuplicateFilterStats(
+                properties.enabled(),
+                ready,
+                bloomFilter.bitSize(),
+                bloomFilter.hashFunctions(),
+                bloomFilter.insertions(),
+                bloomFilter.fillRatio(),
+                bloomFilter.expectedFalsePositiveRate(),
+                (long) skipped,
+                (long) databaseLookups.count(),
+                (long) fp,
+                skipped + fp == 0 ? 0 : fp / (skipped + fp));
+    }
+
+    private static String ssnKey(String ssn) {
+        return "ssn:" + ssn;
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + (email == null ? null : email.trim().toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,19 @@
+package com.abc.bank.onboarding.service.duplicate;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "duplicatefilter")
+@RequiredArgsConstructor
+public class DuplicateFilterEndpoint {
+
+    private final DuplicateCustomerFilter duplicateCustomerFilter;
+
+    @ReadOperation
+    public DuplicateFilterStats stats() {
+        return duplicateCustomerFilter.stats();
+    }
+}
@@ -0,0 +1,21 @@
+package com.abc.bank.onboarding.service.duplicate;
+
+import com.abc.bank.onboarding.model.Customer;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+
+//Instantiated by Hibernate through the Spring bean container, keeps the duplicate filter in sync with every insert
+public class DuplicateFilterEntityListener {
+
+    private final ObjectProvider<DuplicateCustomerFilter> duplicateCustomerFilter;
+
+    public DuplicateFilterEntityListener(ObjectProvider<DuplicateCustomerFilter> duplicateCustomerFilter) {
+        this.duplicateCustomerFilter = duplicateCustomerFilter;
+    }
+
+    @PostPersist
+    public void onPersist(Customer customer) {
+        duplicateCustomerFilter.ifAvailable(filter ->
+                filter.register(customer.getSocialSecurityNumber(), customer.getEmail()));
+    }
+}
@@ -0,0 +1,16 @@
+package com.abc.bank.onboarding.service.duplicate;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled                  when disabled every duplicate check goes to the database
+ * @param expectedInsertions       number of customers the filter is sized for (two keys are inserted per customer)
+ * @param falsePositiveProbability target false-positive probability at the expected number of insertions
+ */
+@ConfigurationProperties(prefix = "onboarding.duplicate-filter")
+public record DuplicateFilterProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("1000000") long expectedInsertions,
+        @DefaultValue("0.01") double falsePositiveProbability) {
+}
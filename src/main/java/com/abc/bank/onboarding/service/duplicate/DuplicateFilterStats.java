@@ -0,0 +1,15 @@
+package com.abc.bank.onboarding.service.duplicate;
+
+public record DuplicateFilterStats(
+        boolean enabled,
+        boolean ready,
+        long bitSize,
+        int hashFunctions,
+        long insertions,
+        double fillRatio,
+        double expectedFalsePositiveRate,
+        long skippedLookups,
+        long databaseLookups,
+        long falsePositives,
+        double observedFalsePositiveRate) {
+}
@@ -0,0 +1,47 @@
+package com.abc.bank.onboarding.service.generator;
+
+import com.abc.bank.onboarding.exception.AccountNumberGenerationException;
+import com.abc.bank.onboarding.model.AccountNumberBlock;
+import com.abc.bank.onboarding.repository.AccountNumberBlockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Block allocator: reserves blocks of account numbers by moving a high-water mark row forward under a pessimistic
+ * lock, so blocks handed to different instances never overlap. The row holds the next free account number rather
+ * than a block index, so changing the block size between deployments never hands out a number twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountNumberBlockAllocator {
+
+    static final String ALLOCATOR_NAME = "account-number";
+    static final long ACCOUNT_NUMBER_SPACE = 10_000_000_000L;
+
+    private final AccountNumberBlockRepository repository;
+
+    @Value("${onboarding.account-number.block-size:1000}")
+    private long blockSize;
+
+    //own transaction: the row lock is released as soon as the block is reserved
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public AccountNumberRange reserve() {
+        // the first block starts at one block size, like the former block index 1
+        AccountNumberBlock block = repository.findForUpdate(ALLOCATOR_NAME)
+                .orElseGet(() -> new AccountNumberBlock(ALLOCATOR_NAME, blockSize));
+        long start = block.getNextValue();
+        long end = start + blockSize;
+        if (end > ACCOUNT_NUMBER_SPACE) {
+            throw new AccountNumberGenerationException("Account number space exhausted");
+        }
+        block.setNextValue(end);
+        repository.save(block);
+        log.info("Reserved account number block [{}, {})", start, end);
+        return new AccountNumberRange(start, end);
+    }
+}
@@ -1,30 +1,133 @@
 package com.abc.bank.onboarding.service.generator;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.security.SecureRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Hands out account numbers from blocks reserved by {@link AccountNumberBlockAllocator}.
+ * <p>
+ * The next block is reserved in the background once half of the current one is handed out, so requests rarely wait
+ * for the database round trip of a reservation. Only one reservation in advance runs at a time and it only runs when
+ * no block is waiting, so a reserved block is never overwritten and lost.
+ */
 @Service
+@Slf4j
 public class AccountNumberGenerator {
 
-    private static final SecureRandom RANDOM = new SecureRandom();
     private static final String COUNTRY_CODE = "NL";
     private static final String BANK_CODE = "ABC";
     private static final int ACCOUNT_NUMBER_LENGTH = 10;
 
+    private final AccountNumberBlockAllocator allocator;
+    private final Executor prefetchExecutor;
+    private final AtomicReference<AccountNumberRange> currentRange = new AtomicReference<>();
+    private final AtomicReference<AccountNumberRange> nextRange = new AtomicReference<>();
+    private final AtomicBoolean prefetching = new AtomicBoolean();
+    //not synchronized: the reservation is a database round trip, it must not pin a virtual thread's carrier
+    private final ReentrantLock refillLock = new ReentrantLock();
 
-    //Dutch IBAN format: NL kk BANK_CODE ACCOUNT_NUMBER
+    @Autowired
+    public AccountNumberGenerator(AccountNumberBlockAllocator allocator) {
+        this(allocator, new SimpleAsyncTaskExecutor("account-number-prefetch-"));
+    }
+
+    AccountNumberGenerator(AccountNumberBlockAllocator allocator, Executor prefetchExecutor) {
+        this.allocator = allocator;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        prefetch();
+    }
+
+    //Dutch IBAN format: NL kk BANK_CODE ACCOUNT_NUMBER, numbers come from a reserved block so they never collide
     public String generate() {
+        while (true) {
+            AccountNumberRange range = currentRange.get();
+            long number = range == null ? -1 : range.next();
+            if (number >= 0) {
+                if (range.isRunningLow()) {
+                    prefetch();
+                }
+                return toIban(number);
+            }
+            refill(range);
+        }
+    }
+
+    static String toIban(long number) {
+        String bban = BANK_CODE + String.format("%0" + ACCOUNT_NUMBER_LENGTH + "d", number);
+        return COUNTRY_CODE + checkDigits(bban) + bban;
+    }
 
-        StringBuilder accountNumber = new StringBuilder();
-        for (int i = 0; i < ACCOUNT_NUMBER_LENGTH; i++) {
-            accountNumber.append(RANDOM.nextInt(10));
+    //ISO 13616 / ISO 7064 mod 97-10: move country code and "00" to the end, letters become 10..35
+    static String checkDigits(String bban) {
+        int remainder = mod97(bban + COUNTRY_CODE + "00");
+        return String.format("%02d", 98 - remainder);
+    }
+
+    static int mod97(String value) {
+        int remainder = 0;
+        for (int i = 0; i < value.length(); i++) {
+            int digit = Character.getNumericValue(value.charAt(i));
+            remainder = digit > 9
+                    ? (remainder * 100 + digit) % 97
+                    : (remainder * 10 + digit) % 97;
+        }
+        return remainder;
+    }
+
+    private void refill(AccountNumberRange exhausted) {
+        refillLock.lock();
+        try {
+            if (currentRange.get() != exhausted) {
+                return; // another thread already reserved a fresh block
+            }
+            AccountNumberRange prefetched = nextRange.getAndSet(null);
+            currentRange.set(prefetched != null ? prefetched : reserve());
+        } finally {
+            refillLock.unlock();
         }
-        StringBuilder initialDigits = new StringBuilder();
-        for (int i = 0; i < 2; i++) {
-            initialDigits.append(RANDOM.nextInt(10));
+    }
+
+    private void prefetch() {
+        if (nextRange.get() != null || !prefetching.compareAndSet(false, true)) {
+            return;
+        }
+        // checked again once the flag is held: the block of a prefetch that ended since the first check may be waiting
+        if (nextRange.get() != null) {
+            prefetching.set(false);
+            return;
         }
+        prefetchExecutor.execute(() -> {
+            try {
+                nextRange.set(reserve());
+            } catch (RuntimeException ex) {
+                // the block is reserved synchronously when the current one runs out
+                log.warn("Unable to reserve the next account number block in advance", ex);
+            } finally {
+                prefetching.set(false);
+            }
+        });
+    }
 
-        return COUNTRY_CODE + initialDigits + BANK_CODE + accountNumber;
+    private AccountNumberRange reserve() {
+        try {
+            return allocator.reserve();
+        } catch (DataIntegrityViolationException ex) {
+            // the allocator row was created concurrently by another instance, it exists now
+            return allocator.reserve();
+        }
     }
 }
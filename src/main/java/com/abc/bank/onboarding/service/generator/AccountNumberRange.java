@@ -0,0 +1,28 @@
+package com.abc.bank.onboarding.service.generator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Block of account numbers [start, end) reserved by this instance, handed out without locking
+public class AccountNumberRange {
+
+    private final AtomicLong next;
+    private final long end;
+    private final long lowWaterMark;
+
+    public AccountNumberRange(long start, long end) {
+        this.next = new AtomicLong(start);
+        this.end = end;
+        this.lowWaterMark = start + (end - start) / 2;
+    }
+
+    //returns -1 once the range is exhausted
+    public long next() {
+        long value = next.getAndIncrement();
+        return value < end ? value : -1;
+    }
+
+    //half of the block is handed out, time to reserve the next one
+    public boolean isRunningLow() {
+        return next.get() > lowWaterMark;
+    }
+}
@@ -0,0 +1,38 @@
+package com.abc.bank.onboarding.service.notification;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailSender {
+
+    private final JavaMailSender mailSender;
+
+    @Value("${spring.mail.username:}")
+    private String fromEmail;
+
+    public void send(String toEmail, String subject, String body) throws MessagingException {
+        if (fromEmail == null || fromEmail.isBlank()) {
+            log.warn("Email sender not configured. Falling back to logging: To={}, Subject={}, Body={}",
+                    toEmail, subject, body);
+            return;
+        }
+
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
+        helper.setFrom(fromEmail);
+        helper.setTo(toEmail);
+        helper.setSubject(subject);
+        helper.setText(body, false);
+        mailSender.send(mimeMessage);
+        log.info("Email sent successfully to {}", toEmail);
+    }
+}
@@ -0,0 +1,84 @@
+package com.abc.bank.onboarding.service.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded executor the outbox dispatcher sends emails on.
+ * <p>
+ * Published metrics (tagged with the rejection policy where relevant):
+ * {@code onboarding.notification.executor.queue.depth}, {@code .active}, {@code .pool.size},
+ * {@code .rejections} and {@code .task.latency} (submission to completion).
+ */
+@Configuration
+public class NotificationExecutorConfig {
+
+    static final String METRIC_PREFIX = "onboarding.notification.executor";
+
+    @Bean
+    public ThreadPoolTaskExecutor notificationExecutor(NotificationExecutorProperties properties,
+                                                       MeterRegistry meterRegistry,
+                                                       Environment environment) {
+        Timer latency = Timer.builder(METRIC_PREFIX + ".task.latency")
+                .description("Time from submission to completion of an email delivery")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter rejections = Counter.builder(METRIC_PREFIX + ".rejections")
+                .tag("policy", properties.rejectionPolicy().name())
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.corePoolSize());
+        executor.setMaxPoolSize(properties.maxPoolSize());
+        executor.setQueueCapacity(properties.queueCapacity());
+        executor.setThreadNamePrefix("notification-");
+        //still bounded by the pool size, the workers just stop holding platform threads while SMTP blocks
+        executor.setVirtualThreads(Threading.VIRTUAL.isActive(environment));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setRejectedExecutionHandler(counting(rejectionHandler(properties.rejectionPolicy()), rejections));
+        executor.setTaskDecorator(task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                try {
+                    task.run();
+                } finally {
+                    latency.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    static RejectedExecutionHandler rejectionHandler(NotificationExecutorProperties.RejectionPolicy policy) {
+        return switch (policy) {
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case DROP_OLDEST -> new ThreadPoolExecutor.DiscardOldestPolicy();
+            case SPILL_TO_DISK -> new ThreadPoolExecutor.AbortPolicy();
+        };
+    }
+
+    private static RejectedExecutionHandler counting(RejectedExecutionHandler delegate, Counter rejections) {
+        return (task, executor) -> {
+            rejections.increment();
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+}
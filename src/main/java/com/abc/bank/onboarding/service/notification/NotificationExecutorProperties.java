@@ -0,0 +1,27 @@
+package com.abc.bank.onboarding.service.notification;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param corePoolSize    threads kept alive to send emails
+ * @param maxPoolSize     threads started once the queue is full
+ * @param queueCapacity   deliveries waiting for a thread, the queue never grows beyond it
+ * @param rejectionPolicy what happens to a delivery submitted while the queue is full and all threads are busy
+ */
+@ConfigurationProperties(prefix = "onboarding.notifications.executor")
+public record NotificationExecutorProperties(
+        @DefaultValue("4") int corePoolSize,
+        @DefaultValue("4") int maxPoolSize,
+        @DefaultValue("100") int queueCapacity,
+        @DefaultValue("CALLER_RUNS") RejectionPolicy rejectionPolicy) {
+
+    public enum RejectionPolicy {
+        //the dispatcher sends the email itself, which also stops it from polling
+        CALLER_RUNS,
+        //the oldest queued delivery is dropped, its notification is sent again once its lease expires
+        DROP_OLDEST,
+        //the delivery is refused and its notification is released back to the outbox table for the next poll
+        SPILL_TO_DISK
+    }
+}
@@ -0,0 +1,126 @@
+package com.abc.bank.onboarding.service.notification;
+
+import com.abc.bank.onboarding.model.NotificationStatus;
+import com.abc.bank.onboarding.model.OutboxNotification;
+import com.abc.bank.onboarding.repository.OutboxNotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Polls the notification outbox and sends the due notifications.
+ * <p>
+ * A batch, no larger than the free capacity of the notification executor, is claimed in a short transaction by
+ * pushing its next attempt past the lease, then handed to the executor and sent outside of any transaction.
+ * Each notification is then marked as sent, or rescheduled with exponential backoff until
+ * {@link NotificationOutboxProperties#maxAttempts()} is reached. A delivery refused by the executor is released
+ * back to the outbox; one whose outcome is never recorded (crash, dropped task) is picked up again once its lease
+ * expires, so delivery is at least once and the in-memory queue never holds more than the executor capacity.
+ */
+@Component
+@Slf4j
+public class NotificationOutboxDispatcher {
+
+    static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxNotificationRepository outboxRepository;
+    private final EmailSender emailSender;
+    private final NotificationOutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor notificationExecutor;
+
+    public NotificationOutboxDispatcher(OutboxNotificationRepository outboxRepository,
+                                        EmailSender emailSender,
+                                        NotificationOutboxProperties properties,
+                                        TransactionTemplate transactionTemplate,
+                                        @Qualifier("notificationExecutor") ThreadPoolTaskExecutor notificationExecutor) {
+        this.outboxRepository = outboxRepository;
+        this.emailSender = emailSender;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.notificationExecutor = notificationExecutor;
+    }
+
+    @Scheduled(fixedDelayString = "${onboarding.notifications.outbox.poll-interval:1s}")
+    public void dispatch() {
+        int limit = Math.min(properties.batchSize(), freeCapacity());
+        if (limit <= 0) {
+            return;
+        }
+        List<PendingNotification> batch = claimBatch(Instant.now(), limit);
+        for (PendingNotification notification : batch) {
+            try {
+                notificationExecutor.execute(() -> deliver(notification));
+            } catch (RejectedExecutionException ex) {
+                log.debug("Notification {} refused by the executor, released to the outbox", notification.id());
+                outboxRepository.release(notification.id(), Instant.now());
+            }
+        }
+    }
+
+    //idle threads plus free queue slots, racy by nature: the rejection policy handles the overshoot
+    int freeCapacity() {
+        ThreadPoolExecutor executor = notificationExecutor.getThreadPoolExecutor();
+        return executor.getQueue().remainingCapacity() + executor.getMaximumPoolSize() - executor.getActiveCount();
+    }
+
+    List<PendingNotification> claimBatch(Instant now, int limit) {
+        return transactionTemplate.execute(status -> {
+            List<OutboxNotification> due = outboxRepository.findDue(
+                    NotificationStatus.PENDING, now, Limit.of(limit));
+            due.forEach(notification -> notification.setNextAttemptAt(now.plus(properties.lease())));
+            return due.stream().map(PendingNotification::from).toList();
+        });
+    }
+
+    void deliver(PendingNotification notification) {
+        try {
+            emailSender.send(notification.recipient(), notification.subject(), notification.body());
+            outboxRepository.markSent(notification.id(), Instant.now());
+        } catch (Exception ex) {
+            recordFailure(notification, ex);
+        }
+    }
+
+    private void recordFailure(PendingNotification notification, Exception cause) {
+        int attempts = notification.attempts() + 1;
+        String error = truncate(cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        if (attempts >= properties.maxAttempts()) {
+            log.error("Notification {} to {} failed after {} attempts, giving up",
+                    notification.id(), notification.recipient(), attempts, cause);
+            outboxRepository.markFailed(notification.id(), attempts, error);
+            return;
+        }
+        Duration backoff = backoff(attempts);
+        log.warn("Notification {} to {} failed (attempt {}), retrying in {}",
+                notification.id(), notification.recipient(), attempts, backoff, cause);
+        outboxRepository.reschedule(notification.id(), attempts, Instant.now().plus(backoff), error);
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = properties.initialBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(properties.maxBackoff()) > 0 ? properties.maxBackoff() : delay;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    record PendingNotification(Long id, String recipient, String subject, String body, int attempts) {
+
+        static PendingNotification from(OutboxNotification notification) {
+            return new PendingNotification(notification.getId(), notification.getRecipient(),
+                    notification.getSubject(), notification.getBody(), notification.getAttempts());
+        }
+    }
+}
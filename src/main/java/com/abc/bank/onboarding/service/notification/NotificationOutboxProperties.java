@@ -0,0 +1,22 @@
+package com.abc.bank.onboarding.service.notification;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param batchSize      maximum number of notifications claimed per poll, further bounded by the free executor capacity
+ * @param maxAttempts    attempts after which a notification is marked as failed
+ * @param initialBackoff delay before the first retry, doubled on every further attempt
+ * @param maxBackoff     upper bound of the retry delay
+ * @param lease          time a claimed notification is hidden from other polls while it is being sent
+ */
+@ConfigurationProperties(prefix = "onboarding.notifications.outbox")
+public record NotificationOutboxProperties(
+        @DefaultValue("50") int batchSize,
+        @DefaultValue("5") int maxAttempts,
+        @DefaultValue("30s") Duration initialBackoff,
+        @DefaultValue("1h") Duration maxBackoff,
+        @DefaultValue("5m") Duration lease) {
+}
@@ -1,59 +1,59 @@
 package com.abc.bank.onboarding.service.notification;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.abc.bank.onboarding.model.OutboxNotification;
+import com.abc.bank.onboarding.repository.OutboxNotificationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+
+/**
+ * Writes onboarding notifications to the outbox, {@link NotificationOutboxDispatcher} sends them.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationService {
 
-    private final JavaMailSender mailSender;
+    static final String SUCCESS_SUBJECT = "ABC Bank Onboarding Successful";
 
-    @Value("${spring.mail.username:}")
-    private String fromEmail;
+    private final OutboxNotificationRepository outboxRepository;
 
-    @Async
+    //joins the onboarding transaction: nothing is sent unless the customer is committed
+    @Transactional
     public void notifySuccess(String toEmail, String accountNumber) {
-        String body = """
-                Your account has been created successfully!
-                Account Number: %s
-                """.formatted(accountNumber);
-        sendEmail(toEmail, "ABC Bank Onboarding Successful", body);
+        enqueue(toEmail, SUCCESS_SUBJECT, successBody(accountNumber));
+    }
+
+    //for writers inserting the outbox rows themselves, e.g. batched with the customers of a bulk request
+    public static OutboxNotification successNotification(String toEmail, String accountNumber, Instant now) {
+        return OutboxNotification.pending(toEmail, SUCCESS_SUBJECT, successBody(accountNumber), now);
     }
 
-    @Async
+    //own transaction: the onboarding transaction is rolled back on failure
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void notifyFailure(String toEmail, String failureMessage) {
         String body = "Onboarding failed: " + failureMessage;
-        sendEmail(toEmail, "ABC Bank Onboarding Failure", body);
+        enqueue(toEmail, "ABC Bank Onboarding Failure", body);
     }
 
-    private void sendEmail(String toEmail, String subject, String body) {
-        if (fromEmail == null || fromEmail.isBlank()) {
-            log.warn("Email sender not configured. Falling back to logging: To={}, Subject={}, Body={}",
-                    toEmail, subject, body);
+    private void enqueue(String toEmail, String subject, String body) {
+        if (toEmail == null || toEmail.isBlank()) {
+            log.warn("No recipient, notification dropped: Subject={}", subject);
             return;
         }
+        OutboxNotification notification = outboxRepository.save(
+                OutboxNotification.pending(toEmail, subject, body, Instant.now()));
+        log.debug("Notification {} queued for {}", notification.getId(), toEmail);
+    }
 
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject(subject);
-            helper.setText(body, false);
-            mailSender.send(mimeMessage);
-            log.info("Email sent successfully to {}", toEmail);
-        } catch (MessagingException | MailException ex) {
-            log.error("Error occurred while sending email to {}", toEmail, ex);
-        }
+    private static String successBody(String accountNumber) {
+        return """
+                Your account has been created successfully!
+                Account Number: %s
+                """.formatted(accountNumber);
     }
-}
\ No newline at end of file
+}
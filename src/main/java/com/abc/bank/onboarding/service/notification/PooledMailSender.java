@@ -0,0 +1,257 @@
+package com.abc.bank.onboarding.service.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.mail.autoconfigure.MailProperties;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
+
+import java.io.InputStream;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JavaMailSender} keeping a small pool of connected and authenticated SMTP transports.
+ * <p>
+ * Opening a connection (TCP, STARTTLS handshake, AUTH) costs more than sending a message, so a transport goes back
+ * to the pool after a send and is reused by the next one. The most recently used transport is reused first, so the
+ * others can expire during quiet periods. A transport is closed instead of being reused when the send failed at the
+ * connection level, when it has been idle for longer than {@link SmtpPoolProperties#idleTimeout()}, when the server
+ * dropped it, or once it has sent {@link SmtpPoolProperties#maxMessagesPerConnection()} messages.
+ * The messages of one {@link #send(MimeMessage...)} call are sent back to back on the same connection.
+ */
+@Slf4j
+public class PooledMailSender implements JavaMailSender, AutoCloseable {
+
+    static final String METRIC_PREFIX = "onboarding.notification.smtp.connections";
+
+    private final Session session;
+    private final MailProperties mailProperties;
+    private final SmtpPoolProperties poolProperties;
+    private final Semaphore permits;
+    private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final Counter opened;
+    private final Counter recycled;
+
+    public PooledMailSender(MailProperties mailProperties, SmtpPoolProperties poolProperties,
+                            MeterRegistry meterRegistry) {
+        Properties properties = new Properties();
+        properties.putAll(mailProperties.getProperties());
+        if (mailProperties.getSsl().isEnabled()) {
+            properties.setProperty("mail." + mailProperties.getProtocol() + ".ssl.enable", "true");
+        }
+        this.session = Session.getInstance(properties);
+        this.mailProperties = mailProperties;
+        this.poolProperties = poolProperties;
+        this.permits = new Semaphore(poolProperties.maxConnections(), true);
+        this.opened = Counter.builder(METRIC_PREFIX).tag("event", "opened").register(meterRegistry);
+        this.recycled = Counter.builder(METRIC_PREFIX).tag("event", "recycled").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".idle", idle, Deque::size).register(meterRegistry);
+    }
+
+    @Override
+    public MimeMessage createMimeMessage() {
+        return new MimeMessage(session);
+    }
+
+    @Override
+    public MimeMessage createMimeMessage(InputStream contentStream) throws MailException {
+        try {
+            return new MimeMessage(session, contentStream);
+        } catch (MessagingException ex) {
+            throw new MailParseException("Could not parse raw MIME content", ex);
+        }
+    }
+
+    @Override
+    public void send(SimpleMailMessage... simpleMessages) throws MailException {
+        MimeMessage[] mimeMessages = new MimeMessage[simpleMessages.length];
+        for (int i = 0; i < simpleMessages.length; i++) {
+            MimeMailMessage message = new MimeMailMessage(createMimeMessage());
+            simpleMessages[i].copyTo(message);
+            mimeMessages[i] = message.getMimeMessage();
+        }
+        send(mimeMessages);
+    }
+
+    @Override
+    public void send(MimeMessage... mimeMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport transport = null;
+        try {
+            for (MimeMessage message : mimeMessages) {
+                if (transport == null) {
+                    transport = borrow();
+                }
+                try {
+                    transport.send(message);
+                } catch (SendFailedException ex) {
+                    //rejected by the server (recipient, sender, size): the connection is still usable
+                    failedMessages.put(message, ex);
+                } catch (MessagingException ex) {
+                    //connection level failure: the next message gets a new connection
+                    failedMessages.put(message, ex);
+                    discard(transport);
+                    transport = null;
+                }
+            }
+        } finally {
+            if (transport != null) {
+                giveBack(transport);
+            }
+        }
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    @Override
+    public void close() {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            closeQuietly(transport);
+        }
+    }
+
+    private PooledTransport borrow() {
+        acquirePermit();
+        try {
+            PooledTransport transport;
+            while ((transport = idle.pollFirst()) != null) {
+                if (!transport.expired(System.nanoTime()) && transport.isConnected()) {
+                    return transport;
+                }
+                closeQuietly(transport);
+            }
+            return connect();
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void giveBack(PooledTransport transport) {
+        long now = System.nanoTime();
+        if (transport.expired(now)) {
+            closeQuietly(transport);
+        } else {
+            idle.offerFirst(transport);
+        }
+        evictExpired(now);
+        permits.release();
+    }
+
+    private void discard(PooledTransport transport) {
+        closeQuietly(transport);
+        permits.release();
+    }
+
+    //the least recently used transports sit at the tail of the deque
+    private void evictExpired(long now) {
+        Iterator<PooledTransport> transports = idle.descendingIterator();
+        while (transports.hasNext()) {
+            PooledTransport transport = transports.next();
+            if (!transport.expired(now)) {
+                return;
+            }
+            if (idle.removeLastOccurrence(transport)) {
+                closeQuietly(transport);
+            }
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!permits.tryAcquire(poolProperties.borrowTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new MailSendException("No SMTP connection available after " + poolProperties.borrowTimeout());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP connection", ex);
+        }
+    }
+
+    private PooledTransport connect() {
+        String username = mailProperties.getUsername();
+        boolean anonymous = username == null || username.isBlank();
+        Integer port = mailProperties.getPort();
+        try {
+            Transport transport = session.getTransport(mailProperties.getProtocol());
+            transport.connect(mailProperties.getHost(), port == null ? -1 : port,
+                    anonymous ? null : username, anonymous ? null : mailProperties.getPassword());
+            opened.increment();
+            log.debug("Opened SMTP connection to {}", mailProperties.getHost());
+            return new PooledTransport(transport);
+        } catch (AuthenticationFailedException ex) {
+            throw new MailAuthenticationException(ex);
+        } catch (MessagingException ex) {
+            throw new MailSendException("Unable to connect to SMTP server " + mailProperties.getHost(), ex);
+        }
+    }
+
+    private void closeQuietly(PooledTransport transport) {
+        recycled.increment();
+        try {
+            transport.transport.close();
+        } catch (MessagingException ex) {
+            log.debug("Error while closing SMTP connection", ex);
+        }
+    }
+
+    private final class PooledTransport {
+
+        private final Transport transport;
+        private int sentMessages;
+        private long lastUsedNanos = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private void send(MimeMessage message) throws MessagingException {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            String messageId = message.getMessageID();
+            message.saveChanges();
+            if (messageId != null) {
+                message.setHeader("Message-ID", messageId);
+            }
+            Address[] recipients = message.getAllRecipients();
+            sentMessages++;
+            lastUsedNanos = System.nanoTime();
+            transport.sendMessage(message, recipients != null ? recipients : new Address[0]);
+        }
+
+        //NOOP round trip, detects connections closed by the server while idle
+        private boolean isConnected() {
+            return transport.isConnected();
+        }
+
+        private boolean expired(long now) {
+            return sentMessages >= poolProperties.maxMessagesPerConnection()
+                    || now - lastUsedNanos > poolProperties.idleTimeout().toNanos();
+        }
+    }
+}
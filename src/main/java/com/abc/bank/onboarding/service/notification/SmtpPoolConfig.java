@@ -0,0 +1,21 @@
+package com.abc.bank.onboarding.service.notification;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.mail.autoconfigure.MailProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//replaces the auto-configured JavaMailSenderImpl, which opens a new connection per send
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+@ConditionalOnProperty(prefix = "onboarding.notifications.smtp-pool", name = "enabled", matchIfMissing = true)
+public class SmtpPoolConfig {
+
+    @Bean
+    public PooledMailSender pooledMailSender(MailProperties mailProperties, SmtpPoolProperties poolProperties,
+                                             MeterRegistry meterRegistry) {
+        return new PooledMailSender(mailProperties, poolProperties, meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.abc.bank.onboarding.service.notification;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled                   when disabled the default (one connection per send) mail sender is used
+ * @param maxConnections            SMTP connections open at the same time
+ * @param maxMessagesPerConnection  messages after which a connection is closed (servers cap it, e.g. 100 for Gmail)
+ * @param idleTimeout               time after which an unused connection is closed rather than reused
+ * @param borrowTimeout             maximum wait for a connection when all of them are in use
+ */
+@ConfigurationProperties(prefix = "onboarding.notifications.smtp-pool")
+public record SmtpPoolProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("4") int maxConnections,
+        @DefaultValue("100") int maxMessagesPerConnection,
+        @DefaultValue("30s") Duration idleTimeout,
+        @DefaultValue("30s") Duration borrowTimeout) {
+}
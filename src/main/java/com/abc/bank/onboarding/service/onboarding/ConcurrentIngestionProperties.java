@@ -0,0 +1,16 @@
+package com.abc.bank.onboarding.service.onboarding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled          store the two documents of a synchronous onboarding at the same time, on virtual threads;
+ *                         when disabled they are stored one after the other by the request thread
+ * @param concurrencyLimit documents copied at the same time on those virtual threads, a request beyond it waits for
+ *                         a free slot before its copy starts
+ */
+@ConfigurationProperties(prefix = "onboarding.concurrent-ingestion")
+public record ConcurrentIngestionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100") int concurrencyLimit) {
+}
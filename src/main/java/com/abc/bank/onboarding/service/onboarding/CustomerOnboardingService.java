@@ -3,23 +3,42 @@ package com.abc.bank.onboarding.service.onboarding;
 import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
 import com.abc.bank.onboarding.dto.CustomerOnboardResponse;
 import com.abc.bank.onboarding.exception.AccountNumberGenerationException;
+import com.abc.bank.onboarding.exception.DocumentStorageException;
 import com.abc.bank.onboarding.exception.DuplicateCustomerException;
 import com.abc.bank.onboarding.exception.UnexpectedOnboardingException;
 import com.abc.bank.onboarding.exception.ValidationException;
 import com.abc.bank.onboarding.mapper.CustomerMapper;
 import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
 import com.abc.bank.onboarding.repository.CustomerRepository;
+import com.abc.bank.onboarding.repository.CustomerUniqueKey;
 import com.abc.bank.onboarding.service.generator.AccountNumberGenerator;
 import com.abc.bank.onboarding.service.notification.NotificationService;
+import com.abc.bank.onboarding.service.storage.DocumentIngestionService;
 import com.abc.bank.onboarding.service.validation.FileValidationService;
 import com.abc.bank.onboarding.service.validation.RequestValidationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Onboards a customer. The validations and the copy of the documents into the store run without a transaction; a
+ * database connection is only held by the short transaction of each save attempt, which inserts the customer and its
+ * success notification.
+ * <p>
+ * There is no lookup for duplicates: the insert relies on the unique indexes, and the violated one tells an existing
+ * customer (SSN or email, rejected) from a taken account number (retried with another number). Concurrent
+ * submissions of the same customer are collapsed by {@link InFlightOnboardings} before the documents are stored.
+ * The two documents of a synchronous onboarding are stored concurrently, see {@link ConcurrentIngestionProperties}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -32,41 +51,136 @@ public class CustomerOnboardingService {
     private final CustomerRepository customerRepository;
     private final AccountNumberGenerator accountNumberGenerator;
     private final NotificationService notificationService;
+    private final DocumentIngestionService documentIngestionService;
+    private final OnboardingStageTimers stageTimers;
+    private final TransactionTemplate transactionTemplate;
+    private final InFlightOnboardings inFlightOnboardings;
+    private final ConcurrentIngestionProperties concurrentIngestionProperties;
+    private final SimpleAsyncTaskExecutor documentExecutor;
 
 
-    @Transactional
     public CustomerOnboardResponse onboard(CustomerOnboardRequest request,
                                            MultipartFile idProof,
                                            MultipartFile photo) {
+        return withFailureHandling(request.email(), () -> {
+            validateRequest(request, idProof, photo);
+            // a concurrent submission of the same customer is resolved before any document work
+            try (InFlightOnboardings.Claim claim = stageTimers.record(OnboardingStageTimers.IN_FLIGHT_CLAIM,
+                    () -> inFlightOnboardings.claim(request.socialSecurityNumber(), request.email()))) {
+                Customer customer = stageTimers.record(OnboardingStageTimers.DOCUMENTS,
+                        () -> storeDocuments(request, idProof, photo));
+                CustomerOnboardResponse response = saveAndNotify(customer);
+                claim.onboarded();
+                return response;
+            }
+        });
+    }
+
+    //cheap checks an asynchronous application must pass before it is accepted
+    public void validate(CustomerOnboardRequest request, MultipartFile idProof, MultipartFile photo) {
         try {
             validateRequest(request, idProof, photo);
-            checkDuplicate(request.socialSecurityNumber(), request.email());
+        } catch (ValidationException ex) {
+            reportFailure(request.email(), ex.getMessage(), ex);
+            throw ex;
+        }
+    }
 
-            Customer customer = CustomerMapper.toCustomer(request, idProof, photo);
-            saveCustomerWithRetry(customer);
+    //last stage of an asynchronous application: the request was validated and its documents are stored, the caller
+    //holds the in-flight claim of the customer
+    public CustomerOnboardResponse register(CustomerOnboardRequest request,
+                                            DocumentReference idProof,
+                                            DocumentReference photo) {
+        return withFailureHandling(request.email(),
+                () -> saveAndNotify(CustomerMapper.toCustomer(request, idProof, photo)));
+    }
 
-            notifySuccess(request.email(), customer.getAccountNumber());
-            return buildResponse(customer);
+    public void reportFailure(String email, String reason, Exception ex) {
+        log.error("Onboarding failed for email={} reason={}", email, reason, ex);
+        try {
+            notificationService.notifyFailure(email, reason);
+        } catch (RuntimeException notificationEx) {
+            log.error("Unable to queue failure notification for email={}", email, notificationEx);
+        }
+    }
 
-        } catch (ValidationException | DuplicateCustomerException ex) {
-            handleFailure(request.email(), ex.getMessage(), ex);
+    private CustomerOnboardResponse withFailureHandling(String email, Supplier<CustomerOnboardResponse> onboarding) {
+        try {
+            return onboarding.get();
+        } catch (ValidationException | DuplicateCustomerException | UnexpectedOnboardingException ex) {
+            // already classified, reported with its own reason and never wrapped again
+            reportFailure(email, ex.getMessage(), ex);
             throw ex;
         } catch (Exception ex) {
-            handleFailure(request.email(), "Unexpected error occurred", ex);
+            reportFailure(email, "Unexpected error occurred", ex);
             throw new UnexpectedOnboardingException("Unexpected error occurred", ex);
         }
     }
 
+    private CustomerOnboardResponse saveAndNotify(Customer customer) {
+        saveCustomerWithRetry(customer);
+        log.info("Customer onboarded successfully with accountNumber={}", customer.getAccountNumber());
+        return buildResponse(customer);
+    }
+
+    //every check runs, so that a rejected client learns all the problems of its request at once
     private void validateRequest(CustomerOnboardRequest request, MultipartFile idProof, MultipartFile photo) {
-        requestValidationService.validate(request);
-        fileValidationService.validateFile(idProof, "idProof");
-        fileValidationService.validateFile(photo, "photo");
+        String violations = check(null, () -> stageTimers.record(OnboardingStageTimers.REQUEST_VALIDATION,
+                () -> requestValidationService.validate(request)));
+        violations = check(violations, () -> stageTimers.record(OnboardingStageTimers.FILE_VALIDATION, () -> {
+            String fileViolations = check(null, () -> fileValidationService.validateFile(idProof, "idProof"));
+            fileViolations = check(fileViolations, () -> fileValidationService.validateFile(photo, "photo"));
+            if (fileViolations != null) {
+                throw new ValidationException(fileViolations);
+            }
+        }));
+        if (violations != null) {
+            throw new ValidationException(violations);
+        }
     }
 
+    private static String check(String violations, Runnable validation) {
+        try {
+            validation.run();
+            return violations;
+        } catch (ValidationException ex) {
+            return violations == null ? ex.getMessage() : violations + ", " + ex.getMessage();
+        }
+    }
 
-    private void checkDuplicate(String ssn, String email) {
-        if (customerRepository.existsBySocialSecurityNumberOrEmail(ssn, email)) {
-            throw new DuplicateCustomerException("Customer with same socialSecurityNumber or email already exists");
+    //the photo is copied on a virtual thread while the request thread copies the ID proof: the stage takes as long
+    //as the larger document instead of both
+    private Customer storeDocuments(CustomerOnboardRequest request, MultipartFile idProof, MultipartFile photo) {
+        if (!concurrentIngestionProperties.enabled()) {
+            return CustomerMapper.toCustomer(request,
+                    documentIngestionService.ingest(idProof, "idProof"),
+                    documentIngestionService.ingest(photo, "photo"));
+        }
+        Future<DocumentReference> photoReference =
+                documentExecutor.submit(() -> documentIngestionService.ingest(photo, "photo"));
+        DocumentReference idProofReference;
+        try {
+            idProofReference = documentIngestionService.ingest(idProof, "idProof");
+        } catch (RuntimeException ex) {
+            // the request fails anyway, an interrupted copy deletes its staging file
+            photoReference.cancel(true);
+            throw ex;
+        }
+        return CustomerMapper.toCustomer(request, idProofReference, join(photoReference, "photo"));
+    }
+
+    private static DocumentReference join(Future<DocumentReference> reference, String fileName) {
+        try {
+            return reference.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new DocumentStorageException("Unable to store " + fileName, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            reference.cancel(true);
+            throw new DocumentStorageException("Interrupted while storing " + fileName, ex);
         }
     }
 
@@ -75,11 +189,20 @@ public class CustomerOnboardingService {
         int attempts = 0;
         while (attempts < MAX_RETRY_ATTEMPTS) {
             try {
-                String accountNumber = accountNumberGenerator.generate();
-                customer.setAccountNumber(accountNumber);
-                customerRepository.save(customer);
+                // every attempt is timed on its own: a retry shows up as a conflict followed by another attempt
+                stageTimers.record(OnboardingStageTimers.SAVE_ATTEMPT, () -> {
+                    customer.setAccountNumber(accountNumberGenerator.generate());
+                    // a rolled back attempt leaves its sequence id behind, the entity must be persisted again, not merged
+                    customer.setId(null);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> insert(customer));
+                    } catch (DataIntegrityViolationException ex) {
+                        throw classify(ex);
+                    }
+                });
                 return;
             } catch (DataIntegrityViolationException ex) {
+                // only an account number conflict is left here
                 attempts++;
                 log.warn("Account number conflict, retrying... attempt {}", attempts);
                 if (attempts >= MAX_RETRY_ATTEMPTS) {
@@ -89,9 +212,25 @@ public class CustomerOnboardingService {
         }
     }
 
-    private void notifySuccess(String email, String accountNumber) {
-        notificationService.notifySuccess(email, accountNumber);
-        log.info("Customer onboarded successfully with accountNumber={}", accountNumber);
+    //the exception to propagate: a duplicate, an account number conflict (retried) or an unexpected violation
+    private static RuntimeException classify(DataIntegrityViolationException ex) {
+        CustomerUniqueKey key = CustomerUniqueKey.violatedBy(ex).orElse(null);
+        if (key == null) {
+            return new UnexpectedOnboardingException("Unexpected constraint violation", ex);
+        }
+        if (key.identifiesCustomer()) {
+            return new DuplicateCustomerException("Customer with same socialSecurityNumber or email already exists");
+        }
+        return ex;
+    }
+
+    //the only work holding a connection: the customer and its notification are committed together
+    private void insert(Customer customer) {
+        customerRepository.save(customer);
+        // the insert is deferred with sequence ids, a constraint violation must surface inside the retry
+        customerRepository.flush();
+        stageTimers.record(OnboardingStageTimers.NOTIFICATION_ENQUEUE,
+                () -> notificationService.notifySuccess(customer.getEmail(), customer.getAccountNumber()));
     }
 
     private CustomerOnboardResponse buildResponse(Customer customer) {
@@ -99,9 +238,4 @@ public class CustomerOnboardingService {
                 "Customer onboarded successfully",
                 customer.getAccountNumber());
     }
-
-    private void handleFailure(String email, String reason, Exception ex) {
-        notificationService.notifyFailure(email, reason);
-        log.error("Onboarding failed for email={} reason={}", email, reason, ex);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.abc.bank.onboarding.service.onboarding;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Executor the photo of a synchronous onboarding is copied on, while the request thread copies the ID proof.
+ */
+@Configuration
+public class DocumentExecutorConfig {
+
+    @Bean
+    public SimpleAsyncTaskExecutor documentExecutor(ConcurrentIngestionProperties properties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("onboarding-document-");
+        executor.setVirtualThreads(true);
+        //virtual threads are cheap, the limit bounds the copies hitting the disk at the same time
+        executor.setConcurrencyLimit(properties.concurrencyLimit());
+        return executor;
+    }
+}
@@ -0,0 +1,152 @@
+package com.abc.bank.onboarding.service.onboarding;
+
+import com.abc.bank.onboarding.exception.DuplicateCustomerException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The onboardings in progress on this instance, keyed by SSN and normalized email.
+ * <p>
+ * A client that submits twice (a mobile retry, a double click) sends two onboardings for the same customer. The second
+ * one {@linkplain #claim waits} for the first one instead of storing the same documents again: it is rejected as a
+ * duplicate once the first one succeeded, and goes on when the first one failed. When the first one takes longer than
+ * {@code onboarding.in-flight.max-wait}, or with {@link #tryClaim}, it is rejected at once as in progress.
+ * <p>
+ * Only submissions reaching the same instance are collapsed, the unique indexes stay the source of truth.
+ * Published metrics: {@code onboarding.in-flight.size} and {@code onboarding.in-flight.collapsed}, tagged with the
+ * {@code result}: {@code duplicate}, {@code in-progress} or {@code retried}.
+ */
+@Component
+public class InFlightOnboardings {
+
+    static final String DUPLICATE_MESSAGE = "Customer with same socialSecurityNumber or email already exists";
+    static final String IN_PROGRESS_MESSAGE =
+            "An onboarding with the same socialSecurityNumber or email is already in progress";
+
+    private final Map<String, Claim> claims = new ConcurrentHashMap<>();
+    private final InFlightProperties properties;
+    private final Counter duplicates;
+    private final Counter inProgress;
+    private final Counter retried;
+
+    public InFlightOnboardings(InFlightProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.duplicates = collapsed(meterRegistry, "duplicate");
+        this.inProgress = collapsed(meterRegistry, "in-progress");
+        this.retried = collapsed(meterRegistry, "retried");
+        // two keys per onboarding
+        Gauge.builder("onboarding.in-flight.size", claims, map -> map.size() / 2.0)
+                .description("Onboardings in progress on this instance")
+                .register(meterRegistry);
+    }
+
+    //waits up to onboarding.in-flight.max-wait for a concurrent onboarding of the same customer
+    public Claim claim(String ssn, String email) {
+        return claim(ssn, email, properties.maxWait().toNanos());
+    }
+
+    //rejects at once when the same customer is being onboarded
+    public Claim tryClaim(String ssn, String email) {
+        return claim(ssn, email, 0);
+    }
+
+    private Claim claim(String ssn, String email, long maxWaitNanos) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        Claim claim = new Claim(ssnKey(ssn), emailKey(email));
+        while (true) {
+            Claim holder = claims.putIfAbsent(claim.ssnKey, claim);
+            if (holder == null) {
+                holder = claims.putIfAbsent(claim.emailKey, claim);
+                if (holder == null) {
+                    return claim;
+                }
+                // never wait while holding a key, two onboardings sharing only one key would wait for each other
+                claims.remove(claim.ssnKey, claim);
+            }
+            awaitFailure(holder, deadline - System.nanoTime());
+        }
+    }
+
+    //returns when the holder failed, so that the claim can be taken again
+    private void awaitFailure(Claim holder, long waitNanos) {
+        boolean onboarded;
+        try {
+            onboarded = waitNanos > 0
+                    ? holder.outcome.get(waitNanos, TimeUnit.NANOSECONDS)
+                    : holder.outcome.getNow(null) == Boolean.TRUE;
+        } catch (TimeoutException ex) {
+            onboarded = false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            inProgress.increment();
+            throw new DuplicateCustomerException(IN_PROGRESS_MESSAGE);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
+        if (onboarded) {
+            duplicates.increment();
+            throw new DuplicateCustomerException(DUPLICATE_MESSAGE);
+        }
+        if (!holder.outcome.isDone()) {
+            inProgress.increment();
+            throw new DuplicateCustomerException(IN_PROGRESS_MESSAGE);
+        }
+        retried.increment();
+    }
+
+    private static Counter collapsed(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("onboarding.in-flight.collapsed")
+                .description("Onboardings that met a concurrent onboarding of the same customer")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String ssnKey(String ssn) {
+        return "ssn:" + ssn;
+    }
+
+    private static String emailKey(String email) {
+        return "email:" + (email == null ? null : email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * The keys of an onboarding in progress. Closing it releases them; an onboarding that did not call
+     * {@link #onboarded()} before is reported to its waiters as failed, so they go on.
+     */
+    public final class Claim implements AutoCloseable {
+
+        private final String ssnKey;
+        private final String emailKey;
+        private final CompletableFuture<Boolean> outcome = new CompletableFuture<>();
+        private volatile boolean onboarded;
+
+        private Claim(String ssnKey, String emailKey) {
+            this.ssnKey = ssnKey;
+            this.emailKey = emailKey;
+        }
+
+        public void onboarded() {
+            onboarded = true;
+        }
+
+        @Override
+        public void close() {
+            if (outcome.isDone()) {
+                return;
+            }
+            claims.remove(ssnKey, this);
+            claims.remove(emailKey, this);
+            outcome.complete(onboarded);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.abc.bank.onboarding.service.onboarding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param maxWait longest a synchronous onboarding waits for a concurrent one with the same SSN or email to finish,
+ *                {@code 0} rejects it at once
+ */
+@ConfigurationProperties(prefix = "onboarding.in-flight")
+public record InFlightProperties(
+        @DefaultValue("5s") Duration maxWait) {
+}
@@ -0,0 +1,80 @@
+package com.abc.bank.onboarding.service.onboarding;
+
+import com.abc.bank.onboarding.exception.DuplicateCustomerException;
+import com.abc.bank.onboarding.exception.ValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times the stages of an onboarding with {@code onboarding.stage.duration}, tagged with the {@code stage} and its
+ * {@code outcome}: {@code success}, {@code rejected} (validation or duplicate), {@code conflict} (a taken account
+ * number) or {@code error}. Each timer publishes a percentile histogram and SLO buckets, so the p99 of a stage can be
+ * computed across instances and compared with its objective.
+ */
+@Component
+public class OnboardingStageTimers {
+
+    static final String METRIC_NAME = "onboarding.stage.duration";
+    static final String REQUEST_VALIDATION = "request-validation";
+    static final String FILE_VALIDATION = "file-validation";
+    static final String IN_FLIGHT_CLAIM = "in-flight-claim";
+    static final String DOCUMENTS = "documents";
+    static final String SAVE_ATTEMPT = "save-attempt";
+    static final String NOTIFICATION_ENQUEUE = "notification-enqueue";
+
+    private static final Duration[] SERVICE_LEVEL_OBJECTIVES = {Duration.ofMillis(5), Duration.ofMillis(10),
+            Duration.ofMillis(25), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1)};
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public OnboardingStageTimers(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String stage, Runnable action) {
+        record(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T record(String stage, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } catch (ValidationException | DuplicateCustomerException ex) {
+            outcome = "rejected";
+            throw ex;
+        } catch (DataIntegrityViolationException ex) {
+            outcome = "conflict";
+            throw ex;
+        } finally {
+            timer(stage, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String stage, String outcome) {
+        return timers.computeIfAbsent(stage + ':' + outcome, key -> Timer.builder(METRIC_NAME)
+                .description("Time spent in a stage of the customer onboarding")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(SERVICE_LEVEL_OBJECTIVES)
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry));
+    }
+}
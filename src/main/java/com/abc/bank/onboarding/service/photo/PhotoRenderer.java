@@ -0,0 +1,83 @@
+package com.abc.bank.onboarding.service.photo;
+
+import lombok.experimental.UtilityClass;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Decodes, scales down and encodes the photos with ImageIO and Java2D. Every image comes out of {@link #scale} as
+ * opaque 8-bit RGB (transparency flattened on white), and the JPEGs are written without metadata. The decoded photo is
+ * never copied at full size: the conversion is done by the first scaling step, on an image half its size at most.
+ * <p>
+ * The streams are kept in memory, ImageIO would otherwise cache them in temporary files.
+ */
+@UtilityClass
+public class PhotoRenderer {
+
+    //the first image as decoded, in the color model of the file; null when no ImageIO reader recognizes the content
+    public static BufferedImage decode(byte[] content) throws IOException {
+        // closed by ImageIO after the read, the rest is garbage collected
+        ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(content));
+        return ImageIO.read(input);
+    }
+
+    //opaque RGB image fitting the longest side in maxSize, never scales up
+    public static BufferedImage scale(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+        // halving steps: a single bilinear pass from a much larger image skips pixels and aliases
+        BufferedImage scaled = image;
+        while (width != targetWidth || height != targetHeight) {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            scaled = draw(scaled, width, height);
+        }
+        // an image that needed no scaling is still converted, it is smaller than maxSize
+        return scaled.getType() == BufferedImage.TYPE_INT_RGB ? scaled : draw(scaled, width, height);
+    }
+
+    public static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (ImageOutputStream output = new MemoryCacheImageOutputStream(content)) {
+            writer.setOutput(output);
+            ImageWriteParam parameters = writer.getDefaultWriteParam();
+            parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parameters.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), parameters);
+        } finally {
+            writer.dispose();
+        }
+        return content.toByteArray();
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
@@ -0,0 +1,36 @@
+package com.abc.bank.onboarding.service.photo;
+
+import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//Instantiated by Hibernate through the Spring bean container, queues the photo of a new customer for rendering once
+//its insert is committed: a rolled back insert (taken account number, duplicate) renders nothing
+public class PhotoRenditionEntityListener {
+
+    private final ObjectProvider<PhotoRenditionService> photoRenditionService;
+
+    public PhotoRenditionEntityListener(ObjectProvider<PhotoRenditionService> photoRenditionService) {
+        this.photoRenditionService = photoRenditionService;
+    }
+
+    @PostPersist
+    public void onPersist(Customer customer) {
+        photoRenditionService.ifAvailable(service -> {
+            DocumentReference photo = customer.getPhoto();
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                service.submit(photo);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    service.submit(photo);
+                }
+            });
+        });
+    }
+}
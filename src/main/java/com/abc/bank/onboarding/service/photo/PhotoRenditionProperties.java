@@ -0,0 +1,35 @@
+package com.abc.bank.onboarding.service.photo;
+
+import com.abc.bank.onboarding.model.Rendition;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled        render the photos once their customer is committed, and on the first view of a missing
+ *                       rendition; when disabled the original photo is always served
+ * @param threads        workers rendering the photos, each one holds a decoded photo (up to the decoded size limit)
+ *                       and its first scaling step, a quarter of its pixels at 4 bytes each
+ * @param queueCapacity  photos waiting for a worker, the queue never grows beyond it
+ * @param normalizedSize longest side of the normalized JPEG, in pixels
+ * @param mediumSize     longest side of the medium thumbnail (detail views)
+ * @param smallSize      longest side of the small thumbnail (list views)
+ * @param quality        JPEG quality of every rendition, from 0 to 1
+ */
+@ConfigurationProperties(prefix = "onboarding.photos.renditions")
+public record PhotoRenditionProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2") int threads,
+        @DefaultValue("1000") int queueCapacity,
+        @DefaultValue("2048") int normalizedSize,
+        @DefaultValue("480") int mediumSize,
+        @DefaultValue("128") int smallSize,
+        @DefaultValue("0.8") float quality) {
+
+    public int maxSize(Rendition rendition) {
+        return switch (rendition) {
+            case NORMALIZED -> normalizedSize;
+            case MEDIUM -> mediumSize;
+            case SMALL -> smallSize;
+        };
+    }
+}
@@ -0,0 +1,227 @@
+package com.abc.bank.onboarding.service.photo;
+
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.model.PhotoRendition;
+import com.abc.bank.onboarding.model.Rendition;
+import com.abc.bank.onboarding.repository.PhotoRenditionRepository;
+import com.abc.bank.onboarding.service.storage.DocumentStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the customer photos in the background: a normalized JPEG and two thumbnails ({@link Rendition}), stored
+ * in the document store next to the original and recorded in {@code photo_renditions}, so that the back office
+ * loads a thumbnail of a few KB instead of the original upload.
+ * <p>
+ * A photo is submitted once its customer is committed ({@link PhotoRenditionEntityListener}, the bulk writer) and
+ * again on the first view of a missing rendition, which also renders the photos stored before the renditions existed.
+ * Rendering is best effort: the workers and their queue are bounded, a photo submitted while the queue is full is
+ * dropped and rendered on its next view. A photo is queued at most once at a time. Only JPEG and PNG photos are
+ * rendered, and a photo that cannot be decoded is remembered so that its views do not queue it again.
+ * <p>
+ * Published metrics: {@code onboarding.photos.renditions.queue.depth}, {@code .active}, {@code .latency}
+ * (submission to completion), {@code .render} (scaling and encoding, tagged with the rendition),
+ * {@code .rejections} and {@code .failures}.
+ */
+@Service
+@Slf4j
+public class PhotoRenditionService {
+
+    public static final String RENDITIONS_CACHE = "photo-renditions";
+    static final String METRIC_PREFIX = "onboarding.photos.renditions";
+    //a PDF is an allowed photo upload, it has no rendition
+    static final Set<String> RENDERABLE_TYPES = Set.of(MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE);
+    //bounded: a corrupt upload is rare, the oldest ones are only decoded again once evicted
+    private static final int MAX_UNDECODABLE_PHOTOS = 10_000;
+
+    private final DocumentStore documentStore;
+    private final PhotoRenditionRepository photoRenditionRepository;
+    private final PhotoRenditionProperties properties;
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final Cache<String, Boolean> undecodable = Caffeine.newBuilder()
+            .maximumSize(MAX_UNDECODABLE_PHOTOS)
+            .build();
+    private final Map<Rendition, Timer> renderTimers = new EnumMap<>(Rendition.class);
+    private final Counter rejections;
+    private final Counter failures;
+    private final ThreadPoolTaskExecutor executor;
+
+    public PhotoRenditionService(DocumentStore documentStore,
+                                 PhotoRenditionRepository photoRenditionRepository,
+                                 PhotoRenditionProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.documentStore = documentStore;
+        this.photoRenditionRepository = photoRenditionRepository;
+        this.properties = properties;
+        for (Rendition rendition : Rendition.values()) {
+            renderTimers.put(rendition, Timer.builder(METRIC_PREFIX + ".render")
+                    .description("Time to scale and encode a rendition of a photo")
+                    .tag("rendition", rendition.parameterValue())
+                    .register(meterRegistry));
+        }
+        this.rejections = Counter.builder(METRIC_PREFIX + ".rejections")
+                .description("Photos dropped because the rendering queue was full")
+                .register(meterRegistry);
+        this.failures = Counter.builder(METRIC_PREFIX + ".failures")
+                .description("Photos that could not be rendered")
+                .register(meterRegistry);
+        this.executor = executor(properties, meterRegistry);
+    }
+
+    //the rendition once rendered, otherwise empty and the photo is queued for rendering
+    @Cacheable(cacheNames = RENDITIONS_CACHE, key = "#photo.digest + ':' + #rendition", unless = "#result == null")
+    public Optional<DocumentReference> find(DocumentReference photo, Rendition rendition) {
+        if (!properties.enabled() || !isRenderable(photo)) {
+            return Optional.empty();
+        }
+        Optional<DocumentReference> document = photoRenditionRepository
+                .findBySourceDigestAndRendition(photo.getDigest(), rendition)
+                .map(PhotoRendition::getDocument);
+        if (document.isEmpty()) {
+            submit(photo);
+        }
+        return document;
+    }
+
+    //never throws, it runs after the customer is committed
+    public void submit(DocumentReference photo) {
+        String digest = photo.getDigest();
+        if (!properties.enabled() || !isRenderable(photo) || !queued.add(digest)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(digest);
+                } finally {
+                    queued.remove(digest);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            queued.remove(digest);
+            rejections.increment();
+            log.debug("Rendering queue full, photo {} is rendered on its next view", digest);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    //renders the missing renditions only, each one scaled down from the previous one
+    void render(String digest) {
+        try {
+            Set<Rendition> missing = EnumSet.allOf(Rendition.class);
+            photoRenditionRepository.findBySourceDigest(digest)
+                    .forEach(rendered -> missing.remove(rendered.getRendition()));
+            if (missing.isEmpty()) {
+                return;
+            }
+            BufferedImage image = decode(digest);
+            if (image == null) {
+                failures.increment();
+                undecodable.put(digest, Boolean.TRUE);
+                log.warn("Photo {} is not a decodable image, no rendition", digest);
+                return;
+            }
+            Instant now = Instant.now();
+            List<PhotoRendition> renditions = new ArrayList<>(missing.size());
+            for (Rendition rendition : Rendition.values()) {
+                long startedAt = System.nanoTime();
+                image = PhotoRenderer.scale(image, properties.maxSize(rendition));
+                if (missing.contains(rendition)) {
+                    byte[] jpeg = PhotoRenderer.encodeJpeg(image, properties.quality());
+                    DocumentReference document = documentStore.store(jpeg, MediaType.IMAGE_JPEG_VALUE);
+                    renditions.add(PhotoRendition.of(digest, rendition, document, image.getWidth(), image.getHeight(),
+                            now));
+                    renderTimers.get(rendition).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }
+            photoRenditionRepository.saveAll(renditions);
+            log.debug("Rendered {} of photo {}", missing, digest);
+        } catch (DataIntegrityViolationException ex) {
+            // rendered at the same time by another instance, its renditions are kept
+            log.debug("Photo {} already rendered by another instance", digest);
+        } catch (IOException | RuntimeException ex) {
+            failures.increment();
+            log.warn("Unable to render photo {}", digest, ex);
+        }
+    }
+
+    private boolean isRenderable(DocumentReference photo) {
+        return RENDERABLE_TYPES.contains(photo.getContentType())
+                && undecodable.getIfPresent(photo.getDigest()) == null;
+    }
+
+    //null when ImageIO cannot read the content, a failure to read the document is thrown
+    private BufferedImage decode(String digest) {
+        byte[] content = documentStore.read(digest);
+        try {
+            return PhotoRenderer.decode(content);
+        } catch (IOException ex) {
+            log.debug("Unable to decode photo {}", digest, ex);
+            return null;
+        }
+    }
+
+    //platform threads: rendering is CPU bound, the pool size caps the cores it takes from the requests
+    private static ThreadPoolTaskExecutor executor(PhotoRenditionProperties properties, MeterRegistry meterRegistry) {
+        Timer latency = Timer.builder(METRIC_PREFIX + ".latency")
+                .description("Time from submission to completion of the rendering of a photo")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.threads());
+        executor.setMaxPoolSize(properties.threads());
+        executor.setQueueCapacity(properties.queueCapacity());
+        executor.setThreadNamePrefix("photo-rendition-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setTaskDecorator(task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                try {
+                    task.run();
+                } finally {
+                    latency.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+        executor.initialize();
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+        return executor;
+    }
+}
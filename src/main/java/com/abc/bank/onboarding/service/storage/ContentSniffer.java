@@ -0,0 +1,36 @@
+package com.abc.bank.onboarding.service.storage;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+//Detects the real media type of a document from its leading magic bytes
+@UtilityClass
+public class ContentSniffer {
+
+    public static final int SNIFF_LENGTH = 8;
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PDF = {'%', 'P', 'D', 'F', '-'};
+
+    public static Optional<String> detect(byte[] header, int length) {
+        if (startsWith(header, length, PNG)) {
+            return Optional.of(MediaType.IMAGE_PNG_VALUE);
+        }
+        if (startsWith(header, length, JPEG)) {
+            return Optional.of(MediaType.IMAGE_JPEG_VALUE);
+        }
+        if (startsWith(header, length, PDF)) {
+            return Optional.of(MediaType.APPLICATION_PDF_VALUE);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] header, int length, byte[] signature) {
+        return length >= signature.length
+                && Arrays.equals(header, 0, signature.length, signature, 0, signature.length);
+    }
+}
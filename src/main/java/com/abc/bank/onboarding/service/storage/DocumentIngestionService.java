@@ -0,0 +1,156 @@
+package com.abc.bank.onboarding.service.storage;
+
+import com.abc.bank.onboarding.exception.DocumentStorageException;
+import com.abc.bank.onboarding.exception.ValidationException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.service.validation.FileValidationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Streams an uploaded part into the document store in a single pass through a bounded buffer.
+ * <p>
+ * The size limit, the content sniffing and the SHA-256 digest are all computed while the part is copied
+ * to a staging file, so the heap footprint of an upload is {@link #BUFFER_SIZE} whatever the file size.
+ * <p>
+ * The media type is the one of the magic bytes: the copy stops as soon as the first bytes arrive when they are not
+ * a PDF, JPEG or PNG signature, or when they contradict the declared {@code Content-Type}.
+ * <p>
+ * Once staged, and before it is committed to the store, the document is checked against the dimension and page
+ * limits ({@link FileValidationService#validateContent}), from the few header bytes read back from the staging file.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentIngestionService {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DocumentStore documentStore;
+    private final FileValidationService fileValidationService;
+
+    public DocumentReference ingest(MultipartFile file, String fileName) {
+        InputStream content;
+        try {
+            content = file.getInputStream();
+        } catch (IOException ex) {
+            throw new DocumentStorageException("Unable to stage " + fileName, ex);
+        }
+        return ingest(content, file.getContentType(), fileName);
+    }
+
+    //the stream is closed once consumed
+    public DocumentReference ingest(InputStream content, String declaredContentType, String fileName) {
+        Path stagingFile = documentStore.createStagingFile();
+        try {
+            StagedDocument staged;
+            try (ReadableByteChannel source = Channels.newChannel(content);
+                 FileChannel target = FileChannel.open(stagingFile, READ, WRITE)) {
+                staged = stage(source, target, declaredContentType, fileName);
+                fileValidationService.validateContent(target, staged.contentType(), fileName);
+            } catch (IOException ex) {
+                throw new DocumentStorageException("Unable to stage " + fileName, ex);
+            }
+            return documentStore.commit(stagingFile, staged.digest(), staged.contentType());
+        } finally {
+            deleteQuietly(stagingFile);
+        }
+    }
+
+    /**
+     * Ingests an upload already moved to a staging file of the store (see {@link DocumentStore#createStagingFile()}):
+     * the file is read once for the digest and the sniffing, its headers are checked, then it is committed and
+     * deleted.
+     */
+    public DocumentReference ingest(Path stagingFile, String declaredContentType, String fileName) {
+        try {
+            StagedDocument staged;
+            try (FileChannel source = FileChannel.open(stagingFile, READ)) {
+                staged = stage(source, null, declaredContentType, fileName);
+                fileValidationService.validateContent(source, staged.contentType(), fileName);
+            } catch (IOException ex) {
+                throw new DocumentStorageException("Unable to read staged " + fileName, ex);
+            }
+            return documentStore.commit(stagingFile, staged.digest(), staged.contentType());
+        } finally {
+            deleteQuietly(stagingFile);
+        }
+    }
+
+    //target is null when the source already is the staging file
+    private StagedDocument stage(ReadableByteChannel source, FileChannel target, String declaredContentType,
+                                 String fileName) throws IOException {
+        MessageDigest digest = DocumentStore.newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] header = new byte[ContentSniffer.SNIFF_LENGTH];
+        int headerLength = 0;
+        String contentType = null;
+        long size = 0;
+
+        while (source.read(buffer) >= 0) {
+            buffer.flip();
+            size += buffer.remaining();
+            if (size > FileValidationService.MAX_FILE_SIZE_BYTES) {
+                throw new ValidationException(String.format(
+                        "%s is oversized (max size %d)", fileName, FileValidationService.MAX_FILE_SIZE_BYTES));
+            }
+            if (headerLength < header.length) {
+                int count = Math.min(header.length - headerLength, buffer.remaining());
+                buffer.get(buffer.position(), header, headerLength, count);
+                headerLength += count;
+            }
+            // the signature is checked before anything is written, the rest of the upload is not read when it fails
+            if (contentType == null && headerLength == header.length) {
+                contentType = sniff(header, headerLength, declaredContentType, fileName);
+            }
+            digest.update(buffer.duplicate());
+            while (target != null && buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            buffer.clear();
+        }
+        if (contentType == null) {
+            // shorter than the sniffing window
+            contentType = sniff(header, headerLength, declaredContentType, fileName);
+        }
+        return new StagedDocument(DocumentStore.toHex(digest.digest()), contentType);
+    }
+
+    //an accepted declared type must match the content, any other one (octet-stream...) defers to it
+    private static String sniff(byte[] header, int headerLength, String declaredContentType, String fileName) {
+        String contentType = ContentSniffer.detect(header, headerLength).orElseThrow(() -> new ValidationException(
+                String.format("%s content is not a PDF, JPEG or PNG document", fileName)));
+        if (FileValidationService.ALLOWED_TYPES.contains(declaredContentType)
+                && !contentType.equals(declaredContentType)) {
+            throw new ValidationException(String.format("%s is declared as %s but its content is %s",
+                    fileName, declaredContentType, contentType));
+        }
+        return contentType;
+    }
+
+    private static void deleteQuietly(Path stagingFile) {
+        try {
+            Files.deleteIfExists(stagingFile);
+        } catch (IOException ex) {
+            log.warn("Unable to delete staging file {}", stagingFile, ex);
+        }
+    }
+
+    private record StagedDocument(String digest, String contentType) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.abc.bank.onboarding.service.storage;
+
+import java.nio.file.Path;
+
+/**
+ * Physical position of a document payload inside a segment file.
+ *
+ * @param segment segment file holding the document
+ * @param offset  position of the first payload byte (the record header is already skipped)
+ * @param length  payload length in bytes
+ */
+public record DocumentLocation(Path segment, long offset, long length) {
+}
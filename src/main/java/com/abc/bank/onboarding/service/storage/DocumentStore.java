@@ -0,0 +1,382 @@
+package com.abc.bank.onboarding.service.storage;
+
+import com.abc.bank.onboarding.exception.DocumentStorageException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, content-addressed store for the onboarding documents.
+ * <p>
+ * Every document is keyed by the SHA-256 of its content and appended once to a segment file as a
+ * {@code [magic][digest][length][payload]} record, so identical uploads are only written once.
+ * The digest -> location index lives in memory and is rebuilt by scanning the segments on startup.
+ * Each instance appends to segments it claimed exclusively ({@code CREATE_NEW}), which lets several
+ * instances share the same directory; unknown digests trigger an incremental rescan.
+ * <p>
+ * Uploads are first streamed to a staging file (see {@link DocumentIngestionService}) and then
+ * committed into the active segment with {@link FileChannel#transferFrom}, without going through the heap.
+ */
+@Service
+@Slf4j
+public class DocumentStore {
+
+    static final int MAGIC = 0x444F4331; // "DOC1"
+    static final int DIGEST_BYTES = 32;
+    static final int HEADER_BYTES = Integer.BYTES + DIGEST_BYTES + Long.BYTES;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final String STAGING_DIRECTORY = "staging";
+    private static final Duration STALE_STAGING_AGE = Duration.ofDays(1);
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path directory;
+    private final Path stagingDirectory;
+    private final long segmentSize;
+    private final boolean fsync;
+
+    private final Map<String, DocumentLocation> index = new ConcurrentHashMap<>();
+    private final Map<Path, Long> scannedUpTo = new ConcurrentHashMap<>();
+    private final Map<Path, FileChannel> readChannels = new ConcurrentHashMap<>();
+    //locks rather than monitors: a virtual thread blocked in I/O inside synchronized pins its carrier thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock scanLock = new ReentrantLock();
+
+    private Path activeSegment;
+    private FileChannel activeChannel;
+
+    public DocumentStore(DocumentStoreProperties properties) {
+        // absolute: the container resolves a relative MultipartFile.transferTo target against its own temp location
+        this.directory = properties.directory().toAbsolutePath();
+        this.stagingDirectory = directory.resolve(STAGING_DIRECTORY);
+        this.segmentSize = properties.segmentSize().toBytes();
+        this.fsync = properties.fsync();
+    }
+
+    @PostConstruct
+    public void open() {
+        try {
+            Files.createDirectories(stagingDirectory);
+            deleteStaleStagingFiles();
+            refreshIndex();
+            writeLock.lock();
+            try {
+                rollSegment();
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException ex) {
+            throw new DocumentStorageException("Unable to open document store at " + directory, ex);
+        }
+        log.info("Document store opened at {} with {} documents", directory.toAbsolutePath(), index.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            closeQuietly(activeChannel);
+            activeChannel = null;
+        } finally {
+            writeLock.unlock();
+        }
+        readChannels.values().forEach(DocumentStore::closeQuietly);
+        readChannels.clear();
+    }
+
+    public DocumentReference store(byte[] content, String contentType) {
+        String digest = toHex(newDigest().digest(content));
+        if (!index.containsKey(digest)) {
+            ByteBuffer payload = ByteBuffer.wrap(content);
+            append(digest, content.length, (segment, position) -> {
+                long offset = position;
+                while (payload.hasRemaining()) {
+                    offset += segment.write(payload, offset);
+                }
+            });
+        }
+        return new DocumentReference(digest, content.length, contentType);
+    }
+
+    public Path createStagingFile() {
+        try {
+            return Files.createTempFile(stagingDirectory, "upload-", ".tmp");
+        } catch (IOException ex) {
+            throw new DocumentStorageException("Unable to create a staging file in " + stagingDirectory, ex);
+        }
+    }
+
+    /**
+     * Moves a fully written staging file into the active segment. The caller computed the digest while
+     * writing the staging file and stays responsible for deleting it afterwards.
+     */
+    public DocumentReference commit(Path stagingFile, String digest, String contentType) {
+        try (FileChannel staged = FileChannel.open(stagingFile, StandardOpenOption.READ)) {
+            long size = staged.size();
+            if (!index.containsKey(digest)) {
+                append(digest, size, (segment, position) -> {
+                    long transferred = 0;
+                    while (transferred < size) {
+                        long count = segment.transferFrom(staged, position + transferred, size - transferred);
+                        if (count <= 0) {
+                            throw new EOFException("Staging file " + stagingFile + " shrank while being committed");
+                        }
+                        transferred += count;
+                    }
+                });
+            }
+            return new DocumentReference(digest, size, contentType);
+        } catch (IOException ex) {
+            throw new DocumentStorageException("Unable to commit staging file " + stagingFile, ex);
+        }
+    }
+
+    public boolean contains(String digest) {
+        return locate(digest).isPresent();
+    }
+
+    public Optional<DocumentLocation> locate(String digest) {
+        DocumentLocation location = index.get(digest);
+        if (location == null) {
+            // another instance sharing the directory may have appended it since our last scan
+            refreshIndex();
+            location = index.get(digest);
+        }
+        return Optional.ofNullable(location);
+    }
+
+    public byte[] read(String digest) {
+        DocumentLocation location = locate(digest)
+                .orElseThrow(() -> new DocumentStorageException("Unknown document " + digest));
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(location.length()));
+        try {
+            readFully(readChannel(location.segment()), buffer, location.offset());
+        } catch (IOException ex) {
+            throw new DocumentStorageException("Unable to read document " + digest, ex);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Copies {@code count} bytes of a document, starting at {@code position} within its payload, with
+     * {@link FileChannel#transferTo}: the kernel copies straight to a socket or file target, other targets
+     * go through a small JDK buffer, never a document-sized array.
+     */
+    public void transferTo(DocumentLocation location, long position, long count, WritableByteChannel target) {
+        if (position < 0 || count < 0 || position + count > location.length()) {
+            throw new IllegalArgumentException("Range " + position + "+" + count + " outside of a document of "
+                    + location.length() + " bytes");
+        }
+        FileChannel segment = readChannel(location.segment());
+        try {
+            long transferred = 0;
+            while (transferred < count) {
+                long sent = segment.transferTo(location.offset() + position + transferred, count - transferred, target);
+                if (sent <= 0) {
+                    throw new EOFException("Unexpected end of segment " + location.segment());
+                }
+                transferred += sent;
+            }
+        } catch (IOException ex) {
+            throw new DocumentStorageException("Unable to transfer document from " + location.segment(), ex);
+        }
+    }
+
+    private void append(String digest, long length, PayloadWriter payload) {
+        writeLock.lock();
+        try {
+            if (index.containsKey(digest)) {
+                return;
+            }
+            try {
+                if (activeChannel.position() > 0 && activeChannel.position() + HEADER_BYTES + length > segmentSize) {
+                    rollSegment();
+                }
+                long recordOffset = activeChannel.position();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC)
+                        .put(HEX.parseHex(digest))
+                        .putLong(length)
+                        .flip();
+                while (header.hasRemaining()) {
+                    activeChannel.write(header);
+                }
+                payload.writeTo(activeChannel, recordOffset + HEADER_BYTES);
+                activeChannel.position(recordOffset + HEADER_BYTES + length);
+                if (fsync) {
+                    activeChannel.force(false);
+                }
+                index.put(digest, new DocumentLocation(activeSegment, recordOffset + HEADER_BYTES, length));
+            } catch (IOException ex) {
+                // never append after a torn record, it would hide every following record from the scan
+                rollSegmentQuietly();
+                throw new DocumentStorageException("Unable to write document " + digest, ex);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void refreshIndex() {
+        scanLock.lock();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path segment : files.filter(DocumentStore::isSegment).sorted().toList()) {
+                scan(segment);
+            }
+        } catch (IOException ex) {
+            throw new DocumentStorageException("Unable to scan document store at " + directory, ex);
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    private void scan(Path segment) throws IOException {
+        FileChannel channel = readChannel(segment);
+        long size = channel.size();
+        long position = scannedUpTo.getOrDefault(segment, 0L);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        byte[] digest = new byte[DIGEST_BYTES];
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(channel, header, position);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                log.warn("Corrupted record in {} at offset {}, ignoring the rest of the segment", segment, position);
+                break;
+            }
+            header.get(digest);
+            long length = header.getLong();
+            long payloadOffset = position + HEADER_BYTES;
+            if (payloadOffset + length > size) {
+                break; // record still being written, or torn by a crash
+            }
+            index.putIfAbsent(toHex(digest), new DocumentLocation(segment, payloadOffset, length));
+            position = payloadOffset + length;
+        }
+        scannedUpTo.put(segment, position);
+    }
+
+    private void rollSegment() throws IOException {
+        closeQuietly(activeChannel);
+        long next = nextSegmentNumber();
+        while (true) {
+            Path candidate = directory.resolve(SEGMENT_PREFIX + "%010d".formatted(next) + SEGMENT_SUFFIX);
+            try {
+                activeChannel = FileChannel.open(candidate, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                activeSegment = candidate;
+                return;
+            } catch (FileAlreadyExistsException ex) {
+                next++; // claimed concurrently by another instance
+            }
+        }
+    }
+
+    private void rollSegmentQuietly() {
+        try {
+            rollSegment();
+        } catch (IOException ex) {
+            log.error("Unable to start a new segment in {}", directory, ex);
+        }
+    }
+
+    private void deleteStaleStagingFiles() throws IOException {
+        FileTime threshold = FileTime.from(Instant.now().minus(STALE_STAGING_AGE));
+        try (Stream<Path> files = Files.list(stagingDirectory)) {
+            for (Path file : files.toList()) {
+                if (Files.getLastModifiedTime(file).compareTo(threshold) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private long nextSegmentNumber() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(DocumentStore::isSegment)
+                    .map(path -> path.getFileName().toString())
+                    .mapToLong(name -> Long.parseLong(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .max()
+                    .orElse(0L) + 1;
+        }
+    }
+
+    private FileChannel readChannel(Path segment) {
+        return readChannels.computeIfAbsent(segment, path -> {
+            try {
+                return FileChannel.open(path, StandardOpenOption.READ);
+            } catch (IOException ex) {
+                throw new DocumentStorageException("Unable to open segment " + path, ex);
+            }
+        });
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of segment at offset " + offset);
+            }
+            offset += read;
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    static String toHex(byte[] digest) {
+        return HEX.formatHex(digest);
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not supported by the JVM", ex);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            log.warn("Unable to close segment channel", ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PayloadWriter {
+        //writes the payload at the given position, without relying on the channel position
+        void writeTo(FileChannel segment, long position) throws IOException;
+    }
+}
@@ -0,0 +1,19 @@
+package com.abc.bank.onboarding.service.storage;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * @param directory   root directory of the document store (segments live directly under it)
+ * @param segmentSize size after which the active segment is sealed and a new one is started
+ * @param fsync       force every appended document to disk before the reference is handed out
+ */
+@ConfigurationProperties(prefix = "onboarding.documents")
+public record DocumentStoreProperties(
+        @DefaultValue("data/documents") Path directory,
+        @DefaultValue("256MB") DataSize segmentSize,
+        @DefaultValue("true") boolean fsync) {
+}
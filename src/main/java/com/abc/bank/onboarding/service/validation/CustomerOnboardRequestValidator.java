@@ -0,0 +1,237 @@
+package com.abc.bank.onboarding.service.validation;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.validator.BsnValidator;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ResourceBundle;
+
+/**
+ * Hand-specialized equivalent of the constraints declared on {@link CustomerOnboardRequest}: the checks are plain
+ * loops over the characters, without metadata walk, regex or message interpolation. The messages are interpolated
+ * once, from {@code ValidationMessages.properties}, and the valid path allocates nothing but the current date.
+ * <p>
+ * It must give the same violations as Bean Validation (checked by {@code CustomerOnboardRequestValidatorTest}): a
+ * constraint added to the request must be added here too. Violations are listed in the declaration order of the
+ * fields, and in the order of the annotations within a field. Emails outside plain ASCII (quoted local parts, address
+ * literals, internationalized domains) are rare and left to Bean Validation, which keeps their exact semantics.
+ */
+@Component
+public class CustomerOnboardRequestValidator {
+
+    private static final int ADULT_AGE_IN_MONTHS = 18 * 12;
+    private static final int MAX_EMAIL_LOCAL_PART_LENGTH = 64;
+    private static final int MAX_EMAIL_DOMAIN_LENGTH = 255;
+    private static final int MAX_EMAIL_DOMAIN_LABEL_LENGTH = 63;
+    //atom characters of RFC 5322 besides letters and digits, the dash is handled apart as domain labels restrict it
+    private static final String EMAIL_ATOM_SYMBOLS = "!#$%&'*+/=?^_`{|}~";
+
+    private static final BsnValidator BSN = new BsnValidator();
+
+    private final Validator validator;
+
+    private final String firstNameRequired;
+    private final String firstNameAlphaSpace;
+    private final String lastNameRequired;
+    private final String lastNameAlphaSpace;
+    private final String genderRequired;
+    private final String dobAdult;
+    private final String phoneRequired;
+    private final String phoneInvalid;
+    private final String emailInvalid;
+    private final String emailRequired;
+    private final String nationalityRequired;
+    private final String nationalityInvalid;
+    private final String addressRequired;
+    private final String bsnInvalid;
+    private final String bsnRequired;
+
+    public CustomerOnboardRequestValidator(Validator validator) {
+        this.validator = validator;
+        ResourceBundle messages = ResourceBundle.getBundle("ValidationMessages");
+        firstNameRequired = violation(messages, "firstName", "firstName.required");
+        firstNameAlphaSpace = violation(messages, "firstName", "firstName.alphaSpace");
+        lastNameRequired = violation(messages, "lastName", "lastName.required");
+        lastNameAlphaSpace = violation(messages, "lastName", "lastName.alphaSpace");
+        genderRequired = violation(messages, "gender", "gender.required");
+        dobAdult = violation(messages, "dateOfBirth", "dob.adult");
+        phoneRequired = violation(messages, "phoneNumber", "phone.required");
+        phoneInvalid = violation(messages, "phoneNumber", "phone.invalid");
+        emailInvalid = violation(messages, "email", "email.invalid");
+        emailRequired = violation(messages, "email", "email.required");
+        nationalityRequired = violation(messages, "nationality", "nationality.required");
+        nationalityInvalid = violation(messages, "nationality", "nationality.invalid");
+        addressRequired = violation(messages, "residentialAddress", "address.required");
+        bsnInvalid = violation(messages, "socialSecurityNumber", "bsn.invalid");
+        bsnRequired = violation(messages, "socialSecurityNumber", "bsn.required");
+    }
+
+    //null when the request is valid, otherwise the violations as "field: message", separated by ", "
+    public String validate(CustomerOnboardRequest request) {
+        // only created once a violation is found
+        StringBuilder violations = null;
+        violations = check(violations, !isBlank(request.firstName()), firstNameRequired);
+        violations = check(violations, isAlphaSpace(request.firstName()), firstNameAlphaSpace);
+        violations = check(violations, !isBlank(request.lastName()), lastNameRequired);
+        violations = check(violations, isAlphaSpace(request.lastName()), lastNameAlphaSpace);
+        violations = check(violations, request.gender() != null, genderRequired);
+        violations = check(violations, isAdult(request.dateOfBirth()), dobAdult);
+        violations = check(violations, !isBlank(request.phoneNumber()), phoneRequired);
+        violations = check(violations, isDutchPhoneNumber(request.phoneNumber()), phoneInvalid);
+        violations = check(violations, isEmail(request.email()), emailInvalid);
+        violations = check(violations, !isBlank(request.email()), emailRequired);
+        violations = check(violations, !isBlank(request.nationality()), nationalityRequired);
+        violations = check(violations, isIsoCountryCode(request.nationality()), nationalityInvalid);
+        violations = check(violations, !isBlank(request.residentialAddress()), addressRequired);
+        violations = check(violations, BSN.isValid(request.socialSecurityNumber(), null), bsnInvalid);
+        violations = check(violations, !isBlank(request.socialSecurityNumber()), bsnRequired);
+        return violations == null ? null : violations.toString();
+    }
+
+    private static StringBuilder check(StringBuilder violations, boolean valid, String violation) {
+        if (valid) {
+            return violations;
+        }
+        return violations == null ? new StringBuilder(violation) : violations.append(", ").append(violation);
+    }
+
+    //@NotBlank: null or only whitespace is blank
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    //@Pattern("^[a-zA-Z ]+$"), null is valid
+    private static boolean isAlphaSpace(String value) {
+        if (value == null) {
+            return true;
+        }
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == ' ')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //@Pattern("^(\\+31|0)[1-9]\\d{8}$"), null is valid
+    private static boolean isDutchPhoneNumber(String value) {
+        if (value == null) {
+            return true;
+        }
+        int start;
+        if (value.startsWith("+31")) {
+            start = 3;
+        } else if (value.startsWith("0")) {
+            start = 1;
+        } else {
+            return false;
+        }
+        if (value.length() != start + 9 || value.charAt(start) < '1' || value.charAt(start) > '9') {
+            return false;
+        }
+        for (int i = start + 1; i < value.length(); i++) {
+            if (!isAsciiDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //@Pattern("^[A-Z]{2}$"), null is valid
+    private static boolean isIsoCountryCode(String value) {
+        return value == null || value.length() == 2 && isUpperCaseLetter(value.charAt(0))
+                && isUpperCaseLetter(value.charAt(1));
+    }
+
+    //@Email, null is valid: the local part is a dot-atom of at most 64 characters, the domain a dot-separated list of
+    //labels of at most 63 characters that do not start or end with a dash, 255 characters at most
+    private boolean isEmail(String value) {
+        if (value == null || value.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || c == '"' || c == '[') {
+                return validator.validateValue(CustomerOnboardRequest.class, "email", value).stream()
+                        .noneMatch(v -> v.getConstraintDescriptor().getAnnotation() instanceof Email);
+            }
+        }
+        int at = value.lastIndexOf('@');
+        return at >= 0 && at <= MAX_EMAIL_LOCAL_PART_LENGTH && isEmailLocalPart(value, at)
+                && isEmailDomain(value, at + 1);
+    }
+
+    private static boolean isEmailLocalPart(String value, int end) {
+        boolean atomStart = true;
+        for (int i = 0; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (atomStart) {
+                    return false;
+                }
+                atomStart = true;
+            } else if (isEmailAtomChar(c) || c == '-') {
+                atomStart = false;
+            } else {
+                return false;
+            }
+        }
+        return !atomStart;
+    }
+
+    private static boolean isEmailDomain(String value, int start) {
+        if (value.length() - start > MAX_EMAIL_DOMAIN_LENGTH) {
+            return false;
+        }
+        int labelStart = start;
+        for (int i = start; i <= value.length(); i++) {
+            if (i == value.length() || value.charAt(i) == '.') {
+                if (i == labelStart || i - labelStart > MAX_EMAIL_DOMAIN_LABEL_LENGTH
+                        || value.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else if (!isEmailAtomChar(value.charAt(i)) && (value.charAt(i) != '-' || i == labelStart)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEmailAtomChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || isAsciiDigit(c) || EMAIL_ATOM_SYMBOLS.indexOf(c) >= 0;
+    }
+
+    //@Adult: Period.between(dateOfBirth, today).getYears() >= 18, without creating the period
+    private static boolean isAdult(LocalDate dateOfBirth) {
+        if (dateOfBirth == null) {
+            return false;
+        }
+        LocalDate today = LocalDate.now();
+        long months = today.getYear() * 12L + today.getMonthValue() - (dateOfBirth.getYear() * 12L
+                + dateOfBirth.getMonthValue());
+        if (months > 0 && today.getDayOfMonth() < dateOfBirth.getDayOfMonth()) {
+            months--;
+        }
+        return months >= ADULT_AGE_IN_MONTHS;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpperCaseLetter(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static String violation(ResourceBundle messages, String field, String key) {
+        return field + ": " + messages.getString(key);
+    }
+}
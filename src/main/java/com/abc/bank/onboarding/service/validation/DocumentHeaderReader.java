@@ -0,0 +1,122 @@
+package com.abc.bank.onboarding.service.validation;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Optional;
+
+/**
+ * Reads the {@link DocumentMetadata} of a document from its headers only, with positional reads of the few bytes
+ * they need: the IHDR chunk of a PNG, the frame header (SOFn) of a JPEG, the cross-reference data and page tree root
+ * of a PDF. Pixels, scans and page contents are never read nor decoded.
+ * <p>
+ * Empty when the header is missing or malformed.
+ */
+@UtilityClass
+public class DocumentHeaderReader {
+
+    private static final int PNG_SIGNATURE_LENGTH = 8;
+    private static final int IHDR = 0x49484452;
+    private static final int IHDR_LENGTH = 13;
+
+    public static Optional<DocumentMetadata> read(FileChannel content, String contentType) throws IOException {
+        return switch (contentType) {
+            case MediaType.IMAGE_PNG_VALUE -> png(content);
+            case MediaType.IMAGE_JPEG_VALUE -> jpeg(content);
+            case MediaType.APPLICATION_PDF_VALUE -> new PdfPageCounter(content).count().map(DocumentMetadata::pdf);
+            default -> Optional.empty();
+        };
+    }
+
+    //the IHDR chunk comes first: length, type, width, height, bit depth, color type
+    private static Optional<DocumentMetadata> png(FileChannel content) throws IOException {
+        ByteBuffer ihdr = read(content, PNG_SIGNATURE_LENGTH, 18);
+        if (ihdr == null || ihdr.getInt(0) != IHDR_LENGTH || ihdr.getInt(4) != IHDR) {
+            return Optional.empty();
+        }
+        int width = ihdr.getInt(8);
+        int height = ihdr.getInt(12);
+        int bitDepth = ihdr.get(16) & 0xFF;
+        int samples = switch (ihdr.get(17)) {
+            case 0, 3 -> 1; // grayscale, palette
+            case 4 -> 2;    // grayscale and alpha
+            case 2 -> 3;    // RGB
+            case 6 -> 4;    // RGBA
+            default -> 0;
+        };
+        if (width <= 0 || height <= 0 || bitDepth == 0 || samples == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(DocumentMetadata.image(width, height, bitDepth * samples));
+    }
+
+    //walks the marker segments from their length fields, without reading them, up to the first frame header
+    private static Optional<DocumentMetadata> jpeg(FileChannel content) throws IOException {
+        long position = 2; // after SOI
+        while (true) {
+            ByteBuffer marker = read(content, position, 4);
+            if (marker == null || (marker.get(0) & 0xFF) != 0xFF) {
+                return Optional.empty();
+            }
+            int type = marker.get(1) & 0xFF;
+            if (type == 0xFF) {
+                // fill byte
+                position++;
+                continue;
+            }
+            if (type == 0x01 || type >= 0xD0 && type <= 0xD8) {
+                // markers without a segment
+                position += 2;
+                continue;
+            }
+            if (type == 0xD9 || type == 0xDA) {
+                // end of image or scan data before any frame header
+                return Optional.empty();
+            }
+            int length = marker.getShort(2) & 0xFFFF;
+            if (length < 2) {
+                return Optional.empty();
+            }
+            if (isStartOfFrame(type)) {
+                return frame(content, position + 4);
+            }
+            position += 2 + length;
+        }
+    }
+
+    //precision, height, width, components
+    private static Optional<DocumentMetadata> frame(FileChannel content, long position) throws IOException {
+        ByteBuffer frame = read(content, position, 6);
+        if (frame == null) {
+            return Optional.empty();
+        }
+        int precision = frame.get(0) & 0xFF;
+        int height = frame.getShort(1) & 0xFFFF;
+        int width = frame.getShort(3) & 0xFFFF;
+        int components = frame.get(5) & 0xFF;
+        // a height of 0 is only given later by a DNL marker, after the scan
+        if (precision == 0 || height == 0 || width == 0 || components == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(DocumentMetadata.image(width, height, precision * components));
+    }
+
+    //SOF0 to SOF15, except DHT, JPG and DAC which share the range
+    private static boolean isStartOfFrame(int type) {
+        return type >= 0xC0 && type <= 0xCF && type != 0xC4 && type != 0xC8 && type != 0xCC;
+    }
+
+    //null when the content ends before length bytes
+    static ByteBuffer read(FileChannel content, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (content.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,23 @@
+package com.abc.bank.onboarding.service.validation;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Limits checked on the headers of the documents before they are stored (see {@link DocumentMetadata}).
+ *
+ * @param maxWidth        widest image accepted, in pixels
+ * @param maxHeight       tallest image accepted, in pixels
+ * @param maxDecodedSize  largest image once decoded (width x height x color depth), what a decoder would allocate
+ * @param maxBitsPerPixel deepest color depth accepted (64 is a 16-bit RGBA PNG)
+ * @param maxPages        most pages accepted in a PDF
+ */
+@ConfigurationProperties(prefix = "onboarding.documents.limits")
+public record DocumentLimitsProperties(
+        @DefaultValue("10000") int maxWidth,
+        @DefaultValue("10000") int maxHeight,
+        @DefaultValue("128MB") DataSize maxDecodedSize,
+        @DefaultValue("64") int maxBitsPerPixel,
+        @DefaultValue("10") int maxPages) {
+}
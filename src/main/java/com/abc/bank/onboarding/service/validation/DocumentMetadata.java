@@ -0,0 +1,29 @@
+package com.abc.bank.onboarding.service.validation;
+
+/**
+ * What the header of a document tells without decoding it.
+ *
+ * @param width        width of an image in pixels, 0 for a PDF
+ * @param height       height of an image in pixels, 0 for a PDF
+ * @param bitsPerPixel color depth of an image (bits per sample times samples per pixel), 0 for a PDF
+ * @param pageCount    pages of a PDF, 1 for an image
+ */
+public record DocumentMetadata(int width, int height, int bitsPerPixel, int pageCount) {
+
+    static DocumentMetadata image(int width, int height, int bitsPerPixel) {
+        return new DocumentMetadata(width, height, bitsPerPixel, 1);
+    }
+
+    static DocumentMetadata pdf(int pageCount) {
+        return new DocumentMetadata(0, 0, 0, pageCount);
+    }
+
+    //bytes a decoder allocates for the pixels, saturated instead of overflowing
+    public long decodedSize() {
+        try {
+            return Math.multiplyExact(Math.multiplyExact((long) width, height), bitsPerPixel) / 8;
+        } catch (ArithmeticException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
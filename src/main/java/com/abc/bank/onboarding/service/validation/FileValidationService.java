@@ -6,6 +6,8 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Set;
 
 @Component
@@ -20,25 +22,64 @@ public class FileValidationService {
             MediaType.IMAGE_PNG_VALUE
     );
 
+    private final DocumentLimitsProperties limits;
 
     public void validateFile(MultipartFile file, String fileName) {
-        validatePresenceAndSize(file, fileName);
-        validateContentType(file, fileName);
+        if (file == null) {
+            throw new ValidationException(fileName + " missing or empty");
+        }
+        validateDocument(file.getSize(), file.getContentType(), fileName);
+    }
+
+    //size is -1 when unknown up front (e.g. a streamed zip entry), the ingestion enforces the limit anyway
+    public void validateDocument(long size, String contentType, String fileName) {
+        validatePresenceAndSize(size, fileName);
+        validateContentType(contentType, fileName);
+    }
+
+
+    /**
+     * Checks the dimensions, color depth or page count of a staged document against the limits, from its headers only
+     * (see {@link DocumentHeaderReader}): a 20000x20000 image or a 500-page PDF fits in 2MB, but must not reach a
+     * decoder. The content type is the sniffed one.
+     */
+    public void validateContent(FileChannel content, String contentType, String fileName) throws IOException {
+        DocumentMetadata metadata = DocumentHeaderReader.read(content, contentType)
+                .orElseThrow(() -> new ValidationException(String.format(
+                        "%s is not a well-formed %s document", fileName, contentType)));
+        validateMetadata(metadata, fileName);
     }
 
+    void validateMetadata(DocumentMetadata metadata, String fileName) {
+        if (metadata.width() > limits.maxWidth() || metadata.height() > limits.maxHeight()) {
+            throw new ValidationException(String.format("%s is %dx%d pixels (max %dx%d)",
+                    fileName, metadata.width(), metadata.height(), limits.maxWidth(), limits.maxHeight()));
+        }
+        if (metadata.bitsPerPixel() > limits.maxBitsPerPixel()) {
+            throw new ValidationException(String.format("%s has %d bits per pixel (max %d)",
+                    fileName, metadata.bitsPerPixel(), limits.maxBitsPerPixel()));
+        }
+        if (metadata.decodedSize() > limits.maxDecodedSize().toBytes()) {
+            throw new ValidationException(String.format("%s decodes to %d bytes (max %d)",
+                    fileName, metadata.decodedSize(), limits.maxDecodedSize().toBytes()));
+        }
+        if (metadata.pageCount() > limits.maxPages()) {
+            throw new ValidationException(String.format("%s has %d pages (max %d)",
+                    fileName, metadata.pageCount(), limits.maxPages()));
+        }
+    }
 
-    private void validatePresenceAndSize(MultipartFile file, String fileName) {
-        if (file == null || file.isEmpty()) {
+    private void validatePresenceAndSize(long size, String fileName) {
+        if (size == 0) {
             throw new ValidationException(fileName + " missing or empty");
         }
-        if (file.getSize() > MAX_FILE_SIZE_BYTES) {
+        if (size > MAX_FILE_SIZE_BYTES) {
             throw new ValidationException(String.format(
                     "%s is oversized (max size %d)", fileName, MAX_FILE_SIZE_BYTES));
         }
     }
 
-    private void validateContentType(MultipartFile file, String fileName) {
-        String contentType = file.getContentType();
+    private void validateContentType(String contentType, String fileName) {
         if (contentType == null || !ALLOWED_TYPES.contains(contentType)) {
             throw new ValidationException(String.format(
                     "%s has invalid content type '%s'. Allowed: %s",
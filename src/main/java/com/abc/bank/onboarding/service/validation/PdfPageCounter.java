@@ -0,0 +1,713 @@
+package com.abc.bank.onboarding.service.validation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the page count of a PDF the way a viewer opens it: the {@code startxref} offset at the end of the file, the
+ * cross-reference sections it leads to, the {@code /Root} catalog of the trailer, then the {@code /Count} of the root
+ * of its page tree. Only those few objects are parsed, the pages and their content streams are never read.
+ * <p>
+ * Cross-reference tables and streams, hybrid files, incremental updates and objects kept in object streams are
+ * supported; the streams read are inflated up to {@link #MAX_INFLATED} bytes. A document that would need more
+ * (repairing a broken cross-reference, decrypting an encrypted object stream...) is reported as unreadable.
+ */
+final class PdfPageCounter {
+
+    private static final int TAIL_LENGTH = 1024;
+    private static final int CHUNK = 4096;
+    private static final int TABLE_ENTRY_LENGTH = 20;
+    private static final int MAX_INFLATED = 1024 * 1024;
+    private static final int MAX_SECTIONS = 64;
+    private static final int MAX_DEPTH = 32;
+    private static final byte[] STARTXREF = "startxref".getBytes(StandardCharsets.US_ASCII);
+    // the value of literal and hexadecimal strings is never needed
+    private static final Object STRING = new Object();
+    private static final Object NULL = new Object();
+
+    private final FileChannel content;
+    private final long size;
+    // newest first
+    private final List<Section> sections = new ArrayList<>();
+    private final Map<Long, ObjectStream> objectStreams = new HashMap<>();
+
+    PdfPageCounter(FileChannel content) throws IOException {
+        this.content = content;
+        this.size = content.size();
+    }
+
+    Optional<Integer> count() throws IOException {
+        try {
+            Map<String, Object> trailer = readSections(startXref());
+            Map<String, Object> catalog = dictionary(resolve(trailer.get("Root")));
+            Map<String, Object> pages = dictionary(resolve(catalog.get("Pages")));
+            return Optional.of(intValue(resolve(pages.get("Count")), 0, Integer.MAX_VALUE));
+        } catch (MalformedPdfException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private long startXref() throws IOException {
+        long tailStart = Math.max(0, size - TAIL_LENGTH);
+        ByteBuffer tail = DocumentHeaderReader.read(content, tailStart, (int) (size - tailStart));
+        if (tail == null) {
+            throw new MalformedPdfException();
+        }
+        byte[] bytes = tail.array();
+        for (int at = bytes.length - STARTXREF.length; at >= 0; at--) {
+            if (Arrays.equals(bytes, at, at + STARTXREF.length, STARTXREF, 0, STARTXREF.length)) {
+                return offset(new Lexer(tailStart + at + STARTXREF.length).number());
+            }
+        }
+        throw new MalformedPdfException();
+    }
+
+    //reads the chain of cross-reference sections and returns the newest trailer
+    private Map<String, Object> readSections(long offset) throws IOException {
+        Map<String, Object> newest = null;
+        Set<Long> visited = new HashSet<>();
+        Long next = offset;
+        while (next != null) {
+            if (!visited.add(next) || visited.size() > MAX_SECTIONS) {
+                throw new MalformedPdfException();
+            }
+            Lexer lexer = new Lexer(next);
+            Map<String, Object> trailer;
+            if (lexer.keyword("xref")) {
+                trailer = readTable(lexer);
+                // hybrid file: the objects kept in object streams are listed by a cross-reference stream
+                Object stream = trailer.get("XRefStm");
+                if (stream != null && visited.add(offset(stream))) {
+                    readStream(new Lexer(offset(stream)));
+                }
+            } else {
+                trailer = readStream(lexer);
+            }
+            if (newest == null) {
+                newest = trailer;
+            }
+            Object prev = trailer.get("Prev");
+            next = prev == null ? null : offset(prev);
+        }
+        return newest;
+    }
+
+    //the entries are not parsed, only located: they all are 20 bytes long
+    private Map<String, Object> readTable(Lexer lexer) throws IOException {
+        List<long[]> subsections = new ArrayList<>();
+        while (!lexer.keyword("trailer")) {
+            long first = lexer.number();
+            long count = lexer.number();
+            if (first < 0 || count < 0 || count > size / TABLE_ENTRY_LENGTH) {
+                throw new MalformedPdfException();
+            }
+            lexer.skipWhitespace();
+            subsections.add(new long[]{first, count, lexer.position});
+            lexer.position += count * TABLE_ENTRY_LENGTH;
+        }
+        sections.add(number -> tableEntry(subsections, number));
+        return dictionary(lexer.value(0));
+    }
+
+    private Entry tableEntry(List<long[]> subsections, long number) throws IOException {
+        for (long[] subsection : subsections) {
+            if (number >= subsection[0] && number < subsection[0] + subsection[1]) {
+                ByteBuffer entry = DocumentHeaderReader.read(content,
+                        subsection[2] + (number - subsection[0]) * TABLE_ENTRY_LENGTH, TABLE_ENTRY_LENGTH);
+                if (entry == null) {
+                    throw new MalformedPdfException();
+                }
+                // oooooooooo ggggg n
+                return switch (entry.get(17)) {
+                    case 'n' -> new Entry(1, digits(entry, 0, 10), 0);
+                    case 'f' -> null;
+                    default -> throw new MalformedPdfException();
+                };
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Object> readStream(Lexer lexer) throws IOException {
+        IndirectObject object = lexer.object();
+        Map<String, Object> dictionary = dictionary(object.value());
+        if (!"XRef".equals(dictionary.get("Type")) || object.streamStart() < 0) {
+            throw new MalformedPdfException();
+        }
+        byte[] data = decode(dictionary, object.streamStart(), dictionary.get("Length"));
+        List<Object> w = array(dictionary.get("W"));
+        if (w.size() != 3) {
+            throw new MalformedPdfException();
+        }
+        int[] widths = {intValue(w.get(0), 0, 8), intValue(w.get(1), 0, 8), intValue(w.get(2), 0, 8)};
+        List<Object> index = dictionary.containsKey("Index")
+                ? array(dictionary.get("Index"))
+                : List.of(0L, integer(dictionary.get("Size")));
+        sections.add(number -> streamEntry(data, widths, index, number));
+        return dictionary;
+    }
+
+    private static Entry streamEntry(byte[] data, int[] widths, List<Object> index, long number) {
+        int rowLength = widths[0] + widths[1] + widths[2];
+        long row = 0;
+        for (int i = 0; i + 1 < index.size(); i += 2) {
+            long first = integer(index.get(i));
+            long count = integer(index.get(i + 1));
+            if (first < 0 || count < 0 || count > data.length) {
+                throw new MalformedPdfException();
+            }
+            if (number >= first && number < first + count) {
+                long start = (row + number - first) * rowLength;
+                if (start < 0 || start + rowLength > data.length) {
+                    throw new MalformedPdfException();
+                }
+                int at = (int) start;
+                // the type defaults to 1 when its field is omitted
+                long type = widths[0] == 0 ? 1 : field(data, at, widths[0]);
+                long second = field(data, at + widths[0], widths[1]);
+                long third = field(data, at + widths[0] + widths[1], widths[2]);
+                return type == 1 || type == 2 ? new Entry((int) type, second, third) : null;
+            }
+            row += count;
+        }
+        return null;
+    }
+
+    private Object resolve(Object value) throws IOException {
+        for (int depth = 0; value instanceof Ref ref; depth++) {
+            if (depth > MAX_DEPTH) {
+                throw new MalformedPdfException();
+            }
+            value = load(ref.number());
+        }
+        return value;
+    }
+
+    private Object load(long number) throws IOException {
+        Entry entry = entry(number);
+        if (entry.type() == 1) {
+            IndirectObject object = new Lexer(offset(entry.second())).object();
+            if (object.number() != number) {
+                throw new MalformedPdfException();
+            }
+            return object.value();
+        }
+        ObjectStream stream = objectStream(entry.second());
+        Lexer lexer = new Lexer(stream.data());
+        for (int i = 0; i < stream.count(); i++) {
+            long objectNumber = lexer.number();
+            long offset = lexer.number();
+            if (objectNumber == number) {
+                lexer.position = stream.first() + offset;
+                return lexer.value(0);
+            }
+        }
+        throw new MalformedPdfException();
+    }
+
+    //the newest section that lists the object wins
+    private Entry entry(long number) throws IOException {
+        for (Section section : sections) {
+            Entry entry = section.find(number);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        throw new MalformedPdfException();
+    }
+
+    private ObjectStream objectStream(long number) throws IOException {
+        ObjectStream stream = objectStreams.get(number);
+        if (stream == null) {
+            Entry entry = entry(number);
+            if (entry.type() != 1) {
+                throw new MalformedPdfException();
+            }
+            IndirectObject object = new Lexer(offset(entry.second())).object();
+            Map<String, Object> dictionary = dictionary(object.value());
+            if (object.number() != number || !"ObjStm".equals(dictionary.get("Type")) || object.streamStart() < 0) {
+                throw new MalformedPdfException();
+            }
+            byte[] data = decode(dictionary, object.streamStart(), resolve(dictionary.get("Length")));
+            stream = new ObjectStream(data, intValue(dictionary.get("N"), 0, data.length),
+                    intValue(dictionary.get("First"), 0, data.length));
+            objectStreams.put(number, stream);
+        }
+        return stream;
+    }
+
+    private byte[] decode(Map<String, Object> dictionary, long start, Object length) throws IOException {
+        int streamLength = intValue(length, 0, Integer.MAX_VALUE);
+        if (start + streamLength > size) {
+            throw new MalformedPdfException();
+        }
+        ByteBuffer raw = DocumentHeaderReader.read(content, start, streamLength);
+        if (raw == null) {
+            throw new MalformedPdfException();
+        }
+        Object filter = single(dictionary.get("Filter"));
+        byte[] data;
+        if (filter == null) {
+            data = raw.array();
+        } else if ("FlateDecode".equals(filter)) {
+            data = inflate(raw.array());
+        } else {
+            throw new MalformedPdfException();
+        }
+        Object parameters = single(dictionary.get("DecodeParms"));
+        return parameters == null || parameters == NULL ? data : unpredict(data, dictionary(parameters));
+    }
+
+    private static byte[] inflate(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[CHUNK];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(chunk);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                out.write(chunk, 0, count);
+                // the inflated size is not known up front, a few KB of deflate can inflate to GBs
+                if (out.size() > MAX_INFLATED) {
+                    throw new MalformedPdfException();
+                }
+            }
+            return out.toByteArray();
+        } catch (DataFormatException ex) {
+            throw new MalformedPdfException();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    //PNG predictors (10 to 15), the ones used by cross-reference streams; each row starts with its filter type
+    private static byte[] unpredict(byte[] data, Map<String, Object> parameters) {
+        int predictor = parameters.containsKey("Predictor") ? intValue(parameters.get("Predictor"), 1, 15) : 1;
+        if (predictor == 1) {
+            return data;
+        }
+        if (predictor < 10) {
+            throw new MalformedPdfException();
+        }
+        int colors = parameters.containsKey("Colors") ? intValue(parameters.get("Colors"), 1, 32) : 1;
+        int bits = parameters.containsKey("BitsPerComponent")
+                ? intValue(parameters.get("BitsPerComponent"), 1, 16) : 8;
+        int columns = parameters.containsKey("Columns") ? intValue(parameters.get("Columns"), 1, data.length) : 1;
+        int pixelLength = Math.max(1, (colors * bits + 7) / 8);
+        int rowLength = (int) (((long) colors * bits * columns + 7) / 8);
+        int rows = data.length / (rowLength + 1);
+        byte[] out = new byte[rows * rowLength];
+        for (int row = 0; row < rows; row++) {
+            int in = row * (rowLength + 1);
+            int at = row * rowLength;
+            int filter = data[in];
+            for (int i = 0; i < rowLength; i++) {
+                int left = i >= pixelLength ? out[at + i - pixelLength] & 0xFF : 0;
+                int up = row > 0 ? out[at - rowLength + i] & 0xFF : 0;
+                int upLeft = row > 0 && i >= pixelLength ? out[at - rowLength + i - pixelLength] & 0xFF : 0;
+                int x = data[in + 1 + i] & 0xFF;
+                out[at + i] = (byte) switch (filter) {
+                    case 0 -> x;
+                    case 1 -> x + left;
+                    case 2 -> x + up;
+                    case 3 -> x + (left + up) / 2;
+                    case 4 -> x + paeth(left, up, upLeft);
+                    default -> throw new MalformedPdfException();
+                };
+            }
+        }
+        return out;
+    }
+
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int toLeft = Math.abs(estimate - left);
+        int toUp = Math.abs(estimate - up);
+        int toUpLeft = Math.abs(estimate - upLeft);
+        if (toLeft <= toUp && toLeft <= toUpLeft) {
+            return left;
+        }
+        return toUp <= toUpLeft ? up : upLeft;
+    }
+
+    //big-endian field of a cross-reference stream row
+    private static long field(byte[] data, int at, int width) {
+        long value = 0;
+        for (int i = 0; i < width; i++) {
+            value = value << 8 | data[at + i] & 0xFF;
+        }
+        return value;
+    }
+
+    private static long digits(ByteBuffer buffer, int at, int count) {
+        long value = 0;
+        for (int i = at; i < at + count; i++) {
+            byte digit = buffer.get(i);
+            if (digit < '0' || digit > '9') {
+                throw new MalformedPdfException();
+            }
+            value = value * 10 + digit - '0';
+        }
+        return value;
+    }
+
+    //a filter or its parameters may be given alone or as a one-element array
+    private static Object single(Object value) {
+        if (value instanceof List<?> list) {
+            if (list.size() > 1) {
+                throw new MalformedPdfException();
+            }
+            return list.isEmpty() ? null : list.getFirst();
+        }
+        return value;
+    }
+
+    private long offset(Object value) {
+        long offset = integer(value);
+        if (offset < 0 || offset >= size) {
+            throw new MalformedPdfException();
+        }
+        return offset;
+    }
+
+    private static int intValue(Object value, int min, int max) {
+        long number = integer(value);
+        if (number < min || number > max) {
+            throw new MalformedPdfException();
+        }
+        return (int) number;
+    }
+
+    private static long integer(Object value) {
+        if (value instanceof Long number) {
+            return number;
+        }
+        throw new MalformedPdfException();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> dictionary(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+        throw new MalformedPdfException();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> array(Object value) {
+        if (value instanceof List<?> list) {
+            return (List<Object>) list;
+        }
+        throw new MalformedPdfException();
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == 0 || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == ' ';
+    }
+
+    private static boolean isDelimiter(int c) {
+        return c == '(' || c == ')' || c == '<' || c == '>' || c == '[' || c == ']' || c == '{' || c == '}'
+                || c == '/' || c == '%';
+    }
+
+    private static boolean isRegular(int c) {
+        return c >= 0 && !isWhitespace(c) && !isDelimiter(c);
+    }
+
+    private interface Section {
+
+        //null when the section does not list the object, or lists it as free
+        Entry find(long number) throws IOException;
+    }
+
+    //type 1: offset in the file; type 2: number of the object stream and index within it
+    private record Entry(int type, long second, long third) {
+    }
+
+    private record Ref(long number) {
+    }
+
+    //streamStart is -1 when the object is not a stream
+    private record IndirectObject(long number, Object value, long streamStart) {
+    }
+
+    private record ObjectStream(byte[] data, int count, int first) {
+    }
+
+    //thrown without a stack trace: an unreadable document is an expected outcome
+    private static final class MalformedPdfException extends RuntimeException {
+
+        MalformedPdfException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Tokens of the PDF syntax, read either from the file through a small buffer refilled at the current position,
+     * or from an inflated object stream.
+     */
+    private final class Lexer {
+
+        private final byte[] data;
+        private final long limit;
+        private long bufferStart;
+        private int bufferLength;
+        private long position;
+
+        Lexer(long position) {
+            this.data = new byte[CHUNK];
+            this.limit = size;
+            this.bufferStart = position;
+            this.position = position;
+        }
+
+        Lexer(byte[] data) {
+            this.data = data;
+            this.limit = data.length;
+            this.bufferLength = data.length;
+        }
+
+        IndirectObject object() throws IOException {
+            long number = number();
+            number();
+            if (!keyword("obj")) {
+                throw new MalformedPdfException();
+            }
+            Object value = value(0);
+            long streamStart = -1;
+            if (keyword("stream")) {
+                if (peek() == '\r') {
+                    position++;
+                }
+                if (peek() == '\n') {
+                    position++;
+                }
+                streamStart = position;
+            }
+            return new IndirectObject(number, value, streamStart);
+        }
+
+        Object value(int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new MalformedPdfException();
+            }
+            skipWhitespace();
+            int c = peek();
+            if (c == '<') {
+                position++;
+                if (peek() == '<') {
+                    position++;
+                    return dictionary(depth);
+                }
+                while (next() != '>') {
+                    // hexadecimal string
+                }
+                return STRING;
+            }
+            if (c == '[') {
+                position++;
+                List<Object> array = new ArrayList<>();
+                while (true) {
+                    skipWhitespace();
+                    if (peek() == ']') {
+                        position++;
+                        return array;
+                    }
+                    array.add(value(depth + 1));
+                }
+            }
+            if (c == '(') {
+                position++;
+                literalString();
+                return STRING;
+            }
+            if (c == '/') {
+                return name();
+            }
+            if (c >= '0' && c <= '9' || c == '+' || c == '-' || c == '.') {
+                return numberOrReference();
+            }
+            String keyword = token();
+            return switch (keyword) {
+                case "true" -> Boolean.TRUE;
+                case "false" -> Boolean.FALSE;
+                case "null" -> NULL;
+                default -> throw new MalformedPdfException();
+            };
+        }
+
+        private Map<String, Object> dictionary(int depth) throws IOException {
+            Map<String, Object> dictionary = new HashMap<>();
+            while (true) {
+                skipWhitespace();
+                if (peek() == '>') {
+                    position++;
+                    if (next() != '>') {
+                        throw new MalformedPdfException();
+                    }
+                    return dictionary;
+                }
+                if (peek() != '/') {
+                    throw new MalformedPdfException();
+                }
+                String key = name();
+                dictionary.put(key, value(depth + 1));
+            }
+        }
+
+        //balanced parentheses may appear unescaped
+        private void literalString() throws IOException {
+            int nesting = 1;
+            while (nesting > 0) {
+                int c = next();
+                if (c == '\\') {
+                    next();
+                } else if (c == '(') {
+                    nesting++;
+                } else if (c == ')') {
+                    nesting--;
+                }
+            }
+        }
+
+        private String name() throws IOException {
+            position++;
+            return token();
+        }
+
+        //an integer followed by a generation number and R is a reference to an indirect object
+        private Object numberOrReference() throws IOException {
+            String token = token();
+            if (token.indexOf('.') >= 0) {
+                try {
+                    return Double.parseDouble(token);
+                } catch (NumberFormatException ex) {
+                    throw new MalformedPdfException();
+                }
+            }
+            long number = parse(token);
+            long afterNumber = position;
+            skipWhitespace();
+            int c = peek();
+            if (number >= 0 && c >= '0' && c <= '9') {
+                token();
+                skipWhitespace();
+                if (peek() == 'R') {
+                    position++;
+                    if (!isRegular(peek())) {
+                        return new Ref(number);
+                    }
+                }
+            }
+            position = afterNumber;
+            return number;
+        }
+
+        long number() throws IOException {
+            skipWhitespace();
+            return parse(token());
+        }
+
+        private long parse(String token) {
+            int digits = token.startsWith("+") || token.startsWith("-") ? token.length() - 1 : token.length();
+            if (digits == 0 || digits > 18) {
+                throw new MalformedPdfException();
+            }
+            try {
+                return Long.parseLong(token);
+            } catch (NumberFormatException ex) {
+                throw new MalformedPdfException();
+            }
+        }
+
+        private String token() throws IOException {
+            StringBuilder token = new StringBuilder();
+            while (isRegular(peek())) {
+                token.append((char) next());
+            }
+            return token.toString();
+        }
+
+        boolean keyword(String word) throws IOException {
+            skipWhitespace();
+            long start = position;
+            for (int i = 0; i < word.length(); i++) {
+                if (peek() != word.charAt(i)) {
+                    position = start;
+                    return false;
+                }
+                position++;
+            }
+            if (isRegular(peek())) {
+                position = start;
+                return false;
+            }
+            return true;
+        }
+
+        void skipWhitespace() throws IOException {
+            while (true) {
+                int c = peek();
+                if (isWhitespace(c)) {
+                    position++;
+                } else if (c == '%') {
+                    // comment up to the end of the line
+                    while (c >= 0 && c != '\r' && c != '\n') {
+                        position++;
+                        c = peek();
+                    }
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private int next() throws IOException {
+            int c = peek();
+            if (c < 0) {
+                throw new MalformedPdfException();
+            }
+            position++;
+            return c;
+        }
+
+        //-1 at the end of the data
+        private int peek() throws IOException {
+            if (position < 0 || position >= limit) {
+                return -1;
+            }
+            if (position < bufferStart || position >= bufferStart + bufferLength) {
+                fill();
+            }
+            return data[(int) (position - bufferStart)] & 0xFF;
+        }
+
+        private void fill() throws IOException {
+            bufferStart = position;
+            ByteBuffer buffer = ByteBuffer.wrap(data, 0, (int) Math.min(CHUNK, limit - position));
+            while (buffer.hasRemaining() && content.read(buffer, bufferStart + buffer.position()) >= 0) {
+                // positional reads until the chunk is full
+            }
+            bufferLength = buffer.position();
+            if (bufferLength == 0) {
+                throw new MalformedPdfException();
+            }
+        }
+    }
+}
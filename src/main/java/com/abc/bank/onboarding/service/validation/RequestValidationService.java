@@ -1,5 +1,6 @@
 package com.abc.bank.onboarding.service.validation;
 
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
 import com.abc.bank.onboarding.exception.ValidationException;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
@@ -14,8 +15,17 @@ import java.util.stream.Collectors;
 public class RequestValidationService {
 
     private final Validator validator;
+    private final CustomerOnboardRequestValidator customerOnboardRequestValidator;
 
     public <T> void validate(T request) {
+        // the onboarding request, validated on every onboarding, skips the generic Bean Validation
+        if (request instanceof CustomerOnboardRequest customerOnboardRequest) {
+            String violations = customerOnboardRequestValidator.validate(customerOnboardRequest);
+            if (violations != null) {
+                throw new ValidationException(violations);
+            }
+            return;
+        }
         Set<ConstraintViolation<T>> violations = validator.validate(request);
         if (!violations.isEmpty()) {
             String message = violations.stream()
@@ -24,4 +34,4 @@ public class RequestValidationService {
             throw new ValidationException(message);
         }
     }
-}
\ No newline at end of file
+}
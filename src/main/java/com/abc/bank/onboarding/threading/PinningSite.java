@@ -0,0 +1,16 @@
+package com.abc.bank.onboarding.threading;
+
+/**
+ * @param site        first application frame of the pinned stack (or the top frame when no application frame is found)
+ * @param topFrame    frame the virtual thread was blocked in
+ * @param count       number of pinned events recorded at this site
+ * @param totalMillis cumulated time the carrier thread stayed pinned
+ * @param maxMillis   longest single pinning
+ */
+public record PinningSite(
+        String site,
+        String topFrame,
+        long count,
+        double totalMillis,
+        double maxMillis) {
+}
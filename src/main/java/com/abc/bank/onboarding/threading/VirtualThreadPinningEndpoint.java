@@ -0,0 +1,24 @@
+package com.abc.bank.onboarding.threading;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "pinning")
+@ConditionalOnThreading(Threading.VIRTUAL)
+@RequiredArgsConstructor
+public class VirtualThreadPinningEndpoint {
+
+    private final VirtualThreadPinningMonitor monitor;
+
+    @ReadOperation
+    public List<PinningSite> sites() {
+        return monitor.report();
+    }
+}
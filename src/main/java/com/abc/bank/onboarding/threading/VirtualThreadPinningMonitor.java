@@ -0,0 +1,129 @@
+package com.abc.bank.onboarding.threading;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} events while the application runs on virtual threads.
+ * <p>
+ * A virtual thread blocking inside {@code synchronized} (or a native frame) cannot unmount and keeps its carrier
+ * thread busy, which silently caps the concurrency at the carrier pool size. Every pinning longer than the threshold
+ * is logged with its stack, timed ({@code onboarding.virtual.threads.pinned}) and aggregated per site in the
+ * report served by the {@code pinning} actuator endpoint.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.abc.bank.onboarding.";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+    private final Timer pinnedTimer;
+    private final Map<String, SiteStats> sites = new ConcurrentHashMap<>();
+
+    private volatile RecordingStream recordingStream;
+
+    public VirtualThreadPinningMonitor(@Value("${onboarding.virtual-threads.pinning-threshold:20ms}") Duration threshold,
+                                       MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.pinnedTimer = Timer.builder("onboarding.virtual.threads.pinned")
+                .description("Time virtual threads kept their carrier thread pinned")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        recordingStream = stream;
+        log.info("Monitoring virtual thread pinning longer than {}", threshold);
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream stream = recordingStream;
+        recordingStream = null;
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    public List<PinningSite> report() {
+        return sites.entrySet().stream()
+                .map(entry -> entry.getValue().toPinningSite(entry.getKey()))
+                .sorted(Comparator.comparingDouble(PinningSite::totalMillis).reversed())
+                .toList();
+    }
+
+    private void record(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<String> frames = stackTrace == null ? List.of() : stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(VirtualThreadPinningMonitor::format)
+                .toList();
+        record(event.getDuration(), frames);
+    }
+
+    void record(Duration duration, List<String> frames) {
+        pinnedTimer.record(duration);
+        String topFrame = frames.isEmpty() ? "unknown" : frames.getFirst();
+        String site = frames.stream().filter(frame -> frame.startsWith(APPLICATION_PACKAGE)).findFirst().orElse(topFrame);
+        sites.computeIfAbsent(site, key -> new SiteStats(topFrame)).record(duration);
+        log.warn("Virtual thread pinned its carrier for {} ms at {}:\n\t{}", duration.toMillis(), site,
+                String.join("\n\t", frames.subList(0, Math.min(LOGGED_FRAMES, frames.size()))));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static final class SiteStats {
+
+        private final String topFrame;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private SiteStats(String topFrame) {
+            this.topFrame = topFrame;
+        }
+
+        private void record(Duration duration) {
+            count.increment();
+            totalNanos.add(duration.toNanos());
+            maxNanos.accumulate(duration.toNanos());
+        }
+
+        private PinningSite toPinningSite(String site) {
+            return new PinningSite(site, topFrame, count.sum(), totalNanos.sum() / 1e6, maxNanos.get() / 1e6);
+        }
+    }
+}
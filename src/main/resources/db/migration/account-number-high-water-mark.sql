@@ -0,0 +1,13 @@
+-- Replaces the block index of account_number_blocks (next_block, multiplied by the configured block size) with the
+-- next free account number (next_value), so that changing onboarding.account-number.block-size never reuses numbers.
+-- PostgreSQL. Run once, with every instance stopped, before starting the version that stores the high-water mark.
+-- 1000 is the default block size: replace it with the block-size the instances ran with.
+
+begin;
+
+alter table account_number_blocks add column next_value bigint;
+update account_number_blocks set next_value = next_block * 1000;
+alter table account_number_blocks alter column next_value set not null;
+alter table account_number_blocks drop column next_block;
+
+commit;
@@ -0,0 +1,26 @@
+-- Replaces the auto-named unique constraints of customers with the named unique indexes the entity now declares
+-- (idx_customer_ssn, idx_customer_email, idx_customer_account_number), so a violation tells which key is taken.
+-- PostgreSQL. Run once, with every instance stopped, before starting the version that classifies the violations.
+
+begin;
+
+do $$
+declare
+    constraint_name text;
+begin
+    for constraint_name in
+        select conname from pg_constraint where conrelid = 'customers'::regclass and contype = 'u'
+    loop
+        execute format('alter table customers drop constraint %I', constraint_name);
+    end loop;
+end $$;
+
+-- the plain indexes become unique ones, under the same names
+drop index if exists idx_customer_ssn;
+drop index if exists idx_customer_email;
+drop index if exists idx_customer_account_number;
+create unique index idx_customer_ssn on customers (social_security_number);
+create unique index idx_customer_email on customers (email);
+create unique index idx_customer_account_number on customers (account_number);
+
+commit;
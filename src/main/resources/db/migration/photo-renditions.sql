@@ -0,0 +1,24 @@
+-- Creates photo_renditions, the renditions (normalized JPEG, medium and small thumbnails) of the customer photos.
+-- PostgreSQL. Run once before starting the version that renders the photos; the instances may keep running, the
+-- photos stored before are rendered on their first view.
+
+begin;
+
+create sequence if not exists photo_renditions_seq increment by 50;
+
+create table if not exists photo_renditions (
+    id                    bigint       not null primary key,
+    source_digest         varchar(64)  not null,
+    rendition             varchar(10)  not null,
+    document_digest       varchar(64)  not null,
+    document_size         bigint       not null,
+    document_content_type varchar(100),
+    width                 integer      not null,
+    height                integer      not null,
+    created_at            timestamp(6) with time zone not null,
+    constraint photo_renditions_rendition_check check (rendition in ('NORMALIZED', 'MEDIUM', 'SMALL'))
+);
+
+create unique index if not exists idx_photo_rendition_source on photo_renditions (source_digest, rendition);
+
+commit;
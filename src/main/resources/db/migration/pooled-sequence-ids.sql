@@ -0,0 +1,17 @@
+-- Moves customers and notification_outbox from IDENTITY keys to the pooled sequences the entities now use
+-- (increment 50, pooled-lo: every value drawn is the first id of a block of 50).
+-- PostgreSQL. Run once, with every instance stopped, before starting the version that uses the sequences.
+
+begin;
+
+create sequence if not exists customer_seq increment by 50;
+-- the next block starts right after the existing rows
+select setval('customer_seq', coalesce((select max(id) from customers), 0) + 1, false);
+-- keys now come from the application, a leftover identity default would hand out colliding ones
+alter table customers alter column id drop identity if exists;
+
+create sequence if not exists notification_outbox_seq increment by 50;
+select setval('notification_outbox_seq', coalesce((select max(id) from notification_outbox), 0) + 1, false);
+alter table notification_outbox alter column id drop identity if exists;
+
+commit;
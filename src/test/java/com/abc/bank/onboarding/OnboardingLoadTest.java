@@ -0,0 +1,283 @@
+package com.abc.bank.onboarding;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.unit.DataSize;
+import utils.FakeSmtpServer;
+import utils.TestDocuments;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of {@code /api/customers/onboard} against the application started in this JVM with the {@code test}
+ * profile and a fake SMTP server, so it runs offline and can gate a release: {@code mvn test -Pload}.
+ * <p>
+ * Requests arrive at a fixed rate whatever the response times (open model): request {@code i} is due at
+ * {@code start + i / rate} and its latency is measured from that due time, so a stalled server shows up in the
+ * percentiles instead of slowing the load down. A share of the requests re-sends a customer already onboarded and
+ * expects a {@code 409}. The run is tuned with system properties:
+ * <ul>
+ *     <li>{@code load.rate}: requests per second (50)</li>
+ *     <li>{@code load.warmup} and {@code load.duration}: seconds of unmeasured warm-up (10) and of measured load (30)</li>
+ *     <li>{@code load.documentSize}: size of the ID proof (PDF) and of the photo (PNG), e.g. {@code 256KB}</li>
+ *     <li>{@code load.duplicateRatio}: share of requests for an existing customer (0.1)</li>
+ *     <li>{@code load.maxP99}: the p99 latency in milliseconds above which the test fails (1000)</li>
+ *     <li>{@code load.profiles}: extra Spring profiles, e.g. {@code virtual}</li>
+ * </ul>
+ * The heap and GC figures are those of the whole JVM, load generator included.
+ */
+@Tag("load")
+class OnboardingLoadTest {
+
+    private static final int RATE = Integer.getInteger("load.rate", 50);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+    private static final int DOCUMENT_SIZE = (int) DataSize.parse(System.getProperty("load.documentSize", "256KB")).toBytes();
+    private static final double DUPLICATE_RATIO = Double.parseDouble(System.getProperty("load.duplicateRatio", "0.1"));
+    private static final long MAX_P99_MILLIS = Long.getLong("load.maxP99", 1000);
+    private static final String EXTRA_PROFILES = System.getProperty("load.profiles", "");
+
+    //distinct documents to pick from, each request then makes its copy unique
+    private static final int DOCUMENT_VARIANTS = 16;
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration EMAIL_TIMEOUT = Duration.ofSeconds(30);
+
+    private final AtomicInteger customerSequence = new AtomicInteger();
+    private final List<Customer> onboarded = new CopyOnWriteArrayList<>();
+    private final List<byte[]> idProofs = new ArrayList<>();
+    private final List<byte[]> photos = new ArrayList<>();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void should_sustain_arrival_rate_within_latency_objective() throws Exception {
+        for (int seed = 0; seed < DOCUMENT_VARIANTS; seed++) {
+            idProofs.add(TestDocuments.pdf(DOCUMENT_SIZE, seed));
+            photos.add(TestDocuments.png(DOCUMENT_SIZE, seed));
+        }
+        List<String> profiles = new ArrayList<>(List.of("test"));
+        Arrays.stream(EXTRA_PROFILES.split(",")).map(String::trim).filter(p -> !p.isEmpty()).forEach(profiles::add);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        try (FakeSmtpServer smtp = new FakeSmtpServer(0);
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(CustomerOnboardingApplication.class)
+                     .profiles(profiles.toArray(String[]::new))
+                     //command line arguments, so they win over application.yml
+                     .run("--server.port=0",
+                             "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                             "--spring.mail.host=localhost",
+                             "--spring.mail.port=" + smtp.port(),
+                             "--spring.mail.username=onboarding@example.com",
+                             "--spring.mail.properties.mail.smtp.auth=false",
+                             "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                             "--onboarding.documents.directory=" + directory,
+                             "--logging.level.com.abc.bank.onboarding=ERROR")) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/customers/onboard");
+
+            drive(client, uri, WARMUP_SECONDS);
+            JvmSnapshot before = JvmSnapshot.take();
+            Result result = drive(client, uri, DURATION_SECONDS);
+            JvmSnapshot after = JvmSnapshot.take();
+            //the welcome emails leave through the outbox, a poll interval or more after the responses
+            for (long deadline = System.nanoTime() + EMAIL_TIMEOUT.toNanos();
+                 smtp.messages() < onboarded.size() && System.nanoTime() < deadline; ) {
+                Thread.sleep(100);
+            }
+
+            System.out.println(result.report());
+            System.out.println(after.since(before));
+            System.out.printf("emails      %d sent for %d customers%n", smtp.messages(), onboarded.size());
+
+            assertThat(result.unexpected()).as("unexpected responses").isZero();
+            assertThat(result.latencies().getValueAtPercentile(99.0))
+                    .as("p99 latency in microseconds").isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toMicros(MAX_P99_MILLIS));
+            assertThat(result.throughput()).as("throughput").isGreaterThanOrEqualTo(RATE * 0.9);
+            assertThat(smtp.messages()).as("emails sent").isGreaterThanOrEqualTo(onboarded.size());
+        }
+    }
+
+    private Result drive(HttpClient client, URI uri, int seconds) throws Exception {
+        int requests = RATE * seconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        LongAdder unexpected = new LongAdder();
+        List<CompletableFuture<?>> responses = new ArrayList<>(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long due = start + i * intervalNanos;
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean duplicate = !onboarded.isEmpty() && ThreadLocalRandom.current().nextDouble() < DUPLICATE_RATIO;
+            Customer customer = duplicate
+                    ? onboarded.get(ThreadLocalRandom.current().nextInt(onboarded.size()))
+                    : Customer.next(customerSequence.incrementAndGet());
+            int expected = duplicate ? 409 : 201;
+
+            responses.add(client.sendAsync(request(uri, customer), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies.recordValue(Math.min(HIGHEST_LATENCY_MICROS,
+                                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due)));
+                        String outcome = failure != null
+                                ? cause(failure).getClass().getSimpleName()
+                                : String.valueOf(response.statusCode());
+                        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                        if (failure != null || response.statusCode() != expected) {
+                            unexpected.increment();
+                        } else if (!duplicate) {
+                            onboarded.add(customer);
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new))
+                .exceptionally(failure -> null)
+                .get(REQUEST_TIMEOUT.toSeconds() * 2, TimeUnit.SECONDS);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Long> mix = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> mix.put(outcome, count.sum()));
+        return new Result(requests / elapsedSeconds, latencies, mix, unexpected.sum());
+    }
+
+    private HttpRequest request(URI uri, Customer customer) {
+        String boundary = "load-" + customer.sequence();
+        String json = """
+                {"firstName":"John","lastName":"Doe","gender":"MALE","dateOfBirth":"1990-05-15",\
+                "phoneNumber":"+31612345678","email":"%s","nationality":"NL",\
+                "residentialAddress":"Damrak 1, 1012 LG Amsterdam","socialSecurityNumber":"%s"}"""
+                .formatted(customer.email(), customer.bsn());
+        int variant = customer.sequence() % DOCUMENT_VARIANTS;
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(2 * DOCUMENT_SIZE + 2048);
+        writePart(body, boundary, "CustomerOnboardRequest", null, "application/json",
+                json.getBytes(StandardCharsets.UTF_8));
+        writePart(body, boundary, "idProof", "passport.pdf", "application/pdf",
+                unique(idProofs.get(variant), customer.sequence()));
+        writePart(body, boundary, "photo", "photo.png", "image/png",
+                unique(photos.get(variant), customer.sequence()));
+        body.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        return HttpRequest.newBuilder(uri)
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private static void writePart(ByteArrayOutputStream body, String boundary, String name, String fileName,
+                                  String contentType, byte[] content) {
+        String header = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\""
+                + (fileName == null ? "" : "; filename=\"" + fileName + "\"") + "\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n";
+        body.writeBytes(header.getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(content);
+        body.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Throwable cause(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    //bytes after the end of a PNG or PDF are ignored by readers, they keep the content-addressed store from deduplicating
+    private static byte[] unique(byte[] document, int sequence) {
+        byte[] copy = Arrays.copyOf(document, document.length + Long.BYTES);
+        ByteBuffer.wrap(copy, document.length, Long.BYTES).putLong(sequence);
+        return copy;
+    }
+
+    private record Customer(int sequence, String bsn, String email) {
+
+        static Customer next(int sequence) {
+            return new Customer(sequence, VirtualThreadBenchmarkTest.bsn(sequence), "load" + sequence + "@example.com");
+        }
+    }
+
+    private record Result(double throughput, Histogram latencies, Map<String, Long> outcomes, long unexpected) {
+
+        String report() {
+            return """
+                    throughput  %.1f req/s (target %d)
+                    latency     p50 %.1f ms  p90 %.1f ms  p99 %.1f ms  p99.9 %.1f ms  max %.1f ms
+                    responses   %s  unexpected %d"""
+                    .formatted(throughput, RATE,
+                            millis(50), millis(90), millis(99), millis(99.9), latencies.getMaxValue() / 1e3,
+                            outcomes, unexpected);
+        }
+
+        private double millis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e3;
+        }
+    }
+
+    //resets the peak usage of the heap pools, so the next snapshot holds the peak of the interval
+    private record JvmSnapshot(long gcCount, long gcMillis, long peakHeapBytes, long usedHeapBytes, long nanoTime) {
+
+        static JvmSnapshot take() {
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, collector.getCollectionCount());
+                millis += Math.max(0, collector.getCollectionTime());
+            }
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peak += pool.getPeakUsage().getUsed();
+                    pool.resetPeakUsage();
+                }
+            }
+            long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            return new JvmSnapshot(count, millis, peak, used, System.nanoTime());
+        }
+
+        String since(JvmSnapshot before) {
+            double seconds = (nanoTime - before.nanoTime) / 1e9;
+            long pauses = gcMillis - before.gcMillis;
+            return "heap        peak %d MB  used %d MB%ngc          %d collections  %d ms (%.1f%% of the run)"
+                    .formatted(peakHeapBytes >> 20, usedHeapBytes >> 20, gcCount - before.gcCount, pauses,
+                            100.0 * pauses / 1000 / seconds);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.abc.bank.onboarding;
+
+import com.abc.bank.onboarding.threading.PinningSite;
+import com.abc.bank.onboarding.threading.VirtualThreadPinningMonitor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.ResourceUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end comparison of the platform-thread and the virtual-thread ({@code virtual} profile) execution modes.
+ * <p>
+ * {@link #CLIENTS} concurrent clients onboard customers whose documents are uploaded slowly (over
+ * {@link #UPLOAD_MILLIS} ms, like a mobile connection), so every request holds its server thread while the
+ * multipart body trickles in. The platform mode is capped at {@link #PLATFORM_MAX_THREADS} Tomcat threads.
+ * Both modes run one after the other in this JVM, on the same hardware. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class VirtualThreadBenchmarkTest {
+
+    private static final int CLIENTS = 200;
+    private static final int REQUESTS_PER_CLIENT = 3;
+    private static final int PLATFORM_MAX_THREADS = 50;
+    private static final long UPLOAD_MILLIS = 500;
+    private static final int UPLOAD_CHUNKS = 10;
+
+    private static final AtomicInteger CUSTOMER_SEQUENCE = new AtomicInteger();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void should_serve_more_slow_uploads_per_second_on_virtual_threads() throws Exception {
+        Result platform = run("platform");
+        Result virtual = run("virtual");
+
+        System.out.println(platform);
+        System.out.println(virtual);
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+        assertThat(virtual.throughput()).isGreaterThan(platform.throughput());
+    }
+
+    private Result run(String mode) throws Exception {
+        List<String> profiles = new ArrayList<>(List.of("test"));
+        if (mode.equals("virtual")) {
+            profiles.add("virtual");
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CustomerOnboardingApplication.class)
+                .profiles(profiles.toArray(String[]::new))
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + PLATFORM_MAX_THREADS,
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + mode + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "onboarding.documents.directory=" + directory.resolve(mode),
+                        "logging.level.com.abc.bank.onboarding=ERROR")
+                .run()) {
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/customers/onboard");
+            byte[] document = Files.readAllBytes(ResourceUtils.getFile("classpath:files/photo.png").toPath());
+
+            Result result = drive(mode, uri, document);
+            context.getBeanProvider(VirtualThreadPinningMonitor.class).ifAvailable(monitor -> {
+                for (PinningSite site : monitor.report()) {
+                    System.out.println("  pinned: " + site);
+                }
+            });
+            return result;
+        }
+    }
+
+    private Result drive(String mode, URI uri, byte[] document) throws Exception {
+        long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int client = 0; client < CLIENTS; client++) {
+                runs.add(clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long requestStart = System.nanoTime();
+                        if (onboard(uri, document) != 201) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[completed.getAndIncrement()] = System.nanoTime() - requestStart;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+        return new Result(mode, latencies.length / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), errors.get());
+    }
+
+    private static int onboard(URI uri, byte[] document) throws IOException, InterruptedException {
+        int customer = CUSTOMER_SEQUENCE.incrementAndGet();
+        String boundary = "benchmark-" + customer;
+        String request = """
+                {"firstName":"John","lastName":"Doe","gender":"MALE","dateOfBirth":"1990-05-15",\
+                "phoneNumber":"+31612345678","email":"customer%d@example.com","nationality":"NL",\
+                "residentialAddress":"Damrak 1, 1012 LG Amsterdam","socialSecurityNumber":"%s"}"""
+                .formatted(customer, bsn(customer));
+
+        HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(8192);
+        connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+        try (OutputStream out = connection.getOutputStream()) {
+            writePartHeader(out, boundary, "CustomerOnboardRequest", null, "application/json");
+            out.write(request.getBytes(StandardCharsets.UTF_8));
+            writePartHeader(out, boundary, "idProof", "passport.png", "image/png");
+            writeSlowly(out, document);
+            writePartHeader(out, boundary, "photo", "photo.png", "image/png");
+            writeSlowly(out, document);
+            out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+        int status = connection.getResponseCode();
+        (status < 400 ? connection.getInputStream() : connection.getErrorStream()).readAllBytes();
+        return status;
+    }
+
+    private static void writePartHeader(OutputStream out, String boundary, String name, String fileName,
+                                        String contentType) throws IOException {
+        String header = (name.equals("CustomerOnboardRequest") ? "" : "\r\n") + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\""
+                + (fileName == null ? "" : "; filename=\"" + fileName + "\"") + "\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n";
+        out.write(header.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    //each document takes half of the upload time
+    private static void writeSlowly(OutputStream out, byte[] document) throws IOException, InterruptedException {
+        int chunk = (document.length + UPLOAD_CHUNKS - 1) / UPLOAD_CHUNKS;
+        for (int offset = 0; offset < document.length; offset += chunk) {
+            out.write(document, offset, Math.min(chunk, document.length - offset));
+            out.flush();
+            Thread.sleep(UPLOAD_MILLIS / (2 * UPLOAD_CHUNKS));
+        }
+    }
+
+    //valid 11-proef BSN derived from the sequence
+    static String bsn(int sequence) {
+        for (long candidate = 10_000_000L + sequence * 11L; ; candidate++) {
+            String digits = String.format("%08d", candidate % 100_000_000L);
+            int sum = 0;
+            for (int i = 0; i < 8; i++) {
+                sum += (9 - i) * (digits.charAt(i) - '0');
+            }
+            int check = sum % 11;
+            if (check < 10) {
+                return digits + check;
+            }
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, int errors) {
+
+        @Override
+        public String toString() {
+            return "%-8s %7.1f req/s  p50 %7.1f ms  p99 %7.1f ms  errors %d"
+                    .formatted(mode, throughput, p50Millis, p99Millis, errors);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.abc.bank.onboarding.controller;
+
+import com.abc.bank.onboarding.dto.BulkItemResult;
+import com.abc.bank.onboarding.exception.BulkRequestTooLargeException;
+import com.abc.bank.onboarding.exception.ValidationException;
+import com.abc.bank.onboarding.service.bulk.BulkArchive;
+import com.abc.bank.onboarding.service.bulk.BulkFormat;
+import com.abc.bank.onboarding.service.bulk.BulkOnboardingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BulkOnboardingController.class)
+class BulkOnboardingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private BulkOnboardingService bulkOnboardingService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void should_stream_one_result_per_line_chunk_by_chunk() throws Exception {
+        BulkArchive archive = mock(BulkArchive.class);
+        when(bulkOnboardingService.spool(any(), eq(BulkFormat.NDJSON))).thenReturn(archive);
+        doAnswer(invocation -> {
+            Consumer<List<BulkItemResult>> sink = invocation.getArgument(1);
+            sink.accept(List.of(BulkItemResult.created(1, "ref-1", "NL00ABC0000000001"),
+                    BulkItemResult.duplicate(2, "ref-2")));
+            sink.accept(List.of(BulkItemResult.rejected(3, null, "photo missing or empty")));
+            return null;
+        }).when(bulkOnboardingService).process(eq(archive), any(Consumer.class));
+
+        mockMvc.perform(post("/api/customers/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n{}\n{}\n")
+                        .with(csrf())
+                        .with(user("tester").roles("USER")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("""
+                        {"line":1,"reference":"ref-1","status":"CREATED","accountNumber":"NL00ABC0000000001",\
+                        "message":"Customer onboarded successfully"}
+                        {"line":2,"reference":"ref-2","status":"DUPLICATE","accountNumber":null,\
+                        "message":"Customer with same socialSecurityNumber or email already exists"}
+                        {"line":3,"reference":null,"status":"REJECTED","accountNumber":null,\
+                        "message":"photo missing or empty"}
+                        """));
+
+        verify(archive).close();
+    }
+
+    @Test
+    void should_return_400_when_the_archive_is_unreadable() throws Exception {
+        when(bulkOnboardingService.spool(any(), eq(BulkFormat.ZIP)))
+                .thenThrow(new ValidationException("Bulk request body is not a valid zip archive"));
+
+        mockMvc.perform(post("/api/customers/bulk")
+                        .contentType("application/zip")
+                        .content(new byte[]{1, 2, 3})
+                        .with(csrf())
+                        .with(user("tester").roles("USER")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Bulk request body is not a valid zip archive"));
+    }
+
+    @Test
+    void should_return_413_when_the_body_is_too_large() throws Exception {
+        when(bulkOnboardingService.spool(any(), eq(BulkFormat.NDJSON))).thenThrow(
+                new BulkRequestTooLargeException("Bulk request too large: the body is limited to 1024 bytes"));
+
+        mockMvc.perform(post("/api/customers/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(new byte[]{1, 2, 3})
+                        .with(csrf())
+                        .with(user("tester").roles("USER")))
+                .andExpect(status().isContentTooLarge())
+                .andExpect(jsonPath("$.detail").value("Bulk request too large: the body is limited to 1024 bytes"));
+    }
+}
@@ -0,0 +1,95 @@
+package com.abc.bank.onboarding.controller;
+
+import com.abc.bank.onboarding.dto.CustomerDetails;
+import com.abc.bank.onboarding.dto.CustomerPage;
+import com.abc.bank.onboarding.dto.CustomerSummary;
+import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.exception.CustomerNotFoundException;
+import com.abc.bank.onboarding.security.SecurityConfig;
+import com.abc.bank.onboarding.service.customer.CustomerQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CustomerController.class)
+@Import(SecurityConfig.class)
+class CustomerControllerTest {
+
+    private static final RequestPostProcessor BACK_OFFICE = user("tester").roles(SecurityConfig.BACK_OFFICE);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private CustomerQueryService customerQueryService;
+
+    @Test
+    void should_return_page_of_customers_with_next_cursor() throws Exception {
+        when(customerQueryService.list(0, 50)).thenReturn(new CustomerPage(
+                List.of(new CustomerSummary(7, "NL12YYYY012345678", "Seif", "Jemli", "seif.jemli@domain.com")), 7L));
+
+        mockMvc.perform(get("/api/customers").with(BACK_OFFICE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customers[0].accountNumber").value("NL12YYYY012345678"))
+                .andExpect(jsonPath("$.next").value(7));
+    }
+
+    @Test
+    void should_return_customer_details_without_documents() throws Exception {
+        when(customerQueryService.find("NL12YYYY012345678")).thenReturn(new CustomerDetails("NL12YYYY012345678",
+                "Seif", "Jemli", Gender.MALE, LocalDate.of(1985, 5, 15), "+31612345678", "seif.jemli@domain.com",
+                "NL", "Amsterdam"));
+
+        mockMvc.perform(get("/api/customers/{accountNumber}", "NL12YYYY012345678").with(BACK_OFFICE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("seif.jemli@domain.com"))
+                .andExpect(jsonPath("$.idProof").doesNotExist())
+                .andExpect(jsonPath("$.socialSecurityNumber").doesNotExist());
+    }
+
+    @Test
+    void should_return_404_when_account_is_unknown() throws Exception {
+        when(customerQueryService.find("NL00YYYY000000000"))
+                .thenThrow(new CustomerNotFoundException("Unknown account number NL00YYYY000000000"));
+
+        mockMvc.perform(get("/api/customers/{accountNumber}", "NL00YYYY000000000").with(BACK_OFFICE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.title").value("Customer not found"));
+    }
+
+    @Test
+    void should_return_401_when_reading_customers_anonymously() throws Exception {
+        mockMvc.perform(get("/api/customers"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/customers/{accountNumber}", "NL12YYYY012345678"))
+                .andExpect(status().isUnauthorized());
+
+        verify(customerQueryService, never()).list(anyLong(), anyInt());
+        verify(customerQueryService, never()).find(any());
+    }
+
+    @Test
+    void should_return_403_when_reading_customers_without_back_office_role() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}", "NL12YYYY012345678").with(user("tester")))
+                .andExpect(status().isForbidden());
+
+        verify(customerQueryService, never()).find(any());
+    }
+}
@@ -0,0 +1,265 @@
+package com.abc.bank.onboarding.controller;
+
+import com.abc.bank.onboarding.dto.DocumentType;
+import com.abc.bank.onboarding.exception.CustomerNotFoundException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.model.Rendition;
+import com.abc.bank.onboarding.security.SecurityConfig;
+import com.abc.bank.onboarding.service.customer.CustomerQueryService;
+import com.abc.bank.onboarding.service.photo.PhotoRenditionService;
+import com.abc.bank.onboarding.service.storage.DocumentLocation;
+import com.abc.bank.onboarding.service.storage.DocumentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CustomerDocumentController.class)
+@Import(SecurityConfig.class)
+class CustomerDocumentControllerTest {
+
+    private static final RequestPostProcessor BACK_OFFICE = user("tester").roles(SecurityConfig.BACK_OFFICE);
+
+    private static final String ACCOUNT = "NL12YYYY012345678";
+    private static final String DIGEST = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+    private static final String ETAG = '"' + DIGEST + '"';
+    private static final byte[] CONTENT = "%PDF-1.7 hello".getBytes(StandardCharsets.US_ASCII);
+    private static final DocumentLocation LOCATION = new DocumentLocation(Path.of("segment-0000000001.dat"), 100,
+            CONTENT.length);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private CustomerQueryService customerQueryService;
+    @MockitoBean
+    private DocumentStore documentStore;
+    @MockitoBean
+    private PhotoRenditionService photoRenditionService;
+
+    @BeforeEach
+    void setUp() {
+        when(customerQueryService.findDocument(ACCOUNT, DocumentType.ID_PROOF))
+                .thenReturn(new DocumentReference(DIGEST, CONTENT.length, "application/pdf"));
+        when(documentStore.locate(DIGEST)).thenReturn(Optional.of(LOCATION));
+        doAnswer(invocation -> {
+            long position = invocation.getArgument(1);
+            long count = invocation.getArgument(2);
+            WritableByteChannel target = invocation.getArgument(3);
+            target.write(ByteBuffer.wrap(CONTENT, (int) position, (int) count));
+            return null;
+        }).when(documentStore).transferTo(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void should_return_whole_document_with_etag() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT).with(BACK_OFFICE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void should_return_304_without_reading_the_store_when_etag_matches() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT)
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG)
+                        .with(BACK_OFFICE))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+
+        verify(documentStore, never()).locate(any());
+    }
+
+    @Test
+    void should_return_206_with_requested_range() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT)
+                        .header(HttpHeaders.RANGE, "bytes=9-")
+                        .with(BACK_OFFICE))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 9-13/14"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().bytes("hello".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void should_return_whole_document_when_if_range_does_not_match() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT)
+                        .header(HttpHeaders.RANGE, "bytes=9-")
+                        .header(HttpHeaders.IF_RANGE, "\"another-version\"")
+                        .with(BACK_OFFICE))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void should_return_whole_document_when_several_ranges_are_requested() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT)
+                        .header(HttpHeaders.RANGE, "bytes=0-1,9-")
+                        .with(BACK_OFFICE))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void should_return_416_when_range_starts_after_the_document() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT)
+                        .header(HttpHeaders.RANGE, "bytes=100-")
+                        .with(BACK_OFFICE))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */14"));
+    }
+
+    @Test
+    void should_hand_segment_region_to_sendfile_when_container_supports_it() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT)
+                        .header(HttpHeaders.RANGE, "bytes=9-")
+                        .requestAttr(CustomerDocumentController.SENDFILE_SUPPORT, Boolean.TRUE)
+                        .with(BACK_OFFICE))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+
+        assertThat(result.getRequest().getAttribute(CustomerDocumentController.SENDFILE_FILENAME))
+                .isEqualTo(LOCATION.segment().toAbsolutePath().toString());
+        assertThat(result.getRequest().getAttribute(CustomerDocumentController.SENDFILE_START)).isEqualTo(109L);
+        assertThat(result.getRequest().getAttribute(CustomerDocumentController.SENDFILE_END)).isEqualTo(114L);
+        assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+        verify(documentStore, never()).transferTo(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void should_send_headers_only_for_head_requests() throws Exception {
+        mockMvc.perform(head("/api/customers/{accountNumber}/documents/idProof", ACCOUNT).with(BACK_OFFICE))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(documentStore, never()).transferTo(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void should_return_400_when_document_type_is_unknown() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/passport", ACCOUNT).with(BACK_OFFICE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Invalid Data"));
+    }
+
+    @Test
+    void should_return_404_when_account_is_unknown() throws Exception {
+        when(customerQueryService.findDocument("NL00YYYY000000000", DocumentType.PHOTO))
+                .thenThrow(new CustomerNotFoundException("Unknown account number NL00YYYY000000000"));
+
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/photo", "NL00YYYY000000000")
+                        .with(BACK_OFFICE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void should_return_photo_rendition_when_rendered() throws Exception {
+        String thumbnailDigest = "b".repeat(64);
+        byte[] thumbnail = "thumbnail".getBytes(StandardCharsets.US_ASCII);
+        DocumentReference photo = new DocumentReference(DIGEST, CONTENT.length, "image/png");
+        when(customerQueryService.findDocument(ACCOUNT, DocumentType.PHOTO)).thenReturn(photo);
+        when(photoRenditionService.find(photo, Rendition.SMALL))
+                .thenReturn(Optional.of(new DocumentReference(thumbnailDigest, thumbnail.length, "image/jpeg")));
+        when(documentStore.locate(thumbnailDigest)).thenReturn(Optional.of(
+                new DocumentLocation(Path.of("segment-0000000002.dat"), 0, thumbnail.length)));
+        doAnswer(invocation -> {
+            WritableByteChannel target = invocation.getArgument(3);
+            target.write(ByteBuffer.wrap(thumbnail));
+            return null;
+        }).when(documentStore).transferTo(any(), anyLong(), anyLong(), any());
+
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/photo", ACCOUNT)
+                        .param("rendition", "small")
+                        .with(BACK_OFFICE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, '"' + thumbnailDigest + '"'))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes(thumbnail));
+    }
+
+    @Test
+    void should_return_original_photo_when_rendition_is_not_rendered_yet() throws Exception {
+        DocumentReference photo = new DocumentReference(DIGEST, CONTENT.length, "image/png");
+        when(customerQueryService.findDocument(ACCOUNT, DocumentType.PHOTO)).thenReturn(photo);
+        when(photoRenditionService.find(photo, Rendition.MEDIUM)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/photo", ACCOUNT)
+                        .param("rendition", "medium")
+                        .with(BACK_OFFICE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    void should_return_400_when_rendition_is_asked_for_id_proof() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT)
+                        .param("rendition", "small")
+                        .with(BACK_OFFICE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("Renditions are only available for the photo"));
+        verify(photoRenditionService, never()).find(any(), any());
+    }
+
+    @Test
+    void should_return_400_when_rendition_is_unknown() throws Exception {
+        when(customerQueryService.findDocument(ACCOUNT, DocumentType.PHOTO))
+                .thenReturn(new DocumentReference(DIGEST, CONTENT.length, "image/png"));
+
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/photo", ACCOUNT)
+                        .param("rendition", "huge")
+                        .with(BACK_OFFICE))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Invalid Data"));
+    }
+
+    @Test
+    void should_refuse_anonymous_download() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(head("/api/customers/{accountNumber}/documents/photo", ACCOUNT))
+                .andExpect(status().isUnauthorized());
+
+        verify(customerQueryService, never()).findDocument(any(), any());
+    }
+
+    @Test
+    void should_refuse_download_without_back_office_role() throws Exception {
+        mockMvc.perform(get("/api/customers/{accountNumber}/documents/idProof", ACCOUNT).with(user("tester")))
+                .andExpect(status().isForbidden());
+
+        verify(customerQueryService, never()).findDocument(any(), any());
+    }
+}
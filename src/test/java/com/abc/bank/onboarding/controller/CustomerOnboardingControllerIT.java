@@ -4,10 +4,12 @@ import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
 import com.abc.bank.onboarding.dto.Gender;
 import com.abc.bank.onboarding.exception.ValidationException;
 import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
 import com.abc.bank.onboarding.repository.CustomerRepository;
 import com.abc.bank.onboarding.service.generator.AccountNumberGenerator;
 import com.abc.bank.onboarding.service.notification.NotificationService;
 import com.abc.bank.onboarding.service.onboarding.CustomerOnboardingService;
+import com.abc.bank.onboarding.service.storage.DocumentStore;
 import com.abc.bank.onboarding.service.validation.FileValidationService;
 import com.abc.bank.onboarding.service.validation.RequestValidationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -54,12 +56,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class CustomerOnboardingControllerIT {
 
     public static final String ACCOUNT_NUMBER = "AC123";
+    private static final byte[] JPEG_PHOTO = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 'p', 'h', 'o', 't', 'o'};
     private final ObjectMapper objectMapper =
             new ObjectMapper().registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
     @Autowired
     private MockMvc mockMvc;
     @Autowired
     private CustomerOnboardingService customerOnboardingService;
+    @Autowired
+    private DocumentStore documentStore;
     @MockitoSpyBean
     private CustomerRepository spyCustomerRepository;
     @MockitoBean
@@ -92,10 +97,10 @@ class CustomerOnboardingControllerIT {
         );
 
         validIdProof = new MockMultipartFile(
-                "idProof", "id.pdf", "application/pdf", "dummy-id".getBytes()
+                "idProof", "id.pdf", "application/pdf", "%PDF-1.7 dummy-id".getBytes()
         );
         validPhoto = new MockMultipartFile(
-                "photo", "photo.jpg", "image/jpeg", "dummy-photo".getBytes()
+                "photo", "photo.jpg", "image/jpeg", JPEG_PHOTO
         );
     }
 
@@ -133,17 +138,20 @@ class CustomerOnboardingControllerIT {
         assertEquals(validRequest.socialSecurityNumber(), persistedCustomer.getSocialSecurityNumber());
 
         assertEquals(ACCOUNT_NUMBER, persistedCustomer.getAccountNumber());
-        assertArrayEquals(validIdProof.getBytes(), persistedCustomer.getIdProof());
-        assertArrayEquals(validPhoto.getBytes(), persistedCustomer.getPhoto());
+        assertArrayEquals(validIdProof.getBytes(), documentStore.read(persistedCustomer.getIdProof().getDigest()));
+        assertArrayEquals(validPhoto.getBytes(), documentStore.read(persistedCustomer.getPhoto().getDigest()));
 
         verify(notificationService).notifySuccess(validRequest.email(), ACCOUNT_NUMBER);
     }
 
     @Test
     void should_return_409_when_duplicate_customer_exists_in_h2() throws Exception {
-        Customer existing = toCustomer(validRequest, validIdProof, validPhoto);
+        Customer existing = toCustomer(validRequest,
+                new DocumentReference("a".repeat(64), 8, "application/pdf"),
+                new DocumentReference("b".repeat(64), 11, "image/jpeg"));
         existing.setAccountNumber("1234456");
         spyCustomerRepository.save(existing);
+        when(accountNumberGenerator.generate()).thenReturn(ACCOUNT_NUMBER);
 
         mockMvc.perform(
                         multipart("/api/customers/onboard")
@@ -240,9 +248,11 @@ class CustomerOnboardingControllerIT {
     void should_return_500_when_max_retry_attempts_exceeded() throws Exception {
         when(accountNumberGenerator.generate()).thenReturn(ACCOUNT_NUMBER);
 
-        doThrow(new DataIntegrityViolationException("duplicate account number"))
-                .doThrow(new DataIntegrityViolationException("duplicate account number"))
-                .doThrow(new DataIntegrityViolationException("duplicate account number"))
+        DataIntegrityViolationException accountNumberTaken = new DataIntegrityViolationException(
+                "Unique index or primary key violation: \"PUBLIC.IDX_CUSTOMER_ACCOUNT_NUMBER ON PUBLIC.CUSTOMERS(ACCOUNT_NUMBER)\"");
+        doThrow(accountNumberTaken)
+                .doThrow(accountNumberTaken)
+                .doThrow(accountNumberTaken)
                 .when(spyCustomerRepository).save(any());
 
         mockMvc.perform(
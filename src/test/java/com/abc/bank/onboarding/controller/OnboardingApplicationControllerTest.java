@@ -0,0 +1,148 @@
+package com.abc.bank.onboarding.controller;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.exception.OnboardingCapacityException;
+import com.abc.bank.onboarding.service.application.ApplicationStatus;
+import com.abc.bank.onboarding.service.application.OnboardingApplication;
+import com.abc.bank.onboarding.service.application.OnboardingApplicationRegistry;
+import com.abc.bank.onboarding.service.application.OnboardingPipeline;
+import com.abc.bank.onboarding.service.application.OnboardingPipelineProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OnboardingApplicationController.class)
+class OnboardingApplicationControllerTest {
+
+    private final ObjectMapper objectMapper =
+            new ObjectMapper().registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
+
+    @Autowired
+    private MockMvc mockMvc;
+    @MockitoBean
+    private OnboardingPipeline onboardingPipeline;
+    @MockitoBean
+    private OnboardingApplicationRegistry applicationRegistry;
+    @MockitoBean
+    private OnboardingPipelineProperties pipelineProperties;
+
+    private OnboardingApplication application;
+
+    @BeforeEach
+    void setUp() {
+        application = new OnboardingApplication(UUID.randomUUID(), Instant.now());
+        when(applicationRegistry.find(application.getId())).thenReturn(Optional.of(application));
+        when(pipelineProperties.maxWait()).thenReturn(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void should_return_202_with_status_location_when_application_accepted() throws Exception {
+        when(onboardingPipeline.submit(any(), any(), any())).thenReturn(application);
+
+        mockMvc.perform(submit())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location",
+                        "http://localhost/api/customers/applications/" + application.getId()))
+                .andExpect(jsonPath("$.applicationId").value(application.getId().toString()))
+                .andExpect(jsonPath("$.status").value("ACCEPTED"));
+    }
+
+    @Test
+    void should_return_503_with_retry_after_when_pipeline_is_full() throws Exception {
+        when(onboardingPipeline.submit(any(), any(), any()))
+                .thenThrow(new OnboardingCapacityException("Too many onboarding applications in progress, retry later"));
+
+        mockMvc.perform(submit())
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.title").value("Service busy"));
+    }
+
+    @Test
+    void should_return_404_when_application_is_unknown() throws Exception {
+        mockMvc.perform(get("/api/customers/applications/{id}", UUID.randomUUID()).with(user("tester")))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.title").value("Application not found"));
+    }
+
+    @Test
+    void should_return_current_status_without_waiting() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/customers/applications/{id}", application.getId())
+                        .with(user("tester")))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ACCEPTED"));
+    }
+
+    @Test
+    void should_hold_long_poll_until_application_is_final() throws Exception {
+        OnboardingApplication processing = mock(OnboardingApplication.class);
+        CompletableFuture<OnboardingApplication> completion = new CompletableFuture<>();
+        UUID id = UUID.randomUUID();
+        when(processing.getId()).thenReturn(id);
+        when(processing.getStatus()).thenReturn(ApplicationStatus.PROCESSING);
+        when(processing.completion()).thenReturn(completion);
+        when(applicationRegistry.find(id)).thenReturn(Optional.of(processing));
+
+        MvcResult result = mockMvc.perform(get("/api/customers/applications/{id}", id)
+                        .param("waitSeconds", "10")
+                        .with(user("tester")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        when(processing.getStatus()).thenReturn(ApplicationStatus.COMPLETED);
+        when(processing.getAccountNumber()).thenReturn("ACC123");
+        completion.complete(processing);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.accountNumber").value("ACC123"));
+    }
+
+    private MockMultipartHttpServletRequestBuilder submit() throws Exception {
+        CustomerOnboardRequest request = new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE,
+                LocalDate.of(1985, 5, 15), "+31612345678", "seif.jemli@domain.com", "NL",
+                "Gustav Mahlerlaan 10, 1082 PP Amsterdam, Netherlands", "123456782");
+        return multipart("/api/customers/applications")
+                .file(new MockMultipartFile("idProof", "id.pdf", "application/pdf", "id-content".getBytes()))
+                .file(new MockMultipartFile("photo", "photo.jpg", "image/jpeg", "photo-content".getBytes()))
+                .file(new MockMultipartFile("CustomerOnboardRequest", "request.json", "application/json",
+                        objectMapper.writeValueAsBytes(request)))
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .with(csrf())
+                .with(user("tester").roles("USER"))
+                .accept(MediaType.APPLICATION_JSON);
+    }
+}
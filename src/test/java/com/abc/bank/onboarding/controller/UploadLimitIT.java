@@ -0,0 +1,77 @@
+package com.abc.bank.onboarding.controller;
+
+import com.abc.bank.onboarding.repository.CustomerRepository;
+import com.abc.bank.onboarding.service.validation.FileValidationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//the multipart limits are enforced by the container while it reads the body, so they need a real server
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase
+class UploadLimitIT {
+
+    private static final String BOUNDARY = "upload-limit";
+    private static final String REQUEST_JSON = """
+            {"firstName":"Seif","lastName":"Jemli","gender":"MALE","dateOfBirth":"1985-05-15",
+            "phoneNumber":"+31612345678","email":"seif.jemli@domain.com","nationality":"NL",
+            "residentialAddress":"Gustav Mahlerlaan 10","socialSecurityNumber":"123456782"}""";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void should_return_413_when_a_document_exceeds_the_limit() throws Exception {
+        byte[] oversized = new byte[(int) FileValidationService.MAX_FILE_SIZE_BYTES + 1];
+        System.arraycopy("%PDF-1.7".getBytes(StandardCharsets.US_ASCII), 0, oversized, 0, 8);
+
+        HttpResponse<String> response = post(oversized);
+
+        assertThat(response.statusCode()).isEqualTo(413);
+        assertThat(response.body()).contains("Upload Too Large")
+                .contains("limited to " + FileValidationService.MAX_FILE_SIZE_BYTES + " bytes");
+        assertThat(customerRepository.count()).isZero();
+    }
+
+    private HttpResponse<String> post(byte[] idProof) throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writePart(body, "CustomerOnboardRequest", null, "application/json",
+                REQUEST_JSON.getBytes(StandardCharsets.UTF_8));
+        writePart(body, "idProof", "id.pdf", "application/pdf", idProof);
+        writePart(body, "photo", "photo.jpg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, 0});
+        body.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/customers/onboard"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void writePart(ByteArrayOutputStream body, String name, String fileName, String contentType,
+                                  byte[] content) {
+        String header = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\""
+                + (fileName == null ? "" : "; filename=\"" + fileName + "\"") + "\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n";
+        body.writeBytes(header.getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(content);
+        body.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+}
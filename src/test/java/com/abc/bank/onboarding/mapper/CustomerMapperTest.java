@@ -3,10 +3,8 @@ package com.abc.bank.onboarding.mapper;
 
 import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
 import com.abc.bank.onboarding.model.Customer;
-import lombok.SneakyThrows;
+import com.abc.bank.onboarding.model.DocumentReference;
 import org.junit.jupiter.api.Test;
-import org.springframework.mock.web.MockMultipartFile;
-import utils.MultipartFileTestUtil;
 
 import java.time.LocalDate;
 
@@ -15,7 +13,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 class CustomerMapperTest {
 
-    @SneakyThrows
     @Test
     void shouldMapDtoToCustomerCorrectly() {
         CustomerOnboardRequest dto = new CustomerOnboardRequest(
@@ -29,10 +26,8 @@ class CustomerMapperTest {
                 "Amsterdam, NL",
                 "123456782"
         );
-        MockMultipartFile idProof = MultipartFileTestUtil.createMultipartFile("files/passport.png",
-                "idProof");
-        MockMultipartFile photo = MultipartFileTestUtil.createMultipartFile("files/photo.png",
-                "photo");
+        DocumentReference idProof = new DocumentReference("a".repeat(64), 1024, "image/png");
+        DocumentReference photo = new DocumentReference("b".repeat(64), 2048, "image/png");
 
         Customer customer = CustomerMapper.toCustomer(dto, idProof, photo);
 
@@ -45,7 +40,7 @@ class CustomerMapperTest {
         assertThat(customer.getNationality()).isEqualTo(dto.nationality());
         assertThat(customer.getResidentialAddress()).isEqualTo(dto.residentialAddress());
         assertThat(customer.getSocialSecurityNumber()).isEqualTo(dto.socialSecurityNumber());
-        assertThat(customer.getIdProof()).isEqualTo(idProof.getBytes());
-        assertThat(customer.getPhoto()).isEqualTo(photo.getBytes());
+        assertThat(customer.getIdProof()).isEqualTo(idProof);
+        assertThat(customer.getPhoto()).isEqualTo(photo);
     }
 }
@@ -0,0 +1,154 @@
+package com.abc.bank.onboarding.repository;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.mapper.CustomerMapper;
+import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.service.bulk.BulkCustomerWriter;
+import com.abc.bank.onboarding.service.bulk.BulkRegistration;
+import com.abc.bank.onboarding.service.duplicate.DuplicateCustomerFilter;
+import com.abc.bank.onboarding.service.generator.AccountNumberGenerator;
+import com.abc.bank.onboarding.service.notification.NotificationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Inserts the same customers, each with its success notification, three ways against the embedded database:
+ * one transaction per customer like a single onboarding, chunks persisted through Hibernate with JDBC batching
+ * (possible since the ids come from pooled sequences), and chunks written by {@link BulkCustomerWriter}.
+ * Prints the insert rate and the JDBC statements prepared per customer. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(BulkCustomerWriter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerInsertBenchmarkTest {
+
+    private static final int CUSTOMERS = 5_000;
+    private static final int CHUNK = 500;
+    private static final DocumentReference DOCUMENT = new DocumentReference("a".repeat(64), 1024, "image/png");
+
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OutboxNotificationRepository outboxRepository;
+    @Autowired
+    private BulkCustomerWriter bulkCustomerWriter;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockitoBean
+    private AccountNumberGenerator accountNumberGenerator;
+    @MockitoBean
+    private DuplicateCustomerFilter duplicateCustomerFilter;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        when(accountNumberGenerator.generate()).thenAnswer(invocation ->
+                "NL00ABC%010d".formatted(sequence.incrementAndGet()));
+        when(duplicateCustomerFilter.mightExist(any(), any())).thenReturn(false);
+    }
+
+    @Test
+    void should_insert_faster_in_batches_than_one_transaction_per_customer() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Result single = run("single", statistics, offset -> {
+            for (int i = 0; i < CUSTOMERS; i++) {
+                Customer customer = customer(offset + i);
+                transaction.executeWithoutResult(status -> {
+                    customerRepository.save(customer);
+                    customerRepository.flush();
+                    outboxRepository.save(NotificationService.successNotification(
+                            customer.getEmail(), customer.getAccountNumber(), Instant.now()));
+                });
+            }
+        });
+        Result batched = run("batched", statistics, offset -> {
+            for (int start = 0; start < CUSTOMERS; start += CHUNK) {
+                int first = offset + start;
+                transaction.executeWithoutResult(status -> {
+                    List<Customer> customers = new ArrayList<>(CHUNK);
+                    for (int i = 0; i < CHUNK; i++) {
+                        customers.add(customer(first + i));
+                    }
+                    customerRepository.saveAll(customers);
+                    outboxRepository.saveAll(customers.stream()
+                            .map(customer -> NotificationService.successNotification(
+                                    customer.getEmail(), customer.getAccountNumber(), Instant.now()))
+                            .toList());
+                });
+            }
+        });
+        Result bulk = run("bulk", statistics, offset -> {
+            for (int start = 0; start < CUSTOMERS; start += CHUNK) {
+                List<BulkRegistration> registrations = new ArrayList<>(CHUNK);
+                for (int i = 0; i < CHUNK; i++) {
+                    int n = offset + start + i;
+                    registrations.add(new BulkRegistration(n, null, request(n), DOCUMENT, DOCUMENT));
+                }
+                bulkCustomerWriter.write(registrations);
+            }
+        });
+
+        assertThat(customerRepository.count()).isEqualTo(3L * CUSTOMERS);
+        // a sequence call per 50 ids and a batch per 50 rows and table, against two statements per customer
+        assertThat(batched.statementsPerCustomer()).isLessThan(0.2);
+        assertThat(batched.throughput()).isGreaterThan(single.throughput());
+        assertThat(bulk.throughput()).isGreaterThan(single.throughput());
+    }
+
+    private Result run(String name, Statistics statistics, IntConsumer inserts) {
+        int offset = (int) customerRepository.count();
+        statistics.clear();
+        long start = System.nanoTime();
+        inserts.accept(offset);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Result result = new Result(CUSTOMERS / seconds, (double) statistics.getPrepareStatementCount() / CUSTOMERS);
+        System.out.printf("%-8s %5d customers in %6.2f s: %9.1f inserts/s, %5.2f Hibernate statements per customer%n",
+                name, CUSTOMERS, seconds, result.throughput(), result.statementsPerCustomer());
+        return result;
+    }
+
+    private Customer customer(int n) {
+        Customer customer = CustomerMapper.toCustomer(request(n), DOCUMENT, DOCUMENT);
+        customer.setAccountNumber(accountNumberGenerator.generate());
+        return customer;
+    }
+
+    private static CustomerOnboardRequest request(int n) {
+        return new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE, LocalDate.of(1985, 5, 15),
+                "+31612345678", "customer" + n + "@domain.com", "NL", "Gustav Mahlerlaan 10", "%09d".formatted(n));
+    }
+
+    private record Result(double throughput, double statementsPerCustomer) {
+    }
+}
@@ -1,34 +1,42 @@
 package com.abc.bank.onboarding.repository;
 
+import com.abc.bank.onboarding.dto.CustomerDetails;
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.CustomerSummary;
 import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.mapper.CustomerMapper;
 import com.abc.bank.onboarding.model.Customer;
-import lombok.SneakyThrows;
+import com.abc.bank.onboarding.model.DocumentReference;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
-import org.springframework.mock.web.MockMultipartFile;
-import utils.MultipartFileTestUtil;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.abc.bank.onboarding.repository.CustomerRepositoryTest$RecordingStatementInspector")
 class CustomerRepositoryTest {
 
+    private static final DocumentReference DOCUMENT = new DocumentReference("a".repeat(64), 1024, "image/png");
+
     @Autowired
     private CustomerRepository customerRepository;
 
-    @SneakyThrows
     @BeforeEach
     void setUp() {
-        MockMultipartFile idProof = MultipartFileTestUtil.createMultipartFile("files/passport.png",
-                "idProof");
-        MockMultipartFile photo = MultipartFileTestUtil.createMultipartFile("files/photo.png",
-                "photo");
-
         Customer customer = new Customer();
         customer.setFirstName("Seif");
         customer.setLastName("Jemli");
@@ -39,8 +47,8 @@ class CustomerRepositoryTest {
         customer.setNationality("NL");
         customer.setResidentialAddress("Amsterdam");
         customer.setSocialSecurityNumber("123456782");
-        customer.setIdProof(idProof.getBytes());
-        customer.setPhoto(photo.getBytes());
+        customer.setIdProof(DOCUMENT);
+        customer.setPhoto(new DocumentReference("b".repeat(64), 2048, "image/png"));
         customer.setAccountNumber("NL12YYYY012345678");
 
         customerRepository.save(customer);
@@ -56,11 +64,87 @@ class CustomerRepositoryTest {
     }
 
     @Test
-    void should_check_if_exists_customer_by_social_security_number_or_email() {
-        boolean found =
-                customerRepository.existsBySocialSecurityNumberOrEmail("123456782",
-                        "a@gmail.com");
+    void should_project_customer_details_without_documents() {
+        customerRepository.flush();
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        Optional<CustomerDetails> details = customerRepository.findDetailsByAccountNumber("NL12YYYY012345678");
+
+        assertThat(details).contains(new CustomerDetails("NL12YYYY012345678", "Seif", "Jemli", Gender.MALE,
+                LocalDate.of(1985, 5, 15), "+31612345678", "seif.jemli@domain.com", "NL", "Amsterdam"));
+        assertThat(RecordingStatementInspector.STATEMENTS).singleElement().satisfies(sql ->
+                assertThat(sql).doesNotContain("digest", "photo", "id_proof", "social_security_number"));
+    }
+
+    @Test
+    void should_find_document_references_by_account_number() {
+        assertThat(customerRepository.findIdProofByAccountNumber("NL12YYYY012345678")).contains(DOCUMENT);
+        assertThat(customerRepository.findPhotoByAccountNumber("NL12YYYY012345678"))
+                .contains(new DocumentReference("b".repeat(64), 2048, "image/png"));
+        assertThat(customerRepository.findPhotoByAccountNumber("NL00YYYY000000000")).isEmpty();
+    }
+
+    @Test
+    void should_page_customer_summaries_by_id_after_the_last_one_seen() {
+        for (int i = 1; i <= 4; i++) {
+            Customer customer = CustomerMapper.toCustomer(new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE,
+                    LocalDate.of(1985, 5, 15), "+31612345678", "customer" + i + "@domain.com", "NL", "Amsterdam",
+                    "10000000" + i), DOCUMENT, DOCUMENT);
+            customer.setAccountNumber("NL12YYYY01234567" + i);
+            customerRepository.save(customer);
+        }
+        customerRepository.flush();
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        List<CustomerSummary> first = customerRepository.findSummariesAfter(0, Limit.of(3));
+        List<CustomerSummary> second = customerRepository.findSummariesAfter(first.get(2).id(), Limit.of(3));
+
+        assertThat(first).extracting(CustomerSummary::email).containsExactly(
+                "seif.jemli@domain.com", "customer1@domain.com", "customer2@domain.com");
+        assertThat(second).extracting(CustomerSummary::email).containsExactly(
+                "customer3@domain.com", "customer4@domain.com");
+        assertThat(RecordingStatementInspector.STATEMENTS).allSatisfy(sql -> assertThat(sql)
+                .doesNotContain("digest", "offset")
+                .contains("order by"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "123456782, other@domain.com, NL00YYYY000000001, SOCIAL_SECURITY_NUMBER",
+            "111222333, seif.jemli@domain.com, NL00YYYY000000001, EMAIL",
+            "111222333, other@domain.com, NL12YYYY012345678, ACCOUNT_NUMBER"})
+    void should_name_the_unique_key_violated_by_an_insert(String ssn, String email, String accountNumber, String key) {
+        Customer customer = CustomerMapper.toCustomer(new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE,
+                LocalDate.of(1985, 5, 15), "+31612345678", email, "NL", "Amsterdam", ssn), DOCUMENT, DOCUMENT);
+        customer.setAccountNumber(accountNumber);
+
+        DataIntegrityViolationException ex = catchThrowableOfType(DataIntegrityViolationException.class,
+                () -> customerRepository.saveAndFlush(customer));
+
+        assertThat(CustomerUniqueKey.violatedBy(ex)).contains(CustomerUniqueKey.valueOf(key));
+    }
+
+    @Test
+    void should_not_name_a_unique_key_when_another_constraint_is_violated() {
+        Customer customer = CustomerMapper.toCustomer(new CustomerOnboardRequest(null, "Jemli", Gender.MALE,
+                LocalDate.of(1985, 5, 15), "+31612345678", "other@domain.com", "NL", "Amsterdam", "111222333"),
+                DOCUMENT, DOCUMENT);
+        customer.setAccountNumber("NL00YYYY000000001");
+
+        DataIntegrityViolationException ex = catchThrowableOfType(DataIntegrityViolationException.class,
+                () -> customerRepository.saveAndFlush(customer));
+
+        assertThat(CustomerUniqueKey.violatedBy(ex)).isEmpty();
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
 
-        assertThat(found).isTrue();
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql.toLowerCase(Locale.ROOT));
+            return sql;
+        }
     }
-}
\ No newline at end of file
+}
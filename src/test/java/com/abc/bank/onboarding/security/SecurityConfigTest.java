@@ -0,0 +1,52 @@
+package com.abc.bank.onboarding.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//the actuator endpoints only exist in the full context
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void should_serve_health_anonymously() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void should_return_401_when_operational_endpoints_are_called_anonymously() throws Exception {
+        for (String path : new String[]{"/actuator/caches", "/actuator/metrics", "/actuator/duplicatefilter",
+                "/actuator/info"}) {
+            mockMvc.perform(get(path))
+                    .andExpect(status().isUnauthorized());
+        }
+    }
+
+    @Test
+    void should_return_401_when_caches_are_cleared_anonymously() throws Exception {
+        mockMvc.perform(delete("/actuator/caches"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void should_serve_operational_endpoint_when_authenticated() throws Exception {
+        mockMvc.perform(get("/actuator/caches").with(user("operator")))
+                .andExpect(status().isOk());
+    }
+}
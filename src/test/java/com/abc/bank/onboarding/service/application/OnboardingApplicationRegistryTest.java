@@ -0,0 +1,51 @@
+package com.abc.bank.onboarding.service.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OnboardingApplicationRegistryTest {
+
+    private final OnboardingApplicationRegistry registry = new OnboardingApplicationRegistry(
+            new OnboardingPipelineProperties(new OnboardingPipelineProperties.Stage(1, 1),
+                    new OnboardingPipelineProperties.Stage(1, 1), Duration.ZERO, Duration.ofSeconds(30)));
+
+    @Test
+    void should_evict_final_applications_once_retention_expired() throws InterruptedException {
+        OnboardingApplication completed = application();
+        completed.complete("ACC123", "Customer onboarded successfully");
+        OnboardingApplication rejected = application();
+        rejected.reject("Customer already exists");
+        OnboardingApplication inProgress = application();
+        inProgress.processing();
+        Thread.sleep(5);
+
+        registry.evictExpired();
+
+        assertThat(registry.find(completed.getId())).isEmpty();
+        assertThat(registry.find(rejected.getId())).isEmpty();
+        assertThat(registry.find(inProgress.getId())).contains(inProgress);
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void should_complete_future_once_application_is_final() {
+        OnboardingApplication application = application();
+        assertThat(application.completion()).isNotDone();
+
+        application.fail("Unexpected error occurred");
+
+        assertThat(application.completion()).isCompletedWithValue(application);
+        assertThat(application.getStatus().isFinal()).isTrue();
+    }
+
+    private OnboardingApplication application() {
+        OnboardingApplication application = new OnboardingApplication(UUID.randomUUID(), Instant.now());
+        registry.add(application);
+        return application;
+    }
+}
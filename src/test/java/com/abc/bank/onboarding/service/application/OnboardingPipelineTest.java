@@ -0,0 +1,303 @@
+package com.abc.bank.onboarding.service.application;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.CustomerOnboardResponse;
+import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.exception.DocumentStorageException;
+import com.abc.bank.onboarding.exception.DuplicateCustomerException;
+import com.abc.bank.onboarding.exception.OnboardingCapacityException;
+import com.abc.bank.onboarding.exception.ValidationException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.service.onboarding.CustomerOnboardingService;
+import com.abc.bank.onboarding.service.onboarding.InFlightOnboardings;
+import com.abc.bank.onboarding.service.onboarding.InFlightProperties;
+import com.abc.bank.onboarding.service.storage.DocumentIngestionService;
+import com.abc.bank.onboarding.service.storage.DocumentStore;
+import com.abc.bank.onboarding.service.storage.DocumentStoreProperties;
+import com.abc.bank.onboarding.service.validation.DocumentLimitsProperties;
+import com.abc.bank.onboarding.service.validation.FileValidationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import utils.MultipartFileTestUtil;
+import utils.TestDocuments;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OnboardingPipelineTest {
+
+    private static final CustomerOnboardResponse SUCCESS =
+            new CustomerOnboardResponse("SUCCESS", "Customer onboarded successfully", "ACC123");
+
+    @TempDir
+    private Path directory;
+
+    private final CustomerOnboardRequest request = new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE,
+            LocalDate.of(1985, 5, 15), "+31612345678", "seif.jemli@domain.com", "NL",
+            "Gustav Mahlerlaan 10, 1082 PP Amsterdam, Netherlands", "123456782");
+
+    private DocumentStore documentStore;
+    private DocumentIngestionService ingestionService;
+    private CustomerOnboardingService onboardingService;
+    private OnboardingApplicationRegistry registry;
+    private SimpleMeterRegistry meterRegistry;
+    private InFlightOnboardings inFlightOnboardings;
+    private OnboardingPipeline pipeline;
+    private MockMultipartFile idProof;
+    private MockMultipartFile photo;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        start(directory);
+        idProof = new MockMultipartFile("idProof", "id.pdf", "application/pdf", TestDocuments.pdf(600, 1));
+        photo = MultipartFileTestUtil.createMultipartFile("files/photo.png", "photo");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+        documentStore.close();
+    }
+
+    @Test
+    void should_complete_application_through_documents_and_registration_stages() throws Exception {
+        when(onboardingService.register(eq(request), any(), any())).thenReturn(SUCCESS);
+
+        OnboardingApplication application = pipeline.submit(request, idProof, photo);
+
+        assertThat(registry.find(application.getId())).contains(application);
+        assertThat(application.completion().get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(ApplicationStatus.COMPLETED);
+        assertThat(application.getAccountNumber()).isEqualTo("ACC123");
+        assertThat(application.getMessage()).isEqualTo("Customer onboarded successfully");
+        assertThat(application.getCompletedAt()).isAfterOrEqualTo(application.getSubmittedAt());
+
+        ArgumentCaptor<DocumentReference> idProofReference = ArgumentCaptor.forClass(DocumentReference.class);
+        ArgumentCaptor<DocumentReference> photoReference = ArgumentCaptor.forClass(DocumentReference.class);
+        verify(onboardingService).register(eq(request), idProofReference.capture(), photoReference.capture());
+        assertThat(idProofReference.getValue().getContentType()).isEqualTo("application/pdf");
+        assertThat(photoReference.getValue().getContentType()).isEqualTo("image/png");
+        assertThat(documentStore.read(photoReference.getValue().getDigest())).isEqualTo(photo.getBytes());
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_refuse_invalid_application_before_accepting_it() {
+        doThrow(new ValidationException("photo missing or empty")).when(onboardingService).validate(request, idProof, photo);
+
+        assertThrows(ValidationException.class, () -> pipeline.submit(request, idProof, photo));
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void should_reject_application_when_duplicate_is_found_at_registration() throws Exception {
+        when(onboardingService.register(eq(request), any(), any()))
+                .thenThrow(new DuplicateCustomerException("Customer already exists"));
+
+        OnboardingApplication application = pipeline.submit(request, idProof, photo).completion().get(5, TimeUnit.SECONDS);
+
+        assertThat(application.getStatus()).isEqualTo(ApplicationStatus.REJECTED);
+        assertThat(application.getMessage()).isEqualTo("Customer already exists");
+    }
+
+    @Test
+    void should_fail_application_when_registration_fails_unexpectedly() throws Exception {
+        when(onboardingService.register(eq(request), any(), any())).thenThrow(new IllegalStateException("DB down"));
+
+        OnboardingApplication application = pipeline.submit(request, idProof, photo).completion().get(5, TimeUnit.SECONDS);
+
+        assertThat(application.getStatus()).isEqualTo(ApplicationStatus.FAILED);
+        assertThat(application.getMessage()).isEqualTo("Unexpected error occurred");
+    }
+
+    @Test
+    void should_reject_application_when_stored_document_turns_out_oversized() throws Exception {
+        byte[] content = new byte[(int) FileValidationService.MAX_FILE_SIZE_BYTES + 1];
+        System.arraycopy("%PDF-".getBytes(StandardCharsets.US_ASCII), 0, content, 0, 5);
+        MockMultipartFile oversized = new MockMultipartFile("idProof", "id.pdf", "application/pdf", content);
+
+        OnboardingApplication application = pipeline.submit(request, oversized, photo).completion().get(5, TimeUnit.SECONDS);
+
+        assertThat(application.getStatus()).isEqualTo(ApplicationStatus.REJECTED);
+        verify(onboardingService).reportFailure(eq("seif.jemli@domain.com"), any(), any(ValidationException.class));
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_fail_application_when_document_store_fails() throws Exception {
+        doThrow(new DocumentStorageException("disk full", new IOException("disk full")))
+                .when(ingestionService).ingest(any(Path.class), eq("application/pdf"), eq("idProof"));
+
+        OnboardingApplication application = pipeline.submit(request, idProof, photo).completion().get(5, TimeUnit.SECONDS);
+
+        assertThat(application.getStatus()).isEqualTo(ApplicationStatus.FAILED);
+        verify(onboardingService).reportFailure(eq("seif.jemli@domain.com"), eq("Unexpected error occurred"), any());
+    }
+
+    @Test
+    void should_not_accept_application_when_upload_cannot_be_staged() throws Exception {
+        MultipartFile broken = mock(MultipartFile.class);
+        doThrow(new IOException("client went away")).when(broken).transferTo(any(File.class));
+
+        assertThrows(DocumentStorageException.class, () -> pipeline.submit(request, idProof, broken));
+        assertThat(registry.size()).isZero();
+        assertThat(stagingFiles()).isEmpty();
+        // the customer is not left claimed
+        inFlightOnboardings.tryClaim(request.socialSecurityNumber(), request.email()).close();
+    }
+
+    @Test
+    void should_refuse_second_application_for_same_customer_until_first_is_final() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(onboardingService.register(eq(request), any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return SUCCESS;
+        });
+        OnboardingApplication first = pipeline.submit(request, idProof, photo);
+
+        DuplicateCustomerException ex = assertThrows(DuplicateCustomerException.class,
+                () -> pipeline.submit(request, idProof, photo));
+        assertThat(ex.getMessage()).contains("already in progress");
+        assertThat(registry.size()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(first.completion().get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(ApplicationStatus.COMPLETED);
+        // the claim is released once the application is final
+        assertThat(pipeline.submit(request, idProof, photo).completion().get(5, TimeUnit.SECONDS).getStatus())
+                .isEqualTo(ApplicationStatus.COMPLETED);
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_refuse_applications_once_documents_queue_is_full_and_drain_the_backlog() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(onboardingService.register(any(), any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return SUCCESS;
+        });
+
+        List<OnboardingApplication> accepted = new ArrayList<>();
+        // registering
+        accepted.add(pipeline.submit(applicant(1), idProof, photo));
+        awaitGauge("active", "registration", 1);
+        // queued for registration
+        accepted.add(pipeline.submit(applicant(2), idProof, photo));
+        awaitGauge("queue.depth", "registration", 1);
+        // documents worker waiting for room in the registration queue
+        accepted.add(pipeline.submit(applicant(3), idProof, photo));
+        awaitGauge("queue.depth", "documents", 0);
+        // queued for documents
+        accepted.add(pipeline.submit(applicant(4), idProof, photo));
+
+        assertThrows(OnboardingCapacityException.class, () -> pipeline.submit(applicant(5), idProof, photo));
+        assertThat(meterRegistry.get("onboarding.pipeline.rejections").counter().count()).isEqualTo(1);
+        assertThat(gauge("queue.depth", "documents")).isEqualTo(1);
+
+        release.countDown();
+        for (OnboardingApplication application : accepted) {
+            assertThat(application.completion().get(5, TimeUnit.SECONDS).getStatus())
+                    .isEqualTo(ApplicationStatus.COMPLETED);
+        }
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_stage_uploads_in_the_store_when_its_directory_is_relative() throws Exception {
+        // like the default data/documents, resolved against the working directory
+        pipeline.shutdown();
+        documentStore.close();
+        start(Path.of("").toAbsolutePath().relativize(directory.resolve("relative")));
+        Path containerLocation = Files.createDirectory(directory.resolve("container"));
+        when(onboardingService.register(eq(request), any(), any())).thenReturn(SUCCESS);
+
+        OnboardingApplication application = pipeline.submit(request, containerPart(idProof, containerLocation),
+                containerPart(photo, containerLocation));
+
+        assertThat(application.completion().get(5, TimeUnit.SECONDS).getStatus())
+                .isEqualTo(ApplicationStatus.COMPLETED);
+        try (Stream<Path> files = Files.list(containerLocation)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private void start(Path storeDirectory) {
+        documentStore = new DocumentStore(new DocumentStoreProperties(storeDirectory, DataSize.ofMegabytes(16), false));
+        documentStore.open();
+        ingestionService = spy(new DocumentIngestionService(documentStore, new FileValidationService(
+                new DocumentLimitsProperties(10_000, 10_000, DataSize.ofMegabytes(128), 64, 10))));
+        onboardingService = mock(CustomerOnboardingService.class);
+        OnboardingPipelineProperties properties = new OnboardingPipelineProperties(
+                new OnboardingPipelineProperties.Stage(1, 1), new OnboardingPipelineProperties.Stage(1, 1),
+                Duration.ofHours(1), Duration.ofSeconds(30));
+        registry = new OnboardingApplicationRegistry(properties);
+        meterRegistry = new SimpleMeterRegistry();
+        inFlightOnboardings = new InFlightOnboardings(new InFlightProperties(Duration.ZERO), meterRegistry);
+        pipeline = new OnboardingPipeline(onboardingService, ingestionService, documentStore, inFlightOnboardings,
+                registry, properties, meterRegistry, new MockEnvironment());
+    }
+
+    //Tomcat's Part.write resolves a relative file name against its own multipart location, not the working directory
+    private static MultipartFile containerPart(MockMultipartFile part, Path containerLocation) throws IOException {
+        MultipartFile file = spy(part);
+        doAnswer(invocation -> {
+            File destination = invocation.getArgument(0);
+            Path target = destination.isAbsolute()
+                    ? destination.toPath()
+                    : containerLocation.resolve(destination.getPath());
+            Files.write(target, part.getBytes());
+            return null;
+        }).when(file).transferTo(any(File.class));
+        return file;
+    }
+
+    private CustomerOnboardRequest applicant(int number) {
+        return new CustomerOnboardRequest(request.firstName(), request.lastName(), request.gender(),
+                request.dateOfBirth(), request.phoneNumber(), "applicant" + number + "@domain.com",
+                request.nationality(), request.residentialAddress(), "10000000" + number);
+    }
+
+    private void awaitGauge(String name, String stage, double expected) throws InterruptedException {
+        for (int i = 0; i < 500 && gauge(name, stage) != expected; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(gauge(name, stage)).isEqualTo(expected);
+    }
+
+    private double gauge(String name, String stage) {
+        return meterRegistry.get("onboarding.pipeline." + name).tag("stage", stage).gauge().value();
+    }
+
+    private List<Path> stagingFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("staging"))) {
+            return files.toList();
+        }
+    }
+}
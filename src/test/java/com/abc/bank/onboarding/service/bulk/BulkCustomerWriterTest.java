@@ -0,0 +1,235 @@
+package com.abc.bank.onboarding.service.bulk;
+
+import com.abc.bank.onboarding.dto.BulkItemResult;
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.mapper.CustomerMapper;
+import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.model.NotificationStatus;
+import com.abc.bank.onboarding.model.OutboxNotification;
+import com.abc.bank.onboarding.repository.CustomerRepository;
+import com.abc.bank.onboarding.repository.OutboxNotificationRepository;
+import com.abc.bank.onboarding.service.duplicate.DuplicateCustomerFilter;
+import com.abc.bank.onboarding.service.generator.AccountNumberGenerator;
+import com.abc.bank.onboarding.service.photo.PhotoRenditionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import(BulkCustomerWriter.class)
+// the writer commits in its own transactions, the test data must be committed as well
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkCustomerWriterTest {
+
+    private static final DocumentReference DOCUMENT = new DocumentReference("a".repeat(64), 1024, "image/png");
+
+    @Autowired
+    private BulkCustomerWriter writer;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private OutboxNotificationRepository outboxRepository;
+    @MockitoBean
+    private AccountNumberGenerator accountNumberGenerator;
+    @MockitoBean
+    private DuplicateCustomerFilter duplicateCustomerFilter;
+    @MockitoBean
+    private PhotoRenditionService photoRenditionService;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        outboxRepository.deleteAll();
+        AtomicInteger sequence = new AtomicInteger();
+        when(accountNumberGenerator.generate()).thenAnswer(invocation ->
+                "NL00ABC%010d".formatted(sequence.incrementAndGet()));
+        when(duplicateCustomerFilter.mightExist(any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void should_insert_customers_with_their_success_notifications() {
+        List<BulkItemResult> results = writer.write(List.of(
+                registration(1, "123456782", "first@domain.com"),
+                registration(2, "111222333", "second@domain.com")));
+
+        assertThat(results).extracting(BulkItemResult::status)
+                .containsExactly(BulkItemResult.Status.CREATED, BulkItemResult.Status.CREATED);
+        assertThat(results).extracting(BulkItemResult::accountNumber)
+                .containsExactly("NL00ABC0000000001", "NL00ABC0000000002");
+        assertThat(results).extracting(BulkItemResult::reference).containsExactly("ref-1", "ref-2");
+
+        Customer customer = customerRepository.findByAccountNumber("NL00ABC0000000002").orElseThrow();
+        assertThat(customer.getEmail()).isEqualTo("second@domain.com");
+        assertThat(customer.getGender()).isEqualTo(Gender.MALE);
+        assertThat(customer.getDateOfBirth()).isEqualTo(LocalDate.of(1985, 5, 15));
+        assertThat(customer.getIdProof()).isEqualTo(DOCUMENT);
+
+        List<OutboxNotification> notifications = outboxRepository.findAll();
+        assertThat(notifications).extracting(OutboxNotification::getRecipient)
+                .containsExactlyInAnyOrder("first@domain.com", "second@domain.com");
+        assertThat(notifications).allSatisfy(notification -> {
+            assertThat(notification.getStatus()).isEqualTo(NotificationStatus.PENDING);
+            assertThat(notification.getNextAttemptAt()).isNotNull();
+        });
+        verify(duplicateCustomerFilter).register("123456782", "first@domain.com");
+        verify(duplicateCustomerFilter).register("111222333", "second@domain.com");
+        verify(photoRenditionService, times(2)).submit(DOCUMENT);
+    }
+
+    @Test
+    void should_report_duplicates_of_existing_customers_and_within_the_chunk() {
+        customerRepository.save(customer("123456782", "existing@domain.com"));
+
+        List<BulkItemResult> results = writer.write(List.of(
+                registration(1, "123456782", "first@domain.com"),
+                registration(2, "111222333", "second@domain.com"),
+                registration(3, "222333444", "second@domain.com")));
+
+        assertThat(results).extracting(BulkItemResult::status).containsExactly(
+                BulkItemResult.Status.DUPLICATE, BulkItemResult.Status.CREATED, BulkItemResult.Status.DUPLICATE);
+        assertThat(results.get(0).line()).isEqualTo(1);
+        assertThat(customerRepository.count()).isEqualTo(2);
+        assertThat(outboxRepository.count()).isEqualTo(1);
+        verify(duplicateCustomerFilter).recordDatabaseLookup(true);
+        verify(duplicateCustomerFilter, times(2)).recordDatabaseLookup(false);
+    }
+
+    @Test
+    void should_let_a_rejected_duplicate_leave_its_other_key_to_a_later_application() {
+        customerRepository.save(customer("123456782", "existing@domain.com"));
+
+        List<BulkItemResult> results = writer.write(List.of(
+                registration(1, "123456782", "shared@domain.com"),
+                registration(2, "111222333", "shared@domain.com")));
+
+        assertThat(results).extracting(BulkItemResult::status)
+                .containsExactly(BulkItemResult.Status.DUPLICATE, BulkItemResult.Status.CREATED);
+        assertThat(customerRepository.findAll()).extracting(Customer::getEmail)
+                .containsExactlyInAnyOrder("existing@domain.com", "shared@domain.com");
+    }
+
+    @Test
+    void should_skip_database_lookup_and_transaction_when_nothing_is_left_to_insert() {
+        when(duplicateCustomerFilter.mightExist(any(), any())).thenReturn(false);
+
+        List<BulkItemResult> results = writer.write(List.of(
+                registration(1, "123456782", "same@domain.com"),
+                registration(2, "111222333", "same@domain.com")));
+
+        assertThat(results).extracting(BulkItemResult::status)
+                .containsExactly(BulkItemResult.Status.CREATED, BulkItemResult.Status.DUPLICATE);
+        assertThat(writer.write(List.of())).isEmpty();
+    }
+
+    @Test
+    void should_write_row_by_row_when_the_batch_hits_a_unique_constraint() {
+        customerRepository.save(customer("123456782", "existing@domain.com"));
+        // the filter has not seen the customer inserted by another instance
+        when(duplicateCustomerFilter.mightExist(any(), any())).thenReturn(false);
+
+        List<BulkItemResult> results = writer.write(List.of(
+                registration(1, "111222333", "first@domain.com"),
+                registration(2, "123456782", "second@domain.com")));
+
+        assertThat(results).extracting(BulkItemResult::status)
+                .containsExactly(BulkItemResult.Status.CREATED, BulkItemResult.Status.DUPLICATE);
+        assertThat(customerRepository.findAll()).extracting(Customer::getEmail)
+                .containsExactlyInAnyOrder("existing@domain.com", "first@domain.com");
+        assertThat(outboxRepository.count()).isEqualTo(1);
+        verify(duplicateCustomerFilter, never()).register("123456782", "second@domain.com");
+    }
+
+    @Test
+    void should_retry_with_another_account_number_when_the_number_is_taken() {
+        Customer existing = customer("123456782", "existing@domain.com");
+        existing.setAccountNumber("NL00ABC0000000001");
+        customerRepository.save(existing);
+
+        List<BulkItemResult> results = writer.write(List.of(registration(1, "111222333", "first@domain.com")));
+
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.status()).isEqualTo(BulkItemResult.Status.CREATED);
+            assertThat(result.accountNumber()).isEqualTo("NL00ABC0000000002");
+        });
+        assertThat(customerRepository.findByAccountNumber("NL00ABC0000000002")).isPresent();
+        assertThat(outboxRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_fail_the_row_when_no_free_account_number_is_found() {
+        Customer existing = customer("123456782", "existing@domain.com");
+        existing.setAccountNumber("NL00ABC0000000001");
+        customerRepository.save(existing);
+        when(accountNumberGenerator.generate()).thenReturn("NL00ABC0000000001");
+
+        List<BulkItemResult> results = writer.write(List.of(registration(1, "111222333", "first@domain.com")));
+
+        assertThat(results).extracting(BulkItemResult::status).containsExactly(BulkItemResult.Status.FAILED);
+        verify(accountNumberGenerator, times(3)).generate();
+        assertThat(customerRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_fail_the_row_instead_of_reporting_a_duplicate_when_another_constraint_is_violated() {
+        BulkRegistration invalid = new BulkRegistration(2, "ref-2", new CustomerOnboardRequest(null, "Jemli",
+                Gender.MALE, LocalDate.of(1985, 5, 15), "+31612345678", "second@domain.com", "NL",
+                "Gustav Mahlerlaan 10, 1082 PP Amsterdam, Netherlands", "111222333"), DOCUMENT, DOCUMENT);
+
+        List<BulkItemResult> results = writer.write(List.of(registration(1, "123456782", "first@domain.com"), invalid));
+
+        assertThat(results).extracting(BulkItemResult::status)
+                .containsExactly(BulkItemResult.Status.CREATED, BulkItemResult.Status.FAILED);
+        assertThat(customerRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_reserve_ids_from_the_customer_sequence_alongside_hibernate() {
+        customerRepository.save(customer("900000001", "before@domain.com"));
+
+        List<BulkRegistration> registrations = IntStream.rangeClosed(1, Customer.ID_ALLOCATION_SIZE + 10)
+                .mapToObj(i -> registration(i, "%09d".formatted(i), "customer" + i + "@domain.com"))
+                .toList();
+        assertThat(writer.write(registrations))
+                .allSatisfy(result -> assertThat(result.status()).isEqualTo(BulkItemResult.Status.CREATED));
+        Customer after = customerRepository.save(customer("900000002", "after@domain.com"));
+
+        List<Long> ids = customerRepository.findAll().stream().map(Customer::getId).toList();
+        assertThat(ids).hasSize(registrations.size() + 2).doesNotHaveDuplicates().contains(after.getId());
+        assertThat(outboxRepository.findAll()).extracting(OutboxNotification::getId)
+                .hasSize(registrations.size()).doesNotHaveDuplicates();
+    }
+
+    private static BulkRegistration registration(long line, String ssn, String email) {
+        return new BulkRegistration(line, "ref-" + line, request(ssn, email), DOCUMENT, DOCUMENT);
+    }
+
+    private static Customer customer(String ssn, String email) {
+        Customer customer = CustomerMapper.toCustomer(request(ssn, email), DOCUMENT, DOCUMENT);
+        customer.setAccountNumber("NL99ABC0" + ssn);
+        return customer;
+    }
+
+    private static CustomerOnboardRequest request(String ssn, String email) {
+        return new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE, LocalDate.of(1985, 5, 15),
+                "+31612345678", email, "NL", "Gustav Mahlerlaan 10, 1082 PP Amsterdam, Netherlands", ssn);
+    }
+}
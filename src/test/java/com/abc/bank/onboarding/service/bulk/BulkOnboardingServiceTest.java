@@ -0,0 +1,299 @@
+package com.abc.bank.onboarding.service.bulk;
+
+import com.abc.bank.onboarding.dto.BulkItemResult;
+import com.abc.bank.onboarding.exception.BulkRequestTooLargeException;
+import com.abc.bank.onboarding.exception.DocumentStorageException;
+import com.abc.bank.onboarding.exception.ValidationException;
+import com.abc.bank.onboarding.service.storage.DocumentIngestionService;
+import com.abc.bank.onboarding.service.storage.DocumentStore;
+import com.abc.bank.onboarding.service.storage.DocumentStoreProperties;
+import com.abc.bank.onboarding.service.validation.DocumentLimitsProperties;
+import com.abc.bank.onboarding.service.validation.FileValidationService;
+import com.abc.bank.onboarding.service.validation.CustomerOnboardRequestValidator;
+import com.abc.bank.onboarding.service.validation.RequestValidationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+import utils.TestDocuments;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static jakarta.validation.Validation.buildDefaultValidatorFactory;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkOnboardingServiceTest {
+
+    private static final byte[] PNG = TestDocuments.png(64, 1);
+    private static final byte[] PDF = TestDocuments.pdf(600, 1);
+
+    @TempDir
+    private Path directory;
+
+    private DocumentStore documentStore;
+    private FileValidationService fileValidationService;
+    private DocumentIngestionService ingestionService;
+    private BulkCustomerWriter writer;
+    private SimpleMeterRegistry meterRegistry;
+    private BulkOnboardingService service;
+
+    @BeforeEach
+    void setUp() {
+        documentStore = new DocumentStore(new DocumentStoreProperties(directory, DataSize.ofMegabytes(16), false));
+        documentStore.open();
+        writer = mock(BulkCustomerWriter.class);
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            List<BulkRegistration> registrations = invocation.getArgument(0);
+            return registrations.stream()
+                    .map(registration -> BulkItemResult.created(registration.line(), registration.reference(),
+                            "NL00ABC000000000" + registration.line()))
+                    .toList();
+        });
+        fileValidationService = new FileValidationService(
+                new DocumentLimitsProperties(10_000, 10_000, DataSize.ofMegabytes(128), 64, 10));
+        ingestionService = spy(new DocumentIngestionService(documentStore, fileValidationService));
+        meterRegistry = new SimpleMeterRegistry();
+        service = service(2, DataSize.ofMegabytes(64), DataSize.ofKilobytes(2), DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        documentStore.close();
+    }
+
+    @Test
+    void should_onboard_inline_applications_and_report_each_line_in_order() throws Exception {
+        String manifest = String.join("\n",
+                application("ref-1", "123456782", "first@domain.com", inline(PDF, "application/pdf"), inline(PNG, "image/png")),
+                "",
+                "not json",
+                application("ref-4", "123456789", "second@domain.com", inline(PDF, "application/pdf"), inline(PNG, "image/png")),
+                application("ref-5", "111222333", "third@domain.com", inline(PDF, "application/pdf"), null),
+                "{\"reference\":\"ref-6\",\"customer\":{\"firstName\":\"Seif\"}}\r",
+                "{\"reference\":\"ref-7\"}",
+                "{\"padding\":\"" + "x".repeat(2048) + "\"}");
+
+        List<List<BulkItemResult>> chunks = process(manifest.getBytes(StandardCharsets.UTF_8), BulkFormat.NDJSON);
+
+        List<BulkItemResult> results = chunks.stream().flatMap(List::stream).toList();
+        assertThat(results).extracting(BulkItemResult::line).containsExactly(1L, 3L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(results.get(0)).isEqualTo(BulkItemResult.created(1, "ref-1", "NL00ABC0000000001"));
+        assertThat(results.get(1).status()).isEqualTo(BulkItemResult.Status.REJECTED);
+        assertThat(results.get(1).message()).startsWith("Malformed application");
+        assertThat(results.get(2).message()).isEqualTo("socialSecurityNumber: Invalid BSN number");
+        assertThat(results.get(3).message()).isEqualTo("photo missing or empty");
+        assertThat(results.get(4).reference()).isEqualTo("ref-6");
+        assertThat(results.get(4).status()).isEqualTo(BulkItemResult.Status.REJECTED);
+        assertThat(results.get(5).message()).isEqualTo("customer missing");
+        assertThat(results.get(6).message()).isEqualTo("Application exceeds 2048 characters");
+        // two lines per chunk
+        assertThat(chunks).hasSize(4);
+        assertThat(meterRegistry.get("onboarding.bulk.items").tag("status", "CREATED").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("onboarding.bulk.items").tag("status", "REJECTED").counter().count()).isEqualTo(6);
+
+        ArgumentCaptor<List<BulkRegistration>> registrations = ArgumentCaptor.captor();
+        verify(writer, atLeastOnce()).write(registrations.capture());
+        BulkRegistration registration = registrations.getAllValues().stream().flatMap(List::stream).findFirst().orElseThrow();
+        assertThat(registration.customer().email()).isEqualTo("first@domain.com");
+        assertThat(registration.photo().getContentType()).isEqualTo("image/png");
+        assertThat(documentStore.read(registration.idProof().getDigest())).isEqualTo(PDF);
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_read_documents_from_the_zip_archive() throws Exception {
+        byte[] archive = zip(Map.of(
+                BulkArchive.MANIFEST_ENTRY, String.join("\n",
+                        application("ref-1", "123456782", "first@domain.com",
+                                file("docs/id.pdf", "application/pdf"), file("docs/photo.png", "image/png")),
+                        application("ref-2", "111222333", "second@domain.com",
+                                file("docs/missing.pdf", "application/pdf"), file("docs/photo.png", "image/png")),
+                        application("ref-3", "123456789", "third@domain.com",
+                                inline(PDF, "application/pdf"), file("docs", "image/png"))).getBytes(StandardCharsets.UTF_8),
+                "docs/id.pdf", PDF,
+                "docs/photo.png", PNG));
+
+        List<BulkItemResult> results = process(archive, BulkFormat.ZIP).stream().flatMap(List::stream).toList();
+
+        assertThat(results).extracting(BulkItemResult::status).containsExactly(BulkItemResult.Status.CREATED,
+                BulkItemResult.Status.REJECTED, BulkItemResult.Status.REJECTED);
+        assertThat(results.get(1).message()).isEqualTo("idProof file docs/missing.pdf not found in the archive");
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_reject_file_references_in_an_ndjson_manifest() throws Exception {
+        String manifest = application("ref-1", "123456782", "first@domain.com",
+                file("docs/id.pdf", "application/pdf"), inline(PNG, "image/png"));
+
+        List<BulkItemResult> results = process(manifest.getBytes(StandardCharsets.UTF_8), BulkFormat.NDJSON).get(0);
+
+        assertThat(results.get(0).message()).isEqualTo("idProof must be inline, an NDJSON request carries no files");
+    }
+
+    @Test
+    void should_fail_items_of_a_chunk_the_writer_could_not_insert() throws Exception {
+        when(writer.write(anyList())).thenThrow(new IllegalStateException("DB down"));
+        String manifest = application("ref-1", "123456782", "first@domain.com",
+                inline(PDF, "application/pdf"), inline(PNG, "image/png"));
+
+        List<BulkItemResult> results = process(manifest.getBytes(StandardCharsets.UTF_8), BulkFormat.NDJSON).get(0);
+
+        assertThat(results).containsExactly(BulkItemResult.failed(1, "ref-1"));
+    }
+
+    @Test
+    void should_fail_an_item_whose_documents_cannot_be_stored() throws Exception {
+        doThrow(new DocumentStorageException("disk full", new IOException("disk full")))
+                .when(ingestionService).ingest(any(InputStream.class), eq("application/pdf"), eq("idProof"));
+        String manifest = application("ref-1", "123456782", "first@domain.com",
+                inline(PDF, "application/pdf"), inline(PNG, "image/png"));
+
+        List<BulkItemResult> results = process(manifest.getBytes(StandardCharsets.UTF_8), BulkFormat.NDJSON).get(0);
+
+        assertThat(results).containsExactly(BulkItemResult.failed(1, "ref-1"));
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_refuse_a_body_that_is_not_a_zip_archive_and_delete_its_spool_file() throws Exception {
+        assertThrows(ValidationException.class,
+                () -> service.spool(new ByteArrayInputStream("not a zip".getBytes()), BulkFormat.ZIP));
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_refuse_a_zip_archive_without_manifest() throws Exception {
+        byte[] archive = zip(Map.of("docs/id.pdf", PDF));
+
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> service.spool(new ByteArrayInputStream(archive), BulkFormat.ZIP));
+        assertThat(ex.getMessage()).isEqualTo("Bulk archive has no manifest.ndjson entry");
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_refuse_a_body_that_cannot_be_spooled() throws Exception {
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("client went away");
+            }
+        };
+
+        assertThrows(DocumentStorageException.class,
+                () -> service.spool(broken, BulkFormat.NDJSON));
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_refuse_a_body_larger_than_the_limit_and_delete_its_spool_file() throws Exception {
+        service.shutdown();
+        service = service(2, DataSize.ofMegabytes(64), DataSize.ofKilobytes(2), DataSize.ofKilobytes(100));
+        byte[] body = new byte[100 * 1024 + 1];
+
+        BulkRequestTooLargeException ex = assertThrows(BulkRequestTooLargeException.class,
+                () -> service.spool(new ByteArrayInputStream(body), BulkFormat.NDJSON));
+        assertThat(ex.getMessage()).isEqualTo("Bulk request too large: the body is limited to 102400 bytes");
+        assertThat(stagingFiles()).isEmpty();
+
+        service.spool(new ByteArrayInputStream(body, 0, body.length - 1), BulkFormat.NDJSON).close();
+    }
+
+    @Test
+    void should_cut_chunks_on_their_size_as_well_as_their_count() throws Exception {
+        String line = application("ref", "123456782", "first@domain.com", null, null);
+        String manifest = String.join("\n", Stream.generate(() -> line).limit(5).toList());
+        service.shutdown();
+        service = service(100, DataSize.ofBytes(line.length() * 2L), DataSize.ofKilobytes(8), DataSize.ofMegabytes(1));
+
+        List<List<BulkItemResult>> chunks = process(manifest.getBytes(StandardCharsets.UTF_8), BulkFormat.NDJSON);
+
+        assertThat(chunks).extracting(List::size).containsExactly(2, 2, 1);
+    }
+
+    private BulkOnboardingService service(int batchSize, DataSize maxChunkSize, DataSize maxLineLength,
+                                          DataSize maxBodySize) {
+        Validator validator = buildDefaultValidatorFactory().getValidator();
+        return new BulkOnboardingService(new RequestValidationService(validator,
+                new CustomerOnboardRequestValidator(validator)),
+                fileValidationService, ingestionService, documentStore, writer, JsonMapper.builder().build(),
+                new BulkOnboardingProperties(batchSize, 2, maxChunkSize, maxLineLength, maxBodySize),
+                meterRegistry, new MockEnvironment());
+    }
+
+    private List<List<BulkItemResult>> process(byte[] body, BulkFormat format) throws IOException {
+        List<List<BulkItemResult>> chunks = new ArrayList<>();
+        try (BulkArchive archive = service.spool(new ByteArrayInputStream(body), format)) {
+            service.process(archive, chunks::add);
+        }
+        return chunks;
+    }
+
+    private static String application(String reference, String ssn, String email, String idProof, String photo) {
+        return """
+                {"reference":"%s","customer":{"firstName":"Seif","lastName":"Jemli","gender":"MALE",\
+                "dateOfBirth":"1985-05-15","phoneNumber":"+31612345678","email":"%s","nationality":"NL",\
+                "residentialAddress":"Gustav Mahlerlaan 10","socialSecurityNumber":"%s"},\
+                "idProof":%s,"photo":%s}""".formatted(reference, email, ssn, idProof, photo);
+    }
+
+    private static String inline(byte[] content, String contentType) {
+        return "{\"contentType\":\"%s\",\"content\":\"%s\"}"
+                .formatted(contentType, Base64.getEncoder().encodeToString(content));
+    }
+
+    private static String file(String path, String contentType) {
+        return "{\"contentType\":\"%s\",\"file\":\"%s\"}".formatted(contentType, path);
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+            zip.putNextEntry(new ZipEntry("docs/"));
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<Path> stagingFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("staging"))) {
+            return files.toList();
+        }
+    }
+}
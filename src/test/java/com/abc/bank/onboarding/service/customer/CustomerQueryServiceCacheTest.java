@@ -0,0 +1,102 @@
+package com.abc.bank.onboarding.service.customer;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.DocumentType;
+import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.exception.CustomerNotFoundException;
+import com.abc.bank.onboarding.mapper.CustomerMapper;
+import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase
+class CustomerQueryServiceCacheTest {
+
+    private static final String ACCOUNT_NUMBER = "NL12YYYY012345678";
+
+    @Autowired
+    private CustomerQueryService customerQueryService;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @MockitoSpyBean
+    private CustomerRepository customerRepository;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        customer = CustomerMapper.toCustomer(new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE,
+                        LocalDate.of(1985, 5, 15), "+31612345678", "seif.jemli@domain.com", "NL", "Amsterdam",
+                        "123456782"),
+                new DocumentReference("a".repeat(64), 1024, "application/pdf"),
+                new DocumentReference("b".repeat(64), 2048, "image/png"));
+        customer.setAccountNumber(ACCOUNT_NUMBER);
+        customer = customerRepository.save(customer);
+        Mockito.clearInvocations(customerRepository);
+    }
+
+    @Test
+    void should_serve_repeated_lookups_from_cache_and_publish_hit_rate() {
+        double hitsBefore = gets(CustomerQueryService.DETAILS_CACHE, "hit");
+
+        customerQueryService.find(ACCOUNT_NUMBER);
+        customerQueryService.find(ACCOUNT_NUMBER);
+        customerQueryService.findDocument(ACCOUNT_NUMBER, DocumentType.PHOTO);
+        customerQueryService.findDocument(ACCOUNT_NUMBER, DocumentType.PHOTO);
+
+        verify(customerRepository, times(1)).findDetailsByAccountNumber(ACCOUNT_NUMBER);
+        verify(customerRepository, times(1)).findPhotoByAccountNumber(ACCOUNT_NUMBER);
+        assertThat(gets(CustomerQueryService.DETAILS_CACHE, "hit")).isEqualTo(hitsBefore + 1);
+        assertThat(meterRegistry.get("cache.evictions").tag("cache", CustomerQueryService.DETAILS_CACHE)
+                .functionCounter()).isNotNull();
+    }
+
+    @Test
+    void should_evict_cached_views_when_customer_is_updated() {
+        customerQueryService.find(ACCOUNT_NUMBER);
+        customerQueryService.findDocument(ACCOUNT_NUMBER, DocumentType.ID_PROOF);
+
+        customer.setEmail("seif@domain.com");
+        customer.setIdProof(new DocumentReference("c".repeat(64), 512, "application/pdf"));
+        customerRepository.saveAndFlush(customer);
+
+        assertThat(customerQueryService.find(ACCOUNT_NUMBER).email()).isEqualTo("seif@domain.com");
+        assertThat(customerQueryService.findDocument(ACCOUNT_NUMBER, DocumentType.ID_PROOF).getDigest())
+                .isEqualTo("c".repeat(64));
+    }
+
+    @Test
+    void should_not_cache_unknown_account_numbers() {
+        assertThrows(CustomerNotFoundException.class, () -> customerQueryService.find("NL00YYYY000000000"));
+        assertThrows(CustomerNotFoundException.class, () -> customerQueryService.find("NL00YYYY000000000"));
+
+        verify(customerRepository, times(2)).findDetailsByAccountNumber("NL00YYYY000000000");
+    }
+
+    private double gets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,107 @@
+package com.abc.bank.onboarding.service.customer;
+
+import com.abc.bank.onboarding.dto.CustomerDetails;
+import com.abc.bank.onboarding.dto.CustomerPage;
+import com.abc.bank.onboarding.dto.CustomerSummary;
+import com.abc.bank.onboarding.dto.DocumentType;
+import com.abc.bank.onboarding.dto.Gender;
+import com.abc.bank.onboarding.exception.CustomerNotFoundException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.repository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerQueryServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @InjectMocks
+    private CustomerQueryService customerQueryService;
+
+    @Test
+    void should_return_customer_details_when_account_exists() {
+        CustomerDetails details = new CustomerDetails("NL12YYYY012345678", "Seif", "Jemli", Gender.MALE,
+                LocalDate.of(1985, 5, 15), "+31612345678", "seif.jemli@domain.com", "NL", "Amsterdam");
+        when(customerRepository.findDetailsByAccountNumber("NL12YYYY012345678")).thenReturn(Optional.of(details));
+
+        assertThat(customerQueryService.find("NL12YYYY012345678")).isEqualTo(details);
+    }
+
+    @Test
+    void should_throw_not_found_when_account_is_unknown() {
+        when(customerRepository.findDetailsByAccountNumber("NL12YYYY012345678")).thenReturn(Optional.empty());
+
+        assertThrows(CustomerNotFoundException.class, () -> customerQueryService.find("NL12YYYY012345678"));
+    }
+
+    @Test
+    void should_return_requested_document_reference() {
+        DocumentReference idProof = new DocumentReference("a".repeat(64), 1024, "application/pdf");
+        DocumentReference photo = new DocumentReference("b".repeat(64), 2048, "image/png");
+        when(customerRepository.findIdProofByAccountNumber("NL12YYYY012345678")).thenReturn(Optional.of(idProof));
+        when(customerRepository.findPhotoByAccountNumber("NL12YYYY012345678")).thenReturn(Optional.of(photo));
+
+        assertThat(customerQueryService.findDocument("NL12YYYY012345678", DocumentType.ID_PROOF)).isEqualTo(idProof);
+        assertThat(customerQueryService.findDocument("NL12YYYY012345678", DocumentType.PHOTO)).isEqualTo(photo);
+    }
+
+    @Test
+    void should_throw_not_found_when_document_owner_is_unknown() {
+        when(customerRepository.findPhotoByAccountNumber("NL00YYYY000000000")).thenReturn(Optional.empty());
+
+        assertThrows(CustomerNotFoundException.class,
+                () -> customerQueryService.findDocument("NL00YYYY000000000", DocumentType.PHOTO));
+    }
+
+    @Test
+    void should_return_next_cursor_when_more_customers_follow() {
+        when(customerRepository.findSummariesAfter(10, Limit.of(3))).thenReturn(summaries(11, 13));
+
+        CustomerPage page = customerQueryService.list(10, 2);
+
+        assertThat(page.customers()).extracting(CustomerSummary::id).containsExactly(11L, 12L);
+        assertThat(page.next()).isEqualTo(12L);
+    }
+
+    @Test
+    void should_return_no_cursor_on_last_page() {
+        when(customerRepository.findSummariesAfter(10, Limit.of(3))).thenReturn(summaries(11, 12));
+
+        CustomerPage page = customerQueryService.list(10, 2);
+
+        assertThat(page.customers()).hasSize(2);
+        assertThat(page.next()).isNull();
+    }
+
+    @Test
+    void should_clamp_page_size_when_out_of_bounds() {
+        when(customerRepository.findSummariesAfter(0, Limit.of(2))).thenReturn(List.of());
+        when(customerRepository.findSummariesAfter(0, Limit.of(CustomerQueryService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        assertThat(customerQueryService.list(0, 0).customers()).isEmpty();
+        assertThat(customerQueryService.list(0, 10_000).customers()).isEmpty();
+    }
+
+    private static List<CustomerSummary> summaries(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(id -> new CustomerSummary(id, "NL12YYYY0123456" + id, "Seif", "Jemli",
+                        "customer" + id + "@domain.com"))
+                .toList();
+    }
+}
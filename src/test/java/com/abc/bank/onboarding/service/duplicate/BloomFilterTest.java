@@ -0,0 +1,56 @@
+package com.abc.bank.onboarding.service.duplicate;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BloomFilterTest {
+
+    @Test
+    void should_never_report_an_inserted_key_as_absent() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("ssn:" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("ssn:" + i)).isTrue();
+        }
+        assertThat(filter.insertions()).isEqualTo(10_000);
+    }
+
+    @Test
+    void should_keep_false_positive_rate_close_to_target_when_full() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("ssn:" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("email:unknown" + i + "@domain.com")) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.02);
+        assertThat(filter.fillRatio()).isBetween(0.4, 0.6);
+    }
+
+    @Test
+    void should_report_everything_absent_when_empty() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertThat(filter.mightContain("ssn:123456782")).isFalse();
+        assertThat(filter.fillRatio()).isZero();
+        assertThat(filter.expectedFalsePositiveRate()).isZero();
+    }
+
+    @Test
+    void should_reject_invalid_sizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+}
@@ -0,0 +1,97 @@
+package com.abc.bank.onboarding.service.duplicate;
+
+import com.abc.bank.onboarding.repository.CustomerRepository;
+import com.abc.bank.onboarding.repository.DuplicateKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DuplicateCustomerFilterTest {
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private DuplicateCustomerFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = newFilter(true);
+        when(customerRepository.streamDuplicateKeys())
+                .thenReturn(Stream.of(key("123456782", "Seif.Jemli@Domain.com ")));
+    }
+
+    @Test
+    void should_report_possible_duplicate_until_warmed_up() {
+        assertThat(filter.mightExist("965575238", "new@domain.com")).isTrue();
+        assertThat(filter.stats().ready()).isFalse();
+    }
+
+    @Test
+    void should_rule_out_unknown_keys_after_warm_up() {
+        filter.warmUp();
+
+        assertThat(filter.mightExist("965575238", "new@domain.com")).isFalse();
+        assertThat(filter.stats().skippedLookups()).isEqualTo(1);
+    }
+
+    @Test
+    void should_flag_known_ssn_or_normalized_email_after_warm_up() {
+        filter.warmUp();
+
+        assertThat(filter.mightExist("123456782", "other@domain.com")).isTrue();
+        assertThat(filter.mightExist("965575238", "seif.jemli@domain.com")).isTrue();
+        assertThat(filter.stats().databaseLookups()).isEqualTo(2);
+    }
+
+    @Test
+    void should_flag_keys_registered_after_warm_up() {
+        filter.warmUp();
+        filter.register("965575238", "new@domain.com");
+
+        assertThat(filter.mightExist("965575238", "another@domain.com")).isTrue();
+    }
+
+    @Test
+    void should_count_false_positives_confirmed_by_database() {
+        filter.warmUp();
+        filter.recordDatabaseLookup(false);
+        filter.recordDatabaseLookup(true);
+
+        DuplicateFilterStats stats = filter.stats();
+        assertThat(stats.falsePositives()).isEqualTo(1);
+        assertThat(stats.insertions()).isEqualTo(2);
+        assertThat(stats.fillRatio()).isPositive();
+    }
+
+    @Test
+    void should_always_go_to_database_when_disabled() {
+        DuplicateCustomerFilter disabled = newFilter(false);
+        disabled.warmUp();
+
+        assertThat(disabled.mightExist("965575238", "new@domain.com")).isTrue();
+        assertThat(disabled.stats().ready()).isFalse();
+    }
+
+    private DuplicateCustomerFilter newFilter(boolean enabled) {
+        return new DuplicateCustomerFilter(new DuplicateFilterProperties(enabled, 1_000, 0.01),
+                customerRepository, new SimpleMeterRegistry());
+    }
+
+    private static DuplicateKey key(String ssn, String email) {
+        return new DuplicateKey() {
+            @Override
+            public String getSocialSecurityNumber() {
+                return ssn;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.abc.bank.onboarding.service.generator;
+
+import com.abc.bank.onboarding.exception.AccountNumberGenerationException;
+import com.abc.bank.onboarding.model.AccountNumberBlock;
+import com.abc.bank.onboarding.repository.AccountNumberBlockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import(AccountNumberBlockAllocator.class)
+@TestPropertySource(properties = "onboarding.account-number.block-size=100")
+// the allocator commits in its own transaction, the test data must be committed as well
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountNumberBlockAllocatorTest {
+
+    @Autowired
+    private AccountNumberBlockAllocator allocator;
+    @Autowired
+    private AccountNumberBlockRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void should_reserve_consecutive_non_overlapping_blocks() {
+        AccountNumberRange first = allocator.reserve();
+        AccountNumberRange second = allocator.reserve();
+
+        assertThat(first.next()).isEqualTo(100);
+        assertThat(second.next()).isEqualTo(200);
+        assertThat(repository.findById(AccountNumberBlockAllocator.ALLOCATOR_NAME))
+                .get().extracting(AccountNumberBlock::getNextValue).isEqualTo(300L);
+    }
+
+    @Test
+    void should_continue_after_issued_numbers_when_block_size_changes() {
+        AccountNumberRange first = allocator.reserve();
+        ReflectionTestUtils.setField(allocator, "blockSize", 10L);
+        try {
+            AccountNumberRange smaller = allocator.reserve();
+            ReflectionTestUtils.setField(allocator, "blockSize", 1000L);
+            AccountNumberRange larger = allocator.reserve();
+
+            assertThat(first.next()).isEqualTo(100);
+            assertThat(smaller.next()).isEqualTo(200);
+            assertThat(larger.next()).isEqualTo(210);
+            assertThat(repository.findById(AccountNumberBlockAllocator.ALLOCATOR_NAME))
+                    .get().extracting(AccountNumberBlock::getNextValue).isEqualTo(1210L);
+        } finally {
+            ReflectionTestUtils.setField(allocator, "blockSize", 100L);
+        }
+    }
+
+    @Test
+    void should_fail_when_account_number_space_is_exhausted() {
+        repository.save(new AccountNumberBlock(AccountNumberBlockAllocator.ALLOCATOR_NAME,
+                AccountNumberBlockAllocator.ACCOUNT_NUMBER_SPACE - 99));
+
+        assertThrows(AccountNumberGenerationException.class, () -> allocator.reserve());
+    }
+}
@@ -1,17 +1,47 @@
 package com.abc.bank.onboarding.service.generator;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 
 class AccountNumberGeneratorTest {
 
-    private final AccountNumberGenerator generator = new AccountNumberGenerator();
+    private static final long BLOCK_SIZE = 10;
+
+    private final AccountNumberBlockAllocator allocator = mock(AccountNumberBlockAllocator.class);
+    private final AtomicLong nextBlock = new AtomicLong(1);
+    private final Queue<Runnable> prefetches = new ArrayDeque<>();
+    private AccountNumberGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        when(allocator.reserve()).thenAnswer(invocation -> {
+            long start = nextBlock.getAndIncrement() * BLOCK_SIZE;
+            return new AccountNumberRange(start, start + BLOCK_SIZE);
+        });
+        // prefetches only run when a test drains them
+        generator = new AccountNumberGenerator(allocator, prefetches::add);
+    }
 
     @Test
     void should_generate_valid_iban_format() {
@@ -39,4 +69,117 @@ class AccountNumberGeneratorTest {
         String iban2 = generator.generate();
         assertNotEquals(iban1, iban2);
     }
+
+    @Test
+    void should_compute_iso_13616_check_digits() {
+        assertEquals("91", AccountNumberGenerator.checkDigits("ABNA0417164300"));
+        assertEquals("44", AccountNumberGenerator.checkDigits("RABO0123456789"));
+
+        String iban = generator.generate();
+        String rearranged = iban.substring(4) + iban.substring(0, 4);
+        assertEquals(1, AccountNumberGenerator.mod97(rearranged));
+    }
+
+    @Test
+    void should_hand_out_the_reserved_block_before_reserving_the_next_one() {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            assertEquals(AccountNumberGenerator.toIban(BLOCK_SIZE + i), generator.generate());
+        }
+        verify(allocator, times(1)).reserve();
+
+        assertEquals(AccountNumberGenerator.toIban(2 * BLOCK_SIZE), generator.generate());
+        verify(allocator, times(2)).reserve();
+    }
+
+    @Test
+    void should_never_hand_out_the_same_number_twice_under_contention() throws InterruptedException {
+        Set<String> generated = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 2_000; i++) {
+                executor.submit(() -> generated.add(generator.generate()));
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        assertEquals(2_000, generated.size());
+    }
+
+    @Test
+    void should_hand_out_every_block_reserved_in_advance_under_contention() throws InterruptedException {
+        Set<Long> reserved = ConcurrentHashMap.newKeySet();
+        when(allocator.reserve()).thenAnswer(invocation -> {
+            long start = nextBlock.getAndIncrement() * BLOCK_SIZE;
+            reserved.add(start);
+            return new AccountNumberRange(start, start + BLOCK_SIZE);
+        });
+        Set<Long> handedOutBlocks = ConcurrentHashMap.newKeySet();
+        try (ExecutorService prefetchExecutor = Executors.newCachedThreadPool()) {
+            generator = new AccountNumberGenerator(allocator, prefetchExecutor);
+            try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+                for (int i = 0; i < 20_000; i++) {
+                    executor.submit(() -> {
+                        String iban = generator.generate();
+                        long number = Long.parseLong(iban.substring(7));
+                        handedOutBlocks.add(number - number % BLOCK_SIZE);
+                    });
+                }
+                executor.shutdown();
+                assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            }
+            prefetchExecutor.shutdown();
+            assertTrue(prefetchExecutor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        // only the block waiting for the current one to run out may not be handed out yet
+        reserved.removeAll(handedOutBlocks);
+        assertTrue(reserved.size() <= 1, () -> "blocks reserved but never handed out: " + reserved);
+    }
+
+    @Test
+    void should_switch_to_the_block_reserved_in_advance_once_half_of_the_current_one_is_used() {
+        for (int i = 0; i < BLOCK_SIZE / 2 + 1; i++) {
+            generator.generate();
+        }
+        assertEquals(1, prefetches.size());
+        prefetches.remove().run();
+        verify(allocator, times(2)).reserve();
+
+        for (int i = 0; i < BLOCK_SIZE / 2 - 1; i++) {
+            generator.generate();
+        }
+        assertEquals(AccountNumberGenerator.toIban(2 * BLOCK_SIZE), generator.generate());
+        verify(allocator, times(2)).reserve();
+    }
+
+    @Test
+    void should_reserve_the_first_block_when_the_application_is_ready() {
+        generator.warmUp();
+        generator.warmUp();
+        assertEquals(1, prefetches.size());
+
+        prefetches.remove().run();
+
+        assertEquals(AccountNumberGenerator.toIban(BLOCK_SIZE), generator.generate());
+        verify(allocator, times(1)).reserve();
+    }
+
+    @Test
+    void should_reserve_synchronously_when_the_reservation_in_advance_failed() {
+        when(allocator.reserve())
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(new AccountNumberRange(BLOCK_SIZE, 2 * BLOCK_SIZE));
+        generator.warmUp();
+        prefetches.remove().run();
+
+        assertEquals(AccountNumberGenerator.toIban(BLOCK_SIZE), generator.generate());
+    }
+
+    @Test
+    void should_retry_reservation_when_the_allocator_row_was_created_concurrently() {
+        when(allocator.reserve())
+                .thenThrow(new DataIntegrityViolationException("duplicate allocator row"))
+                .thenReturn(new AccountNumberRange(BLOCK_SIZE, 2 * BLOCK_SIZE));
+
+        assertEquals(AccountNumberGenerator.toIban(BLOCK_SIZE), generator.generate());
+    }
 }
@@ -0,0 +1,74 @@
+package com.abc.bank.onboarding.service.notification;
+
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class EmailSenderTest {
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @InjectMocks
+    private EmailSender emailSender;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void should_send_email_when_fromEmail_is_configured() throws Exception {
+        ReflectionTestUtils.setField(emailSender, "fromEmail", "test@gmail.com");
+        MimeMessage mimeMessage = mock(MimeMessage.class);
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+
+        emailSender.send("seif@domain.com", "Subject", "Test message");
+
+        verify(mailSender).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void should_log_warning_when_FromEmail_is_null() throws Exception {
+        ReflectionTestUtils.setField(emailSender, "fromEmail", null);
+
+        emailSender.send("seif@domain.com", "Subject", "Test message");
+
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    void should_log_warning_when_FromEmail_is_blank() throws Exception {
+        ReflectionTestUtils.setField(emailSender, "fromEmail", "");
+
+        emailSender.send("seif@domain.com", "Subject", "Test message");
+
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    void should_propagate_exception_when_send_email_fails() {
+        ReflectionTestUtils.setField(emailSender, "fromEmail", "test@gmail.com");
+        MimeMessage mimeMessage = mock(MimeMessage.class);
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        doThrow(new MailAuthenticationException("Test exception"))
+                .when(mailSender).send(any(MimeMessage.class));
+
+        assertThrows(MailAuthenticationException.class,
+                () -> emailSender.send("seif@domain.com", "Subject", "Test message"));
+    }
+}
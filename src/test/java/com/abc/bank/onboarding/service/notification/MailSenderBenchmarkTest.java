@@ -0,0 +1,92 @@
+package com.abc.bank.onboarding.service.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.mail.autoconfigure.MailProperties;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import utils.FakeSmtpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sends the same load through the default sender (one connection per message) and the pooled one, against a fake
+ * server whose connection setup costs {@link #CONNECTION_SETUP_MILLIS} like a TLS handshake to a remote server.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class MailSenderBenchmarkTest {
+
+    private static final long CONNECTION_SETUP_MILLIS = 20;
+    private static final int MESSAGES = 400;
+    private static final int THREADS = 4;
+
+    @Test
+    void should_send_faster_with_pooled_connections() throws Exception {
+        try (FakeSmtpServer server = new FakeSmtpServer(CONNECTION_SETUP_MILLIS)) {
+            JavaMailSenderImpl defaultSender = new JavaMailSenderImpl();
+            defaultSender.setHost("localhost");
+            defaultSender.setPort(server.port());
+            double defaultThroughput = run("default", defaultSender, server);
+            int defaultConnections = server.connections();
+
+            MailProperties mailProperties = new MailProperties();
+            mailProperties.setHost("localhost");
+            mailProperties.setPort(server.port());
+            try (PooledMailSender pooledSender = new PooledMailSender(mailProperties,
+                    new SmtpPoolProperties(true, THREADS, 100, Duration.ofSeconds(30), Duration.ofSeconds(30)),
+                    new SimpleMeterRegistry())) {
+                double pooledThroughput = run("pooled", pooledSender, server);
+
+                assertThat(server.connections() - defaultConnections).isLessThanOrEqualTo(MESSAGES / 100 + THREADS);
+                assertThat(pooledThroughput).isGreaterThan(defaultThroughput);
+            }
+        }
+    }
+
+    private static double run(String name, JavaMailSender sender, FakeSmtpServer server) throws Exception {
+        int connectionsBefore = server.connections();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> sends = new ArrayList<>(MESSAGES);
+            for (int i = 0; i < MESSAGES; i++) {
+                String recipient = "customer" + i + "@domain.com";
+                sends.add(executor.submit(() -> {
+                    sender.send(message(sender, recipient));
+                    return null;
+                }));
+            }
+            for (Future<?> send : sends) {
+                send.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double throughput = MESSAGES / seconds;
+        System.out.printf("%-8s %5d messages in %6.2f s: %8.1f msg/s, %4d connections%n",
+                name, MESSAGES, seconds, throughput, server.connections() - connectionsBefore);
+        return throughput;
+    }
+
+    private static MimeMessage message(JavaMailSender sender, String recipient) throws Exception {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setFrom("bank@domain.com");
+        helper.setTo(recipient);
+        helper.setSubject("ABC Bank Onboarding Successful");
+        helper.setText("Your account has been created successfully!", false);
+        return message;
+    }
+}
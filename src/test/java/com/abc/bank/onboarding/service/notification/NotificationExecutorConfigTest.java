@@ -0,0 +1,94 @@
+package com.abc.bank.onboarding.service.notification;
+
+import com.abc.bank.onboarding.service.notification.NotificationExecutorProperties.RejectionPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.abc.bank.onboarding.service.notification.NotificationOutboxDispatcherTest.awaitActive;
+import static com.abc.bank.onboarding.service.notification.NotificationOutboxDispatcherTest.awaitQuietly;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NotificationExecutorConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void should_run_task_on_caller_thread_when_saturated_with_caller_runs() throws Exception {
+        saturate(RejectionPolicy.CALLER_RUNS);
+        List<String> threads = new CopyOnWriteArrayList<>();
+
+        executor.execute(() -> threads.add(Thread.currentThread().getName()));
+
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+        assertThat(rejections()).isEqualTo(1);
+    }
+
+    @Test
+    void should_drop_oldest_queued_task_when_saturated_with_drop_oldest() throws Exception {
+        saturate(RejectionPolicy.DROP_OLDEST);
+        List<String> ran = new CopyOnWriteArrayList<>();
+        executor.execute(() -> ran.add("newest"));
+
+        release.countDown();
+        executor.getThreadPoolExecutor().shutdown();
+        executor.getThreadPoolExecutor().awaitTermination(1, TimeUnit.SECONDS);
+
+        assertThat(ran).containsExactly("newest");
+        assertThat(rejections()).isEqualTo(1);
+    }
+
+    @Test
+    void should_refuse_task_when_saturated_with_spill_to_disk() throws Exception {
+        saturate(RejectionPolicy.SPILL_TO_DISK);
+
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> {
+        }));
+        assertThat(rejections()).isEqualTo(1);
+    }
+
+    @Test
+    void should_publish_queue_depth_active_threads_and_latency() throws Exception {
+        saturate(RejectionPolicy.CALLER_RUNS);
+
+        assertThat(meterRegistry.get("onboarding.notification.executor.queue.depth").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("onboarding.notification.executor.active").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        executor.getThreadPoolExecutor().shutdown();
+        executor.getThreadPoolExecutor().awaitTermination(1, TimeUnit.SECONDS);
+        assertThat(meterRegistry.get("onboarding.notification.executor.task.latency").timer().count()).isEqualTo(2);
+    }
+
+    //one busy thread and one queued task
+    private void saturate(RejectionPolicy policy) throws InterruptedException {
+        executor = new NotificationExecutorConfig().notificationExecutor(
+                new NotificationExecutorProperties(1, 1, 1, policy), meterRegistry, new MockEnvironment());
+        executor.initialize();
+        executor.execute(() -> awaitQuietly(release));
+        awaitActive(executor, 1);
+        executor.execute(() -> {
+        });
+    }
+
+    private double rejections() {
+        return meterRegistry.get("onboarding.notification.executor.rejections").counter().count();
+    }
+}
@@ -0,0 +1,191 @@
+package com.abc.bank.onboarding.service.notification;
+
+import com.abc.bank.onboarding.model.NotificationStatus;
+import com.abc.bank.onboarding.model.OutboxNotification;
+import com.abc.bank.onboarding.repository.OutboxNotificationRepository;
+import com.abc.bank.onboarding.service.notification.NotificationExecutorProperties.RejectionPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailSendException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class NotificationOutboxDispatcherTest {
+
+    private final NotificationOutboxProperties properties = new NotificationOutboxProperties(
+            10, 3, Duration.ofSeconds(30), Duration.ofMinutes(1), Duration.ofMinutes(5));
+
+    private OutboxNotificationRepository outboxRepository;
+    private EmailSender emailSender;
+    private ThreadPoolTaskExecutor notificationExecutor;
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(OutboxNotificationRepository.class);
+        emailSender = mock(EmailSender.class);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        notificationExecutor = executor(RejectionPolicy.CALLER_RUNS, 2);
+        dispatcher = new NotificationOutboxDispatcher(outboxRepository, emailSender, properties,
+                transactionTemplate, notificationExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationExecutor.shutdown();
+    }
+
+    @Test
+    void should_claim_due_notifications_by_pushing_their_next_attempt_past_the_lease() {
+        Instant now = Instant.now();
+        OutboxNotification notification = notification(1L, 0, now);
+        when(outboxRepository.findDue(NotificationStatus.PENDING, now, Limit.of(10))).thenReturn(List.of(notification));
+
+        List<NotificationOutboxDispatcher.PendingNotification> batch = dispatcher.claimBatch(now, 10);
+
+        assertThat(batch).extracting(NotificationOutboxDispatcher.PendingNotification::id).containsExactly(1L);
+        assertThat(notification.getNextAttemptAt()).isEqualTo(now.plus(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void should_mark_notification_sent_when_email_is_delivered() throws Exception {
+        when(outboxRepository.findDue(any(), any(), any())).thenReturn(List.of(notification(1L, 0, Instant.now())));
+
+        dispatcher.dispatch();
+
+        verify(outboxRepository, timeout(1000)).markSent(eq(1L), any(Instant.class));
+        verify(emailSender).send("seif@domain.com", "Subject", "Body");
+        verify(outboxRepository, never()).reschedule(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void should_reschedule_with_backoff_when_email_fails() throws Exception {
+        when(outboxRepository.findDue(any(), any(), any())).thenReturn(List.of(notification(1L, 1, Instant.now())));
+        doThrow(new MessagingException("smtp down")).when(emailSender).send(anyString(), anyString(), anyString());
+        Instant before = Instant.now();
+
+        dispatcher.dispatch();
+
+        // second attempt: 30s doubled
+        verify(outboxRepository, timeout(1000)).reschedule(eq(1L), eq(2),
+                argThat(next -> !next.isBefore(before.plus(Duration.ofMinutes(1)))),
+                startsWith("MessagingException: smtp down"));
+        verify(outboxRepository, never()).markSent(any(), any());
+    }
+
+    @Test
+    void should_mark_notification_failed_when_max_attempts_is_reached() throws Exception {
+        when(outboxRepository.findDue(any(), any(), any())).thenReturn(List.of(notification(1L, 2, Instant.now())));
+        doThrow(new MailSendException("rejected")).when(emailSender).send(anyString(), anyString(), anyString());
+
+        dispatcher.dispatch();
+
+        verify(outboxRepository, timeout(1000)).markFailed(eq(1L), eq(3), startsWith("MailSendException"));
+        verify(outboxRepository, never()).reschedule(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void should_not_send_anything_when_outbox_is_empty() {
+        when(outboxRepository.findDue(any(), any(), any())).thenReturn(List.of());
+
+        dispatcher.dispatch();
+
+        verifyNoInteractions(emailSender);
+    }
+
+    @Test
+    void should_claim_no_more_than_the_free_executor_capacity() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        notificationExecutor.execute(() -> awaitQuietly(release));
+        awaitActive(notificationExecutor, 1);
+        when(outboxRepository.findDue(any(), any(), any())).thenReturn(List.of());
+
+        dispatcher.dispatch();
+
+        // 2 threads + 2 queue slots, one thread busy
+        verify(outboxRepository).findDue(any(), any(), eq(Limit.of(3)));
+        release.countDown();
+    }
+
+    @Test
+    void should_release_notification_to_the_outbox_when_executor_refuses_it() throws Exception {
+        notificationExecutor.shutdown();
+        notificationExecutor = executor(RejectionPolicy.SPILL_TO_DISK, 1);
+        dispatcher = new NotificationOutboxDispatcher(outboxRepository, emailSender, properties,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), notificationExecutor);
+        CountDownLatch release = new CountDownLatch(1);
+        notificationExecutor.execute(() -> awaitQuietly(release));
+        when(outboxRepository.findDue(any(), any(), any()))
+                .thenReturn(List.of(notification(1L, 0, Instant.now()), notification(2L, 0, Instant.now())));
+
+        dispatcher.dispatch();
+
+        verify(outboxRepository).release(eq(2L), any(Instant.class));
+        release.countDown();
+        verify(outboxRepository, timeout(1000)).markSent(eq(1L), any(Instant.class));
+        verify(outboxRepository, never()).markSent(eq(2L), any());
+    }
+
+    @Test
+    void should_double_backoff_and_cap_it() {
+        assertThat(dispatcher.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(dispatcher.backoff(2)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(dispatcher.backoff(3)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(dispatcher.backoff(64)).isEqualTo(Duration.ofMinutes(1));
+    }
+
+    private static ThreadPoolTaskExecutor executor(RejectionPolicy policy, int size) {
+        ThreadPoolTaskExecutor executor = new NotificationExecutorConfig().notificationExecutor(
+                new NotificationExecutorProperties(size, size, size, policy), new SimpleMeterRegistry(), new MockEnvironment());
+        executor.initialize();
+        return executor;
+    }
+
+    static void awaitActive(ThreadPoolTaskExecutor executor, int active) throws InterruptedException {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (executor.getActiveCount() < active && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static OutboxNotification notification(Long id, int attempts, Instant now) {
+        OutboxNotification notification = OutboxNotification.pending("seif@domain.com", "Subject", "Body", now);
+        notification.setId(id);
+        notification.setAttempts(attempts);
+        return notification;
+    }
+}
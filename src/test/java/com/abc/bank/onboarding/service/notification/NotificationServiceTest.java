@@ -1,26 +1,19 @@
 package com.abc.bank.onboarding.service.notification;
 
-import ch.qos.logback.classic.Level;
-import ch.qos.logback.classic.Logger;
-import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.core.read.ListAppender;
-import jakarta.mail.internet.MimeMessage;
+import com.abc.bank.onboarding.model.NotificationStatus;
+import com.abc.bank.onboarding.model.OutboxNotification;
+import com.abc.bank.onboarding.repository.OutboxNotificationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.slf4j.LoggerFactory;
-import org.springframework.mail.MailAuthenticationException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.List;
+import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -28,86 +21,63 @@ import static org.mockito.Mockito.when;
 class NotificationServiceTest {
 
     @Mock
-    private JavaMailSender mailSender;
+    private OutboxNotificationRepository outboxRepository;
 
     @InjectMocks
     private NotificationService notificationService;
 
-    private ListAppender<ILoggingEvent> listAppender;
-
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-
-        Logger logger = (Logger) LoggerFactory.getLogger(NotificationService.class);
-        listAppender = new ListAppender<>();
-        listAppender.start();
-        logger.addAppender(listAppender);
-    }
-
-    @Test
-    void should_send_success_email_when_fromEmail_is_configured() {
-        ReflectionTestUtils.setField(notificationService, "fromEmail", "test@gmail.com");
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
-        notificationService.notifySuccess("seif@domain.com", "Test message");
-
-        verify(mailSender).send(any(MimeMessage.class));
+        when(outboxRepository.save(any(OutboxNotification.class))).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
-
     @Test
-    void should_log_warning_for_success_when_FromEmail_is_null() {
-        ReflectionTestUtils.setField(notificationService, "fromEmail", null);
-
-        notificationService.notifySuccess("seif@domain.com", "Test message");
-
-        verifyNoInteractions(mailSender);
+    void should_queue_success_email_with_account_number() {
+        notificationService.notifySuccess("seif@domain.com", "NL00ABC0000000001");
+
+        OutboxNotification notification = captureSaved();
+        assertThat(notification.getRecipient()).isEqualTo("seif@domain.com");
+        assertThat(notification.getSubject()).isEqualTo("ABC Bank Onboarding Successful");
+        assertThat(notification.getBody()).contains("Account Number: NL00ABC0000000001");
+        assertThat(notification.getStatus()).isEqualTo(NotificationStatus.PENDING);
+        assertThat(notification.getAttempts()).isZero();
+        assertThat(notification.getNextAttemptAt()).isEqualTo(notification.getCreatedAt());
     }
 
     @Test
-    void should_log_warning_for_success_when_FromEmail_is_blank() {
-        ReflectionTestUtils.setField(notificationService, "fromEmail", "");
+    void should_build_the_same_success_email_for_batched_writers() {
+        Instant now = Instant.parse("2025-01-01T10:00:00Z");
 
-        notificationService.notifySuccess("seif@domain.com", "Test message");
+        OutboxNotification notification = NotificationService.successNotification(
+                "seif@domain.com", "NL00ABC0000000001", now);
 
-        verifyNoInteractions(mailSender);
+        assertThat(notification.getSubject()).isEqualTo("ABC Bank Onboarding Successful");
+        assertThat(notification.getBody()).contains("Account Number: NL00ABC0000000001");
+        assertThat(notification.getStatus()).isEqualTo(NotificationStatus.PENDING);
+        assertThat(notification.getCreatedAt()).isEqualTo(now);
     }
 
     @Test
-    void should_send_failure_email_when_FromEmail_is_configured() {
-        ReflectionTestUtils.setField(notificationService, "fromEmail", "test@gmail.com");
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-
+    void should_queue_failure_email_with_reason() {
         notificationService.notifyFailure("seif@domain.com", "Test message");
 
-        verify(mailSender).send(any(MimeMessage.class));
+        OutboxNotification notification = captureSaved();
+        assertThat(notification.getSubject()).isEqualTo("ABC Bank Onboarding Failure");
+        assertThat(notification.getBody()).isEqualTo("Onboarding failed: Test message");
     }
 
     @Test
-    void should_log_warning_for_failure_when_FromEmail_is_not_configured() {
-        ReflectionTestUtils.setField(notificationService, "fromEmail", "");
+    void should_drop_notification_when_recipient_is_blank() {
+        notificationService.notifyFailure(" ", "Test message");
+        notificationService.notifyFailure(null, "Test message");
 
-        notificationService.notifyFailure("seif@domain.com", "Test message");
-
-        verifyNoInteractions(mailSender);
+        verifyNoInteractions(outboxRepository);
     }
 
-    @Test
-    void should_log_error_when_send_email_throws_exception() {
-        ReflectionTestUtils.setField(notificationService, "fromEmail", "test@gmail.com");
-        MimeMessage mimeMessage = mock(MimeMessage.class);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doThrow(new MailAuthenticationException("Test exception"))
-                .when(mailSender).send(any(MimeMessage.class));
-
-        notificationService.notifySuccess("seif@domain.com", "Test message");
-
-        List<ILoggingEvent> logsList = listAppender.list;
-        assertThat(logsList).hasSize(1);
-        assertThat(logsList.getFirst().getLevel()).isEqualTo(Level.ERROR);
-        assertThat(logsList.getFirst().getFormattedMessage()).contains("Error occurred while sending email");
+    private OutboxNotification captureSaved() {
+        ArgumentCaptor<OutboxNotification> captor = ArgumentCaptor.forClass(OutboxNotification.class);
+        verify(outboxRepository).save(captor.capture());
+        return captor.getValue();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,186 @@
+package com.abc.bank.onboarding.service.notification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.mail.autoconfigure.MailProperties;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import utils.FakeSmtpServer;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PooledMailSenderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FakeSmtpServer server;
+    private PooledMailSender mailSender;
+
+    @BeforeEach
+    void setUp() {
+        server = new FakeSmtpServer(0);
+        mailSender = mailSender(new SmtpPoolProperties(true, 2, 100, Duration.ofMinutes(1), Duration.ofSeconds(5)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mailSender.close();
+        server.close();
+    }
+
+    @Test
+    void should_reuse_connection_across_sends() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            mailSender.send(message("customer" + i + "@domain.com"));
+        }
+
+        assertThat(server.messages()).isEqualTo(10);
+        assertThat(server.connections()).isEqualTo(1);
+        assertThat(connectionEvents("opened")).isEqualTo(1);
+    }
+
+    @Test
+    void should_send_a_batch_on_a_single_connection() throws Exception {
+        mailSender.send(message("a@domain.com"), message("b@domain.com"), message("c@domain.com"));
+
+        assertThat(server.recipients()).containsExactly("a@domain.com", "b@domain.com", "c@domain.com");
+        assertThat(server.connections()).isEqualTo(1);
+    }
+
+    @Test
+    void should_never_open_more_than_max_connections() throws Exception {
+        List<Future<?>> sends = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 40; i++) {
+                String recipient = "customer" + i + "@domain.com";
+                sends.add(executor.submit(() -> {
+                    mailSender.send(message(recipient));
+                    return null;
+                }));
+            }
+            for (Future<?> send : sends) {
+                send.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(server.messages()).isEqualTo(40);
+        assertThat(server.connections()).isBetween(1, 2);
+    }
+
+    @Test
+    void should_recycle_connection_after_max_messages() throws Exception {
+        mailSender = mailSender(new SmtpPoolProperties(true, 2, 3, Duration.ofMinutes(1), Duration.ofSeconds(5)));
+
+        for (int i = 0; i < 7; i++) {
+            mailSender.send(message("customer" + i + "@domain.com"));
+        }
+
+        assertThat(server.connections()).isEqualTo(3);
+        assertThat(connectionEvents("recycled")).isEqualTo(2);
+    }
+
+    @Test
+    void should_recycle_idle_connection() throws Exception {
+        mailSender = mailSender(new SmtpPoolProperties(true, 2, 100, Duration.ofMillis(50), Duration.ofSeconds(5)));
+        mailSender.send(message("first@domain.com"));
+
+        Thread.sleep(100);
+        mailSender.send(message("second@domain.com"));
+
+        assertThat(server.connections()).isEqualTo(2);
+    }
+
+    @Test
+    void should_reconnect_when_server_dropped_the_connection() throws Exception {
+        mailSender.send(message("first@domain.com"));
+
+        server.dropConnections();
+        mailSender.send(message("second@domain.com"));
+
+        assertThat(server.recipients()).containsExactly("first@domain.com", "second@domain.com");
+        assertThat(server.connections()).isEqualTo(2);
+    }
+
+    @Test
+    void should_report_rejected_message_and_keep_the_connection() throws Exception {
+        MimeMessage rejected = message("rejected@domain.com");
+
+        MailSendException ex = assertThrows(MailSendException.class,
+                () -> mailSender.send(rejected, message("accepted@domain.com")));
+
+        assertThat(ex.getFailedMessages()).containsOnlyKeys(rejected);
+        assertThat(server.recipients()).containsExactly("accepted@domain.com");
+        assertThat(server.connections()).isEqualTo(1);
+    }
+
+    @Test
+    void should_fail_when_server_is_unreachable() throws Exception {
+        server.close();
+
+        assertThrows(MailSendException.class, () -> mailSender.send(message("customer@domain.com")));
+    }
+
+    @Test
+    void should_fail_when_no_connection_is_available_in_time() throws Exception {
+        mailSender = mailSender(new SmtpPoolProperties(true, 0, 100, Duration.ofMinutes(1), Duration.ofMillis(10)));
+
+        MailSendException ex = assertThrows(MailSendException.class,
+                () -> mailSender.send(message("customer@domain.com")));
+
+        assertThat(ex.getMessage()).contains("No SMTP connection available");
+    }
+
+    @Test
+    void should_send_simple_and_raw_messages() throws Exception {
+        SimpleMailMessage simple = new SimpleMailMessage();
+        simple.setFrom("bank@domain.com");
+        simple.setTo("simple@domain.com");
+        simple.setText("Hello");
+        String raw = "From: bank@domain.com\r\nTo: raw@domain.com\r\nSubject: Raw\r\n\r\nHello\r\n";
+
+        mailSender.send(simple);
+        mailSender.send(mailSender.createMimeMessage(new ByteArrayInputStream(raw.getBytes(StandardCharsets.US_ASCII))));
+
+        assertThat(server.recipients()).containsExactly("simple@domain.com", "raw@domain.com");
+    }
+
+    private PooledMailSender mailSender(SmtpPoolProperties poolProperties) {
+        if (mailSender != null) {
+            mailSender.close();
+        }
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.setHost("localhost");
+        mailProperties.setPort(server.port());
+        return new PooledMailSender(mailProperties, poolProperties, meterRegistry);
+    }
+
+    private MimeMessage message(String recipient) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setFrom("bank@domain.com");
+        helper.setTo(recipient.startsWith("rejected") ? "reject-" + recipient : recipient);
+        helper.setSubject("ABC Bank Onboarding Successful");
+        helper.setText("Your account has been created successfully!", false);
+        return message;
+    }
+
+    private double connectionEvents(String event) {
+        return meterRegistry.get(PooledMailSender.METRIC_PREFIX).tag("event", event).counter().count();
+    }
+}
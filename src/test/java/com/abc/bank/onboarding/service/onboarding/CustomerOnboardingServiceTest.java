@@ -3,40 +3,67 @@ package com.abc.bank.onboarding.service.onboarding;
 import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
 import com.abc.bank.onboarding.dto.CustomerOnboardResponse;
 import com.abc.bank.onboarding.exception.DuplicateCustomerException;
+import com.abc.bank.onboarding.exception.UnexpectedOnboardingException;
 import com.abc.bank.onboarding.exception.ValidationException;
 import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
 import com.abc.bank.onboarding.repository.CustomerRepository;
 import com.abc.bank.onboarding.service.generator.AccountNumberGenerator;
 import com.abc.bank.onboarding.service.notification.NotificationService;
+import com.abc.bank.onboarding.service.storage.DocumentIngestionService;
 import com.abc.bank.onboarding.service.validation.FileValidationService;
 import com.abc.bank.onboarding.service.validation.RequestValidationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.SneakyThrows;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static com.abc.bank.onboarding.dto.Gender.MALE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.contains;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 class CustomerOnboardingServiceTest {
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
     @InjectMocks
     private CustomerOnboardingService service;
 
@@ -50,6 +77,20 @@ class CustomerOnboardingServiceTest {
     private AccountNumberGenerator accountNumberGenerator;
     @Mock
     private NotificationService notificationService;
+    @Mock
+    private DocumentIngestionService documentIngestionService;
+    @Spy
+    private OnboardingStageTimers stageTimers = new OnboardingStageTimers(meterRegistry);
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    @Spy
+    private ConcurrentIngestionProperties concurrentIngestionProperties = new ConcurrentIngestionProperties(true, 2);
+    @Spy
+    private SimpleAsyncTaskExecutor documentExecutor =
+            new DocumentExecutorConfig().documentExecutor(concurrentIngestionProperties);
+    @Spy
+    private InFlightOnboardings inFlightOnboardings =
+            new InFlightOnboardings(new InFlightProperties(Duration.ZERO), meterRegistry);
 
     @Mock
     private MultipartFile idProof;
@@ -84,7 +125,6 @@ class CustomerOnboardingServiceTest {
     @Test
     void should_onboard_customer_successfully_when_all_validations_pass() {
         when(accountNumberGenerator.generate()).thenReturn("ACC123");
-        when(customerRepository.existsBySocialSecurityNumberOrEmail(any(), any())).thenReturn(false);
 
         CustomerOnboardResponse response = service.onboard(request, idProof, photo);
 
@@ -92,6 +132,11 @@ class CustomerOnboardingServiceTest {
         assertEquals("ACC123", response.accountNumber());
         verify(notificationService).notifySuccess("seif.jemli@example.com", "ACC123");
         verify(customerRepository).save(any(Customer.class));
+        for (String stage : List.of(OnboardingStageTimers.REQUEST_VALIDATION, OnboardingStageTimers.FILE_VALIDATION,
+                OnboardingStageTimers.IN_FLIGHT_CLAIM, OnboardingStageTimers.DOCUMENTS, OnboardingStageTimers.SAVE_ATTEMPT,
+                OnboardingStageTimers.NOTIFICATION_ENQUEUE)) {
+            assertEquals(1, stageCount(stage, "success"), stage);
+        }
     }
 
     @Test
@@ -101,55 +146,254 @@ class CustomerOnboardingServiceTest {
         ValidationException ex = assertThrows(ValidationException.class, () -> service.onboard(request, idProof, photo));
         assertEquals("Invalid request", ex.getMessage());
         verify(notificationService).notifyFailure(eq("seif.jemli@example.com"), contains("Invalid request"));
+        assertEquals(1, stageCount(OnboardingStageTimers.REQUEST_VALIDATION, "rejected"));
     }
 
     @Test
-    void should_fail_onboarding_when_duplicate_customer_detected() {
-        when(customerRepository.existsBySocialSecurityNumberOrEmail(any(), any())).thenReturn(true);
+    void should_report_violations_of_request_and_both_files_at_once() {
+        doThrow(new ValidationException("email: Invalid email format")).when(requestValidationService).validate(any());
+        doThrow(new ValidationException("idProof missing or empty")).when(fileValidationService).validateFile(idProof, "idProof");
+        doThrow(new ValidationException("photo missing or empty")).when(fileValidationService).validateFile(photo, "photo");
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> service.onboard(request, idProof, photo));
+
+        assertEquals("email: Invalid email format, idProof missing or empty, photo missing or empty", ex.getMessage());
+        assertEquals(1, stageCount(OnboardingStageTimers.REQUEST_VALIDATION, "rejected"));
+        assertEquals(1, stageCount(OnboardingStageTimers.FILE_VALIDATION, "rejected"));
+        verify(documentIngestionService, never()).ingest(any(MultipartFile.class), any());
+    }
+
+    @Test
+    void should_store_both_documents_at_the_same_time() {
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+        DocumentReference idProofReference = new DocumentReference("a".repeat(64), 10, "application/pdf");
+        DocumentReference photoReference = new DocumentReference("b".repeat(64), 20, "image/png");
+        // each ingestion only returns once the other one has started
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(documentIngestionService.ingest(idProof, "idProof")).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return idProofReference;
+        });
+        when(documentIngestionService.ingest(photo, "photo")).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return photoReference;
+        });
+
+        service.onboard(request, idProof, photo);
+
+        verify(customerRepository).save(argThat(customer -> customer.getPhoto().equals(photoReference)
+                && customer.getIdProof().equals(idProofReference)));
+    }
+
+    @Test
+    void should_cancel_photo_ingestion_when_id_proof_is_rejected() throws Exception {
+        CountDownLatch photoStarted = new CountDownLatch(1);
+        CountDownLatch photoInterrupted = new CountDownLatch(1);
+        when(documentIngestionService.ingest(photo, "photo")).thenAnswer(invocation -> {
+            photoStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ex) {
+                photoInterrupted.countDown();
+            }
+            return null;
+        });
+        when(documentIngestionService.ingest(idProof, "idProof")).thenAnswer(invocation -> {
+            assertTrue(photoStarted.await(5, TimeUnit.SECONDS));
+            throw new ValidationException("idProof content is not a PDF");
+        });
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> service.onboard(request, idProof, photo));
+
+        assertEquals("idProof content is not a PDF", ex.getMessage());
+        assertTrue(photoInterrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, stageCount(OnboardingStageTimers.DOCUMENTS, "rejected"));
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void should_fail_onboarding_with_photo_ingestion_error() {
+        when(documentIngestionService.ingest(photo, "photo")).thenThrow(new ValidationException("photo is oversized"));
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> service.onboard(request, idProof, photo));
+
+        assertEquals("photo is oversized", ex.getMessage());
+        verify(notificationService).notifyFailure(eq("seif.jemli@example.com"), contains("photo is oversized"));
+    }
+
+    @Test
+    void should_store_documents_on_request_thread_when_concurrent_ingestion_is_disabled() {
+        when(concurrentIngestionProperties.enabled()).thenReturn(false);
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+        List<Thread> threads = new ArrayList<>();
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread());
+            return null;
+        }).when(documentIngestionService).ingest(any(MultipartFile.class), any());
+
+        service.onboard(request, idProof, photo);
+
+        assertEquals(List.of(Thread.currentThread(), Thread.currentThread()), threads);
+    }
+
+    @Test
+    void should_reject_concurrent_submission_of_same_customer_without_storing_documents() {
+        InFlightOnboardings.Claim first = inFlightOnboardings.claim("123456782", " Seif.Jemli@example.com");
+        try {
+            DuplicateCustomerException ex = assertThrows(DuplicateCustomerException.class,
+                    () -> service.onboard(request, idProof, photo));
+
+            assertEquals(InFlightOnboardings.IN_PROGRESS_MESSAGE, ex.getMessage());
+            verify(documentIngestionService, never()).ingest(any(MultipartFile.class), any());
+            verify(customerRepository, never()).save(any());
+            assertEquals(1, stageCount(OnboardingStageTimers.IN_FLIGHT_CLAIM, "rejected"));
+        } finally {
+            first.close();
+        }
+    }
+
+    @Test
+    void should_release_customer_when_onboarding_fails() {
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+        doThrow(violationOf(Customer.EMAIL_INDEX)).when(customerRepository).save(any());
+
+        assertThrows(DuplicateCustomerException.class, () -> service.onboard(request, idProof, photo));
+
+        inFlightOnboardings.tryClaim(request.socialSecurityNumber(), request.email()).close();
+    }
+
+    @Test
+    void should_fail_onboarding_when_insert_violates_ssn_index() {
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+        doThrow(violationOf(Customer.SSN_INDEX)).when(customerRepository).save(any());
 
         DuplicateCustomerException ex = assertThrows(DuplicateCustomerException.class, () -> service.onboard(request, idProof, photo));
         assertTrue(ex.getMessage().contains("already exists"));
         verify(notificationService).notifyFailure(eq("seif.jemli@example.com"), contains("already exists"));
+        verify(notificationService, never()).notifySuccess(any(), any());
+        assertEquals(1, stageCount(OnboardingStageTimers.SAVE_ATTEMPT, "rejected"));
+    }
+
+    @Test
+    void should_not_retry_when_insert_violates_email_index() {
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+        doThrow(violationOf(Customer.EMAIL_INDEX)).when(customerRepository).save(any());
+
+        assertThrows(DuplicateCustomerException.class, () -> service.onboard(request, idProof, photo));
+        verify(customerRepository, times(1)).save(any());
+        verify(accountNumberGenerator, times(1)).generate();
+    }
+
+    @Test
+    void should_fail_without_retry_when_insert_violates_another_constraint() {
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+        DataIntegrityViolationException violation =
+                new DataIntegrityViolationException("NULL not allowed for column \"FIRST_NAME\"");
+        doThrow(violation).when(customerRepository).save(any());
+
+        UnexpectedOnboardingException ex = assertThrows(UnexpectedOnboardingException.class,
+                () -> service.onboard(request, idProof, photo));
+        assertEquals("Unexpected constraint violation", ex.getMessage());
+        assertSame(violation, ex.getCause());
+        verify(notificationService).notifyFailure("seif.jemli@example.com", "Unexpected constraint violation");
+        verify(customerRepository, times(1)).save(any());
+        assertEquals(1, stageCount(OnboardingStageTimers.SAVE_ATTEMPT, "error"));
     }
 
+    @Test
+    void should_never_query_for_duplicates_before_insert() {
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+
+        service.onboard(request, idProof, photo);
+
+        verify(customerRepository).save(any(Customer.class));
+        verify(customerRepository).flush();
+        verifyNoMoreInteractions(customerRepository);
+    }
 
     @SneakyThrows
     @Test
     void should_fail_onboarding_when_unexpected_error_occurs() {
-        when(customerRepository.existsBySocialSecurityNumberOrEmail(any(), any())).thenReturn(false);
         when(accountNumberGenerator.generate()).thenReturn("ACC123");
         doThrow(new RuntimeException("DB down")).when(customerRepository).save(any());
 
         RuntimeException ex = assertThrows(RuntimeException.class, () -> service.onboard(request, idProof, photo));
         assertTrue(ex.getMessage().contains("Unexpected error occurred"));
         verify(notificationService).notifyFailure(eq("seif.jemli@example.com"), contains("Unexpected error occurred"));
+        assertEquals(1, stageCount(OnboardingStageTimers.SAVE_ATTEMPT, "error"));
     }
 
     @SneakyThrows
     @Test
     void should_retry_account_number_generation_when_conflict_occurs() {
-        when(customerRepository.existsBySocialSecurityNumberOrEmail(any(), any())).thenReturn(false);
         when(accountNumberGenerator.generate()).thenReturn("ACC123");
-        doThrow(new DataIntegrityViolationException("Duplicate"))
-                .doThrow(new DataIntegrityViolationException("Duplicate"))
+        doThrow(violationOf(Customer.ACCOUNT_NUMBER_INDEX))
+                .doThrow(violationOf(Customer.ACCOUNT_NUMBER_INDEX))
                 .doReturn(new Customer())
                 .when(customerRepository).save(any());
 
         CustomerOnboardResponse response = service.onboard(request, idProof, photo);
         assertEquals("ACC123", response.accountNumber());
         verify(customerRepository, times(3)).save(any());
+        assertEquals(2, stageCount(OnboardingStageTimers.SAVE_ATTEMPT, "conflict"));
+        assertEquals(1, stageCount(OnboardingStageTimers.SAVE_ATTEMPT, "success"));
+        // one transaction per attempt, a failed insert does not poison the next one
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void should_persist_retried_customer_as_new_entity_when_previous_attempt_rolled_back() {
+        when(accountNumberGenerator.generate()).thenReturn("ACC123", "ACC124");
+        List<Long> idsAtSave = new ArrayList<>();
+        doAnswer(invocation -> {
+            Customer customer = invocation.getArgument(0);
+            idsAtSave.add(customer.getId());
+            // the sequence id assigned by the rolled back persist
+            customer.setId(42L);
+            if (idsAtSave.size() == 1) {
+                throw violationOf(Customer.ACCOUNT_NUMBER_INDEX);
+            }
+            return customer;
+        }).when(customerRepository).save(any());
+
+        CustomerOnboardResponse response = service.onboard(request, idProof, photo);
+
+        assertEquals("ACC124", response.accountNumber());
+        assertEquals(2, idsAtSave.size());
+        assertNull(idsAtSave.get(1));
+    }
+
+    @Test
+    void should_hold_transaction_only_for_customer_and_notification_inserts() {
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+
+        service.onboard(request, idProof, photo);
+
+        InOrder inOrder = inOrder(requestValidationService, fileValidationService, customerRepository,
+                documentIngestionService, transactionManager, notificationService);
+        inOrder.verify(requestValidationService).validate(request);
+        inOrder.verify(fileValidationService).validateFile(idProof, "idProof");
+        inOrder.verify(documentIngestionService).ingest(photo, "photo");
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(customerRepository).save(any(Customer.class));
+        inOrder.verify(customerRepository).flush();
+        inOrder.verify(notificationService).notifySuccess("seif.jemli@example.com", "ACC123");
+        inOrder.verify(transactionManager).commit(any());
     }
 
 
     @SneakyThrows
     @Test
     void should_throw_runtime_exception_when_max_retry_attempts_exceeded() {
-        when(customerRepository.existsBySocialSecurityNumberOrEmail(any(), any())).thenReturn(false);
         when(accountNumberGenerator.generate()).thenReturn("ACC123");
 
-        doThrow(new DataIntegrityViolationException("Duplicate"))
-                .doThrow(new DataIntegrityViolationException("Duplicate"))
-                .doThrow(new DataIntegrityViolationException("Duplicate"))
+        doThrow(violationOf(Customer.ACCOUNT_NUMBER_INDEX))
+                .doThrow(violationOf(Customer.ACCOUNT_NUMBER_INDEX))
+                .doThrow(violationOf(Customer.ACCOUNT_NUMBER_INDEX))
                 .when(customerRepository).save(any());
 
         RuntimeException ex = assertThrows(RuntimeException.class,
@@ -160,4 +404,60 @@ class CustomerOnboardingServiceTest {
         verify(notificationService).notifyFailure(eq("seif.jemli@example.com"), contains("Unexpected error occurred"));
     }
 
-}
\ No newline at end of file
+    @Test
+    void should_notify_failure_when_asynchronous_application_is_invalid() {
+        doThrow(new ValidationException("photo missing or empty")).when(fileValidationService).validateFile(photo, "photo");
+
+        assertThrows(ValidationException.class, () -> service.validate(request, idProof, photo));
+        verify(notificationService).notifyFailure(eq("seif.jemli@example.com"), contains("photo missing or empty"));
+    }
+
+    @Test
+    void should_register_customer_with_stored_documents() {
+        DocumentReference idProofReference = new DocumentReference("a".repeat(64), 10, "application/pdf");
+        DocumentReference photoReference = new DocumentReference("b".repeat(64), 20, "image/png");
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+
+        CustomerOnboardResponse response = service.register(request, idProofReference, photoReference);
+
+        assertEquals("ACC123", response.accountNumber());
+        verify(customerRepository).save(argThat(customer -> customer.getPhoto().equals(photoReference)
+                && customer.getIdProof().equals(idProofReference)));
+        verify(documentIngestionService, never()).ingest(any(MultipartFile.class), any());
+        verify(notificationService).notifySuccess("seif.jemli@example.com", "ACC123");
+    }
+
+    @Test
+    void should_reject_registration_when_duplicate_customer_detected() {
+        when(accountNumberGenerator.generate()).thenReturn("ACC123");
+        doThrow(violationOf(Customer.SSN_INDEX)).when(customerRepository).save(any());
+
+        assertThrows(DuplicateCustomerException.class, () -> service.register(request, null, null));
+        verify(customerRepository, times(1)).save(any());
+        verify(notificationService).notifyFailure(eq("seif.jemli@example.com"), contains("already exists"));
+    }
+
+    @Test
+    void should_not_propagate_failure_notification_errors() {
+        doThrow(new RuntimeException("outbox unavailable")).when(notificationService).notifyFailure(any(), any());
+
+        service.reportFailure("seif.jemli@example.com", "Unexpected error occurred", new RuntimeException("boom"));
+
+        verify(notificationService).notifyFailure("seif.jemli@example.com", "Unexpected error occurred");
+    }
+
+    //as translated by Spring from the Hibernate exception carrying the name of the violated index
+    private static DataIntegrityViolationException violationOf(String index) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation",
+                        new SQLException("Unique index or primary key violation", "23505"), index));
+    }
+
+    private long stageCount(String stage, String outcome) {
+        return meterRegistry.get(OnboardingStageTimers.METRIC_NAME)
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
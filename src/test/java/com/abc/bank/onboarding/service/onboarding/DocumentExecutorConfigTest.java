@@ -0,0 +1,51 @@
+package com.abc.bank.onboarding.service.onboarding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentExecutorConfigTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleAsyncTaskExecutor executor =
+            new DocumentExecutorConfig().documentExecutor(new ConcurrentIngestionProperties(true, 1));
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void should_hold_submission_until_a_copy_ends_when_concurrency_limit_is_reached() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> executor.execute(() -> {
+        }));
+        Thread.sleep(100);
+        assertThat(second).isNotDone();
+
+        release.countDown();
+        second.get(5, TimeUnit.SECONDS);
+        assertThat(executor.getConcurrencyLimit()).isEqualTo(1);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.abc.bank.onboarding.service.onboarding;
+
+import com.abc.bank.onboarding.exception.DuplicateCustomerException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightOnboardingsTest {
+
+    private static final String SSN = "123456782";
+    private static final String EMAIL = "seif.jemli@example.com";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void should_reject_at_once_when_ssn_or_normalized_email_is_in_flight() {
+        InFlightOnboardings inFlight = inFlight(Duration.ofSeconds(5));
+
+        InFlightOnboardings.Claim first = inFlight.claim(SSN, EMAIL);
+        try {
+            assertThatThrownBy(() -> inFlight.tryClaim(SSN, "other@example.com"))
+                    .isInstanceOf(DuplicateCustomerException.class)
+                    .hasMessage(InFlightOnboardings.IN_PROGRESS_MESSAGE);
+            assertThatThrownBy(() -> inFlight.tryClaim("987654321", " Seif.JEMLI@example.com "))
+                    .isInstanceOf(DuplicateCustomerException.class);
+            // another customer is not held up
+            inFlight.tryClaim("987654321", "other@example.com").close();
+            assertThat(meterRegistry.get("onboarding.in-flight.size").gauge().value()).isEqualTo(1);
+        } finally {
+            first.close();
+        }
+        assertThat(collapsed("in-progress")).isEqualTo(2);
+        assertThat(meterRegistry.get("onboarding.in-flight.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void should_reject_waiting_submission_as_duplicate_when_first_one_is_onboarded() throws Exception {
+        InFlightOnboardings inFlight = inFlight(Duration.ofSeconds(5));
+        InFlightOnboardings.Claim first = inFlight.claim(SSN, EMAIL);
+
+        CompletableFuture<InFlightOnboardings.Claim> second = waitingClaim(inFlight);
+        first.onboarded();
+        first.close();
+
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(DuplicateCustomerException.class)
+                .hasRootCauseMessage(InFlightOnboardings.DUPLICATE_MESSAGE);
+        assertThat(collapsed("duplicate")).isEqualTo(1);
+    }
+
+    @Test
+    void should_let_waiting_submission_go_on_when_first_one_fails() throws Exception {
+        InFlightOnboardings inFlight = inFlight(Duration.ofSeconds(5));
+        InFlightOnboardings.Claim first = inFlight.claim(SSN, EMAIL);
+
+        CompletableFuture<InFlightOnboardings.Claim> second = waitingClaim(inFlight);
+        first.close();
+
+        InFlightOnboardings.Claim retried = second.get(5, TimeUnit.SECONDS);
+        try {
+            assertThatThrownBy(() -> inFlight.tryClaim(SSN, EMAIL)).isInstanceOf(DuplicateCustomerException.class);
+        } finally {
+            retried.close();
+        }
+        assertThat(collapsed("retried")).isEqualTo(1);
+        // closing twice does not release a later claim
+        first.close();
+        inFlight.tryClaim(SSN, EMAIL).close();
+    }
+
+    @Test
+    void should_reject_waiting_submission_as_in_progress_when_first_one_outlasts_max_wait() {
+        InFlightOnboardings inFlight = inFlight(Duration.ofMillis(50));
+
+        InFlightOnboardings.Claim first = inFlight.claim(SSN, EMAIL);
+        try {
+            assertThatThrownBy(() -> inFlight.claim(SSN, EMAIL))
+                    .isInstanceOf(DuplicateCustomerException.class)
+                    .hasMessage(InFlightOnboardings.IN_PROGRESS_MESSAGE);
+        } finally {
+            first.close();
+        }
+        assertThat(collapsed("in-progress")).isEqualTo(1);
+    }
+
+    @Test
+    void should_not_hold_the_ssn_while_waiting_for_the_email() throws Exception {
+        InFlightOnboardings inFlight = inFlight(Duration.ofSeconds(5));
+        InFlightOnboardings.Claim emailHolder = inFlight.claim("987654321", EMAIL);
+
+        CompletableFuture<InFlightOnboardings.Claim> waiting = waitingClaim(inFlight);
+        // the waiting submission shares only its email with the holder, its SSN stays free
+        inFlight.tryClaim(SSN, "other@example.com").close();
+        emailHolder.close();
+
+        waiting.get(5, TimeUnit.SECONDS).close();
+    }
+
+    private InFlightOnboardings inFlight(Duration maxWait) {
+        return new InFlightOnboardings(new InFlightProperties(maxWait), meterRegistry);
+    }
+
+    //claims SSN/EMAIL on another thread and returns once it had time to start waiting
+    private static CompletableFuture<InFlightOnboardings.Claim> waitingClaim(InFlightOnboardings inFlight)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<InFlightOnboardings.Claim> claim = CompletableFuture.supplyAsync(() -> {
+            started.countDown();
+            return inFlight.claim(SSN, EMAIL);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        Thread.sleep(50);
+        return claim;
+    }
+
+    private double collapsed(String result) {
+        return meterRegistry.get("onboarding.in-flight.collapsed").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,55 @@
+package com.abc.bank.onboarding.service.onboarding;
+
+import com.abc.bank.onboarding.exception.DuplicateCustomerException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OnboardingStageTimersTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OnboardingStageTimers stageTimers = new OnboardingStageTimers(meterRegistry);
+
+    @Test
+    void should_tag_each_stage_with_its_outcome() {
+        assertThat(stageTimers.record("stage", () -> "result")).isEqualTo("result");
+        assertThrows(DuplicateCustomerException.class, () -> stageTimers.record("stage", () -> {
+            throw new DuplicateCustomerException("already exists");
+        }));
+        assertThrows(DataIntegrityViolationException.class, () -> stageTimers.record("stage", () -> {
+            throw new DataIntegrityViolationException("account number taken");
+        }));
+        assertThrows(IllegalStateException.class, () -> stageTimers.record("stage", () -> {
+            throw new IllegalStateException("DB down");
+        }));
+
+        for (String outcome : new String[]{"success", "rejected", "conflict", "error"}) {
+            assertThat(timer(outcome).count()).as(outcome).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void should_publish_slo_buckets() {
+        stageTimers.record("stage", () -> {
+        });
+
+        double[] buckets = Arrays.stream(timer("success").takeSnapshot().histogramCounts())
+                .mapToDouble(bucket -> bucket.bucket(TimeUnit.MILLISECONDS))
+                .toArray();
+        assertThat(buckets).contains(5, 10, 25, 50, 100, 250, 500, 1000);
+    }
+
+    private Timer timer(String outcome) {
+        return meterRegistry.get(OnboardingStageTimers.METRIC_NAME)
+                .tag("stage", "stage")
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
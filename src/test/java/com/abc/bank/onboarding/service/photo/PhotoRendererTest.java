@@ -0,0 +1,95 @@
+package com.abc.bank.onboarding.service.photo;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+import utils.TestDocuments;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhotoRendererTest {
+
+    @Test
+    void should_fit_longest_side_and_keep_aspect_ratio_when_scaling_down() {
+        BufferedImage scaled = PhotoRenderer.scale(new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB), 128);
+
+        assertThat(scaled.getWidth()).isEqualTo(128);
+        assertThat(scaled.getHeight()).isEqualTo(85);
+    }
+
+    @Test
+    void should_not_scale_up_when_image_is_already_small() {
+        BufferedImage image = new BufferedImage(100, 300, BufferedImage.TYPE_INT_RGB);
+
+        assertThat(PhotoRenderer.scale(image, 480)).isSameAs(image);
+    }
+
+    @Test
+    void should_flatten_transparency_on_white_when_image_needs_no_scaling() throws Exception {
+        BufferedImage transparent = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(transparent, "png", png);
+
+        BufferedImage scaled = PhotoRenderer.scale(PhotoRenderer.decode(png.toByteArray()), 480);
+
+        assertThat(scaled.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        assertThat(scaled.getRGB(2, 2) & 0xFFFFFF).isEqualTo(0xFFFFFF);
+    }
+
+    @Test
+    void should_flatten_transparency_on_white_when_scaling_down() {
+        BufferedImage scaled = PhotoRenderer.scale(new BufferedImage(400, 200, BufferedImage.TYPE_INT_ARGB), 100);
+
+        assertThat(scaled.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        assertThat(scaled.getRGB(50, 25) & 0xFFFFFF).isEqualTo(0xFFFFFF);
+    }
+
+    @Test
+    void should_return_the_photo_as_decoded_without_an_opaque_copy() throws Exception {
+        BufferedImage decoded = PhotoRenderer.decode(TestDocuments.jpeg(64, 48, 1));
+
+        assertThat(decoded.getType()).isEqualTo(BufferedImage.TYPE_3BYTE_BGR);
+    }
+
+    @Test
+    void should_allocate_less_than_half_the_decoded_photo_when_scaling_it_down() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        // loads the Java2D loops outside of the measure
+        PhotoRenderer.scale(new BufferedImage(40, 30, BufferedImage.TYPE_3BYTE_BGR), 16);
+        BufferedImage decoded = new BufferedImage(4000, 3000, BufferedImage.TYPE_3BYTE_BGR);
+        long decodedSize = 4000L * 3000 * 3;
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        BufferedImage scaled = PhotoRenderer.scale(decoded, 2048);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertThat(scaled.getWidth()).isEqualTo(2048);
+        assertThat(scaled.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        // a full-size RGB copy alone would take 48MB
+        assertThat(allocated).isLessThan(decodedSize / 2);
+    }
+
+    @Test
+    void should_return_null_when_content_is_not_an_image() throws Exception {
+        assertThat(PhotoRenderer.decode("not an image".getBytes(StandardCharsets.US_ASCII))).isNull();
+    }
+
+    @Test
+    void should_write_jpeg_without_metadata_when_encoding() throws Exception {
+        BufferedImage photo = PhotoRenderer.decode(TestDocuments.jpeg(64, 48, 1));
+
+        byte[] jpeg = PhotoRenderer.encodeJpeg(photo, 0.8f);
+
+        assertThat(jpeg).startsWith(0xFF, 0xD8);
+        assertThat(new String(jpeg, StandardCharsets.ISO_8859_1)).doesNotContain("Exif");
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertThat(decoded.getWidth()).isEqualTo(64);
+        assertThat(decoded.getHeight()).isEqualTo(48);
+    }
+}
@@ -0,0 +1,56 @@
+package com.abc.bank.onboarding.service.photo;
+
+import com.abc.bank.onboarding.model.Customer;
+import com.abc.bank.onboarding.model.DocumentReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class PhotoRenditionEntityListenerTest {
+
+    private static final DocumentReference PHOTO = new DocumentReference("a".repeat(64), 2048, "image/png");
+
+    private final PhotoRenditionService photoRenditionService = mock(PhotoRenditionService.class);
+    private final PhotoRenditionEntityListener listener = new PhotoRenditionEntityListener(
+            new StaticListableBeanFactory(Map.of("photoRenditionService", photoRenditionService))
+                    .getBeanProvider(PhotoRenditionService.class));
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void should_submit_photo_once_transaction_is_committed() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        listener.onPersist(customer());
+        verify(photoRenditionService, never()).submit(PHOTO);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(photoRenditionService).submit(PHOTO);
+    }
+
+    @Test
+    void should_submit_photo_at_once_when_no_transaction_is_active() {
+        listener.onPersist(customer());
+
+        verify(photoRenditionService).submit(PHOTO);
+    }
+
+    private static Customer customer() {
+        Customer customer = new Customer();
+        customer.setPhoto(PHOTO);
+        return customer;
+    }
+}
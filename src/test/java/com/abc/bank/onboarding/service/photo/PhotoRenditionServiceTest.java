@@ -0,0 +1,243 @@
+package com.abc.bank.onboarding.service.photo;
+
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.model.PhotoRendition;
+import com.abc.bank.onboarding.model.Rendition;
+import com.abc.bank.onboarding.repository.PhotoRenditionRepository;
+import com.abc.bank.onboarding.service.storage.DocumentStore;
+import com.abc.bank.onboarding.service.storage.DocumentStoreProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.unit.DataSize;
+import utils.TestDocuments;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PhotoRenditionServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PhotoRenditionRepository repository = mock(PhotoRenditionRepository.class);
+    private DocumentStore documentStore;
+    private PhotoRenditionService service;
+
+    @BeforeEach
+    void setUp() {
+        documentStore = new DocumentStore(new DocumentStoreProperties(directory, DataSize.ofMegabytes(16), false));
+        documentStore.open();
+        service = service(true, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        documentStore.close();
+    }
+
+    @Test
+    void should_store_normalized_medium_and_small_jpegs_when_photo_is_rendered() throws Exception {
+        DocumentReference photo = documentStore.store(TestDocuments.jpeg(1200, 800, 1), "image/jpeg");
+
+        service.render(photo.getDigest());
+
+        List<PhotoRendition> renditions = savedRenditions();
+        assertThat(renditions).extracting(PhotoRendition::getRendition)
+                .containsExactly(Rendition.NORMALIZED, Rendition.MEDIUM, Rendition.SMALL);
+        assertThat(renditions).extracting(PhotoRendition::getWidth).containsExactly(1024, 480, 128);
+        assertThat(renditions).extracting(PhotoRendition::getHeight).containsExactly(683, 320, 85);
+        assertThat(renditions).allSatisfy(rendition -> {
+            assertThat(rendition.getSourceDigest()).isEqualTo(photo.getDigest());
+            assertThat(rendition.getDocument().getContentType()).isEqualTo("image/jpeg");
+            BufferedImage stored = ImageIO.read(new ByteArrayInputStream(
+                    documentStore.read(rendition.getDocument().getDigest())));
+            assertThat(stored.getWidth()).isEqualTo(rendition.getWidth());
+        });
+        assertThat(renditions.get(2).getDocument().getSize()).isLessThan(renditions.get(1).getDocument().getSize());
+        assertThat(meterRegistry.get("onboarding.photos.renditions.render").tag("rendition", "small").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void should_render_only_missing_renditions_when_some_are_rendered() {
+        DocumentReference photo = documentStore.store(TestDocuments.jpeg(600, 400, 2), "image/jpeg");
+        when(repository.findBySourceDigest(photo.getDigest())).thenReturn(List.of(rendition(photo, Rendition.SMALL)));
+
+        service.render(photo.getDigest());
+
+        assertThat(savedRenditions()).extracting(PhotoRendition::getRendition)
+                .containsExactly(Rendition.NORMALIZED, Rendition.MEDIUM);
+    }
+
+    @Test
+    void should_not_read_photo_when_every_rendition_is_rendered() {
+        DocumentStore store = mock(DocumentStore.class);
+        PhotoRenditionService renditions = new PhotoRenditionService(store, repository, properties(true, 1, 10),
+                meterRegistry);
+        when(repository.findBySourceDigest("a".repeat(64))).thenReturn(List.of(rendition(null, Rendition.NORMALIZED),
+                rendition(null, Rendition.MEDIUM), rendition(null, Rendition.SMALL)));
+
+        renditions.render("a".repeat(64));
+        renditions.shutdown();
+
+        verify(store, never()).read(any());
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void should_count_failure_when_photo_cannot_be_decoded() {
+        DocumentReference photo = documentStore.store("not an image".getBytes(StandardCharsets.US_ASCII), "image/png");
+
+        service.render(photo.getDigest());
+        service.render("b".repeat(64)); // unknown document
+
+        verify(repository, never()).saveAll(anyList());
+        assertThat(meterRegistry.get("onboarding.photos.renditions.failures").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_not_queue_an_undecodable_photo_again_on_its_next_views() {
+        DocumentReference photo = documentStore.store("not an image".getBytes(StandardCharsets.US_ASCII), "image/png");
+
+        assertThat(service.find(photo, Rendition.SMALL)).isEmpty();
+        verify(repository, timeout(2000)).findBySourceDigest(photo.getDigest());
+        service.shutdown();
+
+        assertThat(service.find(photo, Rendition.MEDIUM)).isEmpty();
+        service.submit(photo);
+
+        verify(repository).findBySourceDigest(photo.getDigest());
+        verify(repository, never()).findBySourceDigestAndRendition(photo.getDigest(), Rendition.MEDIUM);
+        assertThat(meterRegistry.get("onboarding.photos.renditions.failures").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_neither_look_up_nor_render_a_photo_that_is_not_an_image() {
+        DocumentReference pdf = documentStore.store(TestDocuments.pdf(1024, 1), "application/pdf");
+
+        assertThat(service.find(pdf, Rendition.SMALL)).isEmpty();
+        service.submit(pdf);
+        service.shutdown();
+
+        verify(repository, never()).findBySourceDigestAndRendition(any(), any());
+        verify(repository, never()).findBySourceDigest(any());
+        assertThat(meterRegistry.get("onboarding.photos.renditions.failures").counter().count()).isZero();
+    }
+
+    @Test
+    void should_keep_renditions_of_another_instance_when_insert_conflicts() {
+        DocumentReference photo = documentStore.store(TestDocuments.jpeg(64, 64, 3), "image/jpeg");
+        when(repository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("idx_photo_rendition_source"));
+
+        service.render(photo.getDigest());
+
+        assertThat(meterRegistry.get("onboarding.photos.renditions.failures").counter().count()).isZero();
+    }
+
+    @Test
+    void should_return_rendition_when_rendered() {
+        DocumentReference photo = new DocumentReference("c".repeat(64), 2048, "image/png");
+        PhotoRendition small = rendition(photo, Rendition.SMALL);
+        when(repository.findBySourceDigestAndRendition(photo.getDigest(), Rendition.SMALL))
+                .thenReturn(Optional.of(small));
+
+        assertThat(service.find(photo, Rendition.SMALL)).contains(small.getDocument());
+        verify(repository, never()).findBySourceDigest(any());
+    }
+
+    @Test
+    void should_render_photo_in_background_when_rendition_is_missing() {
+        DocumentReference photo = documentStore.store(TestDocuments.jpeg(300, 200, 4), "image/jpeg");
+
+        assertThat(service.find(photo, Rendition.MEDIUM)).isEmpty();
+
+        verify(repository, timeout(2000)).saveAll(anyList());
+    }
+
+    @Test
+    void should_drop_photo_when_queue_is_full_and_queue_each_photo_once() throws Exception {
+        service = service(true, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findBySourceDigest("1".repeat(64))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return List.of();
+        });
+
+        service.submit(new DocumentReference("1".repeat(64), 1, "image/png"));
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        service.submit(new DocumentReference("2".repeat(64), 1, "image/png"));
+        service.submit(new DocumentReference("2".repeat(64), 1, "image/png")); // already queued
+        service.submit(new DocumentReference("3".repeat(64), 1, "image/png"));
+        release.countDown();
+
+        assertThat(meterRegistry.get("onboarding.photos.renditions.rejections").counter().count()).isEqualTo(1);
+        service.shutdown();
+
+        verify(repository).findBySourceDigest("2".repeat(64));
+        verify(repository, never()).findBySourceDigest("3".repeat(64));
+        assertThat(meterRegistry.get("onboarding.photos.renditions.latency").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_neither_render_nor_look_up_when_disabled() {
+        service = service(false, 1, 10);
+        DocumentReference photo = new DocumentReference("d".repeat(64), 2048, "image/png");
+
+        service.submit(photo);
+
+        assertThat(service.find(photo, Rendition.SMALL)).isEmpty();
+        verify(repository, never()).findBySourceDigestAndRendition(any(), any());
+        verify(repository, never()).findBySourceDigest(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PhotoRendition> savedRenditions() {
+        ArgumentCaptor<List<PhotoRendition>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private PhotoRenditionService service(boolean enabled, int threads, int queueCapacity) {
+        if (service != null) {
+            service.shutdown();
+        }
+        return new PhotoRenditionService(documentStore, repository, properties(enabled, threads, queueCapacity),
+                meterRegistry);
+    }
+
+    private static PhotoRenditionProperties properties(boolean enabled, int threads, int queueCapacity) {
+        return new PhotoRenditionProperties(enabled, threads, queueCapacity, 1024, 480, 128, 0.8f);
+    }
+
+    private static PhotoRendition rendition(DocumentReference photo, Rendition rendition) {
+        return PhotoRendition.of(photo == null ? "a".repeat(64) : photo.getDigest(), rendition,
+                new DocumentReference("e".repeat(64), 512, "image/jpeg"), 128, 85, Instant.now());
+    }
+}
@@ -0,0 +1,190 @@
+package com.abc.bank.onboarding.service.storage;
+
+import com.abc.bank.onboarding.exception.DocumentStorageException;
+import com.abc.bank.onboarding.exception.ValidationException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import com.abc.bank.onboarding.service.validation.DocumentLimitsProperties;
+import com.abc.bank.onboarding.service.validation.FileValidationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import utils.MultipartFileTestUtil;
+import utils.TestDocuments;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DocumentIngestionServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private DocumentStore documentStore;
+    private DocumentIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        documentStore = new DocumentStore(new DocumentStoreProperties(directory, DataSize.ofMegabytes(16), false));
+        documentStore.open();
+        ingestionService = new DocumentIngestionService(documentStore, new FileValidationService(
+                new DocumentLimitsProperties(10_000, 10_000, DataSize.ofMegabytes(128), 64, 10)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        documentStore.close();
+    }
+
+    @Test
+    void should_stream_upload_into_store_with_digest_and_sniffed_content_type() throws Exception {
+        MockMultipartFile photo = MultipartFileTestUtil.createMultipartFile("files/photo.png", "photo");
+
+        DocumentReference reference = ingestionService.ingest(photo, "photo");
+
+        assertThat(reference.getContentType()).isEqualTo("image/png");
+        assertThat(reference.getSize()).isEqualTo(photo.getSize());
+        assertThat(reference).isEqualTo(documentStore.store(photo.getBytes(), "image/png"));
+        assertThat(documentStore.read(reference.getDigest())).isEqualTo(photo.getBytes());
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_reject_content_with_unknown_signature_and_store_nothing() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("idProof", "id.pdf", "application/pdf", "MZ-not-a-pdf".getBytes());
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> ingestionService.ingest(file, "idProof"));
+
+        assertThat(ex.getMessage()).isEqualTo("idProof content is not a PDF, JPEG or PNG document");
+        assertThat(stagingFiles()).isEmpty();
+        assertThat(documentStore.contains(DocumentStore.toHex(DocumentStore.newDigest().digest(file.getBytes()))))
+                .isFalse();
+    }
+
+    @Test
+    void should_reject_content_that_contradicts_declared_type() {
+        MockMultipartFile file = new MockMultipartFile("photo", "photo.jpg", "image/jpeg", "%PDF-1.7 photo".getBytes());
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> ingestionService.ingest(file, "photo"));
+
+        assertThat(ex.getMessage()).isEqualTo("photo is declared as image/jpeg but its content is application/pdf");
+    }
+
+    @Test
+    void should_stop_reading_as_soon_as_the_signature_is_rejected() {
+        // fails the test if the ingestion reads past the first buffer
+        InputStream upload = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (read++ >= DocumentIngestionService.BUFFER_SIZE) {
+                    throw new IOException("read past the first buffer");
+                }
+                return 'x';
+            }
+        };
+
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> ingestionService.ingest(upload, "image/png", "photo"));
+
+        assertThat(ex.getMessage()).contains("photo content is not");
+    }
+
+    @Test
+    void should_sniff_content_shorter_than_the_sniffing_window() {
+        MockMultipartFile file = new MockMultipartFile("idProof", "id.pdf", "application/pdf", "%PDF-".getBytes());
+
+        // sniffed as a PDF, then rejected on its (missing) structure
+        ValidationException ex = assertThrows(ValidationException.class, () -> ingestionService.ingest(file, "idProof"));
+
+        assertThat(ex.getMessage()).isEqualTo("idProof is not a well-formed application/pdf document");
+    }
+
+    @Test
+    void should_reject_image_whose_header_exceeds_the_limits_and_store_nothing() throws IOException {
+        byte[] bomb = TestDocuments.pngHeader(20_000, 20_000, 8, 6);
+        MockMultipartFile file = new MockMultipartFile("photo", "photo.png", "image/png", bomb);
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> ingestionService.ingest(file, "photo"));
+
+        assertThat(ex.getMessage()).isEqualTo("photo is 20000x20000 pixels (max 10000x10000)");
+        assertThat(stagingFiles()).isEmpty();
+        assertThat(documentStore.contains(DocumentStore.toHex(DocumentStore.newDigest().digest(bomb)))).isFalse();
+    }
+
+    @Test
+    void should_span_several_buffers_for_large_uploads() {
+        byte[] content = TestDocuments.pdf(DocumentIngestionService.BUFFER_SIZE * 3 + 17, 1);
+        MockMultipartFile file = new MockMultipartFile("idProof", "id.pdf", "application/octet-stream", content);
+
+        DocumentReference reference = ingestionService.ingest(file, "idProof");
+
+        assertThat(reference.getContentType()).isEqualTo("application/pdf");
+        assertThat(documentStore.read(reference.getDigest())).isEqualTo(content);
+    }
+
+    @Test
+    void should_reject_oversized_upload_and_discard_staging_file() throws IOException {
+        byte[] content = pngOfSize(FileValidationService.MAX_FILE_SIZE_BYTES + 1);
+        MockMultipartFile file = new MockMultipartFile("photo", "photo.png", "image/png", content);
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> ingestionService.ingest(file, "photo"));
+
+        assertThat(ex.getMessage()).contains("photo is oversized");
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_ingest_upload_already_moved_to_a_staging_file() throws Exception {
+        MockMultipartFile photo = MultipartFileTestUtil.createMultipartFile("files/photo.png", "photo");
+        Path stagingFile = documentStore.createStagingFile();
+        Files.write(stagingFile, photo.getBytes());
+
+        DocumentReference reference = ingestionService.ingest(stagingFile, "application/octet-stream", "photo");
+
+        assertThat(reference.getContentType()).isEqualTo("image/png");
+        assertThat(documentStore.read(reference.getDigest())).isEqualTo(photo.getBytes());
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_reject_oversized_staging_file_and_delete_it() throws IOException {
+        Path stagingFile = documentStore.createStagingFile();
+        Files.write(stagingFile, pngOfSize(FileValidationService.MAX_FILE_SIZE_BYTES + 1));
+
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> ingestionService.ingest(stagingFile, "image/png", "photo"));
+        assertThat(ex.getMessage()).contains("photo is oversized");
+        assertThat(stagingFiles()).isEmpty();
+    }
+
+    @Test
+    void should_wrap_unreadable_staging_file() {
+        Path missing = directory.resolve("staging").resolve("missing.tmp");
+
+        assertThrows(DocumentStorageException.class, () -> ingestionService.ingest(missing, "image/png", "photo"));
+    }
+
+    //a PNG signature followed by zeros
+    private static byte[] pngOfSize(long size) {
+        byte[] content = new byte[(int) size];
+        System.arraycopy(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, 0, content, 0, 8);
+        return content;
+    }
+
+    private List<Path> stagingFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("staging"))) {
+            return files.toList();
+        }
+    }
+}
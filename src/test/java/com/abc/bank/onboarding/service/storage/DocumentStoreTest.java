@@ -0,0 +1,151 @@
+package com.abc.bank.onboarding.service.storage;
+
+import com.abc.bank.onboarding.exception.DocumentStorageException;
+import com.abc.bank.onboarding.model.DocumentReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DocumentStoreTest {
+
+    private static final String SHA256_OF_HELLO = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    private Path directory;
+
+    private DocumentStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = open(DataSize.ofMegabytes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void should_key_documents_by_sha256_and_read_them_back() {
+        DocumentReference reference = store.store(bytes("hello"), "image/png");
+
+        assertThat(reference.getDigest()).isEqualTo(SHA256_OF_HELLO);
+        assertThat(reference.getSize()).isEqualTo(5);
+        assertThat(reference.getContentType()).isEqualTo("image/png");
+        assertThat(store.read(SHA256_OF_HELLO)).isEqualTo(bytes("hello"));
+    }
+
+    @Test
+    void should_write_identical_content_only_once() throws IOException {
+        store.store(bytes("hello"), "image/png");
+        long sizeAfterFirstWrite = totalSegmentBytes();
+
+        store.store(bytes("hello"), "application/pdf");
+
+        assertThat(totalSegmentBytes()).isEqualTo(sizeAfterFirstWrite)
+                .isEqualTo(DocumentStore.HEADER_BYTES + 5L);
+    }
+
+    @Test
+    void should_start_a_new_segment_when_the_active_one_is_full() throws IOException {
+        store.close();
+        store = open(DataSize.ofBytes(DocumentStore.HEADER_BYTES + 10L));
+
+        DocumentReference first = store.store(bytes("first doc"), "image/png");
+        DocumentReference second = store.store(bytes("second doc"), "image/png");
+
+        assertThat(store.locate(first.getDigest()).orElseThrow().segment())
+                .isNotEqualTo(store.locate(second.getDigest()).orElseThrow().segment());
+        assertThat(store.read(second.getDigest())).isEqualTo(bytes("second doc"));
+    }
+
+    @Test
+    void should_rebuild_the_index_from_segments_on_reopen() {
+        DocumentReference reference = store.store(bytes("persisted"), "image/png");
+        store.close();
+
+        store = open(DataSize.ofMegabytes(1));
+
+        assertThat(store.contains(reference.getDigest())).isTrue();
+        assertThat(store.read(reference.getDigest())).isEqualTo(bytes("persisted"));
+    }
+
+    @Test
+    void should_find_documents_written_by_another_instance_sharing_the_directory() {
+        DocumentStore other = open(DataSize.ofMegabytes(1));
+        try {
+            DocumentReference reference = other.store(bytes("from other instance"), "image/png");
+
+            assertThat(store.read(reference.getDigest())).isEqualTo(bytes("from other instance"));
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    void should_transfer_a_range_of_a_document_to_a_channel() {
+        store.store(bytes("first"), "image/png");
+        store.store(bytes("hello world"), "image/png");
+        DocumentLocation location = store.locate(DocumentStore.toHex(
+                DocumentStore.newDigest().digest(bytes("hello world")))).orElseThrow();
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        store.transferTo(location, 6, 5, Channels.newChannel(target));
+
+        assertThat(target.toByteArray()).isEqualTo(bytes("world"));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.transferTo(location, 6, 6, Channels.newChannel(target)));
+    }
+
+    @Test
+    void should_create_absolute_staging_files_when_directory_is_relative() {
+        DocumentStore relative = new DocumentStore(new DocumentStoreProperties(
+                Path.of("").toAbsolutePath().relativize(directory.resolve("relative")), DataSize.ofMegabytes(1), false));
+        relative.open();
+        try {
+            assertThat(relative.createStagingFile()).isAbsolute().startsWith(directory.resolve("relative"));
+        } finally {
+            relative.close();
+        }
+    }
+
+    @Test
+    void should_throw_when_document_is_unknown() {
+        DocumentStorageException ex = assertThrows(DocumentStorageException.class,
+                () -> store.read(SHA256_OF_HELLO));
+        assertThat(ex.getMessage()).contains("Unknown document");
+    }
+
+    private DocumentStore open(DataSize segmentSize) {
+        DocumentStore documentStore = new DocumentStore(new DocumentStoreProperties(directory, segmentSize, false));
+        documentStore.open();
+        return documentStore;
+    }
+
+    private long totalSegmentBytes() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            long total = 0;
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                total += Files.size(file);
+            }
+            return total;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,165 @@
+package com.abc.bank.onboarding.service.validation;
+
+import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
+import com.abc.bank.onboarding.dto.Gender;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static jakarta.validation.Validation.buildDefaultValidatorFactory;
+import static org.assertj.core.api.Assertions.assertThat;
+
+//differential test: the specialized validator must report exactly the violations of the annotations
+class CustomerOnboardRequestValidatorTest {
+
+    private static final CustomerOnboardRequest VALID = new CustomerOnboardRequest("Seif", "Jemli", Gender.MALE,
+            LocalDate.of(1985, 5, 15), "+31612345678", "seif.jemli@domain.com", "NL",
+            "Gustav Mahlerlaan 10, 1082 PP Amsterdam, Netherlands", "123456782");
+
+    private static final List<String> NAMES = Arrays.asList(null, "", " ", "\t", "Seif", "Seif Jemli", "Se\u00eff",
+            "Seif1", "O'Neil", "Jean-Luc", "Seif\n", " a ", "\u2003");
+    private static final List<String> PHONES = Arrays.asList(null, "", " ", "+31612345678", "0612345678",
+            "+31012345678", "0012345678", "+3161234567", "+316123456789", "06123456789", "061234567a", "+32612345678",
+            "0612345678\n", "+31 612345678", "31612345678", "06\u0661\u0662\u0663\u0664\u0665\u0666\u0667\u0668");
+    private static final List<String> EMAILS = Arrays.asList(null, "", " ", "seif.jemli@domain.com", "invalid-email",
+            "@domain.com", "seif@", "seif@domain", "seif@@domain.com", "\"seif jemli\"@domain.com", "seif@[127.0.0.1]",
+            "seif@d\u00f6main.com", "seif..jemli@domain.com", "seif@-domain.com", "a".repeat(65) + "@domain.com",
+            "seif@" + "a".repeat(64) + ".com", "SEIF.Jemli@Domain.COM", "o'neil+tag@sub.domain.nl", "seif@domain.",
+            ".seif@domain.com", "seif.@domain.com", "seif@domain..com", "seif@.domain.com", "seif@do-main.com",
+            "seif@do--main.com", "seif@domain-.com", "seif@domain.c-", "seif@!#$%.com", "seif jemli@domain.com",
+            "seif@domain.com\n", "seif@domain.com\"", "\"seif\"@[IPv6:::1]", "seif@[1.2.3]", "se\u00eff@domain.com",
+            "a".repeat(64) + "@domain.com", "seif@" + "a".repeat(63) + ".com",
+            "seif@" + ("a".repeat(63) + ".").repeat(4).substring(0, 255), "seif@" + ("a".repeat(63) + ".").repeat(4),
+            "seif@" + ("a".repeat(50) + ".").repeat(5) + "a");
+    private static final List<String> NATIONALITIES = Arrays.asList(null, "", " ", "NL", "nl", "N", "NLD", "N1",
+            "\u00c9T", "NL\n");
+    private static final List<String> ADDRESSES = Arrays.asList(null, "", " \t ", "Gustav Mahlerlaan 10");
+    private static final List<String> BSNS = Arrays.asList(null, "", " ", "123456782", "123456789", "12345678",
+            "1234567820", "12345678a", "         ", "\u0661\u0662\u0663\u0664\u0665\u0666\u0667\u0668\u0662");
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    private CustomerOnboardRequestValidator specialized;
+
+    @BeforeAll
+    static void buildValidator() {
+        validatorFactory = buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @BeforeEach
+    void setUp() {
+        specialized = new CustomerOnboardRequestValidator(validator);
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void should_accept_valid_request() {
+        assertThat(specialized.validate(VALID)).isNull();
+        assertThat(beanValidation(VALID)).isEmpty();
+    }
+
+    @Test
+    void should_report_same_violations_as_bean_validation_for_every_edge_case_of_a_field() {
+        LocalDate today = LocalDate.now();
+        for (String name : NAMES) {
+            assertSameViolations(with(VALID, name, VALID.lastName(), VALID.gender(), VALID.dateOfBirth()));
+            assertSameViolations(with(VALID, VALID.firstName(), name, VALID.gender(), VALID.dateOfBirth()));
+        }
+        for (LocalDate dateOfBirth : Arrays.asList(null, today.minusYears(18), today.minusYears(18).plusDays(1),
+                today.minusYears(18).minusDays(1), today.plusYears(20), LocalDate.of(2008, 2, 29),
+                LocalDate.of(1, 1, 1), today.minusYears(18).withDayOfMonth(1), today.minusYears(18).plusMonths(1))) {
+            assertSameViolations(with(VALID, VALID.firstName(), VALID.lastName(), null, dateOfBirth));
+        }
+        for (String phone : PHONES) {
+            assertSameViolations(new CustomerOnboardRequest(VALID.firstName(), VALID.lastName(), VALID.gender(),
+                    VALID.dateOfBirth(), phone, VALID.email(), VALID.nationality(), VALID.residentialAddress(),
+                    VALID.socialSecurityNumber()));
+        }
+        for (String email : EMAILS) {
+            assertSameViolations(new CustomerOnboardRequest(VALID.firstName(), VALID.lastName(), VALID.gender(),
+                    VALID.dateOfBirth(), VALID.phoneNumber(), email, VALID.nationality(), VALID.residentialAddress(),
+                    VALID.socialSecurityNumber()));
+        }
+        for (String nationality : NATIONALITIES) {
+            for (String address : ADDRESSES) {
+                assertSameViolations(new CustomerOnboardRequest(VALID.firstName(), VALID.lastName(), VALID.gender(),
+                        VALID.dateOfBirth(), VALID.phoneNumber(), VALID.email(), nationality, address,
+                        VALID.socialSecurityNumber()));
+            }
+        }
+        for (String bsn : BSNS) {
+            assertSameViolations(new CustomerOnboardRequest(VALID.firstName(), VALID.lastName(), VALID.gender(),
+                    VALID.dateOfBirth(), VALID.phoneNumber(), VALID.email(), VALID.nationality(),
+                    VALID.residentialAddress(), bsn));
+        }
+    }
+
+    @Test
+    void should_report_same_violations_as_bean_validation_for_random_requests() {
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 5_000; i++) {
+            assertSameViolations(new CustomerOnboardRequest(
+                    pick(random, NAMES), pick(random, NAMES),
+                    random.nextInt(4) == 0 ? null : Gender.values()[random.nextInt(Gender.values().length)],
+                    random.nextInt(10) == 0 ? null : today.minusDays(random.nextInt(40 * 366)),
+                    pick(random, PHONES), pick(random, EMAILS), pick(random, NATIONALITIES), pick(random, ADDRESSES),
+                    random.nextBoolean() ? randomBsn(random) : pick(random, BSNS)));
+        }
+    }
+
+    @Test
+    void should_list_violations_in_field_order() {
+        CustomerOnboardRequest request = new CustomerOnboardRequest("", "Jemli", null, VALID.dateOfBirth(),
+                VALID.phoneNumber(), VALID.email(), "nl", VALID.residentialAddress(), VALID.socialSecurityNumber());
+
+        assertThat(specialized.validate(request)).isEqualTo("firstName: First name is required, "
+                + "firstName: First name can only contain letters and spaces, gender: Gender is required, "
+                + "nationality: Nationality must be a 2-letter ISO code (NL, FR...)");
+    }
+
+    private void assertSameViolations(CustomerOnboardRequest request) {
+        String message = specialized.validate(request);
+        List<String> violations = message == null ? List.of() : List.of(message.split(", (?=[a-zA-Z]+: )"));
+
+        assertThat(violations).as("%s", request).doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(beanValidation(request));
+    }
+
+    private static Set<String> beanValidation(CustomerOnboardRequest request) {
+        return validator.validate(request).stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.toSet());
+    }
+
+    private static CustomerOnboardRequest with(CustomerOnboardRequest request, String firstName, String lastName,
+                                               Gender gender, LocalDate dateOfBirth) {
+        return new CustomerOnboardRequest(firstName, lastName, gender, dateOfBirth, request.phoneNumber(),
+                request.email(), request.nationality(), request.residentialAddress(), request.socialSecurityNumber());
+    }
+
+    private static String pick(Random random, List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    //nine digits, about one in eleven passes the 11-proef
+    private static String randomBsn(Random random) {
+        return String.format("%09d", random.nextInt(1_000_000_000));
+    }
+}
@@ -0,0 +1,279 @@
+package com.abc.bank.onboarding.service.validation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.util.ResourceUtils;
+import utils.TestDocuments;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentHeaderReaderTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void should_read_png_dimensions_and_color_depth_from_ihdr() throws IOException {
+        byte[] photo = Files.readAllBytes(ResourceUtils.getFile("classpath:files/photo.png").toPath());
+
+        assertThat(read(photo, "image/png")).contains(DocumentMetadata.image(443, 114, 8));
+        // 16-bit RGBA, 3.2GB once decoded, in 45 bytes
+        assertThat(read(TestDocuments.pngHeader(20_000, 20_000, 16, 6), "image/png"))
+                .contains(DocumentMetadata.image(20_000, 20_000, 64));
+    }
+
+    @Test
+    void should_read_jpeg_frame_header_after_the_other_segments() throws IOException {
+        assertThat(read(TestDocuments.jpeg(64, 48, 1), "image/jpeg")).contains(DocumentMetadata.image(64, 48, 24));
+    }
+
+    @Test
+    void should_skip_fill_bytes_and_markers_without_segment_before_the_frame_header() throws IOException {
+        // SOI, a fill byte, TEM, then a progressive frame header (SOF2) of 32x16 with 3 components
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xFF, 0x01, (byte) 0xFF, (byte) 0xC2, 0, 17, 8,
+                0, 16, 0, 32, 3};
+
+        assertThat(read(jpeg, "image/jpeg")).contains(DocumentMetadata.image(32, 16, 24));
+    }
+
+    @Test
+    void should_read_pdf_page_count_from_the_page_tree() throws IOException {
+        assertThat(read(TestDocuments.pdfWithPages(3), "application/pdf")).contains(DocumentMetadata.pdf(3));
+        assertThat(read(TestDocuments.pdf(200_000, 1), "application/pdf")).contains(DocumentMetadata.pdf(1));
+    }
+
+    @Test
+    void should_read_pdf_page_count_from_the_latest_incremental_update() throws IOException {
+        byte[] original = TestDocuments.pdfWithPages(2);
+        Matcher startXref = Pattern.compile("startxref\\s+(\\d+)")
+                .matcher(new String(original, StandardCharsets.US_ASCII));
+        assertThat(startXref.find()).isTrue();
+
+        ByteArrayOutputStream update = new ByteArrayOutputStream();
+        update.writeBytes(original);
+        int pages = update.size();
+        write(update, "2 0 obj\n<< /Type /Pages /Kids [] /Count 12 >>\nendobj\n");
+        int xref = update.size();
+        write(update, "xref\n0 1\n0000000000 65535 f \n2 1\n" + String.format("%010d", pages) + " 00000 n \n"
+                + "trailer\n<< /Size 6 /Root 1 0 R /Prev " + startXref.group(1) + " >>\nstartxref\n" + xref
+                + "\n%%EOF\n");
+
+        assertThat(read(update.toByteArray(), "application/pdf")).contains(DocumentMetadata.pdf(12));
+    }
+
+    @Test
+    void should_read_pdf_page_count_through_cross_reference_and_object_streams() throws IOException {
+        assertThat(read(compressedPdf(7, new byte[0]), "application/pdf")).contains(DocumentMetadata.pdf(7));
+    }
+
+    @Test
+    void should_read_pdf_page_count_of_a_hybrid_file() throws IOException {
+        // a cross-reference table for older readers, the compressed objects listed by the stream it points to
+        byte[] compressed = compressedPdf(4, new byte[0]);
+        int xrefStream = new String(compressed, StandardCharsets.ISO_8859_1).indexOf("4 0 obj");
+        ByteArrayOutputStream hybrid = new ByteArrayOutputStream();
+        hybrid.writeBytes(compressed);
+        int table = hybrid.size();
+        write(hybrid, "xref\n0 1\n0000000000 65535 f \ntrailer\n<< /Size 5 /Root 1 0 R /XRefStm " + xrefStream
+                + " >>\nstartxref\n" + table + "\n%%EOF\n");
+
+        assertThat(read(hybrid.toByteArray(), "application/pdf")).contains(DocumentMetadata.pdf(4));
+    }
+
+    @Test
+    void should_skip_over_the_values_not_needed_to_reach_the_page_count() throws IOException {
+        byte[] pdf = classicPdf("/ID [<0A1B> <2C3D>] ",
+                "<< /Type /Catalog /Pages 2 0 R /Lang (en\\(GB\\) (nested)) /Version /1.7 % a comment\n"
+                        + " /NeedsRendering false /Perms null /UserUnit 1.5 /Marked true >>",
+                "<< /Type /Pages /Kids [] /Count 3 0 R >>",
+                "4");
+
+        assertThat(read(pdf, "application/pdf")).contains(DocumentMetadata.pdf(4));
+    }
+
+    @ParameterizedTest
+    @MethodSource("malformedDocuments")
+    void should_report_malformed_headers_as_unreadable(String contentType, byte[] content) throws IOException {
+        assertThat(read(content, contentType)).isEmpty();
+    }
+
+    static Stream<Arguments> malformedDocuments() {
+        byte[] pdf = TestDocuments.pdfWithPages(1);
+        String catalog = "<< /Type /Catalog /Pages 2 0 R >>";
+        String pages = "<< /Type /Pages /Kids [] /Count 1 >>";
+        return Stream.of(
+                Arguments.of("image/png", Arrays.copyOf(TestDocuments.pngHeader(1, 1, 8, 2), 20)),
+                Arguments.of("image/png", TestDocuments.pngHeader(1, 1, 8, 5)),
+                Arguments.of("image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xD9}),
+                Arguments.of("image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 1}),
+                Arguments.of("image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xC0, 0, 17, 8}),
+                Arguments.of("image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xC0, 0, 17, 0,
+                        0, 16, 0, 32, 3}),
+                Arguments.of("image/gif", pdf),
+                // truncated before startxref, or startxref pointing to garbage
+                Arguments.of("application/pdf", Arrays.copyOf(pdf, pdf.length - 40)),
+                Arguments.of("application/pdf", ascii("%PDF-1.7\nstartxref\n9\n%%EOF")),
+                Arguments.of("application/pdf", classicPdf("/Prev 99999 ", catalog, pages)),
+                Arguments.of("application/pdf", classicPdf("/Prev XREF ", catalog, pages)),
+                Arguments.of("application/pdf", replace(classicPdf("", catalog, pages), "2 0 obj", "7 0 obj")),
+                Arguments.of("application/pdf", replace(classicPdf("", catalog, pages), "00000 n", "00000 x")),
+                Arguments.of("application/pdf", replace(classicPdf("", catalog, pages), "0000000009", "00000000x9")),
+                Arguments.of("application/pdf", classicPdf("", "<< /Type /Catalog /Pages 2 0 R >", pages)),
+                Arguments.of("application/pdf", classicPdf("", "<< 1 /Pages >>", pages)),
+                Arguments.of("application/pdf", classicPdf("", "<< /Pages undefined >>", pages)),
+                Arguments.of("application/pdf", classicPdf("", "<< /Pages 2 0 R >>", "<< /Count -1 >>")),
+                Arguments.of("application/pdf", classicPdf("", "<< /Pages 2 0 R >>", "<< /Count 1.5 >>")),
+                // an object referencing itself, values nested deeper than any real document
+                Arguments.of("application/pdf", classicPdf("", "1 0 R")),
+                Arguments.of("application/pdf", classicPdf("", "<< /Pages " + "[".repeat(40) + "]".repeat(40) + " >>")),
+                Arguments.of("application/pdf", replace(compressedPdf(1, new byte[0]),
+                        "/Filter /FlateDecode /DecodeParms", "/Filter /LZWDecode /DecodeParms")),
+                Arguments.of("application/pdf", replace(compressedPdf(1, new byte[0]),
+                        "/Filter /FlateDecode /DecodeParms", "/Filter [/FlateDecode /FlateDecode] /DecodeParms")),
+                Arguments.of("application/pdf", replace(compressedPdf(1, new byte[0]),
+                        "/Predictor 12", "/Predictor 2 ")),
+                Arguments.of("application/pdf", replace(compressedPdf(1, new byte[0]),
+                        "/Type /ObjStm", "/Type /XObjs ")),
+                // zlib header of the object stream
+                Arguments.of("application/pdf", replace(compressedPdf(1, new byte[0]),
+                        "stream\nx", "stream\n\0")));
+    }
+
+    @Test
+    void should_stop_inflating_a_stream_that_expands_beyond_the_limit() throws IOException {
+        // 8MB of zeros deflate to a few KB
+        assertThat(read(compressedPdf(1, new byte[8 * 1024 * 1024]), "application/pdf")).isEmpty();
+    }
+
+    private Optional<DocumentMetadata> read(byte[] content, String contentType) throws IOException {
+        Path file = Files.write(Files.createTempFile(directory, "document", ".tmp"), content);
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            return DocumentHeaderReader.read(channel, contentType);
+        }
+    }
+
+    /**
+     * A PDF 1.5 layout: the catalog and the page tree are compressed in an object stream, itself listed by a
+     * cross-reference stream encoded with the PNG Up predictor. The padding is appended to the object stream.
+     */
+    private static byte[] compressedPdf(int pages, byte[] padding) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, "%PDF-1.5\n");
+        String objects = "<< /Type /Catalog /Pages 2 0 R >> << /Type /Pages /Kids [] /Count " + pages + " >>";
+        String header = "1 0 2 " + objects.indexOf("<< /Type /Pages") + " ";
+        ByteArrayOutputStream objectStream = new ByteArrayOutputStream();
+        write(objectStream, header + objects);
+        objectStream.writeBytes(padding);
+        byte[] compressedObjects = deflate(objectStream.toByteArray());
+
+        int objectStreamOffset = out.size();
+        write(out, "3 0 obj\n<< /Type /ObjStm /N 2 /First " + header.length() + " /Filter [/FlateDecode] /Length "
+                + compressedObjects.length + " >>\nstream\n");
+        out.writeBytes(compressedObjects);
+        write(out, "\nendstream\nendobj\n");
+
+        int xrefOffset = out.size();
+        // type, offset or object stream, generation or index
+        int[][] rows = {{0, 0, 255}, {2, 3, 0}, {2, 3, 1}, {1, objectStreamOffset, 0}, {1, xrefOffset, 0}};
+        byte[] predicted = new byte[rows.length * 5];
+        int[] previous = new int[4];
+        for (int row = 0; row < rows.length; row++) {
+            int[] fields = {rows[row][0], rows[row][1] >> 8 & 0xFF, rows[row][1] & 0xFF, rows[row][2]};
+            // each row with another filter: None, Sub, Up, Average, Paeth
+            int filter = row % 5;
+            predicted[row * 5] = (byte) filter;
+            for (int i = 0; i < 4; i++) {
+                int left = i > 0 ? fields[i - 1] : 0;
+                int upLeft = i > 0 ? previous[i - 1] : 0;
+                int prediction = switch (filter) {
+                    case 1 -> left;
+                    case 2 -> previous[i];
+                    case 3 -> (left + previous[i]) / 2;
+                    case 4 -> paeth(left, previous[i], upLeft);
+                    default -> 0;
+                };
+                predicted[row * 5 + 1 + i] = (byte) (fields[i] - prediction);
+            }
+            previous = fields;
+        }
+        byte[] compressedXref = deflate(predicted);
+        write(out, "4 0 obj\n<< /Type /XRef /Size 5 /W [1 2 1] /Root 1 0 R /Filter /FlateDecode"
+                + " /DecodeParms << /Predictor 12 /Columns 4 >> /Length " + compressedXref.length + " >>\nstream\n");
+        out.writeBytes(compressedXref);
+        write(out, "\nendstream\nendobj\nstartxref\n" + xrefOffset + "\n%%EOF\n");
+        return out.toByteArray();
+    }
+
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int toLeft = Math.abs(estimate - left);
+        int toUp = Math.abs(estimate - up);
+        int toUpLeft = Math.abs(estimate - upLeft);
+        if (toLeft <= toUp && toLeft <= toUpLeft) {
+            return left;
+        }
+        return toUp <= toUpLeft ? up : upLeft;
+    }
+
+    //objects numbered from 1, the first one is the catalog; XREF in the trailer entries is the table offset
+    private static byte[] classicPdf(String trailerEntries, String... objects) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, "%PDF-1.7\n");
+        StringBuilder table = new StringBuilder("xref\n0 ").append(objects.length + 1)
+                .append("\n0000000000 65535 f \n");
+        for (int i = 0; i < objects.length; i++) {
+            table.append(String.format("%010d 00000 n \n", out.size()));
+            write(out, (i + 1) + " 0 obj\n" + objects[i] + "\nendobj\n");
+        }
+        int xref = out.size();
+        write(out, table + "trailer\n<< /Size " + (objects.length + 1) + " /Root 1 0 R "
+                + trailerEntries.replace("XREF", String.valueOf(xref)) + ">>\nstartxref\n" + xref + "\n%%EOF\n");
+        return out.toByteArray();
+    }
+
+    //first occurrence only; the offsets stay valid as long as the length is kept or the change is in the last object
+    private static byte[] replace(byte[] content, String target, String replacement) {
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+        assertThat(text).contains(target);
+        return text.replaceFirst(Pattern.quote(target), Matcher.quoteReplacement(replacement))
+                .getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
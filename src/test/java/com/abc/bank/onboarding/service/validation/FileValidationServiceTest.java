@@ -3,11 +3,20 @@ package com.abc.bank.onboarding.service.validation;
 import com.abc.bank.onboarding.exception.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import utils.TestDocuments;
 
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -17,6 +26,9 @@ import static org.mockito.Mockito.when;
 
 class FileValidationServiceTest {
 
+    @TempDir
+    private Path directory;
+
     private FileValidationService fileValidationService;
 
     private static MultipartFile getMultipartFile(long t) {
@@ -28,7 +40,8 @@ class FileValidationServiceTest {
 
     @BeforeEach
     void setUp() {
-        fileValidationService = new FileValidationService();
+        fileValidationService = new FileValidationService(
+                new DocumentLimitsProperties(10_000, 10_000, DataSize.ofMegabytes(128), 64, 10));
     }
 
     @ParameterizedTest
@@ -85,4 +98,59 @@ class FileValidationServiceTest {
                 () -> fileValidationService.validateFile(file, "idProof"));
         assertTrue(ex.getMessage().contains("invalid content type"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_validate_document_of_unknown_size_on_content_type_only() {
+        assertDoesNotThrow(() -> fileValidationService.validateDocument(-1, "image/png", "photo"));
+
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> fileValidationService.validateDocument(0, "image/png", "photo"));
+        assertTrue(ex.getMessage().contains("photo missing or empty"));
+    }
+
+    @Test
+    void should_accept_documents_within_the_limits() {
+        assertDoesNotThrow(() -> fileValidationService.validateMetadata(
+                DocumentMetadata.image(4000, 3000, 24), "photo"));
+        assertDoesNotThrow(() -> fileValidationService.validateMetadata(DocumentMetadata.pdf(10), "idProof"));
+    }
+
+    @Test
+    void should_reject_image_beyond_dimension_depth_or_decoded_size_limits() {
+        assertThat(assertThrows(ValidationException.class, () -> fileValidationService.validateMetadata(
+                DocumentMetadata.image(20_000, 20_000, 24), "photo")).getMessage())
+                .isEqualTo("photo is 20000x20000 pixels (max 10000x10000)");
+        assertThat(assertThrows(ValidationException.class, () -> fileValidationService.validateMetadata(
+                DocumentMetadata.image(100, 100, 96), "photo")).getMessage())
+                .isEqualTo("photo has 96 bits per pixel (max 64)");
+        // within width and height, but 800MB once decoded
+        assertThat(assertThrows(ValidationException.class, () -> fileValidationService.validateMetadata(
+                DocumentMetadata.image(10_000, 10_000, 64), "photo")).getMessage())
+                .isEqualTo("photo decodes to 800000000 bytes (max 134217728)");
+    }
+
+    @Test
+    void should_reject_pdf_with_too_many_pages() {
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> fileValidationService.validateMetadata(DocumentMetadata.pdf(500), "idProof"));
+
+        assertThat(ex.getMessage()).isEqualTo("idProof has 500 pages (max 10)");
+    }
+
+    @Test
+    void should_check_limits_from_the_headers_of_the_staged_content() throws Exception {
+        Path bomb = Files.write(directory.resolve("bomb.png"), TestDocuments.pngHeader(20_000, 20_000, 8, 2));
+        Path unreadable = Files.write(directory.resolve("broken.pdf"), "%PDF-1.7 broken".getBytes());
+
+        try (FileChannel content = FileChannel.open(bomb, READ)) {
+            assertThat(assertThrows(ValidationException.class,
+                    () -> fileValidationService.validateContent(content, "image/png", "photo")).getMessage())
+                    .contains("20000x20000");
+        }
+        try (FileChannel content = FileChannel.open(unreadable, READ)) {
+            assertThat(assertThrows(ValidationException.class,
+                    () -> fileValidationService.validateContent(content, "application/pdf", "idProof")).getMessage())
+                    .isEqualTo("idProof is not a well-formed application/pdf document");
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.abc.bank.onboarding.service.validation;
 import com.abc.bank.onboarding.dto.CustomerOnboardRequest;
 import com.abc.bank.onboarding.exception.ValidationException;
 import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -13,6 +16,7 @@ import java.util.stream.Stream;
 import static com.abc.bank.onboarding.dto.Gender.MALE;
 import static jakarta.validation.Validation.buildDefaultValidatorFactory;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -55,7 +59,7 @@ class RequestValidationServiceTest {
     @BeforeEach
     void setUp() {
         Validator validator = buildDefaultValidatorFactory().getValidator();
-        service = new RequestValidationService(validator);
+        service = new RequestValidationService(validator, new CustomerOnboardRequestValidator(validator));
     }
 
     @ParameterizedTest(name = "should_{1}_validation_for_request")
@@ -71,6 +75,18 @@ class RequestValidationServiceTest {
         }
     }
 
+    @Test
+    void should_validate_other_requests_with_bean_validation() {
+        ValidationException ex = assertThrows(ValidationException.class,
+                () -> service.validate(new Contact(" ", "seif.jemli@domain.com")));
+
+        assertEquals("name: Name is required", ex.getMessage());
+        assertDoesNotThrow(() -> service.validate(new Contact("Seif", "seif.jemli@domain.com")));
+    }
+
+    private record Contact(@NotBlank(message = "Name is required") String name, @Email String email) {
+    }
+
     private record TestCase(CustomerOnboardRequest request, boolean isValid, String expectedField) {
     }
 }
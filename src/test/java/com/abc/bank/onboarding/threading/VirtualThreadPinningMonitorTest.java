@@ -0,0 +1,68 @@
+package com.abc.bank.onboarding.threading;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(20), meterRegistry);
+    }
+
+    @Test
+    void should_aggregate_pinning_on_first_application_frame() {
+        List<String> frames = List.of(
+                "java.lang.Object.wait0:-1",
+                "com.abc.bank.onboarding.service.storage.DocumentStore.store:120",
+                "com.abc.bank.onboarding.service.CustomerOnboardingService.onboard:60");
+
+        monitor.record(Duration.ofMillis(30), frames);
+        monitor.record(Duration.ofMillis(50), frames);
+
+        assertThat(monitor.report()).containsExactly(new PinningSite(
+                "com.abc.bank.onboarding.service.storage.DocumentStore.store:120",
+                "java.lang.Object.wait0:-1", 2, 80.0, 50.0));
+        assertThat(meterRegistry.get("onboarding.virtual.threads.pinned").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void should_fall_back_to_top_frame_and_sort_sites_by_total_time() {
+        monitor.record(Duration.ofMillis(25), List.of("sun.nio.ch.Net.poll:-1", "java.net.Socket.read:10"));
+        monitor.record(Duration.ofMillis(100), List.of());
+
+        assertThat(monitor.report())
+                .extracting(PinningSite::site)
+                .containsExactly("unknown", "sun.nio.ch.Net.poll:-1");
+    }
+
+    @Test
+    void should_serve_report_through_endpoint() {
+        monitor.record(Duration.ofMillis(25), List.of("sun.nio.ch.Net.poll:-1"));
+
+        assertThat(new VirtualThreadPinningEndpoint(monitor).sites()).isEqualTo(monitor.report());
+    }
+
+    @Test
+    void should_open_and_close_recording_stream_with_lifecycle() {
+        monitor.start();
+        try {
+            assertThat(monitor.isRunning()).isTrue();
+        } finally {
+            monitor.stop();
+        }
+
+        assertThat(monitor.isRunning()).isFalse();
+        monitor.stop();
+    }
+}
@@ -0,0 +1,145 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server accepting every message, for tests and benchmarks of the mail senders.
+ * <p>
+ * {@code connectionSetupMillis} delays the greeting to simulate the cost of the TCP and TLS handshakes of a real
+ * server. Recipients starting with {@code reject} are refused with a 550, and {@link #dropConnections()} closes the
+ * open connections as a server timing out idle clients would.
+ */
+public class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final long connectionSetupMillis;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final List<String> recipients = new CopyOnWriteArrayList<>();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    public FakeSmtpServer(long connectionSetupMillis) {
+        this.connectionSetupMillis = connectionSetupMillis;
+        try {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        executor.execute(this::acceptLoop);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    public int messages() {
+        return recipients.size();
+    }
+
+    public List<String> recipients() {
+        return recipients;
+    }
+
+    public void dropConnections() throws IOException {
+        for (Socket socket : openSockets) {
+            socket.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropConnections();
+        executor.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                openSockets.add(socket);
+                executor.execute(() -> handle(socket));
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             OutputStream out = socket.getOutputStream()) {
+            Thread.sleep(connectionSetupMillis);
+            reply(out, "220 localhost fake SMTP");
+            String recipient = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "MAIL" -> {
+                        recipient = null;
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        String address = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+                        if (address.startsWith("reject")) {
+                            reply(out, "550 mailbox unavailable");
+                        } else {
+                            recipient = address;
+                            reply(out, "250 OK");
+                        }
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 end data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // message content is discarded
+                        }
+                        recipients.add(recipient);
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 bye");
+                        return;
+                    }
+                    default -> reply(out, "502 command not implemented");
+                }
+            }
+        } catch (SocketException ex) {
+            // connection dropped by either side
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}
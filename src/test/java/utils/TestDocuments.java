@@ -0,0 +1,123 @@
+package utils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * Well-formed documents of about a given size, for tests and load tests that need more than the fixture files.
+ * The content is seeded noise, so it neither compresses nor deduplicates: two documents with different seeds are
+ * stored twice.
+ */
+public final class TestDocuments {
+
+    private TestDocuments() {
+    }
+
+    //RGB noise barely compresses, so the PNG is about 3 bytes per pixel
+    public static byte[] png(int approximateSize, long seed) {
+        int side = Math.max(1, (int) Math.sqrt(approximateSize / 3.0));
+        BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(approximateSize + 1024);
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    //small RGB noise, baseline JPEG
+    public static byte[] jpeg(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "jpeg", out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    //a PNG whose IHDR chunk declares the given image, without any pixel: what a decompression bomb shows up front
+    public static byte[] pngHeader(int width, int height, int bitDepth, int colorType) {
+        ByteBuffer ihdr = ByteBuffer.allocate(17).put("IHDR".getBytes(StandardCharsets.US_ASCII))
+                .putInt(width).putInt(height).put((byte) bitDepth).put((byte) colorType).put(new byte[3]);
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        return ByteBuffer.allocate(33 + 12)
+                .put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})
+                .putInt(13).put(ihdr.array()).putInt((int) crc.getValue())
+                .putInt(0).put("IEND".getBytes(StandardCharsets.US_ASCII)).putInt(0xAE426082)
+                .array();
+    }
+
+    //one page whose content stream is padded with noise up to the requested size
+    public static byte[] pdf(int approximateSize, long seed) {
+        byte[] padding = new byte[Math.max(0, approximateSize - 512)];
+        new Random(seed).nextBytes(padding);
+        return pdf(1, padding);
+    }
+
+    //pages sharing an empty content stream
+    public static byte[] pdfWithPages(int pages) {
+        return pdf(pages, new byte[0]);
+    }
+
+    private static byte[] pdf(int pages, byte[] padding) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(padding.length + 1024 + pages * 96);
+        List<Integer> offsets = new ArrayList<>();
+        StringBuilder kids = new StringBuilder();
+        for (int page = 0; page < pages; page++) {
+            kids.append(page == 0 ? "" : " ").append(page + 4).append(" 0 R");
+        }
+        write(out, "%PDF-1.7\n");
+        offsets.add(out.size());
+        write(out, "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+        offsets.add(out.size());
+        write(out, "2 0 obj\n<< /Type /Pages /Kids [" + kids + "] /Count " + pages + " >>\nendobj\n");
+        offsets.add(out.size());
+        write(out, "3 0 obj\n<< /Length " + padding.length + " >>\nstream\n");
+        out.writeBytes(padding);
+        write(out, "\nendstream\nendobj\n");
+        for (int page = 0; page < pages; page++) {
+            offsets.add(out.size());
+            write(out, (page + 4) + " 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] /Contents 3 0 R >>"
+                    + "\nendobj\n");
+        }
+
+        int xref = out.size();
+        StringBuilder trailer = new StringBuilder("xref\n0 ").append(offsets.size() + 1).append("\n0000000000 65535 f \n");
+        for (int offset : offsets) {
+            trailer.append(String.format("%010d 00000 n \n", offset));
+        }
+        trailer.append("trailer\n<< /Size ").append(offsets.size() + 1).append(" /Root 1 0 R >>\n")
+                .append("startxref\n").append(xref).append("\n%%EOF\n");
+        write(out, trailer.toString());
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}